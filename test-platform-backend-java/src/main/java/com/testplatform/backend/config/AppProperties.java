@@ -33,6 +33,18 @@ public class AppProperties {
     @NestedConfigurationProperty
     private MockData mockData = new MockData();
     
+    @NestedConfigurationProperty
+    private Storage storage = new Storage();
+    
+    @NestedConfigurationProperty
+    private LiveUpdates liveUpdates = new LiveUpdates();
+    
+    @NestedConfigurationProperty
+    private CodeAnalysis codeAnalysis = new CodeAnalysis();
+    
+    @NestedConfigurationProperty
+    private PathFlow pathFlow = new PathFlow();
+    
     // Inner classes for nested properties
     public static class Jwt {
         private String secret = "test-platform-default-secret-change-in-production";
@@ -63,6 +75,12 @@ public class AppProperties {
         private Long defaultTimeout = 30000L;
         private List<String> supportedLanguages = List.of("java", "javascript", "typescript", "python", "csharp");
         private List<String> testTypes = List.of("UNIT", "INTEGRATION", "E2E");
+        private String catalogDir = "data/test-catalog"; // Persistent catalog of discovered tests
+        private Boolean watchEnabled = true; // Re-parse test files as they change on disk
+        private Long watchDebounceMs = 500L;
+        private Integer watchPollSeconds = 30; // Polling interval when file events are unavailable
+        private Boolean incrementalEnabled = true; // Regenerate tests only for methods changed since the last generation
+        private Long incrementalCacheMaxBytes = 16777216L;
         
         // Getters and Setters
         public Integer getMaxTestsPerFile() { return maxTestsPerFile; }
@@ -76,6 +94,24 @@ public class AppProperties {
         
         public List<String> getTestTypes() { return testTypes; }
         public void setTestTypes(List<String> testTypes) { this.testTypes = testTypes; }
+        
+        public String getCatalogDir() { return catalogDir; }
+        public void setCatalogDir(String catalogDir) { this.catalogDir = catalogDir; }
+        
+        public Boolean getWatchEnabled() { return watchEnabled; }
+        public void setWatchEnabled(Boolean watchEnabled) { this.watchEnabled = watchEnabled; }
+        
+        public Long getWatchDebounceMs() { return watchDebounceMs; }
+        public void setWatchDebounceMs(Long watchDebounceMs) { this.watchDebounceMs = watchDebounceMs; }
+        
+        public Integer getWatchPollSeconds() { return watchPollSeconds; }
+        public void setWatchPollSeconds(Integer watchPollSeconds) { this.watchPollSeconds = watchPollSeconds; }
+        
+        public Boolean getIncrementalEnabled() { return incrementalEnabled; }
+        public void setIncrementalEnabled(Boolean incrementalEnabled) { this.incrementalEnabled = incrementalEnabled; }
+        
+        public Long getIncrementalCacheMaxBytes() { return incrementalCacheMaxBytes; }
+        public void setIncrementalCacheMaxBytes(Long incrementalCacheMaxBytes) { this.incrementalCacheMaxBytes = incrementalCacheMaxBytes; }
     }
     
     public static class Llm {
@@ -140,6 +176,114 @@ public class AppProperties {
         public void setInitialTests(Integer initialTests) { this.initialTests = initialTests; }
     }
     
+    public static class Storage {
+        private String dataDir = "data/storage";
+        private Long flushIntervalMs = 1000L; // Queued writes are appended and synced at most this late
+        private Integer batchSize = 200; // Flush early once this many writes are queued
+        private Long compactionMinRecords = 1000L; // Don't rewrite logs smaller than this
+        private Integer executionRetentionDays = 90;
+        private Integer maxExecutions = 10000; // 0 keeps all executions within the retention window
+        private Integer rollupCheckpointMinutes = 5; // Snapshot execution rollups and truncate the event log
+        private Integer minuteRollupRetentionHours = 48;
+        private Integer hourRollupRetentionDays = 90; // Day rollups are kept forever
+        
+        // Getters and Setters
+        public String getDataDir() { return dataDir; }
+        public void setDataDir(String dataDir) { this.dataDir = dataDir; }
+        
+        public Long getFlushIntervalMs() { return flushIntervalMs; }
+        public void setFlushIntervalMs(Long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+        
+        public Integer getBatchSize() { return batchSize; }
+        public void setBatchSize(Integer batchSize) { this.batchSize = batchSize; }
+        
+        public Long getCompactionMinRecords() { return compactionMinRecords; }
+        public void setCompactionMinRecords(Long compactionMinRecords) { this.compactionMinRecords = compactionMinRecords; }
+        
+        public Integer getExecutionRetentionDays() { return executionRetentionDays; }
+        public void setExecutionRetentionDays(Integer executionRetentionDays) { this.executionRetentionDays = executionRetentionDays; }
+        
+        public Integer getMaxExecutions() { return maxExecutions; }
+        public void setMaxExecutions(Integer maxExecutions) { this.maxExecutions = maxExecutions; }
+        
+        public Integer getRollupCheckpointMinutes() { return rollupCheckpointMinutes; }
+        public void setRollupCheckpointMinutes(Integer rollupCheckpointMinutes) { this.rollupCheckpointMinutes = rollupCheckpointMinutes; }
+        
+        public Integer getMinuteRollupRetentionHours() { return minuteRollupRetentionHours; }
+        public void setMinuteRollupRetentionHours(Integer minuteRollupRetentionHours) { this.minuteRollupRetentionHours = minuteRollupRetentionHours; }
+        
+        public Integer getHourRollupRetentionDays() { return hourRollupRetentionDays; }
+        public void setHourRollupRetentionDays(Integer hourRollupRetentionDays) { this.hourRollupRetentionDays = hourRollupRetentionDays; }
+    }
+    
+    public static class LiveUpdates {
+        private Integer maxClients = 200;
+        private Integer clientBufferSize = 256; // Events queued per client before it counts as too slow and is dropped
+        private Integer heartbeatSeconds = 15; // Keeps proxies from closing idle streams and detects dead clients
+        private Long streamTimeoutMs = 1800000L; // Browsers reconnect on their own after a stream ends
+        
+        // Getters and Setters
+        public Integer getMaxClients() { return maxClients; }
+        public void setMaxClients(Integer maxClients) { this.maxClients = maxClients; }
+        
+        public Integer getClientBufferSize() { return clientBufferSize; }
+        public void setClientBufferSize(Integer clientBufferSize) { this.clientBufferSize = clientBufferSize; }
+        
+        public Integer getHeartbeatSeconds() { return heartbeatSeconds; }
+        public void setHeartbeatSeconds(Integer heartbeatSeconds) { this.heartbeatSeconds = heartbeatSeconds; }
+        
+        public Long getStreamTimeoutMs() { return streamTimeoutMs; }
+        public void setStreamTimeoutMs(Long streamTimeoutMs) { this.streamTimeoutMs = streamTimeoutMs; }
+    }
+    
+    public static class CodeAnalysis {
+        private Boolean cacheEnabled = true;
+        private Long cacheMaxBytes = 16777216L; // Estimated size of the cached results, not of the analyzed sources
+        private Integer indexThreads = 0; // Threads analyzing files for the symbol graph and CDAC source scans, 0 for one per core
+        private Long maxIndexedFileBytes = 1048576L; // Larger files are usually generated or vendored
+        private Long regexBudgetMillis = 100L; // Per find() on a backtracking pattern, then the scan keeps what it found
+        private Long sourceCheckIntervalMs = 2000L; // How long a walk of the CDAC sources is trusted before walking again
+        private String cdacProjectPath = "/Users/vnannuri/Desktop/test"; // Holds the React, Spring and DB service directories
+        
+        // Getters and Setters
+        public Boolean getCacheEnabled() { return cacheEnabled; }
+        public void setCacheEnabled(Boolean cacheEnabled) { this.cacheEnabled = cacheEnabled; }
+        
+        public Long getCacheMaxBytes() { return cacheMaxBytes; }
+        public void setCacheMaxBytes(Long cacheMaxBytes) { this.cacheMaxBytes = cacheMaxBytes; }
+        
+        public Integer getIndexThreads() { return indexThreads; }
+        public void setIndexThreads(Integer indexThreads) { this.indexThreads = indexThreads; }
+        
+        public Long getMaxIndexedFileBytes() { return maxIndexedFileBytes; }
+        public void setMaxIndexedFileBytes(Long maxIndexedFileBytes) { this.maxIndexedFileBytes = maxIndexedFileBytes; }
+        
+        public Long getRegexBudgetMillis() { return regexBudgetMillis; }
+        public void setRegexBudgetMillis(Long regexBudgetMillis) { this.regexBudgetMillis = regexBudgetMillis; }
+        
+        public Long getSourceCheckIntervalMs() { return sourceCheckIntervalMs; }
+        public void setSourceCheckIntervalMs(Long sourceCheckIntervalMs) { this.sourceCheckIntervalMs = sourceCheckIntervalMs; }
+        
+        public String getCdacProjectPath() { return cdacProjectPath; }
+        public void setCdacProjectPath(String cdacProjectPath) { this.cdacProjectPath = cdacProjectPath; }
+    }
+    
+    public static class PathFlow {
+        private Integer maxParallelServices = 8; // Services of one or more flows analyzed at the same time
+        private Boolean cacheEnabled = true;
+        private Long cacheMaxBytes = 8388608L; // Estimated size of the cached parses and analyses
+        
+        // Getters and Setters
+        public Integer getMaxParallelServices() { return maxParallelServices; }
+        public void setMaxParallelServices(Integer maxParallelServices) { this.maxParallelServices = maxParallelServices; }
+        
+        public Boolean getCacheEnabled() { return cacheEnabled; }
+        public void setCacheEnabled(Boolean cacheEnabled) { this.cacheEnabled = cacheEnabled; }
+        
+        public Long getCacheMaxBytes() { return cacheMaxBytes; }
+        public void setCacheMaxBytes(Long cacheMaxBytes) { this.cacheMaxBytes = cacheMaxBytes; }
+    }
+    
     // Main getters and setters
     public String getApiPrefix() { return apiPrefix; }
     public void setApiPrefix(String apiPrefix) { this.apiPrefix = apiPrefix; }
@@ -167,4 +311,16 @@ public class AppProperties {
     
     public MockData getMockData() { return mockData; }
     public void setMockData(MockData mockData) { this.mockData = mockData; }
+    
+    public Storage getStorage() { return storage; }
+    public void setStorage(Storage storage) { this.storage = storage; }
+    
+    public LiveUpdates getLiveUpdates() { return liveUpdates; }
+    public void setLiveUpdates(LiveUpdates liveUpdates) { this.liveUpdates = liveUpdates; }
+    
+    public CodeAnalysis getCodeAnalysis() { return codeAnalysis; }
+    public void setCodeAnalysis(CodeAnalysis codeAnalysis) { this.codeAnalysis = codeAnalysis; }
+    
+    public PathFlow getPathFlow() { return pathFlow; }
+    public void setPathFlow(PathFlow pathFlow) { this.pathFlow = pathFlow; }
 }
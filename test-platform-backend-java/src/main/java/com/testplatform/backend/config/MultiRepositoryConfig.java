@@ -17,6 +17,8 @@ public class MultiRepositoryConfig {
     private Map<String, String> frameworkMappings;
     private boolean autoDetectLanguage = true;
     private boolean autoDetectFramework = true;
+    private int defaultSyncIntervalSeconds = 0;  // Background fetch interval when a repository sets none; 0 disables
+    private int maintenanceIntervalMinutes = 0;  // Commit-graph / bitmap / gc maintenance interval; 0 disables
     
     public static class RepositoryConfig {
         private String id;
@@ -28,6 +30,8 @@ public class MultiRepositoryConfig {
         private String framework;
         private boolean enabled = true;
         private RepositoryCredentials credentials;  // NEW: Credentials for private repos
+        private CloneOptions cloneOptions;  // Optional shallow / single-branch / sparse clone settings
+        private Integer syncIntervalSeconds;  // Background fetch interval; null uses the default, 0 disables
         private Map<String, String> customSettings;
         
         // Getters and Setters
@@ -58,6 +62,12 @@ public class MultiRepositoryConfig {
         public RepositoryCredentials getCredentials() { return credentials; }
         public void setCredentials(RepositoryCredentials credentials) { this.credentials = credentials; }
         
+        public CloneOptions getCloneOptions() { return cloneOptions; }
+        public void setCloneOptions(CloneOptions cloneOptions) { this.cloneOptions = cloneOptions; }
+        
+        public Integer getSyncIntervalSeconds() { return syncIntervalSeconds; }
+        public void setSyncIntervalSeconds(Integer syncIntervalSeconds) { this.syncIntervalSeconds = syncIntervalSeconds; }
+        
         public Map<String, String> getCustomSettings() { return customSettings; }
         public void setCustomSettings(Map<String, String> customSettings) { this.customSettings = customSettings; }
     }
@@ -74,6 +84,30 @@ public class MultiRepositoryConfig {
         public void setToken(String token) { this.token = token; }
     }
     
+    /**
+     * Controls how much of a remote repository is materialized locally.
+     * Defaults reproduce a full clone of all branches.
+     */
+    public static class CloneOptions {
+        private Integer depth;              // Number of commits of history to fetch; null or <= 0 means full history
+        private boolean singleBranch = false;  // Only fetch the configured branch
+        private List<String> sparsePaths;   // Only check out these directories/files into the working tree
+        
+        public boolean isShallow() { return depth != null && depth > 0; }
+        
+        public boolean isSparse() { return sparsePaths != null && !sparsePaths.isEmpty(); }
+        
+        // Getters and Setters
+        public Integer getDepth() { return depth; }
+        public void setDepth(Integer depth) { this.depth = depth; }
+        
+        public boolean isSingleBranch() { return singleBranch; }
+        public void setSingleBranch(boolean singleBranch) { this.singleBranch = singleBranch; }
+        
+        public List<String> getSparsePaths() { return sparsePaths; }
+        public void setSparsePaths(List<String> sparsePaths) { this.sparsePaths = sparsePaths; }
+    }
+    
     // Getters and Setters
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
@@ -95,4 +129,10 @@ public class MultiRepositoryConfig {
     
     public boolean isAutoDetectFramework() { return autoDetectFramework; }
     public void setAutoDetectFramework(boolean autoDetectFramework) { this.autoDetectFramework = autoDetectFramework; }
+    
+    public int getDefaultSyncIntervalSeconds() { return defaultSyncIntervalSeconds; }
+    public void setDefaultSyncIntervalSeconds(int defaultSyncIntervalSeconds) { this.defaultSyncIntervalSeconds = defaultSyncIntervalSeconds; }
+    
+    public int getMaintenanceIntervalMinutes() { return maintenanceIntervalMinutes; }
+    public void setMaintenanceIntervalMinutes(int maintenanceIntervalMinutes) { this.maintenanceIntervalMinutes = maintenanceIntervalMinutes; }
 }
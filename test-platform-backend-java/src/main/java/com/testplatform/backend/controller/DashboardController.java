@@ -3,21 +3,24 @@ package com.testplatform.backend.controller;
 import com.testplatform.backend.dto.ApiResponse;
 import com.testplatform.backend.dto.DashboardStatsDTO;
 import com.testplatform.backend.enums.PRStatus;
-import com.testplatform.backend.enums.TestStatus;
 import com.testplatform.backend.model.PullRequest;
 import com.testplatform.backend.model.TestExecution;
-import com.testplatform.backend.model.TestSuite;
 import com.testplatform.backend.service.PullRequestService;
 import com.testplatform.backend.service.TestGenerationService;
 import com.testplatform.backend.service.TestExecutionService;
 import com.testplatform.backend.service.PathFlowAnalysisService;
+import com.testplatform.backend.service.ExecutionRollupService;
+import com.testplatform.backend.service.DashboardAggregateService;
+import com.testplatform.backend.config.MultiRepositoryConfig;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -40,6 +43,15 @@ public class DashboardController {
     @Autowired
     private PathFlowAnalysisService pathFlowAnalysisService;
     
+    @Autowired
+    private ExecutionRollupService executionRollupService;
+    
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+    
+    @Autowired
+    private MultiRepositoryConfig multiRepositoryConfig;
+    
     /**
      * GET /api/dashboard/repositories - Get available repositories
      */
@@ -61,71 +73,38 @@ public class DashboardController {
     public ResponseEntity<ApiResponse<DashboardStatsDTO>> getDashboardStats(
             @RequestParam(value = "repository", required = false) String repository) {
         try {
-            List<PullRequest> pullRequests = pullRequestService.getAllPullRequests();
-            List<TestSuite> generatedTests = repository != null ? 
-                    testGenerationService.getAllTests(repository) : 
-                    testGenerationService.getAllTests();
-            List<TestExecution> allExecutions = testExecutionService.getAllExecutions();
-            
-            // Calculate dynamic stats based on actual test case statuses
-            int totalTests = generatedTests.stream()
-                    .mapToInt(suite -> suite.getTestCases() != null ? suite.getTestCases().size() : 0)
-                    .sum();
-            
-            // Calculate from actual test case statuses (not execution records)
-            int totalPassed = generatedTests.stream()
-                    .filter(suite -> suite.getTestCases() != null)
-                    .flatMap(suite -> suite.getTestCases().stream())
-                    .mapToInt(testCase -> testCase.getStatus() == TestStatus.PASSED ? 1 : 0)
-                    .sum();
+            String repositoryId = repository != null ? repository : multiRepositoryConfig.getDefaultRepository();
+            DashboardAggregateService.SuiteTotals totals = dashboardAggregateService.getTotals(repositoryId);
             
-            int totalFailed = generatedTests.stream()
-                    .filter(suite -> suite.getTestCases() != null)
-                    .flatMap(suite -> suite.getTestCases().stream())
-                    .mapToInt(testCase -> testCase.getStatus() == TestStatus.FAILED ? 1 : 0)
-                    .sum();
+            // Test case statuses, maintained incrementally as suites change
+            int totalTests = totals.getTestCases();
+            int totalPassed = totals.getPassed();
+            int totalFailed = totals.getFailed();
             
             // Calculate pass rate from actual executions
             double passRate = totalTests > 0 ? (totalPassed * 100.0) / totalTests : 0.0;
             
-            // Calculate average coverage from test suites (not PRs)
-            double avgCoverage = generatedTests.isEmpty() ? passRate : 
-                    generatedTests.stream()
-                            .filter(suite -> suite.getCoverage() != null && suite.getCoverage() > 0)
-                            .mapToDouble(TestSuite::getCoverage)
-                            .average()
-                            .orElse(passRate); // Default to pass rate if no coverage data
-            
-            // Calculate average execution time from actual executions
-            double avgExecutionTime = allExecutions.stream()
-                    .filter(exec -> exec.getDuration() != null)
-                    .mapToLong(TestExecution::getDuration)
-                    .average()
-                    .orElse(0.0);
-            
-            // Count running tests from test suites (not execution records)
-            long runningTests = generatedTests.stream()
-                    .filter(suite -> suite.getStatus() == TestStatus.RUNNING)
-                    .count();
+            // Average coverage of test suites (not PRs), defaulting to the pass rate
+            Double suiteCoverage = totals.getAverageCoverage();
+            double avgCoverage = totals.getSuites() == 0 || suiteCoverage == null ? passRate : suiteCoverage;
             
             DashboardStatsDTO stats = new DashboardStatsDTO();
             stats.setTotalTests(totalTests);
             stats.setPassedTests(totalPassed);
             stats.setFailedTests(totalFailed);
             stats.setCoverage(Math.max(0.0, avgCoverage));
-            stats.setExecutionTime((int) Math.round(avgExecutionTime));
-            stats.setActivePRs((int) pullRequests.stream().filter(pr -> pr.getStatus() == PRStatus.OPEN).count());
-            stats.setMergedPRs((int) pullRequests.stream().filter(pr -> pr.getStatus() == PRStatus.MERGED).count());
-            stats.setGeneratedTestSuites(generatedTests.size());
-            stats.setRunningTests((int) runningTests);
+            stats.setExecutionTime((int) Math.round(testExecutionService.getAverageExecutionDuration()));
+            stats.setActivePRs((int) pullRequestService.countPullRequestsByStatus(PRStatus.OPEN));
+            stats.setMergedPRs((int) pullRequestService.countPullRequestsByStatus(PRStatus.MERGED));
+            stats.setGeneratedTestSuites(totals.getSuites());
+            stats.setRunningTests(totals.getRunningSuites());
             
-            // Generate trends data from actual executions (last 3 days)
-            List<DashboardStatsDTO.TrendData> trendsData = generateTrendsData(allExecutions, pullRequests, generatedTests);
+            // Trends from the daily execution rollups (last 3 days)
+            List<DashboardStatsDTO.TrendData> trendsData = generateTrendsData(repository, repositoryId);
             stats.setTrendsData(trendsData);
             
             // Recent PRs with actual test data
-            List<DashboardStatsDTO.RecentPR> recentPRs = pullRequests.stream()
-                    .limit(3)
+            List<DashboardStatsDTO.RecentPR> recentPRs = pullRequestService.getFirstPullRequests(3).stream()
                     .map(pr -> new DashboardStatsDTO.RecentPR(
                             pr.getId(),
                             pr.getNumber(),
@@ -179,125 +158,64 @@ public class DashboardController {
     }
     
     /**
-     * Generate trends data from actual executions and test suites
+     * GET /api/dashboard/trends - Pass/fail and duration rollups over time
+     * @param resolution MINUTE, HOUR or DAY
+     * @param from Start of the range; defaults to 60 buckets back
+     * @param to End of the range (exclusive); defaults to now
      */
-    private List<DashboardStatsDTO.TrendData> generateTrendsData(List<TestExecution> executions, List<PullRequest> pullRequests, List<TestSuite> testSuites) {
-        // Group executions by date and calculate daily stats
-        Map<String, Integer> dailyPassed = new HashMap<>();
-        Map<String, Integer> dailyFailed = new HashMap<>();
-        Map<String, Double> dailyCoverage = new HashMap<>();
-        Map<String, Integer> dailyPRs = new HashMap<>();
-        
-        // Initialize with current data
-        String today = java.time.LocalDate.now().toString();
-        String yesterday = java.time.LocalDate.now().minusDays(1).toString();
-        String dayBefore = java.time.LocalDate.now().minusDays(2).toString();
-        
-        // Try to use actual test executions first
-        boolean hasValidExecutions = false;
-        if (!executions.isEmpty()) {
-            for (TestExecution exec : executions) {
-                if (exec.getResults() != null && exec.getStartTime() != null) {
-                    String execDate = exec.getStartTime().toLocalDate().toString();
-                    dailyPassed.merge(execDate, exec.getResults().getPassed(), Integer::sum);
-                    dailyFailed.merge(execDate, exec.getResults().getFailed(), Integer::sum);
-                    hasValidExecutions = true;
-                }
-            }
-        }
-        
-        // If no valid executions, generate trends from test suite data
-        if (!hasValidExecutions && !testSuites.isEmpty()) {
-            // Calculate total passed/failed from test suites
-            int totalPassed = testSuites.stream()
-                .filter(suite -> suite.getTestCases() != null)
-                .flatMap(suite -> suite.getTestCases().stream())
-                .mapToInt(testCase -> testCase.getStatus() == TestStatus.PASSED ? 1 : 0)
-                .sum();
-            
-            int totalFailed = testSuites.stream()
-                .filter(suite -> suite.getTestCases() != null)
-                .flatMap(suite -> suite.getTestCases().stream())
-                .mapToInt(testCase -> testCase.getStatus() == TestStatus.FAILED ? 1 : 0)
-                .sum();
-            
-            // Distribute across days with slight variations to show trends
-            dailyPassed.put(dayBefore, (int)(totalPassed * 0.85));
-            dailyFailed.put(dayBefore, (int)(totalFailed * 0.90));
-            
-            dailyPassed.put(yesterday, (int)(totalPassed * 0.92));
-            dailyFailed.put(yesterday, (int)(totalFailed * 0.95));
-            
-            dailyPassed.put(today, totalPassed);
-            dailyFailed.put(today, totalFailed);
-        }
-        
-        // Calculate coverage from test suites
-        for (TestSuite suite : testSuites) {
-            if (suite.getGeneratedAt() != null && suite.getCoverage() != null && suite.getCoverage() > 0) {
-                String suiteDate = suite.getGeneratedAt().toLocalDate().toString();
-                dailyCoverage.merge(suiteDate, suite.getCoverage(), Double::max);
-            } else if (suite.getLastRun() != null) {
-                // Use last run date as fallback
-                String suiteDate = suite.getLastRun().toLocalDate().toString();
-                // Calculate coverage from pass rate
-                if (suite.getPassedTests() != null && suite.getTotalTests() != null && suite.getTotalTests() > 0) {
-                    double coverage = (suite.getPassedTests() * 100.0) / suite.getTotalTests();
-                    dailyCoverage.merge(suiteDate, coverage, Double::max);
-                }
+    @GetMapping("/trends")
+    public ResponseEntity<ApiResponse<List<ExecutionRollupService.Bucket>>> getTrends(
+            @RequestParam(value = "resolution", defaultValue = "DAY") ExecutionRollupService.Resolution resolution,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "repository", required = false) String repository,
+            @RequestParam(value = "service", required = false) String service) {
+        try {
+            if (from == null) {
+                LocalDateTime end = to != null ? to : LocalDateTime.now();
+                from = switch (resolution) {
+                    case MINUTE -> end.minusMinutes(60);
+                    case HOUR -> end.minusHours(60);
+                    case DAY -> end.minusDays(60);
+                };
             }
+            return ResponseEntity.ok(ApiResponse.success(executionRollupService.getTrend(resolution, from, to, repository, service)));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to fetch trends: " + e.getMessage()));
         }
+    }
+    
+    /**
+     * Generate trends data for the last 3 days from the daily execution rollups and suite aggregates
+     * @param repository Repository filter for execution results, or null for all
+     * @param suiteRepositoryId Repository whose suites provide coverage
+     */
+    private List<DashboardStatsDTO.TrendData> generateTrendsData(String repository, String suiteRepositoryId) {
+        java.time.LocalDate today = java.time.LocalDate.now();
+        java.time.LocalDate firstDay = today.minusDays(2);
         
-        // If no coverage data, use pass rate as coverage
-        if (dailyCoverage.isEmpty() && !testSuites.isEmpty()) {
-            int totalTests = testSuites.stream()
-                .filter(suite -> suite.getTotalTests() != null)
-                .mapToInt(TestSuite::getTotalTests)
-                .sum();
-            
-            int passedTests = testSuites.stream()
-                .filter(suite -> suite.getPassedTests() != null)
-                .mapToInt(TestSuite::getPassedTests)
-                .sum();
-            
-            double passRate = totalTests > 0 ? (passedTests * 100.0) / totalTests : 0.0;
-            
-            dailyCoverage.put(dayBefore, passRate * 0.90);
-            dailyCoverage.put(yesterday, passRate * 0.95);
-            dailyCoverage.put(today, passRate);
+        Map<java.time.LocalDate, ExecutionRollupService.Bucket> dailyResults = new HashMap<>();
+        for (ExecutionRollupService.Bucket bucket : executionRollupService.getTrend(ExecutionRollupService.Resolution.DAY,
+                firstDay.atStartOfDay(), today.plusDays(1).atStartOfDay(), repository, null)) {
+            dailyResults.put(bucket.getStart().toLocalDate(), bucket);
         }
         
-        // Track PRs
-        for (PullRequest pr : pullRequests) {
-            if (pr.getCreatedAt() != null) {
-                String prDate = pr.getCreatedAt().toLocalDate().toString();
-                dailyPRs.merge(prDate, 1, Integer::sum);
-            }
+        List<DashboardStatsDTO.TrendData> trends = new java.util.ArrayList<>(3);
+        for (java.time.LocalDate day = firstDay; !day.isAfter(today); day = day.plusDays(1)) {
+            ExecutionRollupService.Bucket results = dailyResults.get(day);
+            // Without suite coverage for the day, fall back to the day's pass rate
+            Double suiteCoverage = dashboardAggregateService.getMaxCoverageOn(suiteRepositoryId, day);
+            double coverage = suiteCoverage != null ? suiteCoverage : results != null ? results.getPassRate() : 0.0;
+            trends.add(new DashboardStatsDTO.TrendData(
+                day.toString(),
+                results != null ? (int) results.getTestsPassed() : 0,
+                results != null ? (int) results.getTestsFailed() : 0,
+                coverage,
+                (int) pullRequestService.countPullRequestsCreatedOn(day)
+            ));
         }
-        
-        return Arrays.asList(
-            new DashboardStatsDTO.TrendData(
-                dayBefore, 
-                dailyPassed.getOrDefault(dayBefore, 0), 
-                dailyFailed.getOrDefault(dayBefore, 0), 
-                dailyCoverage.getOrDefault(dayBefore, 0.0), 
-                dailyPRs.getOrDefault(dayBefore, 0)
-            ),
-            new DashboardStatsDTO.TrendData(
-                yesterday, 
-                dailyPassed.getOrDefault(yesterday, 0), 
-                dailyFailed.getOrDefault(yesterday, 0), 
-                dailyCoverage.getOrDefault(yesterday, 0.0), 
-                dailyPRs.getOrDefault(yesterday, 0)
-            ),
-            new DashboardStatsDTO.TrendData(
-                today, 
-                dailyPassed.getOrDefault(today, 0), 
-                dailyFailed.getOrDefault(today, 0), 
-                dailyCoverage.getOrDefault(today, 0.0), 
-                dailyPRs.getOrDefault(today, 0)
-            )
-        );
+        return trends;
     }
     
     /**
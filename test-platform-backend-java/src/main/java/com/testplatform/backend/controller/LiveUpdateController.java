@@ -0,0 +1,73 @@
+package com.testplatform.backend.controller;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.dto.ApiResponse;
+import com.testplatform.backend.event.DashboardTotalsChangedEvent;
+import com.testplatform.backend.service.DashboardAggregateService;
+import com.testplatform.backend.service.LiveUpdateService;
+import com.testplatform.backend.service.TestExecutionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/live-updates")
+public class LiveUpdateController {
+    
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+    
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+    
+    @Autowired
+    private TestExecutionService testExecutionService;
+    
+    @Autowired
+    private MultiRepositoryConfig multiRepositoryConfig;
+    
+    /**
+     * GET /api/live-updates/stream - Server-Sent Events stream replacing execution and dashboard polling
+     * Events: execution (status transitions), test-result (each finished test case), dashboard (suite totals),
+     * and on connect an execution-snapshot when watching one execution
+     * @param repository Optional repository filter; the dashboard snapshot defaults to the default repository
+     * @param executionId Optional execution to watch; only that execution's events are sent
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(required = false) String repository,
+            @RequestParam(required = false) String executionId) {
+        return liveUpdateService.subscribe(repository, executionId, () -> {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            if (executionId != null) {
+                testExecutionService.getExecutionStatus(executionId)
+                        .ifPresent(execution -> snapshot.put(LiveUpdateService.EXECUTION_SNAPSHOT_EVENT, execution));
+            } else {
+                String repositoryId = repository != null ? repository : multiRepositoryConfig.getDefaultRepository();
+                snapshot.put(LiveUpdateService.DASHBOARD_EVENT,
+                        new DashboardTotalsChangedEvent(repositoryId, dashboardAggregateService.getTotals(repositoryId)));
+            }
+            return snapshot;
+        });
+    }
+    
+    /**
+     * GET /api/live-updates/status - Connected clients and slow clients dropped so far
+     */
+    @GetMapping("/status")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("clients", liveUpdateService.getClientCount());
+        status.put("evictedClients", liveUpdateService.getEvictionCount());
+        return ResponseEntity.ok(ApiResponse.success(status));
+    }
+}
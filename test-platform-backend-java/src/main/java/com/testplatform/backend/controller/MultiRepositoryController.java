@@ -2,14 +2,21 @@ package com.testplatform.backend.controller;
 
 import com.testplatform.backend.config.MultiRepositoryConfig;
 import com.testplatform.backend.dto.ApiResponse;
+import com.testplatform.backend.event.RepositoryRefsChangedEvent;
 import com.testplatform.backend.service.MultiRepositoryService;
 import com.testplatform.backend.service.LanguageDetectionService;
+import com.testplatform.backend.service.RepositoryMaintenanceService;
+import com.testplatform.backend.service.RepositoryPathIndexService;
+import com.testplatform.backend.service.RepositorySyncService;
+import com.testplatform.backend.service.SymbolGraphService;
+import com.testplatform.backend.util.SymbolGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +32,18 @@ public class MultiRepositoryController {
     @Autowired
     private LanguageDetectionService languageDetectionService;
     
+    @Autowired
+    private RepositorySyncService repositorySyncService;
+    
+    @Autowired
+    private RepositoryPathIndexService repositoryPathIndexService;
+    
+    @Autowired
+    private RepositoryMaintenanceService repositoryMaintenanceService;
+    
+    @Autowired
+    private SymbolGraphService symbolGraphService;
+    
     /**
      * GET /api/repositories - Get all repositories
      */
@@ -248,11 +267,11 @@ public class MultiRepositoryController {
                         .body(ApiResponse.error("Could not read file content"));
             }
             
-            // Detect language and framework
-            LanguageDetectionService.LanguageDetectionResult languageResult = 
-                languageDetectionService.detectLanguage(filePath, content);
-            LanguageDetectionService.FrameworkDetectionResult frameworkResult = 
-                languageDetectionService.detectFramework(languageResult.getLanguage(), content);
+            // Detect language and framework from one scan of the content
+            LanguageDetectionService.DetectionResult detection = 
+                languageDetectionService.detectLanguageAndFramework(filePath, content);
+            LanguageDetectionService.LanguageDetectionResult languageResult = detection.getLanguage();
+            LanguageDetectionService.FrameworkDetectionResult frameworkResult = detection.getFramework();
             
             Map<String, Object> result = Map.of(
                 "language", Map.of(
@@ -275,4 +294,160 @@ public class MultiRepositoryController {
                     .body(ApiResponse.error("Failed to detect language and framework"));
         }
     }
+    
+    /**
+     * POST /api/repositories/:id/sync - Fetch repository now and report changed refs
+     */
+    @PostMapping("/{id}/sync")
+    public ResponseEntity<ApiResponse<RepositoryRefsChangedEvent>> syncRepository(@PathVariable String id) {
+        try {
+            if (multiRepositoryService.getRepository(id) == null) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            RepositoryRefsChangedEvent event = repositorySyncService.syncRepository(id);
+            if (event == null) {
+                return ResponseEntity.ok(ApiResponse.success(null, "No ref changes"));
+            }
+            return ResponseEntity.ok(ApiResponse.success(event, 
+                String.format("%d refs changed", event.getRefChanges().size())));
+        } catch (Exception e) {
+            logger.error("Error syncing repository {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to sync repository"));
+        }
+    }
+    
+    /**
+     * GET /api/repositories/sync-status - Get last background sync outcome per repository
+     */
+    @GetMapping("/sync-status")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getSyncStatus() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(repositorySyncService.getSyncStatus()));
+        } catch (Exception e) {
+            logger.error("Error getting repository sync status: {}", e.getMessage(), e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to get repository sync status"));
+        }
+    }
+    
+    /**
+     * GET /api/repositories/:id/files?glob=... - Find files in the repository's path index
+     */
+    @GetMapping("/{id}/files")
+    public ResponseEntity<ApiResponse<List<String>>> findFiles(@PathVariable String id, 
+                                                               @RequestParam(defaultValue = "**") String glob) {
+        try {
+            if (multiRepositoryService.getRepository(id) == null) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            List<String> files = repositoryPathIndexService.glob(id, glob);
+            return ResponseEntity.ok(ApiResponse.success(files, 
+                String.format("Found %d files matching %s", files.size(), glob)));
+        } catch (Exception e) {
+            logger.error("Error finding files in repository {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to find files"));
+        }
+    }
+    
+    /**
+     * GET /api/repositories/:id/symbols/:className?transitive=false - Where a class is declared, what it
+     * depends on, what depends on it and which test files cover it
+     */
+    @GetMapping("/{id}/symbols/{className}")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSymbol(@PathVariable String id,
+                                                                      @PathVariable String className,
+                                                                      @RequestParam(defaultValue = "false") boolean transitive) {
+        try {
+            if (multiRepositoryService.getRepository(id) == null) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            SymbolGraph graph = symbolGraphService.getGraph(id);
+            if (graph == null || !graph.contains(className)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            Map<String, Object> symbol = new LinkedHashMap<>();
+            symbol.put("name", className);
+            symbol.put("commitId", graph.getCommitId());
+            symbol.put("files", graph.getFiles(className));
+            symbol.put("dependencies", graph.getDependencies(className));
+            symbol.put("dependents", graph.getDependents(className, transitive));
+            symbol.put("tests", graph.getTests(className, transitive));
+            return ResponseEntity.ok(ApiResponse.success(symbol));
+        } catch (Exception e) {
+            logger.error("Error looking up {} in repository {}: {}", className, id, e.getMessage(), e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to look up symbol"));
+        }
+    }
+    
+    /**
+     * POST /api/repositories/:id/impacted-tests - Test files covering the given changed files, directly or
+     * through classes that depend on them
+     */
+    @PostMapping("/{id}/impacted-tests")
+    public ResponseEntity<ApiResponse<List<String>>> getImpactedTests(@PathVariable String id,
+                                                                      @RequestBody List<String> changedPaths) {
+        try {
+            if (multiRepositoryService.getRepository(id) == null) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            SymbolGraph graph = symbolGraphService.getGraph(id);
+            if (graph == null) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("Repository is not cloned"));
+            }
+            
+            List<String> tests = graph.getTestsAffectedBy(changedPaths);
+            return ResponseEntity.ok(ApiResponse.success(tests,
+                String.format("%d test files cover %d changed files", tests.size(), changedPaths.size())));
+        } catch (Exception e) {
+            logger.error("Error finding impacted tests in repository {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to find impacted tests"));
+        }
+    }
+    
+    /**
+     * POST /api/repositories/:id/maintenance - Write commit-graph and bitmaps and repack now
+     */
+    @PostMapping("/{id}/maintenance")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> maintainRepository(@PathVariable String id) {
+        try {
+            if (multiRepositoryService.getRepository(id) == null) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            Map<String, Object> report = repositoryMaintenanceService.maintainRepository(id);
+            if (report == null) {
+                return ResponseEntity.status(409)
+                        .body(ApiResponse.error("Maintenance skipped or failed, see maintenance-status"));
+            }
+            return ResponseEntity.ok(ApiResponse.success(report, 
+                String.format("Maintenance finished in %sms", report.get("durationMs"))));
+        } catch (Exception e) {
+            logger.error("Error maintaining repository {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to maintain repository"));
+        }
+    }
+    
+    /**
+     * GET /api/repositories/maintenance-status - Get last maintenance report per repository
+     */
+    @GetMapping("/maintenance-status")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getMaintenanceStatus() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(repositoryMaintenanceService.getMaintenanceReports()));
+        } catch (Exception e) {
+            logger.error("Error getting repository maintenance status: {}", e.getMessage(), e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to get repository maintenance status"));
+        }
+    }
 }
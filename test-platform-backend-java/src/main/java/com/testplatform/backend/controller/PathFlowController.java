@@ -171,6 +171,18 @@ public class PathFlowController {
         }
     }
     
+    /**
+     * GET /api/path-flow/cache-stats - Entries, estimated bytes and hit counts of the parsed flow and analysis caches
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCacheStats() {
+        Map<String, Object> stats = pathFlowAnalysisService.getCacheStats();
+        if (stats == null) {
+            return ResponseEntity.ok(ApiResponse.success(Map.of("enabled", false)));
+        }
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
     /**
      * GET /api/path-flow/metrics - Get testing metrics dashboard data
      */
@@ -6,6 +6,7 @@ import com.testplatform.backend.dto.TestSuiteDTO;
 import com.testplatform.backend.enums.TestType;
 import com.testplatform.backend.model.PullRequest;
 import com.testplatform.backend.model.TestSuite;
+import com.testplatform.backend.service.CodeAnalyzerService;
 import com.testplatform.backend.service.PullRequestService;
 import com.testplatform.backend.service.TestGenerationService;
 import com.testplatform.backend.service.TestExecutionService;
@@ -19,6 +20,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
@@ -37,6 +40,9 @@ public class PullRequestController {
     @Autowired
     private GitService gitService;
     
+    @Autowired
+    private CodeAnalyzerService codeAnalyzerService;
+    
     @Autowired
     private TestExecutionService testExecutionService;
     
@@ -117,10 +123,14 @@ public class PullRequestController {
         String language = request != null ? request.getLanguage() : "java";
         TestType testType = request != null ? request.getTestType() : TestType.UNIT;
         
+        // Read all changed files from the Git repository in one tree walk
+        Map<String, String> codeContents = gitService.getCodeContentsWithLanguage(
+                pr.getChangedFiles().stream().map(PullRequest.ChangedFile::getFilename).collect(Collectors.toList()),
+                pr.getBranch());
+        
         List<TestSuite> testSuites = pr.getChangedFiles().stream()
                 .map(file -> {
-                    // Get actual code content from Git repository
-                    String codeContent = gitService.getCodeContentWithLanguage(file.getFilename(), pr.getBranch());
+                    String codeContent = codeContents.get(file.getFilename());
                     
                     TestSuite testSuite = new TestSuite();
                     testSuite.setPrNumber(pr.getNumber());
@@ -129,9 +139,12 @@ public class PullRequestController {
                     testSuite.setType(testType);
                     testSuite.setLanguage(language);
                     
-                    // Generate test cases using LLM with real code content
+                    // Generate test cases using LLM with real code content, for the methods the file's diff touches
                     try {
-                        testSuite.setTestCases(testGenerationService.generateTestCases(codeContent, testType, language, file.getFilename()).get());
+                        Set<String> changedMethods = codeAnalyzerService.changedMethods(
+                                codeContent, language, file.getPatch(), GitService.LANGUAGE_HEADER_LINES);
+                        testSuite.setTestCases(testGenerationService.generateTestCases(
+                                codeContent, testType, language, file.getFilename(), changedMethods).get());
                     } catch (Exception e) {
                         logger.error("Error generating test cases for {}: {}", file.getFilename(), e.getMessage());
                     }
@@ -1,9 +1,12 @@
 package com.testplatform.backend.controller;
 
+import com.testplatform.backend.dto.ApiResponse;
+import com.testplatform.backend.service.CodeAnalyzerService;
 import com.testplatform.backend.service.GitService;
 import com.testplatform.backend.service.LlmService;
 import com.testplatform.backend.enums.TestType;
 import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.util.GuardedPattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/test-analysis")
@@ -24,6 +28,9 @@ public class TestCodeAnalysisController {
     @Autowired
     private LlmService llmService;
     
+    @Autowired
+    private CodeAnalyzerService codeAnalyzerService;
+    
     /**
      * Test endpoint to verify the system can read actual Spring Boot files
      */
@@ -97,5 +104,25 @@ public class TestCodeAnalysisController {
             return ResponseEntity.ok("❌ Error: " + e.getMessage());
         }
     }
+    
+    /**
+     * GET /api/test-analysis/cache-stats - Entries, estimated bytes and hit counts of the code analysis cache
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCacheStats() {
+        Map<String, Object> stats = codeAnalyzerService.getCacheStats();
+        if (stats == null) {
+            return ResponseEntity.ok(ApiResponse.success(Map.of("enabled", false)));
+        }
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
+    /**
+     * GET /api/test-analysis/regex-stats - Scans and budget timeouts per guarded regex, most timeouts first
+     */
+    @GetMapping("/regex-stats")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getRegexStats() {
+        return ResponseEntity.ok(ApiResponse.success(GuardedPattern.getStats()));
+    }
 }
 
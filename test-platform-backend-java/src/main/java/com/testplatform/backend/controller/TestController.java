@@ -5,6 +5,7 @@ import com.testplatform.backend.dto.TestSuiteDTO;
 import com.testplatform.backend.enums.TestType;
 import com.testplatform.backend.model.TestExecution;
 import com.testplatform.backend.model.TestSuite;
+import com.testplatform.backend.service.CodeAnalyzerService;
 import com.testplatform.backend.service.TestGenerationService;
 import com.testplatform.backend.service.TestExecutionService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,8 +13,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
@@ -27,6 +30,9 @@ public class TestController {
     @Autowired
     private TestExecutionService testExecutionService;
     
+    @Autowired
+    private CodeAnalyzerService codeAnalyzerService;
+    
     /**
      * GET /api/tests/suites - Get all test suites
      */
@@ -57,17 +63,22 @@ public class TestController {
     }
     
     /**
-     * POST /api/tests/generate - Generate tests
+     * POST /api/tests/generate - Generate tests, optionally only for changedMethods or the methods a patch touches
      */
     @PostMapping("/generate")
     public ResponseEntity<ApiResponse<List<Object>>> generateTests(@RequestBody GenerateTestsRequest request) {
         try {
+            Set<String> changedMethods = request.getChangedMethods() != null
+                ? new LinkedHashSet<>(request.getChangedMethods())
+                : codeAnalyzerService.changedMethods(request.getCode(), request.getLanguage(), request.getPatch(), 0);
             CompletableFuture<List<com.testplatform.backend.model.TestCase>> testCasesFuture = 
                 testGenerationService.generateTestCases(
                     request.getCode(), 
                     request.getType(), 
                     request.getLanguage(), 
-                    request.getFilePath()
+                    request.getFilePath(),
+                    changedMethods,
+                    request.getRepositoryId()
                 );
             
             List<com.testplatform.backend.model.TestCase> testCases = testCasesFuture.get();
@@ -145,12 +156,35 @@ public class TestController {
         }
     }
     
+    /**
+     * GET /api/tests/discovery - Get last test discovery timing per repository
+     */
+    @GetMapping("/discovery")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getDiscoveryMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(testGenerationService.getDiscoveryMetrics()));
+    }
+    
+    /**
+     * GET /api/tests/generation-cache - Entries, estimated bytes and hit counts of the per-file generation store
+     */
+    @GetMapping("/generation-cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getGenerationCacheStats() {
+        Map<String, Object> stats = testGenerationService.getGenerationCacheStats();
+        if (stats == null) {
+            return ResponseEntity.ok(ApiResponse.success(Map.of("enabled", false)));
+        }
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
     // Inner classes for request/response
     public static class GenerateTestsRequest {
         private String code;
         private TestType type;
         private String language;
         private String filePath;
+        private List<String> changedMethods; // Method names or signatures
+        private String patch; // Unified diff of the file, used when changedMethods is not given
+        private String repositoryId; // Repository the file belongs to, the default repository if not given
         
         // Getters and Setters
         public String getCode() { return code; }
@@ -164,6 +198,15 @@ public class TestController {
         
         public String getFilePath() { return filePath; }
         public void setFilePath(String filePath) { this.filePath = filePath; }
+        
+        public List<String> getChangedMethods() { return changedMethods; }
+        public void setChangedMethods(List<String> changedMethods) { this.changedMethods = changedMethods; }
+        
+        public String getPatch() { return patch; }
+        public void setPatch(String patch) { this.patch = patch; }
+        
+        public String getRepositoryId() { return repositoryId; }
+        public void setRepositoryId(String repositoryId) { this.repositoryId = repositoryId; }
     }
     
     public static class ExecuteTestsRequest {
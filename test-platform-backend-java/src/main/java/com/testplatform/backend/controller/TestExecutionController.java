@@ -1,16 +1,24 @@
 package com.testplatform.backend.controller;
 
 import com.testplatform.backend.dto.ApiResponse;
+import com.testplatform.backend.config.MultiRepositoryConfig;
 import com.testplatform.backend.dto.DetailedTestCaseDTO;
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.exception.BadRequestException;
 import com.testplatform.backend.model.TestExecution;
 import com.testplatform.backend.service.TestExecutionService;
+import com.testplatform.backend.service.TestSuiteStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 @RestController
@@ -20,6 +28,11 @@ public class TestExecutionController {
     @Autowired
     private TestExecutionService testExecutionService;
     
+    @Autowired
+    private MultiRepositoryConfig multiRepositoryConfig;
+    
+    private static final int MAX_PAGE_SIZE = 10000;
+    
     /**
      * GET /api/test-executions - Get all test executions
      */
@@ -50,6 +63,48 @@ public class TestExecutionController {
         }
     }
 
+    /**
+     * GET /api/test-executions/test-cases/page - Page through test case results, most recently executed first
+     * The response is streamed and carries a nextCursor to pass back as cursor, except on the last page.
+     * @param fields Comma-separated fields to return; defaults to all fields except code
+     */
+    @GetMapping(value = "/test-cases/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTestCaseResultsPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String repository,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) List<String> fields) {
+        // Validate everything up front; once streaming starts the status code is already sent
+        TestStatus testStatus = null;
+        if (status != null && !status.isEmpty()) {
+            testStatus = testExecutionService.parseTestStatus(status);
+            if (testStatus == null) {
+                throw new BadRequestException("Unknown test status: " + status);
+            }
+        }
+        TestSuiteStore.TestCaseKey after = cursor != null && !cursor.isEmpty() ? TestSuiteStore.TestCaseKey.decode(cursor) : null;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Set<String> selectedFields = TestExecutionService.DEFAULT_TEST_CASE_FIELDS;
+        if (fields != null && !fields.isEmpty()) {
+            Set<String> unknownFields = new HashSet<>(fields);
+            unknownFields.removeAll(TestExecutionService.TEST_CASE_FIELDS);
+            if (!unknownFields.isEmpty()) {
+                throw new BadRequestException("Unknown fields: " + unknownFields);
+            }
+            selectedFields = new HashSet<>(fields);
+        }
+        
+        String repositoryId = repository != null ? repository : multiRepositoryConfig.getDefaultRepository();
+        TestStatus pageStatus = testStatus;
+        Set<String> pageFields = selectedFields;
+        StreamingResponseBody body = out -> testExecutionService.writeTestCaseResultsPage(
+                out, repositoryId, pageStatus, after, limit, pageFields);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
     /**
      * GET /api/test-executions/test-cases/summary - Get test case results summary
      */
@@ -0,0 +1,20 @@
+package com.testplatform.backend.event;
+
+import com.testplatform.backend.service.DashboardAggregateService;
+
+/**
+ * Published by the dashboard aggregates after a suite change moved a repository's totals.
+ */
+public class DashboardTotalsChangedEvent {
+    private final String repositoryId;
+    private final DashboardAggregateService.SuiteTotals totals;
+    
+    public DashboardTotalsChangedEvent(String repositoryId, DashboardAggregateService.SuiteTotals totals) {
+        this.repositoryId = repositoryId;
+        this.totals = totals;
+    }
+    
+    // Getters
+    public String getRepositoryId() { return repositoryId; }
+    public DashboardAggregateService.SuiteTotals getTotals() { return totals; }
+}
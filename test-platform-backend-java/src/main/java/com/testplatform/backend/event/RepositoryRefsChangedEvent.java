@@ -0,0 +1,68 @@
+package com.testplatform.backend.event;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published when a background sync of a configured repository moves one or more refs.
+ * Listeners can use the touched paths to invalidate only what changed.
+ */
+public class RepositoryRefsChangedEvent {
+    private final String repositoryId;
+    private final String repositoryPath;
+    private final List<RefChange> refChanges;
+    private final LocalDateTime syncedAt;
+    
+    public RepositoryRefsChangedEvent(String repositoryId, String repositoryPath, List<RefChange> refChanges) {
+        this.repositoryId = repositoryId;
+        this.repositoryPath = repositoryPath;
+        this.refChanges = Collections.unmodifiableList(refChanges);
+        this.syncedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * A single ref whose tip moved. oldId is null for new refs, newId is null for deleted refs.
+     */
+    public static class RefChange {
+        private final String refName;
+        private final String oldId;
+        private final String newId;
+        private final List<String> changedPaths;
+        
+        public RefChange(String refName, String oldId, String newId, List<String> changedPaths) {
+            this.refName = refName;
+            this.oldId = oldId;
+            this.newId = newId;
+            this.changedPaths = Collections.unmodifiableList(changedPaths);
+        }
+        
+        public boolean isCreated() { return oldId == null; }
+        public boolean isDeleted() { return newId == null; }
+        
+        // Getters
+        public String getRefName() { return refName; }
+        public String getOldId() { return oldId; }
+        public String getNewId() { return newId; }
+        public List<String> getChangedPaths() { return changedPaths; }
+    }
+    
+    /**
+     * Union of paths touched across all moved refs
+     */
+    public Set<String> getChangedPaths() {
+        Set<String> paths = new LinkedHashSet<>();
+        for (RefChange change : refChanges) {
+            paths.addAll(change.getChangedPaths());
+        }
+        return paths;
+    }
+    
+    // Getters
+    public String getRepositoryId() { return repositoryId; }
+    public String getRepositoryPath() { return repositoryPath; }
+    public List<RefChange> getRefChanges() { return refChanges; }
+    public LocalDateTime getSyncedAt() { return syncedAt; }
+}
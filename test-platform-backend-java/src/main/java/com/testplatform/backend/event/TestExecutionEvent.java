@@ -0,0 +1,68 @@
+package com.testplatform.backend.event;
+
+import com.testplatform.backend.enums.ExecutionStatus;
+import com.testplatform.backend.enums.TestStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published as a test execution progresses: once when it starts, once per finished test case,
+ * and once when it completes, fails or is cancelled.
+ */
+public class TestExecutionEvent {
+    
+    public enum Type { STARTED, TEST_FINISHED, COMPLETED }
+    
+    private final Type type;
+    private final String executionId;
+    private final String repositoryId;
+    private final String service; // Only set for TEST_FINISHED
+    private final LocalDateTime timestamp;
+    
+    // TEST_FINISHED
+    private final String testName;
+    private final TestStatus testStatus;
+    
+    // COMPLETED
+    private final ExecutionStatus executionStatus;
+    
+    // Test or execution duration
+    private final Long durationMs;
+    
+    private TestExecutionEvent(Type type, String executionId, String repositoryId, String service, LocalDateTime timestamp,
+                               String testName, TestStatus testStatus, ExecutionStatus executionStatus, Long durationMs) {
+        this.type = type;
+        this.executionId = executionId;
+        this.repositoryId = repositoryId;
+        this.service = service;
+        this.timestamp = timestamp != null ? timestamp : LocalDateTime.now();
+        this.testName = testName;
+        this.testStatus = testStatus;
+        this.executionStatus = executionStatus;
+        this.durationMs = durationMs;
+    }
+    
+    public static TestExecutionEvent started(String executionId, String repositoryId, LocalDateTime startTime) {
+        return new TestExecutionEvent(Type.STARTED, executionId, repositoryId, null, startTime, null, null, ExecutionStatus.RUNNING, null);
+    }
+    
+    public static TestExecutionEvent testFinished(String executionId, String repositoryId, String service,
+                                                  String testName, TestStatus status, Long durationMs) {
+        return new TestExecutionEvent(Type.TEST_FINISHED, executionId, repositoryId, service, null, testName, status, null, durationMs);
+    }
+    
+    public static TestExecutionEvent completed(String executionId, String repositoryId, ExecutionStatus status, Long durationMs) {
+        return new TestExecutionEvent(Type.COMPLETED, executionId, repositoryId, null, null, null, null, status, durationMs);
+    }
+    
+    // Getters
+    public Type getType() { return type; }
+    public String getExecutionId() { return executionId; }
+    public String getRepositoryId() { return repositoryId; }
+    public String getService() { return service; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getTestName() { return testName; }
+    public TestStatus getTestStatus() { return testStatus; }
+    public ExecutionStatus getExecutionStatus() { return executionStatus; }
+    public Long getDurationMs() { return durationMs; }
+}
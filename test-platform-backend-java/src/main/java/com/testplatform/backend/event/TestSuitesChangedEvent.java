@@ -0,0 +1,23 @@
+package com.testplatform.backend.event;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Published by the suite store after suites of a repository were added, replaced, changed or removed.
+ * Carries only the ids; listeners read the current state back from the store, so events that arrive
+ * out of order still converge on what the store holds.
+ */
+public class TestSuitesChangedEvent {
+    private final String repositoryId;
+    private final Set<String> suiteIds;
+    
+    public TestSuitesChangedEvent(String repositoryId, Set<String> suiteIds) {
+        this.repositoryId = repositoryId;
+        this.suiteIds = Collections.unmodifiableSet(suiteIds);
+    }
+    
+    // Getters
+    public String getRepositoryId() { return repositoryId; }
+    public Set<String> getSuiteIds() { return suiteIds; }
+}
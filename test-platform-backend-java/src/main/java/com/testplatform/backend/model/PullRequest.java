@@ -57,6 +57,7 @@ public class PullRequest {
         private String filename;
         private Integer additions;
         private Integer deletions;
+        private String patch; // Unified diff of the file, optional; narrows test generation to the changed methods
         
         public ChangedFile() {}
         
@@ -75,6 +76,9 @@ public class PullRequest {
         
         public Integer getDeletions() { return deletions; }
         public void setDeletions(Integer deletions) { this.deletions = deletions; }
+        
+        public String getPatch() { return patch; }
+        public void setPatch(String patch) { this.patch = patch; }
     }
     
     // Getters and Setters
@@ -7,6 +7,8 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 public class TestCase {
     private String id;
@@ -28,6 +30,12 @@ public class TestCase {
     private String language;
     private String code;
     
+    // Source location and metadata of tests discovered in repository files
+    private String displayName;
+    private List<String> tags;
+    private Integer startLine;
+    private Integer endLine;
+    
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime executedAt;
@@ -49,6 +57,30 @@ public class TestCase {
         this.description = description;
     }
     
+    /**
+     * A copy that can be executed or edited without touching the original
+     */
+    public TestCase(TestCase other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.type = other.type;
+        this.status = other.status;
+        this.priority = other.priority;
+        this.description = other.description;
+        this.filePath = other.filePath;
+        this.language = other.language;
+        this.code = other.code;
+        this.displayName = other.displayName;
+        this.tags = other.tags != null ? new ArrayList<>(other.tags) : null;
+        this.startLine = other.startLine;
+        this.endLine = other.endLine;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.executedAt = other.executedAt;
+        this.executionTime = other.executionTime;
+        this.errorMessage = other.errorMessage;
+    }
+    
     // Getters and Setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -77,6 +109,18 @@ public class TestCase {
     public String getCode() { return code; }
     public void setCode(String code) { this.code = code; }
     
+    public String getDisplayName() { return displayName; }
+    public void setDisplayName(String displayName) { this.displayName = displayName; }
+    
+    public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
+    
+    public Integer getStartLine() { return startLine; }
+    public void setStartLine(Integer startLine) { this.startLine = startLine; }
+    
+    public Integer getEndLine() { return endLine; }
+    public void setEndLine(Integer endLine) { this.endLine = endLine; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -10,6 +10,7 @@ public class TestExecution {
     private Integer prNumber;
     private String suiteId;
     private String branch;
+    private String repositoryId;
     
     private ExecutionStatus status = ExecutionStatus.PENDING;
     private ExecutionType type = ExecutionType.SUITE;
@@ -80,6 +81,9 @@ public class TestExecution {
     public String getBranch() { return branch; }
     public void setBranch(String branch) { this.branch = branch; }
     
+    public String getRepositoryId() { return repositoryId; }
+    public void setRepositoryId(String repositoryId) { this.repositoryId = repositoryId; }
+    
     public ExecutionStatus getStatus() { return status; }
     public void setStatus(ExecutionStatus status) { this.status = status; }
     
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 public class TestSuite {
@@ -54,6 +55,35 @@ public class TestSuite {
         this.language = language;
     }
     
+    /**
+     * A copy, including copies of its test cases, that can be edited without touching the original
+     */
+    public TestSuite(TestSuite other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.prNumber = other.prNumber;
+        this.branch = other.branch;
+        this.filePath = other.filePath;
+        this.type = other.type;
+        this.language = other.language;
+        this.status = other.status;
+        if (other.testCases != null) {
+            this.testCases = new ArrayList<>(other.testCases.size());
+            for (TestCase testCase : other.testCases) {
+                this.testCases.add(testCase != null ? new TestCase(testCase) : null);
+            }
+        }
+        this.totalTests = other.totalTests;
+        this.passedTests = other.passedTests;
+        this.failedTests = other.failedTests;
+        this.executionTime = other.executionTime;
+        this.generatedAt = other.generatedAt;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.lastRun = other.lastRun;
+        this.coverage = other.coverage;
+    }
+    
     // Getters and Setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
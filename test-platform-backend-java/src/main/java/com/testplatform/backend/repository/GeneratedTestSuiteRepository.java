@@ -0,0 +1,24 @@
+package com.testplatform.backend.repository;
+
+import com.testplatform.backend.model.TestSuite;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent store of generated test suites. Suites discovered in repository working trees
+ * are persisted by the test catalog instead.
+ */
+public interface GeneratedTestSuiteRepository {
+    
+    TestSuite save(String repositoryId, TestSuite suite);
+    
+    boolean contains(String suiteId);
+    
+    /**
+     * All stored suites grouped by repository id
+     */
+    Map<String, List<TestSuite>> findAllByRepository();
+    
+    int deleteByPr(String repositoryId, Integer prNumber);
+}
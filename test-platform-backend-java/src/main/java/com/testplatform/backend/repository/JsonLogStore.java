@@ -0,0 +1,217 @@
+package com.testplatform.backend.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only JSON-lines log of records keyed by id.
+ *
+ * Every line is a put (id and full record) or a delete (id only); loading replays the lines in order.
+ * Writes are queued and appended in batches with one fsync per batch. Compaction rewrites the log
+ * as one put per live record through a temp file and an atomic move, so a crash leaves either the old
+ * or the new log. A torn last line from a crash is dropped on load.
+ */
+final class JsonLogStore<T> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JsonLogStore.class);
+    
+    private static final String PUT = "put";
+    private static final String DELETE = "delete";
+    
+    private final Path file;
+    private final Class<T> type;
+    private final ObjectMapper objectMapper;
+    
+    // Serialized lines not yet on disk; serialized when queued so later changes to the record don't leak in
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    
+    // Lines in the log file, live or superseded
+    private long lineCount;
+    
+    JsonLogStore(Path file, Class<T> type, ObjectMapper objectMapper) {
+        this.file = file;
+        this.type = type;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Replay the log
+     * @return Live records by id, in first-insertion order
+     */
+    synchronized Map<String, T> load() throws IOException {
+        Map<String, T> records = new LinkedHashMap<>();
+        lineCount = 0;
+        if (!Files.isRegularFile(file)) {
+            return records;
+        }
+        
+        int unreadable = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    LogLine entry = objectMapper.readValue(line, LogLine.class);
+                    if (DELETE.equals(entry.getOp())) {
+                        records.remove(entry.getId());
+                    } else {
+                        records.put(entry.getId(), objectMapper.treeToValue(entry.getValue(), type));
+                    }
+                    lineCount++;
+                } catch (IOException e) {
+                    unreadable++;
+                }
+            }
+        }
+        
+        // Appending after a torn line would corrupt the next record too, so start from a clean log
+        if (unreadable > 0 || !endsWithNewline()) {
+            logger.warn("⚠️ Dropped {} unreadable lines from {}, rewriting it", unreadable, file.getFileName());
+            rewrite(records);
+        }
+        return records;
+    }
+    
+    void put(String id, T record) {
+        LogLine entry = new LogLine();
+        entry.setOp(PUT);
+        entry.setId(id);
+        entry.setValue(objectMapper.valueToTree(record));
+        pending.add(serialize(entry));
+        pendingCount.incrementAndGet();
+    }
+    
+    void delete(String id) {
+        LogLine entry = new LogLine();
+        entry.setOp(DELETE);
+        entry.setId(id);
+        pending.add(serialize(entry));
+        pendingCount.incrementAndGet();
+    }
+    
+    int pendingCount() {
+        return pendingCount.get();
+    }
+    
+    /**
+     * Append all queued lines in one write and sync them to disk
+     * @return Number of lines written
+     */
+    synchronized int flush() throws IOException {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        
+        StringBuilder batch = new StringBuilder();
+        int lines = 0;
+        String line;
+        while ((line = pending.poll()) != null) {
+            batch.append(line).append('\n');
+            lines++;
+        }
+        pendingCount.addAndGet(-lines);
+        
+        Files.createDirectories(file.getParent());
+        ByteBuffer bytes = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        lineCount += lines;
+        return lines;
+    }
+    
+    /**
+     * Whether superseded lines dominate the log enough to be worth a rewrite
+     */
+    synchronized boolean needsCompaction(int liveCount, long minLines) {
+        return lineCount >= minLines && lineCount > 2L * liveCount;
+    }
+    
+    /**
+     * Replace the log with one put per live record. The caller must hold off writers so that
+     * the snapshot already contains everything still queued.
+     */
+    synchronized void compact(Map<String, T> live) throws IOException {
+        pendingCount.addAndGet(-pending.size());
+        pending.clear();
+        rewrite(live);
+    }
+    
+    private void rewrite(Map<String, T> live) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, T> record : live.entrySet()) {
+                LogLine entry = new LogLine();
+                entry.setOp(PUT);
+                entry.setId(record.getKey());
+                entry.setValue(objectMapper.valueToTree(record.getValue()));
+                writer.write(serialize(entry));
+                writer.write('\n');
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lineCount = live.size();
+    }
+    
+    private boolean endsWithNewline() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+    
+    private String serialize(LogLine entry) {
+        try {
+            return objectMapper.writeValueAsString(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * One line of the log
+     */
+    public static class LogLine {
+        private String op;
+        private String id;
+        private JsonNode value;
+        
+        public String getOp() { return op; }
+        public void setOp(String op) { this.op = op; }
+        
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        
+        public JsonNode getValue() { return value; }
+        public void setValue(JsonNode value) { this.value = value; }
+    }
+}
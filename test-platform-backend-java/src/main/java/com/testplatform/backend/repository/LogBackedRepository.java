@@ -0,0 +1,207 @@
+package com.testplatform.backend.repository;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.testplatform.backend.config.AppProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Base for repositories that keep every record in memory and persist changes to a {@link JsonLogStore}.
+ *
+ * Subclasses maintain their own secondary indexes through {@link #index} and {@link #unindex}, which run
+ * under the write lock together with the primary map update. Queued writes are flushed every
+ * flush interval, or sooner once a batch fills up, and the log is compacted on the same thread.
+ */
+public abstract class LogBackedRepository<T> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogBackedRepository.class);
+    
+    @Autowired
+    protected AppProperties appProperties;
+    
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Records by id in insertion order; a replaced record keeps its slot
+    protected final Map<String, T> records = new LinkedHashMap<>();
+    
+    private JsonLogStore<T> store;
+    private ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    
+    /** Log file name inside the storage directory */
+    protected abstract String getStoreName();
+    
+    protected abstract Class<T> getRecordType();
+    
+    protected abstract String idOf(T record);
+    
+    /** Add a record to the secondary indexes; called under the write lock */
+    protected abstract void index(String id, T record);
+    
+    /** Drop a record from the secondary indexes; called under the write lock */
+    protected abstract void unindex(String id);
+    
+    @PostConstruct
+    public void open() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        AppProperties.Storage storage = appProperties.getStorage();
+        store = new JsonLogStore<>(Paths.get(storage.getDataDir(), getStoreName() + ".jsonl"), getRecordType(), objectMapper);
+        
+        long startTime = System.currentTimeMillis();
+        Map<String, T> loaded = store.load();
+        writeLocked(() -> {
+            loaded.forEach((id, record) -> {
+                records.put(id, record);
+                index(id, record);
+            });
+            return null;
+        });
+        logger.info("📚 Loaded {} {} records ({}ms)", loaded.size(), getStoreName(), System.currentTimeMillis() - startTime);
+        
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "storage-" + getStoreName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = storage.getFlushIntervalMs();
+        flusher.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush();
+    }
+    
+    /**
+     * Write queued changes to disk now, and compact the log if it has grown mostly stale
+     */
+    public void flush() {
+        flushRequested.set(false);
+        try {
+            store.flush();
+            
+            AppProperties.Storage storage = appProperties.getStorage();
+            if (store.needsCompaction(size(), storage.getCompactionMinRecords())) {
+                long startTime = System.currentTimeMillis();
+                lock.readLock().lock();
+                try {
+                    store.compact(new LinkedHashMap<>(records));
+                } finally {
+                    lock.readLock().unlock();
+                }
+                logger.info("🧹 Compacted {} log to {} records ({}ms)", getStoreName(), size(), System.currentTimeMillis() - startTime);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Failed to write {} log: {}", getStoreName(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Insert or replace a record and queue it for the log
+     */
+    protected T put(T record) {
+        String id = idOf(record);
+        writeLocked(() -> {
+            unindex(id);
+            records.put(id, record);
+            index(id, record);
+            store.put(id, record);
+            return null;
+        });
+        requestFlushIfBatchFull();
+        return record;
+    }
+    
+    /**
+     * Remove records and queue the deletes for the log
+     * @return Number of records removed
+     */
+    protected int remove(Collection<String> ids) {
+        int removed = writeLocked(() -> {
+            int count = 0;
+            for (String id : new ArrayList<>(ids)) {
+                if (records.remove(id) != null) {
+                    unindex(id);
+                    store.delete(id);
+                    count++;
+                }
+            }
+            return count;
+        });
+        requestFlushIfBatchFull();
+        return removed;
+    }
+    
+    protected <R> R readLocked(Supplier<R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    protected <R> R writeLocked(Supplier<R> writer) {
+        lock.writeLock().lock();
+        try {
+            return writer.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Resolve ids to records; call under the read lock
+     */
+    protected List<T> resolve(Collection<String> ids) {
+        List<T> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            T record = records.get(id);
+            if (record != null) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+    
+    protected Optional<T> findRecord(String id) {
+        return Optional.ofNullable(readLocked(() -> records.get(id)));
+    }
+    
+    protected List<T> findAllRecords() {
+        return readLocked(() -> new ArrayList<>(records.values()));
+    }
+    
+    protected int size() {
+        return readLocked(records::size);
+    }
+    
+    private void requestFlushIfBatchFull() {
+        if (store.pendingCount() >= appProperties.getStorage().getBatchSize()
+                && flusher != null && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+}
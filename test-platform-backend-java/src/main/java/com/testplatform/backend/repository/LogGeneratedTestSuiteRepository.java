@@ -0,0 +1,92 @@
+package com.testplatform.backend.repository;
+
+import com.testplatform.backend.model.TestSuite;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+/**
+ * Generated test suites in an append-only log, indexed by repository and PR number together
+ */
+@Repository
+public class LogGeneratedTestSuiteRepository extends LogBackedRepository<LogGeneratedTestSuiteRepository.StoredSuite>
+        implements GeneratedTestSuiteRepository {
+    
+    private final SecondaryIndex<String> byRepositoryAndPr = new SecondaryIndex<>(new HashMap<>());
+    
+    @Override
+    protected String getStoreName() {
+        return "generated-test-suites";
+    }
+    
+    @Override
+    protected Class<StoredSuite> getRecordType() {
+        return StoredSuite.class;
+    }
+    
+    @Override
+    protected String idOf(StoredSuite stored) {
+        return stored.getSuite().getId();
+    }
+    
+    @Override
+    protected void index(String id, StoredSuite stored) {
+        if (stored.getSuite().getPrNumber() != null) {
+            byRepositoryAndPr.add(prKey(stored.getRepositoryId(), stored.getSuite().getPrNumber()), id);
+        }
+    }
+    
+    @Override
+    protected void unindex(String id) {
+        byRepositoryAndPr.remove(id);
+    }
+    
+    @Override
+    public TestSuite save(String repositoryId, TestSuite suite) {
+        StoredSuite stored = new StoredSuite();
+        stored.setRepositoryId(repositoryId);
+        stored.setSuite(suite);
+        put(stored);
+        return suite;
+    }
+    
+    @Override
+    public boolean contains(String suiteId) {
+        return findRecord(suiteId).isPresent();
+    }
+    
+    @Override
+    public Map<String, List<TestSuite>> findAllByRepository() {
+        return readLocked(() -> {
+            Map<String, List<TestSuite>> result = new LinkedHashMap<>();
+            for (StoredSuite stored : records.values()) {
+                result.computeIfAbsent(stored.getRepositoryId(), k -> new ArrayList<>()).add(stored.getSuite());
+            }
+            return result;
+        });
+    }
+    
+    @Override
+    public int deleteByPr(String repositoryId, Integer prNumber) {
+        List<String> ids = readLocked(() -> new ArrayList<>(byRepositoryAndPr.get(prKey(repositoryId, prNumber))));
+        return ids.isEmpty() ? 0 : remove(ids);
+    }
+    
+    private static String prKey(String repositoryId, Integer prNumber) {
+        return repositoryId + "#" + prNumber;
+    }
+    
+    /**
+     * A suite and the repository it was generated for
+     */
+    public static class StoredSuite {
+        private String repositoryId;
+        private TestSuite suite;
+        
+        public String getRepositoryId() { return repositoryId; }
+        public void setRepositoryId(String repositoryId) { this.repositoryId = repositoryId; }
+        
+        public TestSuite getSuite() { return suite; }
+        public void setSuite(TestSuite suite) { this.suite = suite; }
+    }
+}
@@ -0,0 +1,121 @@
+package com.testplatform.backend.repository;
+
+import com.testplatform.backend.enums.PRStatus;
+import com.testplatform.backend.model.PullRequest;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pull requests in an append-only log, indexed by PR number and status
+ */
+@Repository
+public class LogPullRequestRepository extends LogBackedRepository<PullRequest> implements PullRequestRepository {
+    
+    private final SecondaryIndex<Integer> byNumber = new SecondaryIndex<>(new HashMap<>());
+    private final SecondaryIndex<PRStatus> byStatus = new SecondaryIndex<>(new EnumMap<>(PRStatus.class));
+    private final SecondaryIndex<LocalDate> byCreatedDate = new SecondaryIndex<>(new HashMap<>());
+    
+    private final AtomicLong idSequence = new AtomicLong(1);
+    
+    @Override
+    protected String getStoreName() {
+        return "pull-requests";
+    }
+    
+    @Override
+    protected Class<PullRequest> getRecordType() {
+        return PullRequest.class;
+    }
+    
+    @Override
+    protected String idOf(PullRequest pullRequest) {
+        return String.valueOf(pullRequest.getId());
+    }
+    
+    @Override
+    protected void index(String id, PullRequest pullRequest) {
+        byNumber.add(pullRequest.getNumber(), id);
+        byStatus.add(pullRequest.getStatus(), id);
+        byCreatedDate.add(pullRequest.getCreatedAt() != null ? pullRequest.getCreatedAt().toLocalDate() : null, id);
+        if (pullRequest.getId() != null) {
+            idSequence.accumulateAndGet(pullRequest.getId() + 1, Math::max);
+        }
+    }
+    
+    @Override
+    protected void unindex(String id) {
+        byNumber.remove(id);
+        byStatus.remove(id);
+        byCreatedDate.remove(id);
+    }
+    
+    @Override
+    public long nextId() {
+        return idSequence.getAndIncrement();
+    }
+    
+    @Override
+    public PullRequest save(PullRequest pullRequest) {
+        if (pullRequest.getId() == null) {
+            pullRequest.setId(nextId());
+        }
+        return put(pullRequest);
+    }
+    
+    @Override
+    public Optional<PullRequest> findById(Long id) {
+        return id != null ? findRecord(String.valueOf(id)) : Optional.empty();
+    }
+    
+    @Override
+    public Optional<PullRequest> findByNumber(Integer number) {
+        return readLocked(() -> resolve(byNumber.get(number)).stream().findFirst());
+    }
+    
+    @Override
+    public List<PullRequest> findAll() {
+        return findAllRecords();
+    }
+    
+    @Override
+    public List<PullRequest> findByStatus(PRStatus status) {
+        return readLocked(() -> resolve(byStatus.get(status)));
+    }
+    
+    @Override
+    public long countByStatus(PRStatus status) {
+        return readLocked(() -> byStatus.count(status));
+    }
+    
+    @Override
+    public List<PullRequest> findFirst(int limit) {
+        return readLocked(() -> {
+            List<PullRequest> result = new ArrayList<>(Math.min(limit, records.size()));
+            for (PullRequest pullRequest : records.values()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                result.add(pullRequest);
+            }
+            return result;
+        });
+    }
+    
+    @Override
+    public long countCreatedOn(LocalDate day) {
+        return readLocked(() -> byCreatedDate.count(day));
+    }
+    
+    @Override
+    public boolean deleteById(Long id) {
+        return id != null && remove(List.of(String.valueOf(id))) > 0;
+    }
+    
+    @Override
+    public long count() {
+        return size();
+    }
+}
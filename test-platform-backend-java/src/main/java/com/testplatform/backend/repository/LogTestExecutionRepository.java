@@ -0,0 +1,161 @@
+package com.testplatform.backend.repository;
+
+import com.testplatform.backend.enums.ExecutionStatus;
+import com.testplatform.backend.model.TestExecution;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Test executions in an append-only log, indexed by PR number, status and start time
+ */
+@Repository
+public class LogTestExecutionRepository extends LogBackedRepository<TestExecution> implements TestExecutionRepository {
+    
+    private final SecondaryIndex<Integer> byPr = new SecondaryIndex<>(new HashMap<>());
+    private final SecondaryIndex<ExecutionStatus> byStatus = new SecondaryIndex<>(new EnumMap<>(ExecutionStatus.class));
+    private final NavigableMap<LocalDateTime, Set<String>> startTimes = new TreeMap<>();
+    private final SecondaryIndex<LocalDateTime> byStartTime = new SecondaryIndex<>(startTimes);
+    
+    // Running total of recorded durations, kept in step with the indexes
+    private final Map<String, Long> durationById = new HashMap<>();
+    private long durationSum;
+    
+    @Override
+    protected String getStoreName() {
+        return "test-executions";
+    }
+    
+    @Override
+    protected Class<TestExecution> getRecordType() {
+        return TestExecution.class;
+    }
+    
+    @Override
+    protected String idOf(TestExecution execution) {
+        return execution.getId();
+    }
+    
+    @Override
+    protected void index(String id, TestExecution execution) {
+        byPr.add(execution.getPrNumber(), id);
+        byStatus.add(execution.getStatus(), id);
+        byStartTime.add(execution.getStartTime(), id);
+        if (execution.getDuration() != null) {
+            durationById.put(id, execution.getDuration());
+            durationSum += execution.getDuration();
+        }
+    }
+    
+    @Override
+    protected void unindex(String id) {
+        byPr.remove(id);
+        byStatus.remove(id);
+        byStartTime.remove(id);
+        Long duration = durationById.remove(id);
+        if (duration != null) {
+            durationSum -= duration;
+        }
+    }
+    
+    @Override
+    public TestExecution save(TestExecution execution) {
+        if (execution.getId() == null) {
+            execution.setId(UUID.randomUUID().toString());
+        }
+        return put(execution);
+    }
+    
+    @Override
+    public Optional<TestExecution> findById(String id) {
+        return findRecord(id);
+    }
+    
+    @Override
+    public List<TestExecution> findAll() {
+        return findAllRecords();
+    }
+    
+    @Override
+    public List<TestExecution> findByPrNumber(Integer prNumber) {
+        return readLocked(() -> resolve(byPr.get(prNumber)));
+    }
+    
+    @Override
+    public List<TestExecution> findByStatus(ExecutionStatus status) {
+        return readLocked(() -> resolve(byStatus.get(status)));
+    }
+    
+    @Override
+    public List<TestExecution> findByStartTimeBetween(LocalDateTime from, LocalDateTime to) {
+        return readLocked(() -> {
+            NavigableMap<LocalDateTime, Set<String>> range = startTimes;
+            if (from != null) {
+                range = range.tailMap(from, true);
+            }
+            if (to != null) {
+                range = range.headMap(to, false);
+            }
+            List<TestExecution> result = new ArrayList<>();
+            range.values().forEach(ids -> result.addAll(resolve(ids)));
+            return result;
+        });
+    }
+    
+    @Override
+    public List<TestExecution> findRecent(int limit) {
+        return readLocked(() -> {
+            List<TestExecution> result = new ArrayList<>(Math.min(limit, records.size()));
+            for (Set<String> ids : startTimes.descendingMap().values()) {
+                for (TestExecution execution : resolve(ids)) {
+                    if (result.size() >= limit) {
+                        return result;
+                    }
+                    result.add(execution);
+                }
+            }
+            return result;
+        });
+    }
+    
+    @Override
+    public long count() {
+        return size();
+    }
+    
+    @Override
+    public long countByStatus(ExecutionStatus status) {
+        return readLocked(() -> byStatus.count(status));
+    }
+    
+    @Override
+    public double getAverageDuration() {
+        return readLocked(() -> durationById.isEmpty() ? 0.0 : (double) durationSum / durationById.size());
+    }
+    
+    @Override
+    public int deleteOlderThan(LocalDateTime cutoff, int maxExecutions) {
+        List<String> expired = readLocked(() -> {
+            List<String> ids = new ArrayList<>();
+            if (cutoff != null) {
+                startTimes.headMap(cutoff, false).values().forEach(ids::addAll);
+            }
+            // Beyond the cap, drop the oldest that the cutoff didn't already catch
+            int excess = records.size() - ids.size() - maxExecutions;
+            if (maxExecutions > 0 && excess > 0) {
+                NavigableMap<LocalDateTime, Set<String>> kept = cutoff != null ? startTimes.tailMap(cutoff, true) : startTimes;
+                for (Set<String> sameTime : kept.values()) {
+                    for (String id : sameTime) {
+                        if (excess-- <= 0) {
+                            return ids;
+                        }
+                        ids.add(id);
+                    }
+                }
+            }
+            return ids;
+        });
+        return expired.isEmpty() ? 0 : remove(expired);
+    }
+}
@@ -0,0 +1,45 @@
+package com.testplatform.backend.repository;
+
+import com.testplatform.backend.enums.PRStatus;
+import com.testplatform.backend.model.PullRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistent store of pull requests
+ */
+public interface PullRequestRepository {
+    
+    /**
+     * Next free pull request id, above every stored id
+     */
+    long nextId();
+    
+    /**
+     * Insert or replace a pull request; call again after changing it so the change is persisted
+     */
+    PullRequest save(PullRequest pullRequest);
+    
+    Optional<PullRequest> findById(Long id);
+    
+    Optional<PullRequest> findByNumber(Integer number);
+    
+    List<PullRequest> findAll();
+    
+    List<PullRequest> findByStatus(PRStatus status);
+    
+    long countByStatus(PRStatus status);
+    
+    /**
+     * The first pull requests in creation order
+     */
+    List<PullRequest> findFirst(int limit);
+    
+    long countCreatedOn(LocalDate day);
+    
+    boolean deleteById(Long id);
+    
+    long count();
+}
@@ -0,0 +1,49 @@
+package com.testplatform.backend.repository;
+
+import java.util.*;
+
+/**
+ * Index from a record attribute to record ids. Remembers the key each id was filed under,
+ * so removal doesn't depend on the (mutable) record still carrying the old value.
+ * Not thread-safe; guarded by the owning repository's lock.
+ */
+final class SecondaryIndex<K> {
+    
+    private final Map<K, Set<String>> idsByKey;
+    private final Map<String, K> keyById = new HashMap<>();
+    
+    /**
+     * @param idsByKey Backing map; pass a TreeMap for range queries or an EnumMap for enum keys
+     */
+    SecondaryIndex(Map<K, Set<String>> idsByKey) {
+        this.idsByKey = idsByKey;
+    }
+    
+    void add(K key, String id) {
+        if (key == null) {
+            return;
+        }
+        idsByKey.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(id);
+        keyById.put(id, key);
+    }
+    
+    void remove(String id) {
+        K key = keyById.remove(id);
+        if (key == null) {
+            return;
+        }
+        Set<String> ids = idsByKey.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            idsByKey.remove(key);
+        }
+    }
+    
+    Set<String> get(K key) {
+        Set<String> ids = key != null ? idsByKey.get(key) : null;
+        return ids != null ? ids : Collections.emptySet();
+    }
+    
+    int count(K key) {
+        return get(key).size();
+    }
+}
@@ -0,0 +1,52 @@
+package com.testplatform.backend.repository;
+
+import com.testplatform.backend.enums.ExecutionStatus;
+import com.testplatform.backend.model.TestExecution;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistent store of test executions
+ */
+public interface TestExecutionRepository {
+    
+    /**
+     * Insert or replace an execution; call again after changing it so the change is persisted
+     */
+    TestExecution save(TestExecution execution);
+    
+    Optional<TestExecution> findById(String id);
+    
+    List<TestExecution> findAll();
+    
+    List<TestExecution> findByPrNumber(Integer prNumber);
+    
+    List<TestExecution> findByStatus(ExecutionStatus status);
+    
+    /**
+     * Executions started in [from, to), oldest first; a null bound is open
+     */
+    List<TestExecution> findByStartTimeBetween(LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Most recently started executions, newest first
+     */
+    List<TestExecution> findRecent(int limit);
+    
+    long count();
+    
+    long countByStatus(ExecutionStatus status);
+    
+    /**
+     * Average duration of executions that have one, 0 if none do
+     */
+    double getAverageDuration();
+    
+    /**
+     * Delete executions started before the cutoff, then the oldest beyond maxExecutions
+     * @return Number of executions deleted
+     */
+    int deleteOlderThan(LocalDateTime cutoff, int maxExecutions);
+}
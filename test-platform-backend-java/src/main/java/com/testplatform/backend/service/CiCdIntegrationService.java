@@ -13,6 +13,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 public class CiCdIntegrationService {
@@ -141,11 +142,14 @@ public class CiCdIntegrationService {
             GitHubPullRequest pr = payload.getPullRequest();
             List<GitHubFile> changedFiles = pr.getChangedFiles();
             
+            // Read all testable files in one tree walk
+            Map<String, String> codeContents = multiRepositoryService.getCodeContents("default",
+                changedFiles.stream().map(GitHubFile::getFilename).filter(this::isTestableFile).collect(Collectors.toList()),
+                pr.getHead().getRef());
+            
             for (GitHubFile file : changedFiles) {
                 if (isTestableFile(file.getFilename())) {
-                    // Get code content
-                    String codeContent = multiRepositoryService.getCodeContent(
-                        "default", file.getFilename(), pr.getHead().getRef());
+                    String codeContent = codeContents.get(file.getFilename());
                     
                     if (codeContent != null) {
                         // Generate tests for each test type
@@ -182,11 +186,14 @@ public class CiCdIntegrationService {
             GitLabMergeRequest mr = payload.getMergeRequest();
             List<GitLabFile> changedFiles = mr.getChangedFiles();
             
+            // Read all testable files in one tree walk
+            Map<String, String> codeContents = multiRepositoryService.getCodeContents("default",
+                changedFiles.stream().map(GitLabFile::getNewPath).filter(this::isTestableFile).collect(Collectors.toList()),
+                mr.getSourceBranch());
+            
             for (GitLabFile file : changedFiles) {
                 if (isTestableFile(file.getNewPath())) {
-                    // Get code content
-                    String codeContent = multiRepositoryService.getCodeContent(
-                        "default", file.getNewPath(), mr.getSourceBranch());
+                    String codeContent = codeContents.get(file.getNewPath());
                     
                     if (codeContent != null) {
                         // Generate tests for each test type
@@ -223,11 +230,14 @@ public class CiCdIntegrationService {
             BitbucketPullRequest pr = payload.getPullRequest();
             List<BitbucketFile> changedFiles = pr.getChangedFiles();
             
+            // Read all testable files in one tree walk
+            Map<String, String> codeContents = multiRepositoryService.getCodeContents("default",
+                changedFiles.stream().map(BitbucketFile::getPath).filter(this::isTestableFile).collect(Collectors.toList()),
+                pr.getSource().getBranch().getName());
+            
             for (BitbucketFile file : changedFiles) {
                 if (isTestableFile(file.getPath())) {
-                    // Get code content
-                    String codeContent = multiRepositoryService.getCodeContent(
-                        "default", file.getPath(), pr.getSource().getBranch().getName());
+                    String codeContent = codeContents.get(file.getPath());
                     
                     if (codeContent != null) {
                         // Generate tests for each test type
@@ -1,25 +1,55 @@
 package com.testplatform.backend.service;
 
-import org.apache.commons.lang3.StringUtils;
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.util.GuardedPattern;
+import com.testplatform.backend.util.MethodIndex;
+import com.testplatform.backend.util.WeightedLruCache;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Extracts the structure of a source file (classes, methods, dependencies, complexity) for test generation.
+ *
+ * The file is tokenized once and every extractor reads the same token stream, so comments and string
+ * literals are never mistaken for code and the cost stays linear in the size of the file.
+ *
+ * The same file is analyzed once per test type and again on retries, so results are cached by
+ * content hash, language and analyzer version. The cache keeps only the extracted structure; the
+ * source, file path and LLM context are attached per call.
+ *
+ * For incremental generation the same scan also yields a {@link MethodIndex} of method spans and fingerprints,
+ * and analysis can be narrowed to a set of changed methods, the other method bodies being elided.
+ */
 @Service
 public class CodeAnalyzerService {
     
     private static final Logger logger = LoggerFactory.getLogger(CodeAnalyzerService.class);
     
-    // Patterns for different code elements
-    private static final Pattern CLASS_PATTERN = Pattern.compile("(?:public|private|protected)?\\s*class\\s+(\\w+)");
-    private static final Pattern METHOD_PATTERN = Pattern.compile("(?:public|private|protected)\\s+(?:static\\s+)?(?:\\w+\\s+)*?(\\w+)\\s*\\([^)]*\\)\\s*(?:throws\\s+\\w+)?\\s*\\{");
-    private static final Pattern ANNOTATION_PATTERN = Pattern.compile("@(\\w+)(?:\\([^)]*\\))?");
-    private static final Pattern IMPORT_PATTERN = Pattern.compile("import\\s+([^;]+);");
-    private static final Pattern EXCEPTION_PATTERN = Pattern.compile("throw\\s+new\\s+(\\w+)");
+    // Bump whenever SourceScan output changes, so results cached by an older analyzer are not reused
+    static final int ANALYZER_VERSION = 3;
+    
+    @Autowired
+    private AppProperties appProperties;
+    
+    private WeightedLruCache<String, CodeAnalysisResult> analysisCache;
+    
+    @PostConstruct
+    public void init() {
+        AppProperties.CodeAnalysis config = appProperties.getCodeAnalysis();
+        GuardedPattern.setMatchBudget(Duration.ofMillis(config.getRegexBudgetMillis()));
+        if (Boolean.TRUE.equals(config.getCacheEnabled())) {
+            analysisCache = new WeightedLruCache<>(config.getCacheMaxBytes(), CodeAnalyzerService::estimateBytes);
+        }
+    }
     
     /**
      * Analyze code and extract meaningful information for test generation
@@ -27,23 +57,7 @@ public class CodeAnalyzerService {
     public CodeAnalysisResult analyzeCode(String code, String filePath, String language) {
         logger.info("🔍 Analyzing code for: {}", filePath);
         
-        CodeAnalysisResult result = new CodeAnalysisResult();
-        result.setFilePath(filePath);
-        result.setLanguage(language);
-        result.setOriginalCode(code);
-        
-        // Extract basic information
-        result.setClasses(extractClasses(code));
-        result.setMethods(extractMethods(code));
-        result.setAnnotations(extractAnnotations(code));
-        result.setImports(extractImports(code));
-        result.setExceptions(extractExceptions(code));
-        
-        // Analyze code complexity and patterns
-        result.setComplexity(analyzeComplexity(code));
-        result.setTestableMethods(identifyTestableMethods(code));
-        result.setDependencies(extractDependencies(code));
-        result.setBusinessLogic(extractBusinessLogic(code));
+        CodeAnalysisResult result = analyzeStructure(code, language).withSource(filePath, language, code);
         
         // Generate context for LLM
         result.setContext(generateContext(result));
@@ -55,190 +69,766 @@ public class CodeAnalyzerService {
     }
     
     /**
-     * Extract class names from code
+     * Analyze only the given methods of a file: the bodies of all other methods are elided before the scan, so
+     * testable methods, exceptions, business logic and complexity describe the changed methods while classes,
+     * fields and dependencies still come from the whole class. The original code of the result is the focused
+     * source. Falls back to a whole-file analysis when changedMethods is null or no methods are found.
+     * @param changedMethods Method signatures as in {@link MethodIndex}
      */
-    private List<String> extractClasses(String code) {
-        List<String> classes = new ArrayList<>();
-        Matcher matcher = CLASS_PATTERN.matcher(code);
-        while (matcher.find()) {
-            classes.add(matcher.group(1));
+    public CodeAnalysisResult analyzeCode(String code, String filePath, String language, Set<String> changedMethods) {
+        MethodIndex index = changedMethods != null ? indexMethods(code, language) : MethodIndex.empty();
+        if (index.isEmpty()) {
+            return analyzeCode(code, filePath, language);
         }
-        return classes;
+        logger.info("🔍 Analyzing {} of {} methods in: {}", changedMethods.size(), index.getMethods().size(), filePath);
+        
+        String focused = index.focus(code, changedMethods);
+        CodeAnalysisResult structure = analyzeStructure(focused, language);
+        CodeAnalysisResult result = structure.withSource(filePath, language, focused);
+        Set<String> names = index.names(changedMethods);
+        result.setTestableMethods(structure.getTestableMethods().stream().filter(names::contains).toList());
+        result.setChangedMethods(List.copyOf(names));
+        result.setContext(generateContext(result));
+        
+        logger.info("✅ Code analysis complete: {} changed methods, {} testable", names.size(), result.getTestableMethods().size());
+        return result;
     }
     
     /**
-     * Extract method names from code
+     * Method spans and fingerprints of a source, for comparing versions of a file or mapping a diff to methods.
+     * Empty for languages whose methods the scan doesn't recognize (e.g. Python).
      */
-    private List<String> extractMethods(String code) {
-        List<String> methods = new ArrayList<>();
-        Matcher matcher = METHOD_PATTERN.matcher(code);
-        while (matcher.find()) {
-            methods.add(matcher.group(1));
+    public MethodIndex indexMethods(String code, String language) {
+        if (code == null) {
+            return MethodIndex.empty();
         }
-        return methods;
+        SourceScan scan = new SourceScan(code, language);
+        scan.run();
+        return scan.methodIndex();
     }
     
     /**
-     * Extract annotations from code
+     * Diff-to-method mapper: the methods of a file touched by a unified diff of it
+     * @param headerLines Lines prepended to the file in code, e.g. {@link GitService#LANGUAGE_HEADER_LINES}
+     * @return Touched method signatures, or null if the whole file has to be treated as changed
      */
-    private List<String> extractAnnotations(String code) {
-        List<String> annotations = new ArrayList<>();
-        Matcher matcher = ANNOTATION_PATTERN.matcher(code);
-        while (matcher.find()) {
-            annotations.add(matcher.group(1));
-        }
-        return annotations;
+    public Set<String> changedMethods(String code, String language, String patch, int headerLines) {
+        return patch != null ? indexMethods(code, language).touchedBy(patch, headerLines) : null;
     }
     
     /**
-     * Extract imports from code
+     * The extracted structure of a source, without file path, source or LLM context and without logging,
+     * for bulk callers such as repository indexing. Shares the analysis cache; the lists are unmodifiable.
      */
-    private List<String> extractImports(String code) {
-        List<String> imports = new ArrayList<>();
-        Matcher matcher = IMPORT_PATTERN.matcher(code);
-        while (matcher.find()) {
-            imports.add(matcher.group(1));
+    public CodeAnalysisResult analyzeStructure(String code, String language) {
+        String key = analysisCache != null ? cacheKey(code, language) : null;
+        CodeAnalysisResult structure = key != null ? analysisCache.get(key) : null;
+        if (structure == null) {
+            structure = scan(code, language);
+            if (key != null) {
+                analysisCache.put(key, structure);
+            }
         }
-        return imports;
+        return structure;
     }
     
     /**
-     * Extract exceptions from code
+     * Size, weight and hit counters of the analysis cache, or null if caching is disabled
      */
-    private List<String> extractExceptions(String code) {
-        List<String> exceptions = new ArrayList<>();
-        Matcher matcher = EXCEPTION_PATTERN.matcher(code);
-        while (matcher.find()) {
-            exceptions.add(matcher.group(1));
-        }
-        return exceptions;
+    public Map<String, Object> getCacheStats() {
+        return analysisCache != null ? analysisCache.getStats() : null;
     }
     
     /**
-     * Analyze code complexity
+     * The path-independent part of an analysis, with unmodifiable lists so cached results can be shared
      */
-    private int analyzeComplexity(String code) {
-        int complexity = 0;
+    private static CodeAnalysisResult scan(String code, String language) {
+        SourceScan scan = new SourceScan(code, language);
+        scan.run();
         
-        // Count control structures
-        complexity += StringUtils.countMatches(code, "if");
-        complexity += StringUtils.countMatches(code, "for");
-        complexity += StringUtils.countMatches(code, "while");
-        complexity += StringUtils.countMatches(code, "switch");
-        complexity += StringUtils.countMatches(code, "catch");
+        CodeAnalysisResult result = new CodeAnalysisResult();
         
-        // Count method calls
-        complexity += StringUtils.countMatches(code, "(") - StringUtils.countMatches(code, ")");
+        // Extract basic information
+        result.setClasses(List.copyOf(scan.classes));
+        result.setMethods(List.copyOf(scan.methods));
+        result.setAnnotations(List.copyOf(scan.annotations));
+        result.setImports(List.copyOf(scan.imports));
+        result.setExceptions(List.copyOf(scan.exceptions));
         
-        return complexity;
+        // Analyze code complexity and patterns
+        result.setComplexity(scan.complexity());
+        result.setTestableMethods(List.copyOf(scan.testableMethods));
+        result.setDependencies(List.copyOf(scan.dependencies));
+        result.setBusinessLogic(List.copyOf(scan.businessLogic()));
+        return result;
+    }
+    
+    private static String cacheKey(String code, String language) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(code.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + ":" + String.valueOf(language).toLowerCase(Locale.ROOT) + ":" + ANALYZER_VERSION;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
     
     /**
-     * Identify testable methods (public methods, not getters/setters)
+     * Rough heap footprint of a cached result: object headers plus two bytes per char
      */
-    private List<String> identifyTestableMethods(String code) {
-        List<String> testableMethods = new ArrayList<>();
-        
-        // Look for public methods that are not simple getters/setters
-        Pattern testableMethodPattern = Pattern.compile(
-            "public\\s+(?!static\\s+)(?:\\w+\\s+)*?(\\w+)\\s*\\([^)]*\\)\\s*(?:throws\\s+\\w+)?\\s*\\{"
-        );
-        
-        Matcher matcher = testableMethodPattern.matcher(code);
-        while (matcher.find()) {
-            String methodName = matcher.group(1);
-            if (!isGetterOrSetter(methodName)) {
-                testableMethods.add(methodName);
+    private static long estimateBytes(CodeAnalysisResult result) {
+        long bytes = 256;
+        for (List<String> list : List.of(result.getClasses(), result.getMethods(), result.getAnnotations(), result.getImports(),
+                result.getExceptions(), result.getTestableMethods(), result.getDependencies(), result.getBusinessLogic())) {
+            bytes += 16 + 8L * list.size();
+            for (String value : list) {
+                bytes += 48 + 2L * value.length();
             }
         }
-        
-        return testableMethods;
+        return bytes;
     }
     
     /**
      * Check if method is a getter or setter
      */
-    private boolean isGetterOrSetter(String methodName) {
+    private static boolean isGetterOrSetter(String methodName) {
         return methodName.startsWith("get") || methodName.startsWith("set") || 
                methodName.startsWith("is") || methodName.startsWith("has");
     }
     
     /**
-     * Extract dependencies from code
+     * Generate context for LLM
      */
-    private List<String> extractDependencies(String code) {
-        List<String> dependencies = new ArrayList<>();
-        
-        // Look for @Autowired fields
-        Pattern autowiredPattern = Pattern.compile("@Autowired\\s+private\\s+(\\w+)\\s+(\\w+)");
-        Matcher matcher = autowiredPattern.matcher(code);
-        while (matcher.find()) {
-            dependencies.add(matcher.group(1));
-        }
+    private String generateContext(CodeAnalysisResult result) {
+        StringBuilder context = new StringBuilder();
         
-        // Look for constructor parameters
-        Pattern constructorPattern = Pattern.compile("public\\s+\\w+\\s*\\(([^)]+)\\)");
-        matcher = constructorPattern.matcher(code);
-        while (matcher.find()) {
-            String params = matcher.group(1);
-            String[] paramTypes = params.split(",");
-            for (String param : paramTypes) {
-                String type = param.trim().split("\\s+")[0];
-                if (!type.equals("String") && !type.equals("int") && !type.equals("boolean")) {
-                    dependencies.add(type);
-                }
-            }
+        context.append("Code Analysis Summary:\n");
+        context.append("- File: ").append(result.getFilePath()).append("\n");
+        context.append("- Language: ").append(result.getLanguage()).append("\n");
+        context.append("- Classes: ").append(String.join(", ", result.getClasses())).append("\n");
+        context.append("- Methods: ").append(String.join(", ", result.getMethods())).append("\n");
+        context.append("- Testable Methods: ").append(String.join(", ", result.getTestableMethods())).append("\n");
+        context.append("- Dependencies: ").append(String.join(", ", result.getDependencies())).append("\n");
+        context.append("- Business Logic: ").append(String.join(", ", result.getBusinessLogic())).append("\n");
+        context.append("- Complexity: ").append(result.getComplexity()).append("\n");
+        if (result.getChangedMethods() != null) {
+            context.append("- Changed Methods: ").append(String.join(", ", result.getChangedMethods())).append("\n");
         }
         
-        return dependencies;
+        return context.toString();
     }
     
     /**
-     * Extract business logic patterns
+     * One lexical pass over a source file that feeds every extractor as the tokens go by
      */
-    private List<String> extractBusinessLogic(String code) {
-        List<String> businessLogic = new ArrayList<>();
+    private static final class SourceScan {
+        
+        private static final int EOF = 0;
+        private static final int WORD = 1;
+        private static final int STRING = 2;
+        private static final int SYMBOL = 3;
+        
+        private static final Set<String> ACCESS_MODIFIERS = Set.of("public", "private", "protected");
+        private static final Set<String> BRANCH_KEYWORDS = Set.of("if", "for", "while", "switch", "catch");
+        private static final Set<String> NON_MOCKED_TYPES = Set.of("String", "int", "boolean");
+        
+        // Method declaration states: access modifier seen, inside the parameter list, after it
+        private static final int NO_METHOD = 0;
+        private static final int METHOD_HEAD = 1;
+        private static final int METHOD_PARAMS = 2;
+        private static final int METHOD_TAIL = 3;
+        
+        private static final long FINGERPRINT_SEED = 0xcbf29ce484222325L;
+        
+        private final String src;
+        private final int length;
+        private final boolean python;
+        
+        private int pos;
+        private int line = 1;
+        
+        // Current and previous token
+        private int tokenType;
+        private int tokenStart;
+        private int tokenEnd;
+        private int tokenLine;
+        private int previousType = EOF;
+        private char previousSymbol;
+        private int previousEnd;
+        private int previousLine;
+        
+        final List<String> classes = new ArrayList<>();
+        final List<String> methods = new ArrayList<>();
+        final List<String> annotations = new ArrayList<>();
+        final List<String> imports = new ArrayList<>();
+        final List<String> exceptions = new ArrayList<>();
+        final List<String> testableMethods = new ArrayList<>();
+        final List<String> dependencies = new ArrayList<>();
+        
+        private int branches;
+        private int openParens;
+        private int closeParens;
+        
+        // Business logic hints
+        private boolean sawIf;
+        private boolean sawNullOrEmpty;
+        private boolean sawThrowOrCatch;
+        private boolean sawReturn;
+        private boolean sawNew;
+        private boolean sawExternal;
+        
+        // Declaration state machines
+        private boolean expectClassName;
+        private boolean expectAnnotationName;
+        private int throwState; // 1 after "throw", 2 after "throw new"
+        private int autowiredState; // 1 after @Autowired, 2 after "private", 3 after the type
+        private String autowiredType;
+        private int importStart = -1;
+        private int importDepth;
+        
+        private int methodState = NO_METHOD;
+        private String methodModifier;
+        private String methodFirstWord;
+        private String methodLastWord;
+        private int methodWords;
+        private int paramDepth;
+        private boolean expectParamType;
+        private int paramTypeStart = -1; // Start of the parameter type being read, including generics and qualifiers
+        private int paramTypeEnd;
+        private int paramTypeAngles;
+        private final List<String> paramTypes = new ArrayList<>();
+        
+        // Method spans: a declaration starts at the first token after a ';', '{' or '}' outside parentheses
+        private boolean atBoundary = true;
+        private int declStart;
+        private int declLine;
+        private int braceDepth;
+        private final Deque<MethodSpan> openMethods = new ArrayDeque<>();
+        private final List<MethodSpan> methodSpans = new ArrayList<>();
+        private int importFrom;
+        private final List<int[]> importRanges = new ArrayList<>();
+        
+        SourceScan(String src, String language) {
+            this.src = src;
+            this.length = src.length();
+            this.python = "python".equalsIgnoreCase(language);
+        }
         
-        // Look for validation patterns
-        if (code.contains("if") && (code.contains("null") || code.contains("empty"))) {
-            businessLogic.add("input_validation");
+        void run() {
+            while (next() != EOF) {
+                if (atBoundary) {
+                    declStart = tokenStart;
+                    declLine = tokenLine;
+                    atBoundary = false;
+                }
+                if (importStart >= 0) {
+                    continueImport();
+                }
+                if (tokenType == WORD) {
+                    onWord(src.substring(tokenStart, tokenEnd));
+                } else if (tokenType == SYMBOL) {
+                    onSymbol(src.charAt(tokenStart));
+                } else {
+                    throwState = 0;
+                    autowiredState = 0;
+                    expectClassName = false;
+                    expectAnnotationName = false;
+                    if (methodState != METHOD_PARAMS) {
+                        methodState = NO_METHOD;
+                    }
+                }
+                previousType = tokenType;
+                previousSymbol = tokenType == SYMBOL ? src.charAt(tokenStart) : 0;
+                previousEnd = tokenEnd;
+                previousLine = line; // Where the token ended, for multi-line strings
+            }
+            if (importStart >= 0) {
+                endImport(previousEnd, previousEnd);
+            }
         }
         
-        // Look for exception handling
-        if (code.contains("throw") || code.contains("catch")) {
-            businessLogic.add("exception_handling");
+        /**
+         * Second pass over the tokens: every token inside a method feeds the fingerprints of the methods that
+         * contain it, every other token outside import statements feeds the skeleton fingerprint
+         */
+        MethodIndex methodIndex() {
+            while (!openMethods.isEmpty()) {
+                closeMethod(length, line); // Truncated source
+            }
+            if (methodSpans.isEmpty()) {
+                return MethodIndex.empty();
+            }
+            methodSpans.sort(Comparator.comparingInt(span -> span.start));
+            int count = methodSpans.size();
+            long[] fingerprints = new long[count];
+            Arrays.fill(fingerprints, FINGERPRINT_SEED);
+            long skeleton = FINGERPRINT_SEED;
+            BitSet skeletonLines = new BitSet();
+            
+            Deque<Integer> containing = new ArrayDeque<>();
+            int nextSpan = 0;
+            int nextImport = 0;
+            pos = 0;
+            line = 1;
+            while (next() != EOF) {
+                while (!containing.isEmpty() && tokenStart >= methodSpans.get(containing.peek()).end) {
+                    containing.pop();
+                }
+                while (nextSpan < count && methodSpans.get(nextSpan).start <= tokenStart) {
+                    if (tokenStart < methodSpans.get(nextSpan).end) {
+                        containing.push(nextSpan);
+                    }
+                    nextSpan++;
+                }
+                long hash = tokenHash();
+                if (!containing.isEmpty()) {
+                    for (int span : containing) {
+                        fingerprints[span] = mix(fingerprints[span], hash);
+                    }
+                    continue;
+                }
+                while (nextImport < importRanges.size() && importRanges.get(nextImport)[1] <= tokenStart) {
+                    nextImport++;
+                }
+                if (nextImport < importRanges.size() && importRanges.get(nextImport)[0] <= tokenStart) {
+                    continue;
+                }
+                skeleton = mix(skeleton, hash);
+                skeletonLines.set(tokenLine, line + 1); // A text block spans several lines
+            }
+            
+            List<MethodIndex.Method> methods = new ArrayList<>(count);
+            Map<String, Integer> repeats = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                MethodSpan span = methodSpans.get(i);
+                int repeat = repeats.merge(span.signature, 1, Integer::sum);
+                String signature = repeat == 1 ? span.signature : span.signature + "#" + repeat;
+                methods.add(new MethodIndex.Method(span.name, signature, span.start, span.bodyStart, span.end,
+                        span.startLine, span.endLine, fingerprints[i]));
+            }
+            return new MethodIndex(methods, skeleton, skeletonLines);
         }
         
-        // Look for data transformation
-        if (code.contains("return") && code.contains("new")) {
-            businessLogic.add("data_transformation");
+        private long tokenHash() {
+            long hash = FINGERPRINT_SEED;
+            for (int i = tokenStart; i < tokenEnd; i++) {
+                hash = (hash ^ src.charAt(i)) * 0x100000001b3L;
+            }
+            return hash;
         }
         
-        // Look for external service calls
-        if (code.contains("@Autowired") || code.contains("repository") || code.contains("service")) {
-            businessLogic.add("external_dependencies");
+        private static long mix(long fingerprint, long tokenHash) {
+            return Long.rotateLeft(fingerprint ^ tokenHash, 27) * 0x9E3779B97F4A7C15L;
         }
         
-        return businessLogic;
+        int complexity() {
+            // Control structures, plus the call-count term the analyzer has always added
+            return branches + openParens - closeParens;
+        }
+        
+        List<String> businessLogic() {
+            List<String> businessLogic = new ArrayList<>();
+            if (sawIf && sawNullOrEmpty) {
+                businessLogic.add("input_validation");
+            }
+            if (sawThrowOrCatch) {
+                businessLogic.add("exception_handling");
+            }
+            if (sawReturn && sawNew) {
+                businessLogic.add("data_transformation");
+            }
+            if (sawExternal) {
+                businessLogic.add("external_dependencies");
+            }
+            return businessLogic;
+        }
+        
+        private void onWord(String word) {
+            if (BRANCH_KEYWORDS.contains(word)) {
+                branches++;
+            }
+            noteBusinessLogic(word);
+            
+            if (expectAnnotationName) {
+                expectAnnotationName = false;
+                if (tokenStart == previousEnd && !word.equals("interface")) {
+                    annotations.add(word);
+                    if (word.equals("Autowired")) {
+                        sawExternal = true;
+                        autowiredState = 1;
+                    }
+                    return; // An annotation name is neither a type nor a member name
+                }
+            }
+            
+            if (expectClassName) {
+                classes.add(word);
+            }
+            expectClassName = word.equals("class") && previousSymbol != '.';
+            
+            if (throwState == 2) {
+                exceptions.add(word);
+                throwState = 0;
+            } else {
+                throwState = word.equals("throw") ? 1 : throwState == 1 && word.equals("new") ? 2 : 0;
+            }
+            
+            if (autowiredState == 1 && word.equals("private")) {
+                autowiredState = 2;
+            } else if (autowiredState == 2) {
+                autowiredType = word;
+                autowiredState = 3;
+            } else if (autowiredState == 3) {
+                dependencies.add(autowiredType);
+                autowiredState = 0;
+            } else {
+                autowiredState = 0;
+            }
+            
+            if (word.equals("import") && importStart < 0 && previousSymbol != '.') {
+                importFrom = tokenStart;
+                importStart = tokenEnd;
+                importDepth = 0;
+            }
+            
+            onMethodWord(word);
+        }
+        
+        private void onSymbol(char symbol) {
+            if (symbol == '(') {
+                openParens++;
+            } else if (symbol == ')') {
+                closeParens++;
+            }
+            expectAnnotationName = symbol == '@';
+            expectClassName = false;
+            throwState = 0;
+            autowiredState = 0;
+            onMethodSymbol(symbol);
+            
+            if (symbol == '{') {
+                braceDepth++;
+            } else if (symbol == '}' && braceDepth > 0) {
+                braceDepth--;
+                if (!openMethods.isEmpty() && openMethods.peek().depth == braceDepth) {
+                    closeMethod(tokenEnd, tokenLine);
+                }
+            }
+            if ((symbol == ';' || symbol == '{' || symbol == '}') && openParens <= closeParens) {
+                atBoundary = true;
+            }
+        }
+        
+        private void noteBusinessLogic(String word) {
+            switch (word) {
+                case "if": sawIf = true; break;
+                case "return": sawReturn = true; break;
+                case "new": sawNew = true; break;
+                default: break;
+            }
+            if (word.contains("null") || word.contains("empty")) {
+                sawNullOrEmpty = true;
+            }
+            if (word.contains("throw") || word.contains("catch")) {
+                sawThrowOrCatch = true;
+            }
+            if (word.contains("repository") || word.contains("service")) {
+                sawExternal = true;
+            }
+        }
+        
+        /**
+         * Method declarations: an access modifier, words (and generics) ending in the name, a parameter
+         * list, an optional throws clause and an opening brace
+         */
+        private void onMethodWord(String word) {
+            switch (methodState) {
+                case METHOD_PARAMS:
+                    if (paramDepth != 1) {
+                        return;
+                    }
+                    if (expectParamType && !word.equals("final")) {
+                        expectParamType = false;
+                        paramTypeStart = tokenStart;
+                        paramTypeEnd = tokenEnd;
+                        paramTypeAngles = 0;
+                    } else if (paramTypeStart >= 0 && (paramTypeAngles > 0 || previousSymbol == '.')) {
+                        paramTypeEnd = tokenEnd;
+                    } else if (paramTypeStart >= 0) {
+                        endParamType(); // The parameter name
+                    }
+                    return;
+                case METHOD_TAIL:
+                    return; // throws clause
+                default:
+                    break;
+            }
+            if (ACCESS_MODIFIERS.contains(word)) {
+                methodState = METHOD_HEAD;
+                methodModifier = word;
+                methodFirstWord = null;
+                methodLastWord = null;
+                methodWords = 0;
+            } else if (methodState == METHOD_HEAD) {
+                if (word.equals("class") || word.equals("interface") || word.equals("enum") || word.equals("record")) {
+                    methodState = NO_METHOD;
+                    return;
+                }
+                if (methodWords++ == 0) {
+                    methodFirstWord = word;
+                }
+                methodLastWord = word;
+            }
+        }
+        
+        private void onMethodSymbol(char symbol) {
+            switch (methodState) {
+                case METHOD_HEAD:
+                    if (symbol == '(' && methodLastWord != null) {
+                        methodState = METHOD_PARAMS;
+                        paramDepth = 1;
+                        expectParamType = true;
+                        paramTypeStart = -1;
+                        paramTypes.clear();
+                    } else if ("<>,.[]?&@".indexOf(symbol) < 0) {
+                        methodState = NO_METHOD; // A field, or a type declaration
+                    }
+                    break;
+                case METHOD_PARAMS:
+                    if (paramTypeStart >= 0 && paramDepth == 1 && symbol != ')' && (paramTypeAngles > 0 || "<.[]".indexOf(symbol) >= 0)) {
+                        paramTypeAngles += symbol == '<' ? 1 : symbol == '>' ? -1 : 0;
+                        paramTypeEnd = tokenEnd;
+                        break;
+                    }
+                    if (symbol == '(') {
+                        paramDepth++;
+                    } else if (symbol == ')' && --paramDepth == 0) {
+                        endParamType();
+                        methodState = METHOD_TAIL;
+                        addConstructorDependencies();
+                    } else if (symbol == ',' && paramDepth == 1) {
+                        endParamType();
+                        expectParamType = true;
+                    }
+                    break;
+                case METHOD_TAIL:
+                    if (symbol == '{') {
+                        openMethods.push(new MethodSpan(methodLastWord, signature(), declStart, declLine, tokenStart, braceDepth));
+                        methods.add(methodLastWord);
+                        if (methodModifier.equals("public") && !"static".equals(methodFirstWord) && !isGetterOrSetter(methodLastWord)) {
+                            testableMethods.add(methodLastWord);
+                        }
+                        methodState = NO_METHOD;
+                    } else if (symbol != '.' && symbol != ',') {
+                        methodState = NO_METHOD; // Abstract or interface method, or not a declaration at all
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        /**
+         * name(ParamType,...) of the method being declared, without whitespace inside generic parameter types
+         */
+        private String signature() {
+            StringBuilder signature = new StringBuilder(methodLastWord).append('(');
+            for (int i = 0; i < paramTypes.size(); i++) {
+                if (i > 0) {
+                    signature.append(',');
+                }
+                for (char c : paramTypes.get(i).toCharArray()) {
+                    if (!Character.isWhitespace(c)) {
+                        signature.append(c);
+                    }
+                }
+            }
+            return signature.append(')').toString();
+        }
+        
+        private void closeMethod(int end, int endLine) {
+            MethodSpan span = openMethods.pop();
+            span.end = end;
+            span.endLine = endLine;
+            methodSpans.add(span);
+        }
+        
+        private void endParamType() {
+            if (paramTypeStart >= 0) {
+                paramTypes.add(src.substring(paramTypeStart, paramTypeEnd));
+                paramTypeStart = -1;
+            }
+        }
+        
+        /**
+         * Constructor parameters (a public declaration with only a name before the parameters) are dependencies
+         */
+        private void addConstructorDependencies() {
+            if (methodModifier.equals("public") && methodWords == 1) {
+                for (String type : paramTypes) {
+                    if (!NON_MOCKED_TYPES.contains(type)) {
+                        dependencies.add(type);
+                    }
+                }
+            }
+        }
+        
+        /**
+         * An import ends at ';' or, with no bracket open, at the end of its line (Python, Go)
+         */
+        private void continueImport() {
+            if (importDepth == 0 && tokenLine > previousLine) {
+                endImport(previousEnd, previousEnd);
+                return;
+            }
+            if (tokenType == SYMBOL) {
+                char symbol = src.charAt(tokenStart);
+                if (symbol == '(' && tokenStart == importStart) {
+                    importStart = -1; // Dynamic import() call
+                } else if (symbol == ';' && importDepth == 0) {
+                    endImport(tokenStart, tokenEnd);
+                } else if (symbol == '(' || symbol == '{' || symbol == '[') {
+                    importDepth++;
+                } else if ((symbol == ')' || symbol == '}' || symbol == ']') && importDepth > 0) {
+                    importDepth--;
+                }
+            }
+        }
+        
+        /**
+         * @param end End of the imported name
+         * @param statementEnd End of the import statement, including its ';'
+         */
+        private void endImport(int end, int statementEnd) {
+            String text = src.substring(importStart, Math.max(importStart, end)).trim();
+            if (!text.isEmpty()) {
+                imports.add(text);
+            }
+            importRanges.add(new int[] {importFrom, statementEnd});
+            importStart = -1;
+        }
+        
+        private int next() {
+            skipTrivia();
+            if (pos >= length) {
+                tokenType = EOF;
+                return EOF;
+            }
+            
+            tokenStart = pos;
+            tokenLine = line;
+            char c = src.charAt(pos);
+            
+            if (isWordChar(c)) {
+                pos++;
+                while (pos < length && isWordChar(src.charAt(pos))) {
+                    pos++;
+                }
+                tokenType = WORD;
+            } else if (c == '"' || (c == '\'' && python)) {
+                String triple = c == '"' ? "\"\"\"" : "'''";
+                if (src.startsWith(triple, pos)) {
+                    pos = skipQuoted(pos + 3, triple);
+                } else {
+                    pos = skipQuoted(pos + 1, String.valueOf(c));
+                }
+                tokenType = STRING;
+            } else if (c == '\'') {
+                pos = skipQuoted(pos + 1, "'");
+                tokenType = STRING;
+            } else if (c == '`') {
+                pos = skipQuoted(pos + 1, "`");
+                tokenType = STRING;
+            } else {
+                pos++;
+                tokenType = SYMBOL;
+            }
+            tokenEnd = pos;
+            return tokenType;
+        }
+        
+        /**
+         * @return Position just after the closing delimiter, honouring backslash escapes
+         */
+        private int skipQuoted(int from, String delimiter) {
+            boolean multiline = delimiter.length() == 3 || delimiter.equals("`");
+            int i = from;
+            while (i < length) {
+                char c = src.charAt(i);
+                if (c == '\\') {
+                    i += 2;
+                    continue;
+                }
+                if (c == '\n') {
+                    if (!multiline) {
+                        return i; // Unterminated literal, resynchronize on the next line
+                    }
+                    line++;
+                }
+                if (src.startsWith(delimiter, i)) {
+                    return i + delimiter.length();
+                }
+                i++;
+            }
+            return length;
+        }
+        
+        private void skipTrivia() {
+            while (pos < length) {
+                char c = src.charAt(pos);
+                if (c == '\n') {
+                    line++;
+                    pos++;
+                } else if (c == ' ' || c == '\t' || c == '\r' || c == '\f') {
+                    pos++;
+                } else if ((c == '/' && pos + 1 < length && src.charAt(pos + 1) == '/') || (c == '#' && python)) {
+                    while (pos < length && src.charAt(pos) != '\n') {
+                        pos++;
+                    }
+                } else if (c == '/' && pos + 1 < length && src.charAt(pos + 1) == '*') {
+                    int end = src.indexOf("*/", pos + 2);
+                    end = end < 0 ? length : end + 2;
+                    for (int i = pos; i < end; i++) {
+                        if (src.charAt(i) == '\n') {
+                            line++;
+                        }
+                    }
+                    pos = end;
+                } else {
+                    return;
+                }
+            }
+        }
+        
+        private static boolean isWordChar(char c) {
+            if (c < 128) {
+                return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '$';
+            }
+            return Character.isJavaIdentifierPart(c);
+        }
     }
     
     /**
-     * Generate context for LLM
+     * A method declaration found by the scan; end and endLine are set at its closing brace
      */
-    private String generateContext(CodeAnalysisResult result) {
-        StringBuilder context = new StringBuilder();
-        
-        context.append("Code Analysis Summary:\n");
-        context.append("- File: ").append(result.getFilePath()).append("\n");
-        context.append("- Language: ").append(result.getLanguage()).append("\n");
-        context.append("- Classes: ").append(String.join(", ", result.getClasses())).append("\n");
-        context.append("- Methods: ").append(String.join(", ", result.getMethods())).append("\n");
-        context.append("- Testable Methods: ").append(String.join(", ", result.getTestableMethods())).append("\n");
-        context.append("- Dependencies: ").append(String.join(", ", result.getDependencies())).append("\n");
-        context.append("- Business Logic: ").append(String.join(", ", result.getBusinessLogic())).append("\n");
-        context.append("- Complexity: ").append(result.getComplexity()).append("\n");
-        
-        return context.toString();
+    private static final class MethodSpan {
+        final String name;
+        final String signature;
+        final int start;
+        final int startLine;
+        final int bodyStart;
+        final int depth; // Brace depth outside the body
+        int end;
+        int endLine;
+        
+        MethodSpan(String name, String signature, int start, int startLine, int bodyStart, int depth) {
+            this.name = name;
+            this.signature = signature;
+            this.start = start;
+            this.startLine = startLine;
+            this.bodyStart = bodyStart;
+            this.depth = depth;
+        }
     }
     
     /**
@@ -257,6 +847,7 @@ public class CodeAnalyzerService {
         private List<String> testableMethods;
         private List<String> dependencies;
         private List<String> businessLogic;
+        private List<String> changedMethods; // Set when the analysis was narrowed to these methods
         private String context;
         
         // Getters and setters
@@ -296,7 +887,30 @@ public class CodeAnalyzerService {
         public List<String> getBusinessLogic() { return businessLogic; }
         public void setBusinessLogic(List<String> businessLogic) { this.businessLogic = businessLogic; }
         
+        public List<String> getChangedMethods() { return changedMethods; }
+        public void setChangedMethods(List<String> changedMethods) { this.changedMethods = changedMethods; }
+        
         public String getContext() { return context; }
         public void setContext(String context) { this.context = context; }
+        
+        /**
+         * A copy for one file, sharing this result's lists
+         */
+        CodeAnalysisResult withSource(String filePath, String language, String originalCode) {
+            CodeAnalysisResult copy = new CodeAnalysisResult();
+            copy.filePath = filePath;
+            copy.language = language;
+            copy.originalCode = originalCode;
+            copy.classes = classes;
+            copy.methods = methods;
+            copy.annotations = annotations;
+            copy.imports = imports;
+            copy.exceptions = exceptions;
+            copy.complexity = complexity;
+            copy.testableMethods = testableMethods;
+            copy.dependencies = dependencies;
+            copy.businessLogic = businessLogic;
+            return copy;
+        }
     }
 }
@@ -0,0 +1,256 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.event.DashboardTotalsChangedEvent;
+import com.testplatform.backend.event.TestSuitesChangedEvent;
+import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.model.TestSuite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live per-repository test suite counters for the dashboard.
+ *
+ * Each suite's contribution (test case count, passed, failed, running, coverage) is remembered,
+ * and when the suite store reports a change the old contribution is subtracted and the suite's
+ * current one added. Reading the totals is O(1) no matter how many suites a repository has.
+ */
+@Service
+public class DashboardAggregateService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DashboardAggregateService.class);
+    
+    @Autowired
+    private TestSuiteStore testSuiteStore;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    private final Map<String, SuiteAggregate> aggregates = new ConcurrentHashMap<>();
+    
+    /**
+     * Suites loaded while the context was starting were stored before event listeners existed, so count them once here
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+        for (String repositoryId : testSuiteStore.getRepositoryIds()) {
+            SuiteAggregate aggregate = aggregate(repositoryId);
+            synchronized (aggregate) {
+                aggregate.clear();
+                for (TestSuite suite : testSuiteStore.findAll(repositoryId)) {
+                    aggregate.put(suite.getId(), SuiteContribution.of(suite));
+                }
+            }
+        }
+        logger.info("📊 Built dashboard aggregates for {} repositories ({}ms)", aggregates.size(), System.currentTimeMillis() - startTime);
+    }
+    
+    @EventListener
+    public void onSuitesChanged(TestSuitesChangedEvent event) {
+        SuiteAggregate aggregate = aggregate(event.getRepositoryId());
+        synchronized (aggregate) {
+            Map<String, TestSuite> current = testSuiteStore.findAllById(event.getRepositoryId(), event.getSuiteIds());
+            for (String id : event.getSuiteIds()) {
+                TestSuite suite = current.get(id);
+                aggregate.put(id, suite != null ? SuiteContribution.of(suite) : null);
+            }
+            // Published under the monitor so listeners see a repository's totals in version order
+            eventPublisher.publishEvent(new DashboardTotalsChangedEvent(event.getRepositoryId(), aggregate.totals()));
+        }
+    }
+    
+    /**
+     * Current totals of a repository
+     */
+    public SuiteTotals getTotals(String repositoryId) {
+        SuiteAggregate aggregate = aggregates.get(repositoryId);
+        if (aggregate == null) {
+            return new SuiteTotals();
+        }
+        synchronized (aggregate) {
+            return aggregate.totals();
+        }
+    }
+    
+    /**
+     * Highest suite coverage recorded on a day, by generation date or else last run date
+     * @return The coverage, or null if no suite reported any that day
+     */
+    public Double getMaxCoverageOn(String repositoryId, LocalDate day) {
+        SuiteAggregate aggregate = aggregates.get(repositoryId);
+        if (aggregate == null) {
+            return null;
+        }
+        synchronized (aggregate) {
+            TreeMap<Double, Integer> coverages = aggregate.coverageByDay.get(day);
+            return coverages != null ? coverages.lastKey() : null;
+        }
+    }
+    
+    private SuiteAggregate aggregate(String repositoryId) {
+        return aggregates.computeIfAbsent(repositoryId, id -> new SuiteAggregate());
+    }
+    
+    /**
+     * Totals of one repository at one point in time
+     */
+    public static class SuiteTotals {
+        private long version;
+        private int suites;
+        private int testCases;
+        private int passed;
+        private int failed;
+        private int runningSuites;
+        private int suitesWithCoverage;
+        private double coverageSum;
+        
+        /**
+         * Increases with every change to the repository's totals, so a newer snapshot can be told from an older one
+         */
+        public long getVersion() { return version; }
+        public int getSuites() { return suites; }
+        public int getTestCases() { return testCases; }
+        public int getPassed() { return passed; }
+        public int getFailed() { return failed; }
+        public int getRunningSuites() { return runningSuites; }
+        
+        /**
+         * Average coverage of suites that report coverage, or null if none do
+         */
+        public Double getAverageCoverage() {
+            return suitesWithCoverage > 0 ? coverageSum / suitesWithCoverage : null;
+        }
+    }
+    
+    /**
+     * What one suite adds to the totals, captured so it can be subtracted again after the suite changes
+     */
+    private static final class SuiteContribution {
+        int testCases;
+        int passed;
+        int failed;
+        boolean running;
+        Double coverage; // Only coverage > 0 counts toward the average
+        LocalDate coverageDay;
+        Double dayCoverage;
+        
+        static SuiteContribution of(TestSuite suite) {
+            SuiteContribution contribution = new SuiteContribution();
+            if (suite.getTestCases() != null) {
+                contribution.testCases = suite.getTestCases().size();
+                for (TestCase testCase : suite.getTestCases()) {
+                    if (testCase.getStatus() == TestStatus.PASSED) {
+                        contribution.passed++;
+                    } else if (testCase.getStatus() == TestStatus.FAILED) {
+                        contribution.failed++;
+                    }
+                }
+            }
+            contribution.running = suite.getStatus() == TestStatus.RUNNING;
+            if (suite.getCoverage() != null && suite.getCoverage() > 0) {
+                contribution.coverage = suite.getCoverage();
+            }
+            
+            // Same precedence as the dashboard trend: generation date with coverage, else last run pass rate
+            if (suite.getGeneratedAt() != null && contribution.coverage != null) {
+                contribution.coverageDay = suite.getGeneratedAt().toLocalDate();
+                contribution.dayCoverage = contribution.coverage;
+            } else if (suite.getLastRun() != null && suite.getPassedTests() != null
+                    && suite.getTotalTests() != null && suite.getTotalTests() > 0) {
+                contribution.coverageDay = suite.getLastRun().toLocalDate();
+                contribution.dayCoverage = (suite.getPassedTests() * 100.0) / suite.getTotalTests();
+            }
+            return contribution;
+        }
+    }
+    
+    /**
+     * Running totals of one repository; guarded by its own monitor
+     */
+    private static final class SuiteAggregate {
+        final Map<String, SuiteContribution> contributions = new HashMap<>();
+        long version;
+        int testCases;
+        int passed;
+        int failed;
+        int runningSuites;
+        int suitesWithCoverage;
+        double coverageSum;
+        
+        // Multiset of suite coverages per day, so the daily maximum survives removals
+        final Map<LocalDate, TreeMap<Double, Integer>> coverageByDay = new HashMap<>();
+        
+        /**
+         * Replace a suite's contribution; null removes the suite
+         */
+        void put(String suiteId, SuiteContribution contribution) {
+            version++;
+            SuiteContribution previous = contribution != null
+                ? contributions.put(suiteId, contribution)
+                : contributions.remove(suiteId);
+            if (previous != null) {
+                apply(previous, -1);
+            }
+            if (contribution != null) {
+                apply(contribution, 1);
+            }
+        }
+        
+        SuiteTotals totals() {
+            SuiteTotals totals = new SuiteTotals();
+            totals.version = version;
+            totals.suites = contributions.size();
+            totals.testCases = testCases;
+            totals.passed = passed;
+            totals.failed = failed;
+            totals.runningSuites = runningSuites;
+            totals.suitesWithCoverage = suitesWithCoverage;
+            totals.coverageSum = coverageSum;
+            return totals;
+        }
+        
+        void clear() {
+            version++;
+            contributions.clear();
+            testCases = passed = failed = runningSuites = suitesWithCoverage = 0;
+            coverageSum = 0.0;
+            coverageByDay.clear();
+        }
+        
+        private void apply(SuiteContribution contribution, int sign) {
+            testCases += sign * contribution.testCases;
+            passed += sign * contribution.passed;
+            failed += sign * contribution.failed;
+            if (contribution.running) {
+                runningSuites += sign;
+            }
+            if (contribution.coverage != null) {
+                suitesWithCoverage += sign;
+                coverageSum += sign * contribution.coverage;
+                if (suitesWithCoverage == 0) {
+                    coverageSum = 0.0; // Don't let rounding residue outlive the last suite
+                }
+            }
+            if (contribution.coverageDay != null) {
+                TreeMap<Double, Integer> coverages = coverageByDay.computeIfAbsent(contribution.coverageDay, d -> new TreeMap<>());
+                coverages.merge(contribution.dayCoverage, sign, Integer::sum);
+                if (coverages.get(contribution.dayCoverage) <= 0) {
+                    coverages.remove(contribution.dayCoverage);
+                }
+                if (coverages.isEmpty()) {
+                    coverageByDay.remove(contribution.coverageDay);
+                }
+            }
+        }
+    }
+}
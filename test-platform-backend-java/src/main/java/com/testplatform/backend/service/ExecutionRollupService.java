@@ -0,0 +1,543 @@
+package com.testplatform.backend.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.enums.ExecutionStatus;
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.event.TestExecutionEvent;
+import com.testplatform.backend.model.TestExecution;
+import com.testplatform.backend.repository.TestExecutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Execution event log with pass/fail/duration rollups per minute, hour and day,
+ * kept per repository and service.
+ *
+ * Every {@link TestExecutionEvent} is added to its buckets as it arrives and appended to an event log,
+ * so trend queries read buckets instead of executions. The rollups are checkpointed to a snapshot
+ * periodically, after which the event log only holds events newer than the snapshot; on startup the
+ * snapshot is loaded and the remaining events are replayed.
+ */
+@Service
+public class ExecutionRollupService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionRollupService.class);
+    
+    private static final int SNAPSHOT_VERSION = 1;
+    
+    public enum Resolution {
+        MINUTE(ChronoUnit.MINUTES), HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS);
+        
+        private final ChronoUnit unit;
+        
+        Resolution(ChronoUnit unit) {
+            this.unit = unit;
+        }
+        
+        public LocalDateTime bucketStart(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+    }
+    
+    @Autowired
+    private AppProperties appProperties;
+    
+    @Autowired
+    private TestExecutionRepository testExecutionRepository;
+    
+    @Autowired
+    private MultiRepositoryConfig multiRepositoryConfig;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Bucket start -> repository/service key -> bucket, per resolution; guarded by lock
+    private final Map<Resolution, NavigableMap<LocalDateTime, Map<String, Bucket>>> rollups = new EnumMap<>(Resolution.class);
+    private long lastSequence;
+    private final List<String> pendingEvents = new ArrayList<>();
+    
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "execution-rollups");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @PostConstruct
+    public void init() {
+        for (Resolution resolution : Resolution.values()) {
+            rollups.put(resolution, new TreeMap<>());
+        }
+        
+        long startTime = System.currentTimeMillis();
+        boolean restored = loadSnapshot();
+        int replayed = replayEventLog();
+        if (!restored && replayed == 0) {
+            backfillFromExecutions();
+        }
+        logger.info("📈 Loaded execution rollups: {} day buckets, {} events replayed ({}ms)",
+            rollups.get(Resolution.DAY).size(), replayed, System.currentTimeMillis() - startTime);
+        
+        AppProperties.Storage storage = appProperties.getStorage();
+        scheduler.scheduleWithFixedDelay(this::flush, storage.getFlushIntervalMs(), storage.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+        long checkpointMinutes = storage.getRollupCheckpointMinutes();
+        scheduler.scheduleWithFixedDelay(this::checkpoint, checkpointMinutes, checkpointMinutes, TimeUnit.MINUTES);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        checkpoint();
+    }
+    
+    /**
+     * Add an execution event to the rollups and queue it for the event log
+     */
+    @EventListener
+    public void onExecutionEvent(TestExecutionEvent event) {
+        LoggedEvent logged = LoggedEvent.from(event);
+        lock.writeLock().lock();
+        try {
+            logged.setSequence(++lastSequence);
+            apply(logged);
+            pendingEvents.add(objectMapper.writeValueAsString(logged));
+        } catch (IOException e) {
+            logger.error("❌ Failed to log execution event: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Rolled-up buckets in [from, to), oldest first. Buckets without activity are omitted.
+     * @param repositoryId Only this repository, or all if null
+     * @param service Only test results of this service, or everything if null. Execution counts and
+     *                durations aren't attributed to a service, so they are zero when filtering by service.
+     */
+    public List<Bucket> getTrend(Resolution resolution, LocalDateTime from, LocalDateTime to, String repositoryId, String service) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDateTime, Map<String, Bucket>> range = rollups.get(resolution);
+            if (from != null) {
+                range = range.tailMap(resolution.bucketStart(from), true);
+            }
+            if (to != null) {
+                range = range.headMap(to, false);
+            }
+            
+            List<Bucket> trend = new ArrayList<>(range.size());
+            for (Map.Entry<LocalDateTime, Map<String, Bucket>> slot : range.entrySet()) {
+                Bucket total = new Bucket();
+                total.setStart(slot.getKey());
+                total.setRepositoryId(repositoryId);
+                total.setService(service);
+                boolean matched = false;
+                for (Bucket bucket : slot.getValue().values()) {
+                    if ((repositoryId == null || repositoryId.equals(bucket.getRepositoryId()))
+                            && (service == null || service.equals(bucket.getService()))) {
+                        total.merge(bucket);
+                        matched = true;
+                    }
+                }
+                if (matched) {
+                    trend.add(total);
+                }
+            }
+            return trend;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Append queued events to the event log
+     */
+    public void flush() {
+        List<String> batch;
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pendingEvents);
+            pendingEvents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        StringBuilder lines = new StringBuilder();
+        batch.forEach(line -> lines.append(line).append('\n'));
+        Path file = getEventLogFile();
+        try {
+            Files.createDirectories(file.getParent());
+            ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            logger.error("❌ Failed to write execution event log: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Drop expired fine-grained buckets, write a snapshot of the rollups and truncate the event log.
+     * Events appended after the snapshot carry a higher sequence number, so a flush racing with
+     * the truncation never counts an event twice.
+     */
+    public void checkpoint() {
+        lock.writeLock().lock();
+        try {
+            prune();
+            
+            RollupSnapshot snapshot = new RollupSnapshot();
+            snapshot.setVersion(SNAPSHOT_VERSION);
+            snapshot.setLastSequence(lastSequence);
+            Map<Resolution, List<Bucket>> buckets = new EnumMap<>(Resolution.class);
+            rollups.forEach((resolution, slots) -> {
+                List<Bucket> list = new ArrayList<>();
+                slots.values().forEach(slot -> list.addAll(slot.values()));
+                buckets.put(resolution, list);
+            });
+            snapshot.setBuckets(buckets);
+            
+            Path file = getSnapshotFile();
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            pendingEvents.clear();
+            Files.deleteIfExists(getEventLogFile());
+        } catch (Exception e) {
+            logger.error("❌ Failed to checkpoint execution rollups: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void apply(LoggedEvent event) {
+        for (Resolution resolution : Resolution.values()) {
+            bucket(resolution, event.getTimestamp(), event.getRepositoryId(), event.getService()).add(event);
+        }
+    }
+    
+    private Bucket bucket(Resolution resolution, LocalDateTime time, String repositoryId, String service) {
+        LocalDateTime start = resolution.bucketStart(time);
+        return rollups.get(resolution)
+            .computeIfAbsent(start, k -> new HashMap<>())
+            .computeIfAbsent(repositoryId + "\u0000" + service, k -> {
+                Bucket bucket = new Bucket();
+                bucket.setStart(start);
+                bucket.setRepositoryId(repositoryId);
+                bucket.setService(service);
+                return bucket;
+            });
+    }
+    
+    private void prune() {
+        AppProperties.Storage storage = appProperties.getStorage();
+        LocalDateTime now = LocalDateTime.now();
+        rollups.get(Resolution.MINUTE).headMap(now.minusHours(storage.getMinuteRollupRetentionHours())).clear();
+        rollups.get(Resolution.HOUR).headMap(now.minusDays(storage.getHourRollupRetentionDays())).clear();
+    }
+    
+    private boolean loadSnapshot() {
+        Path file = getSnapshotFile();
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try {
+            RollupSnapshot snapshot = objectMapper.readValue(file.toFile(), RollupSnapshot.class);
+            if (snapshot.getVersion() != SNAPSHOT_VERSION || snapshot.getBuckets() == null) {
+                logger.info("Ignoring execution rollup snapshot with version {}", snapshot.getVersion());
+                return false;
+            }
+            snapshot.getBuckets().forEach((resolution, buckets) -> {
+                for (Bucket bucket : buckets) {
+                    bucket(resolution, bucket.getStart(), bucket.getRepositoryId(), bucket.getService()).merge(bucket);
+                }
+            });
+            lastSequence = snapshot.getLastSequence();
+            return true;
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not read execution rollup snapshot: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    private int replayEventLog() {
+        Path file = getEventLogFile();
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        
+        int replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                LoggedEvent event;
+                try {
+                    event = objectMapper.readValue(line, LoggedEvent.class);
+                } catch (IOException e) {
+                    continue; // Torn line from a crash
+                }
+                if (event.getSequence() > lastSequence) {
+                    apply(event);
+                    lastSequence = event.getSequence();
+                    replayed++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not read execution event log: {}", e.getMessage());
+        }
+        return replayed;
+    }
+    
+    /**
+     * Seed the rollups from stored executions the first time they are enabled. Stored executions
+     * only have totals, so their test results are not attributed to a service. Executions stored
+     * before they recorded a repository all ran against the default one.
+     */
+    private void backfillFromExecutions() {
+        List<TestExecution> executions = testExecutionRepository.findAll();
+        if (executions.isEmpty()) {
+            return;
+        }
+        
+        String defaultRepositoryId = multiRepositoryConfig.getDefaultRepository();
+        for (TestExecution execution : executions) {
+            if (execution.getStartTime() == null) {
+                continue;
+            }
+            String repositoryId = execution.getRepositoryId() != null ? execution.getRepositoryId() : defaultRepositoryId;
+            for (Resolution resolution : Resolution.values()) {
+                bucket(resolution, execution.getStartTime(), repositoryId, null).countStart();
+                if (execution.getEndTime() != null) {
+                    Bucket bucket = bucket(resolution, execution.getEndTime(), repositoryId, null);
+                    bucket.countCompletion(execution.getStatus(), execution.getDuration());
+                    if (execution.getResults() != null) {
+                        bucket.setTestsPassed(bucket.getTestsPassed() + execution.getResults().getPassed());
+                        bucket.setTestsFailed(bucket.getTestsFailed() + execution.getResults().getFailed());
+                        bucket.setTestsSkipped(bucket.getTestsSkipped() + execution.getResults().getSkipped());
+                    }
+                }
+            }
+        }
+        logger.info("📈 Backfilled execution rollups from {} stored executions", executions.size());
+        checkpoint();
+    }
+    
+    private Path getEventLogFile() {
+        return Paths.get(appProperties.getStorage().getDataDir(), "execution-events.jsonl");
+    }
+    
+    private Path getSnapshotFile() {
+        return Paths.get(appProperties.getStorage().getDataDir(), "execution-rollups.json");
+    }
+    
+    /**
+     * Pass/fail and duration totals of one time bucket for one repository and service
+     */
+    public static class Bucket {
+        private LocalDateTime start;
+        private String repositoryId;
+        private String service;
+        private long executionsStarted;
+        private long executionsCompleted;
+        private long executionsFailed;
+        private long executionDurationMs;
+        private long testsPassed;
+        private long testsFailed;
+        private long testsSkipped;
+        private long testDurationMs;
+        
+        void add(LoggedEvent event) {
+            long duration = event.getDurationMs() != null ? event.getDurationMs() : 0L;
+            switch (event.getType()) {
+                case STARTED -> countStart();
+                case TEST_FINISHED -> {
+                    if (event.getTestStatus() == TestStatus.PASSED) {
+                        testsPassed++;
+                    } else if (event.getTestStatus() == TestStatus.FAILED) {
+                        testsFailed++;
+                    } else if (event.getTestStatus() == TestStatus.SKIPPED) {
+                        testsSkipped++;
+                    }
+                    testDurationMs += duration;
+                }
+                case COMPLETED -> countCompletion(event.getExecutionStatus(), event.getDurationMs());
+            }
+        }
+        
+        void countStart() {
+            executionsStarted++;
+        }
+        
+        void countCompletion(ExecutionStatus status, Long durationMs) {
+            if (status == ExecutionStatus.COMPLETED) {
+                executionsCompleted++;
+            } else {
+                executionsFailed++;
+            }
+            executionDurationMs += durationMs != null ? durationMs : 0L;
+        }
+        
+        void merge(Bucket other) {
+            executionsStarted += other.executionsStarted;
+            executionsCompleted += other.executionsCompleted;
+            executionsFailed += other.executionsFailed;
+            executionDurationMs += other.executionDurationMs;
+            testsPassed += other.testsPassed;
+            testsFailed += other.testsFailed;
+            testsSkipped += other.testsSkipped;
+            testDurationMs += other.testDurationMs;
+        }
+        
+        public double getPassRate() {
+            long run = testsPassed + testsFailed;
+            return run > 0 ? (testsPassed * 100.0) / run : 0.0;
+        }
+        
+        public LocalDateTime getStart() { return start; }
+        public void setStart(LocalDateTime start) { this.start = start; }
+        
+        public String getRepositoryId() { return repositoryId; }
+        public void setRepositoryId(String repositoryId) { this.repositoryId = repositoryId; }
+        
+        public String getService() { return service; }
+        public void setService(String service) { this.service = service; }
+        
+        public long getExecutionsStarted() { return executionsStarted; }
+        public void setExecutionsStarted(long executionsStarted) { this.executionsStarted = executionsStarted; }
+        
+        public long getExecutionsCompleted() { return executionsCompleted; }
+        public void setExecutionsCompleted(long executionsCompleted) { this.executionsCompleted = executionsCompleted; }
+        
+        public long getExecutionsFailed() { return executionsFailed; }
+        public void setExecutionsFailed(long executionsFailed) { this.executionsFailed = executionsFailed; }
+        
+        public long getExecutionDurationMs() { return executionDurationMs; }
+        public void setExecutionDurationMs(long executionDurationMs) { this.executionDurationMs = executionDurationMs; }
+        
+        public long getTestsPassed() { return testsPassed; }
+        public void setTestsPassed(long testsPassed) { this.testsPassed = testsPassed; }
+        
+        public long getTestsFailed() { return testsFailed; }
+        public void setTestsFailed(long testsFailed) { this.testsFailed = testsFailed; }
+        
+        public long getTestsSkipped() { return testsSkipped; }
+        public void setTestsSkipped(long testsSkipped) { this.testsSkipped = testsSkipped; }
+        
+        public long getTestDurationMs() { return testDurationMs; }
+        public void setTestDurationMs(long testDurationMs) { this.testDurationMs = testDurationMs; }
+    }
+    
+    /**
+     * One line of the event log
+     */
+    public static class LoggedEvent {
+        private long sequence;
+        private TestExecutionEvent.Type type;
+        private String executionId;
+        private String repositoryId;
+        private String service;
+        private LocalDateTime timestamp;
+        private String testName;
+        private TestStatus testStatus;
+        private ExecutionStatus executionStatus;
+        private Long durationMs;
+        
+        static LoggedEvent from(TestExecutionEvent event) {
+            LoggedEvent logged = new LoggedEvent();
+            logged.setType(event.getType());
+            logged.setExecutionId(event.getExecutionId());
+            logged.setRepositoryId(event.getRepositoryId());
+            logged.setService(event.getService());
+            logged.setTimestamp(event.getTimestamp());
+            logged.setTestName(event.getTestName());
+            logged.setTestStatus(event.getTestStatus());
+            logged.setExecutionStatus(event.getExecutionStatus());
+            logged.setDurationMs(event.getDurationMs());
+            return logged;
+        }
+        
+        public long getSequence() { return sequence; }
+        public void setSequence(long sequence) { this.sequence = sequence; }
+        
+        public TestExecutionEvent.Type getType() { return type; }
+        public void setType(TestExecutionEvent.Type type) { this.type = type; }
+        
+        public String getExecutionId() { return executionId; }
+        public void setExecutionId(String executionId) { this.executionId = executionId; }
+        
+        public String getRepositoryId() { return repositoryId; }
+        public void setRepositoryId(String repositoryId) { this.repositoryId = repositoryId; }
+        
+        public String getService() { return service; }
+        public void setService(String service) { this.service = service; }
+        
+        public LocalDateTime getTimestamp() { return timestamp; }
+        public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+        
+        public String getTestName() { return testName; }
+        public void setTestName(String testName) { this.testName = testName; }
+        
+        public TestStatus getTestStatus() { return testStatus; }
+        public void setTestStatus(TestStatus testStatus) { this.testStatus = testStatus; }
+        
+        public ExecutionStatus getExecutionStatus() { return executionStatus; }
+        public void setExecutionStatus(ExecutionStatus executionStatus) { this.executionStatus = executionStatus; }
+        
+        public Long getDurationMs() { return durationMs; }
+        public void setDurationMs(Long durationMs) { this.durationMs = durationMs; }
+    }
+    
+    /**
+     * On-disk checkpoint of the rollups
+     */
+    public static class RollupSnapshot {
+        private int version;
+        private long lastSequence;
+        private Map<Resolution, List<Bucket>> buckets;
+        
+        public int getVersion() { return version; }
+        public void setVersion(int version) { this.version = version; }
+        
+        public long getLastSequence() { return lastSequence; }
+        public void setLastSequence(long lastSequence) { this.lastSequence = lastSequence; }
+        
+        public Map<Resolution, List<Bucket>> getBuckets() { return buckets; }
+        public void setBuckets(Map<Resolution, List<Bucket>> buckets) { this.buckets = buckets; }
+    }
+}
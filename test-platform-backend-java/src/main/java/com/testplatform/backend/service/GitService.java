@@ -1,17 +1,31 @@
 package com.testplatform.backend.service;
 
+import com.testplatform.backend.config.MultiRepositoryConfig;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.FetchCommand;
 import org.eclipse.jgit.api.PullCommand;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.StatusCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
 import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,13 +38,26 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 @Service
 public class GitService {
     
     private static final Logger logger = LoggerFactory.getLogger(GitService.class);
     
+    // Lines the "with language" readers put before the first line of a file
+    public static final int LANGUAGE_HEADER_LINES = 3;
+    
     @Value("${app.git.repository-path:./}")
     private String repositoryPath;
     
@@ -123,11 +150,146 @@ public class GitService {
         }
     }
     
+    /**
+     * Get code content for many files at once.
+     * Files are read from Git with a single tree walk; any file missing from Git
+     * falls back to the file system and then to the fallback code, like getCodeContentFromFile.
+     * @param filePaths Repository-relative file paths
+     * @param branch Branch or revision to read from
+     * @return File path to content, in request order
+     */
+    public Map<String, String> getCodeContentsFromFiles(Collection<String> filePaths, String branch) {
+        return getCodeContentsFromFiles(repositoryPath, filePaths, branch);
+    }
+    
+    /**
+     * Get code content for many files at once from the repository at localPath, see getCodeContentsFromFiles
+     * @param localPath Local directory of the repository
+     */
+    public Map<String, String> getCodeContentsFromFiles(String localPath, Collection<String> filePaths, String branch) {
+        Map<String, String> contents = new LinkedHashMap<>();
+        if (filePaths == null || filePaths.isEmpty()) {
+            return contents;
+        }
+        
+        Map<String, String> gitContents = new HashMap<>();
+        if (gitEnabled) {
+            try {
+                int found = readFilesFromGit(localPath, filePaths, branch, gitContents::put);
+                logger.info("✅ Retrieved {}/{} files from Git in one tree walk", found, filePaths.size());
+            } catch (Exception e) {
+                logger.warn("Failed to bulk read files from Git: {}", e.getMessage());
+            }
+        } else {
+            logger.warn("Git integration is disabled, using fallback code");
+        }
+        
+        for (String filePath : filePaths) {
+            String content = gitContents.get(normalizeRepoPath(filePath));
+            if (content == null || content.trim().isEmpty()) {
+                content = gitEnabled ? getCodeContentFromFileSystemOrFallback(localPath, filePath) : getFallbackCode(filePath);
+            }
+            contents.put(filePath, content);
+        }
+        return contents;
+    }
+    
+    /**
+     * Get code content for many files with language headers, see getCodeContentWithLanguage
+     */
+    public Map<String, String> getCodeContentsWithLanguage(Collection<String> filePaths, String branch) {
+        Map<String, String> contents = getCodeContentsFromFiles(filePaths, branch);
+        contents.replaceAll((filePath, content) -> withLanguageHeader(filePath, content));
+        return contents;
+    }
+    
+    /**
+     * Stream blobs for the given paths at a revision using one TreeWalk with a PathFilterGroup.
+     * Directory paths expand to every file beneath them. The consumer is called as each blob is found.
+     * @param filePaths Repository-relative file or directory paths
+     * @param branch Branch or revision to read from (falls back to HEAD)
+     * @param consumer Receives (path, content) for each file found
+     * @return Number of files delivered to the consumer
+     */
+    public int readFilesFromGit(Collection<String> filePaths, String branch, BiConsumer<String, String> consumer) throws IOException {
+        return readFilesFromGit(repositoryPath, filePaths, branch, consumer);
+    }
+    
+    /**
+     * Stream blobs for the given paths at a revision of the repository at localPath, see readFilesFromGit
+     * @param localPath Local directory of the repository
+     */
+    public int readFilesFromGit(String localPath, Collection<String> filePaths, String branch,
+                                BiConsumer<String, String> consumer) throws IOException {
+        List<String> normalizedPaths = filePaths.stream()
+            .map(this::normalizeRepoPath)
+            .filter(path -> !path.isEmpty())
+            .distinct()
+            .collect(Collectors.toList());
+        if (normalizedPaths.isEmpty()) {
+            return 0;
+        }
+        
+        try (Repository repository = Git.open(Paths.get(localPath).toFile()).getRepository()) {
+            ObjectId branchId = branch != null ? repository.resolve(branch) : null;
+            if (branchId == null) {
+                logger.warn("Branch {} not found, using HEAD", branch);
+                branchId = repository.resolve(Constants.HEAD);
+            }
+            
+            if (branchId == null) {
+                logger.warn("No HEAD commit found");
+                return 0;
+            }
+            
+            int found = 0;
+            try (RevWalk revWalk = new RevWalk(repository);
+                 TreeWalk treeWalk = new TreeWalk(repository)) {
+                treeWalk.addTree(revWalk.parseCommit(branchId).getTree());
+                treeWalk.setRecursive(true);
+                treeWalk.setFilter(PathFilterGroup.createFromStrings(normalizedPaths));
+                
+                ObjectReader reader = treeWalk.getObjectReader();
+                while (treeWalk.next()) {
+                    if (treeWalk.getFileMode(0).getObjectType() != Constants.OBJ_BLOB) {
+                        continue;
+                    }
+                    byte[] content = reader.open(treeWalk.getObjectId(0), Constants.OBJ_BLOB).getBytes();
+                    consumer.accept(treeWalk.getPathString(), new String(content, StandardCharsets.UTF_8));
+                    found++;
+                }
+            }
+            return found;
+        }
+    }
+    
+    private String getCodeContentFromFileSystemOrFallback(String localPath, String filePath) {
+        try {
+            String fsContent = getCodeFromFileSystem(localPath, filePath);
+            if (fsContent != null && !fsContent.trim().isEmpty()) {
+                return fsContent;
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to get code from file system for {}: {}", filePath, e.getMessage());
+        }
+        
+        logger.warn("Using fallback mock code for: {}", filePath);
+        return getFallbackCode(filePath);
+    }
+    
+    private String normalizeRepoPath(String filePath) {
+        return filePath == null ? "" : filePath.replace('\\', '/').replaceAll("^/+|/+$", "");
+    }
+    
     /**
      * Get code content from file system
      */
     private String getCodeFromFileSystem(String filePath) throws IOException {
-        Path fullPath = Paths.get(repositoryPath, filePath);
+        return getCodeFromFileSystem(repositoryPath, filePath);
+    }
+    
+    private String getCodeFromFileSystem(String localPath, String filePath) throws IOException {
+        Path fullPath = Paths.get(localPath, filePath);
         
         if (!Files.exists(fullPath)) {
             logger.warn("File does not exist: {}", fullPath);
@@ -161,10 +323,15 @@ public class GitService {
      */
     public String getCodeContentWithLanguage(String filePath, String branch) {
         String content = getCodeContentFromFile(filePath, branch);
+        return withLanguageHeader(filePath, content);
+    }
+    
+    /**
+     * Add language-specific context to the content
+     */
+    private String withLanguageHeader(String filePath, String content) {
         String language = detectLanguage(filePath);
-        
-        // Add language-specific context to the content
-        return String.format("// Language: %s\n// File: %s\n\n%s", language, filePath) + content;
+        return String.format("// Language: %s\n// File: %s\n\n%s", language, filePath, content);
     }
     
     /**
@@ -246,21 +413,39 @@ public class GitService {
      * @return true if cloning was successful, false otherwise
      */
     public boolean cloneRepository(String remoteUrl, String localPath, String username, String token) {
+        return cloneRepository(remoteUrl, localPath, null, username, token, null);
+    }
+    
+    /**
+     * Clone a remote repository, optionally shallow, single-branch and/or sparse.
+     * JGit has no client-side support for partial (blobless) clones, so depth and
+     * sparse paths are what keep disk usage down for large monorepos.
+     * @param remoteUrl The Git repository URL (https://, ssh or file://)
+     * @param localPath Local directory where to clone the repository
+     * @param branch Branch to check out (can be null to use the remote HEAD)
+     * @param username Username for authentication (can be null for public repos)
+     * @param token Personal access token or password (can be null for public repos)
+     * @param options Clone options (can be null for a full clone of all branches)
+     * @return true if cloning was successful, false otherwise
+     */
+    public boolean cloneRepository(String remoteUrl, String localPath, String branch, String username, String token,
+                                   MultiRepositoryConfig.CloneOptions options) {
         try {
             File localDir = new File(localPath);
             
             // Check if repository already exists
             if (isRepositoryCloned(localPath)) {
                 logger.info("📂 Repository already exists at {}, pulling latest changes", localPath);
-                return pullLatestChanges(localPath, username, token);
+                return pullLatestChanges(localPath, branch, username, token, options);
             }
             
             // Create parent directories if they don't exist
-            if (!localDir.getParentFile().exists()) {
-                localDir.getParentFile().mkdirs();
+            if (localDir.getAbsoluteFile().getParentFile() != null && !localDir.getAbsoluteFile().getParentFile().exists()) {
+                localDir.getAbsoluteFile().getParentFile().mkdirs();
             }
             
             logger.info("📥 Cloning repository from {} to {}", remoteUrl, localPath);
+            long startTime = System.currentTimeMillis();
             
             // Build clone command
             CloneCommand cloneCommand = Git.cloneRepository()
@@ -268,6 +453,26 @@ public class GitService {
                 .setDirectory(localDir)
                 .setCloneAllBranches(true);
             
+            if (branch != null && !branch.isEmpty()) {
+                cloneCommand.setBranch(branch);
+            }
+            
+            if (options != null) {
+                if (options.isShallow()) {
+                    cloneCommand.setDepth(options.getDepth());
+                    logger.info("🪶 Shallow clone with depth {}", options.getDepth());
+                }
+                if (options.isSingleBranch() && branch != null && !branch.isEmpty()) {
+                    cloneCommand.setCloneAllBranches(false)
+                        .setBranchesToClone(List.of(Constants.R_HEADS + branch));
+                    logger.info("🌿 Single-branch clone of {}", branch);
+                }
+                if (options.isSparse()) {
+                    // Check out nothing during clone; the sparse paths are materialized below
+                    cloneCommand.setNoCheckout(true);
+                }
+            }
+            
             // Add credentials if provided
             if (username != null && token != null && !username.isEmpty() && !token.isEmpty()) {
                 cloneCommand.setCredentialsProvider(
@@ -279,10 +484,13 @@ public class GitService {
             }
             
             // Execute clone
-            Git git = cloneCommand.call();
-            git.close();
+            try (Git git = cloneCommand.call()) {
+                if (options != null && options.isSparse()) {
+                    checkoutSparsePaths(git, Constants.HEAD, options.getSparsePaths());
+                }
+            }
             
-            logger.info("✅ Successfully cloned repository to {}", localPath);
+            logger.info("✅ Successfully cloned repository to {} in {}ms", localPath, System.currentTimeMillis() - startTime);
             return true;
             
         } catch (GitAPIException e) {
@@ -302,6 +510,25 @@ public class GitService {
      * @return true if pull was successful, false otherwise
      */
     public boolean pullLatestChanges(String localPath, String username, String token) {
+        return pullLatestChanges(localPath, null, username, token, null);
+    }
+    
+    /**
+     * Pull latest changes, keeping shallow and sparse clones shallow and sparse.
+     * Both are fetched with the configured depth and moved to the remote tip instead of merged, since a
+     * shallow history may not reach the old tip. Sparse clones then re-check out only the sparse paths
+     * (and drop files deleted upstream from them), so no other files are materialized.
+     * Moving to the tip would overwrite local edits, so a checkout with uncommitted changes to tracked
+     * files (under the sparse paths, for sparse clones) is not updated.
+     * @param localPath Local directory of the repository
+     * @param branch Branch to update (can be null to use the current branch)
+     * @param username Username for authentication (can be null)
+     * @param token Personal access token or password (can be null)
+     * @param options Clone options the repository was created with (can be null)
+     * @return true if pull was successful, false otherwise (including when local changes were kept)
+     */
+    public boolean pullLatestChanges(String localPath, String branch, String username, String token,
+                                     MultiRepositoryConfig.CloneOptions options) {
         try {
             File localDir = new File(localPath);
             
@@ -313,16 +540,52 @@ public class GitService {
             logger.info("🔄 Pulling latest changes for repository at {}", localPath);
             
             try (Git git = Git.open(localDir)) {
-                PullCommand pullCommand = git.pull();
-                
-                // Add credentials if provided
+                UsernamePasswordCredentialsProvider credentialsProvider = null;
                 if (username != null && token != null && !username.isEmpty() && !token.isEmpty()) {
-                    pullCommand.setCredentialsProvider(
-                        new UsernamePasswordCredentialsProvider(username, token)
-                    );
+                    credentialsProvider = new UsernamePasswordCredentialsProvider(username, token);
                 }
                 
-                pullCommand.call();
+                if (options != null && (options.isSparse() || options.isShallow())) {
+                    if (hasUncommittedChanges(git, options.isSparse() ? options.getSparsePaths() : null)) {
+                        logger.warn("⚠️ Uncommitted changes in {}, skipping pull so they are not overwritten", localPath);
+                        return false;
+                    }
+                    Repository repository = git.getRepository();
+                    String targetBranch = branch != null && !branch.isEmpty() ? branch : git.getRepository().getBranch();
+                    FetchCommand fetchCommand = git.fetch();
+                    if (options.isShallow()) {
+                        fetchCommand.setDepth(options.getDepth());
+                    }
+                    if (credentialsProvider != null) {
+                        fetchCommand.setCredentialsProvider(credentialsProvider);
+                    }
+                    fetchCommand.call();
+                    
+                    String remoteRef = Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + targetBranch;
+                    if (repository.resolve(remoteRef) == null) {
+                        logger.warn("⚠️ Remote branch {} not found after fetch", remoteRef);
+                        return false;
+                    }
+                    
+                    if (options.isSparse()) {
+                        // Move the branch and the index to the remote tip, then bring the sparse paths up to date
+                        ObjectId previousHead = repository.resolve(Constants.HEAD);
+                        git.reset().setMode(ResetCommand.ResetType.MIXED).setRef(remoteRef).call();
+                        removeDeletedPaths(git, previousHead, options.getSparsePaths());
+                        checkoutSparsePaths(git, Constants.HEAD, options.getSparsePaths());
+                    } else {
+                        git.reset().setMode(ResetCommand.ResetType.HARD).setRef(remoteRef).call();
+                    }
+                } else {
+                    PullCommand pullCommand = git.pull();
+                    
+                    // Add credentials if provided
+                    if (credentialsProvider != null) {
+                        pullCommand.setCredentialsProvider(credentialsProvider);
+                    }
+                    
+                    pullCommand.call();
+                }
                 logger.info("✅ Successfully pulled latest changes");
                 return true;
             }
@@ -336,6 +599,332 @@ public class GitService {
         }
     }
     
+    /**
+     * Whether tracked files have staged or unstaged changes; untracked files don't count
+     * @param paths Only look under these paths, or the whole working tree if null
+     */
+    private boolean hasUncommittedChanges(Git git, List<String> paths) throws GitAPIException {
+        StatusCommand statusCommand = git.status();
+        if (paths != null) {
+            List<String> normalizedPaths = paths.stream().map(this::normalizeRepoPath).distinct().collect(Collectors.toList());
+            if (!normalizedPaths.contains("")) {
+                normalizedPaths.forEach(statusCommand::addPath);
+            }
+        }
+        return statusCommand.call().hasUncommittedChanges();
+    }
+    
+    /**
+     * Check out only the given paths from a revision into the index and working tree.
+     * Paths missing from the revision are skipped so one stale entry doesn't fail the clone.
+     */
+    private void checkoutSparsePaths(Git git, String revision, List<String> sparsePaths) throws IOException, GitAPIException {
+        Repository repository = git.getRepository();
+        ObjectId commitId = repository.resolve(revision);
+        if (commitId == null) {
+            logger.warn("⚠️ Cannot resolve {} for sparse checkout", revision);
+            return;
+        }
+        
+        List<String> existingPaths = new ArrayList<>();
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            RevTree tree = revWalk.parseCommit(commitId).getTree();
+            for (String path : sparsePaths) {
+                String normalized = normalizeRepoPath(path);
+                try (TreeWalk treeWalk = TreeWalk.forPath(repository, normalized, tree)) {
+                    if (treeWalk != null) {
+                        existingPaths.add(normalized);
+                    } else {
+                        logger.warn("⚠️ Sparse path {} not found in {}", normalized, revision);
+                    }
+                }
+            }
+        }
+        
+        if (existingPaths.isEmpty()) {
+            logger.warn("⚠️ None of the sparse paths exist, working tree left empty");
+            return;
+        }
+        
+        git.checkout()
+            .setStartPoint(commitId.name())
+            .addPaths(existingPaths)
+            .call();
+        logger.info("🧩 Sparse checkout of {} path(s): {}", existingPaths.size(), existingPaths);
+    }
+    
+    /**
+     * Delete the working tree files under the sparse paths that existed in a previous commit but not in HEAD
+     */
+    private void removeDeletedPaths(Git git, ObjectId previousHead, List<String> sparsePaths) throws IOException {
+        Repository repository = git.getRepository();
+        ObjectId head = repository.resolve(Constants.HEAD);
+        if (previousHead == null || head == null || previousHead.equals(head)) {
+            return;
+        }
+        
+        List<String> normalized = sparsePaths.stream().map(this::normalizeRepoPath).collect(Collectors.toList());
+        int removed = 0;
+        try (RevWalk revWalk = new RevWalk(repository);
+             TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(revWalk.parseCommit(previousHead).getTree());
+            treeWalk.addTree(revWalk.parseCommit(head).getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(AndTreeFilter.create(PathFilterGroup.createFromStrings(normalized), TreeFilter.ANY_DIFF));
+            Path root = repository.getWorkTree().toPath();
+            while (treeWalk.next()) {
+                if (treeWalk.getRawMode(1) == 0) {
+                    Path file = root.resolve(treeWalk.getPathString());
+                    if (Files.deleteIfExists(file)) {
+                        removed++;
+                        deleteEmptyParents(root, file.getParent());
+                    }
+                }
+            }
+        }
+        if (removed > 0) {
+            logger.info("🧹 Removed {} file(s) deleted upstream from the sparse paths", removed);
+        }
+    }
+    
+    private void deleteEmptyParents(Path root, Path dir) throws IOException {
+        while (dir != null && !dir.equals(root) && dir.startsWith(root)) {
+            try (var entries = Files.list(dir)) {
+                if (entries.findAny().isPresent()) {
+                    return;
+                }
+            }
+            Files.delete(dir);
+            dir = dir.getParent();
+        }
+    }
+    
+    /**
+     * Snapshot the tips of all local branches and remote-tracking refs
+     * @param localPath Local directory of the repository
+     * @return Ref name to commit id, empty if the repository cannot be read
+     */
+    public Map<String, String> getRefTips(String localPath) {
+        Map<String, String> tips = new TreeMap<>();
+        if (!isRepositoryCloned(localPath)) {
+            return tips;
+        }
+        
+        try (Git git = Git.open(new File(localPath))) {
+            for (Ref ref : git.getRepository().getRefDatabase().getRefsByPrefix(Constants.R_HEADS, Constants.R_REMOTES)) {
+                if (ref.isSymbolic() || ref.getObjectId() == null) {
+                    continue;
+                }
+                tips.put(ref.getName(), ref.getObjectId().name());
+            }
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to read refs at {}: {}", localPath, e.getMessage());
+        }
+        return tips;
+    }
+    
+    /**
+     * List the paths that differ between two commits
+     * @param localPath Local directory of the repository
+     * @param oldRevision Old commit id or revision string
+     * @param newRevision New commit id or revision string
+     * @return Changed paths, empty if either commit is unavailable (e.g. cut off by a shallow clone)
+     */
+    public List<String> getChangedPaths(String localPath, String oldRevision, String newRevision) {
+        List<String> paths = new ArrayList<>();
+        
+        try (Git git = Git.open(new File(localPath));
+             RevWalk revWalk = new RevWalk(git.getRepository())) {
+            Repository repository = git.getRepository();
+            ObjectId oldId = repository.resolve(oldRevision);
+            ObjectId newId = repository.resolve(newRevision);
+            if (oldId == null || newId == null) {
+                logger.warn("⚠️ Cannot resolve {}..{} in {}", oldRevision, newRevision, localPath);
+                return paths;
+            }
+            
+            try (TreeWalk treeWalk = new TreeWalk(repository)) {
+                treeWalk.addTree(revWalk.parseCommit(oldId).getTree());
+                treeWalk.addTree(revWalk.parseCommit(newId).getTree());
+                treeWalk.setRecursive(true);
+                treeWalk.setFilter(TreeFilter.ANY_DIFF);
+                while (treeWalk.next()) {
+                    paths.add(treeWalk.getPathString());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to diff {}..{} in {}: {}", oldRevision, newRevision, localPath, e.getMessage());
+        }
+        return paths;
+    }
+    
+    /**
+     * List the files in the working tree that the HEAD commit doesn't have: untracked files that are not ignored,
+     * and files newly added to the Git index
+     * @param localPath Local directory of the repository
+     * @param filePaths Restrict the status to these files/directories (null or "" checks the whole tree)
+     * @return Repository-relative file paths, empty if the repository cannot be read
+     */
+    public Set<String> listUncommittedFiles(String localPath, Collection<String> filePaths) {
+        Set<String> paths = new TreeSet<>();
+        if (!isRepositoryCloned(localPath)) {
+            return paths;
+        }
+        
+        try (Git git = Git.open(new File(localPath))) {
+            StatusCommand statusCommand = git.status();
+            if (filePaths != null) {
+                List<String> normalizedPaths = filePaths.stream()
+                    .map(this::normalizeRepoPath)
+                    .distinct()
+                    .collect(Collectors.toList());
+                if (!normalizedPaths.contains("")) {
+                    normalizedPaths.forEach(statusCommand::addPath);
+                }
+            }
+            Status status = statusCommand.call();
+            paths.addAll(status.getUntracked());
+            paths.addAll(status.getAdded());
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to read the working tree status of {}: {}", localPath, e.getMessage());
+        }
+        return paths;
+    }
+    
+    /**
+     * Resolve a revision to a commit id
+     * @param localPath Local directory of the repository
+     * @param revision Branch, ref or revision string (falls back to HEAD when null or unknown)
+     * @return Commit id, or null if nothing can be resolved
+     */
+    public String resolveCommitId(String localPath, String revision) {
+        if (!isRepositoryCloned(localPath)) {
+            return null;
+        }
+        
+        try (Git git = Git.open(new File(localPath))) {
+            Repository repository = git.getRepository();
+            ObjectId commitId = revision != null ? repository.resolve(revision) : null;
+            if (commitId == null) {
+                commitId = repository.resolve(Constants.HEAD);
+            }
+            return commitId != null ? commitId.name() : null;
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to resolve {} in {}: {}", revision, localPath, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * List file paths in the tree of a commit without reading any blobs
+     * @param localPath Local directory of the repository
+     * @param commitId Commit id to list
+     * @param filePaths Restrict the walk to these files/directories (null lists the whole tree)
+     * @return Repository-relative file paths in tree order
+     */
+    public List<String> listFiles(String localPath, String commitId, Collection<String> filePaths) throws IOException {
+        List<String> paths = new ArrayList<>();
+        
+        try (Git git = Git.open(new File(localPath));
+             RevWalk revWalk = new RevWalk(git.getRepository());
+             TreeWalk treeWalk = new TreeWalk(git.getRepository())) {
+            treeWalk.addTree(revWalk.parseCommit(ObjectId.fromString(commitId)).getTree());
+            treeWalk.setRecursive(true);
+            
+            if (filePaths != null) {
+                List<String> normalizedPaths = filePaths.stream()
+                    .map(this::normalizeRepoPath)
+                    .filter(path -> !path.isEmpty())
+                    .distinct()
+                    .collect(Collectors.toList());
+                if (normalizedPaths.isEmpty()) {
+                    return paths;
+                }
+                treeWalk.setFilter(PathFilterGroup.createFromStrings(normalizedPaths));
+            }
+            
+            while (treeWalk.next()) {
+                if (treeWalk.getFileMode(0).getObjectType() == Constants.OBJ_BLOB) {
+                    paths.add(treeWalk.getPathString());
+                }
+            }
+        }
+        return paths;
+    }
+    
+    /**
+     * Stream the blobs of the given files in a commit using one tree walk
+     * @param localPath Local directory of the repository
+     * @param commitId Commit id to read
+     * @param filePaths Repository-relative file paths
+     * @param maxBytes Blobs larger than this are skipped without being loaded
+     * @param consumer Receives (path, content) for each file read, on the calling thread
+     * @return Number of files delivered to the consumer
+     */
+    public int readFiles(String localPath, String commitId, Collection<String> filePaths, long maxBytes,
+                         BiConsumer<String, String> consumer) throws IOException {
+        List<String> normalizedPaths = filePaths.stream()
+            .map(this::normalizeRepoPath)
+            .filter(path -> !path.isEmpty())
+            .distinct()
+            .collect(Collectors.toList());
+        if (normalizedPaths.isEmpty()) {
+            return 0;
+        }
+        
+        int found = 0;
+        try (Git git = Git.open(new File(localPath));
+             RevWalk revWalk = new RevWalk(git.getRepository());
+             TreeWalk treeWalk = new TreeWalk(git.getRepository())) {
+            treeWalk.addTree(revWalk.parseCommit(ObjectId.fromString(commitId)).getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathFilterGroup.createFromStrings(normalizedPaths));
+            
+            ObjectReader reader = treeWalk.getObjectReader();
+            while (treeWalk.next()) {
+                if (treeWalk.getFileMode(0).getObjectType() != Constants.OBJ_BLOB) {
+                    continue;
+                }
+                ObjectLoader loader = reader.open(treeWalk.getObjectId(0), Constants.OBJ_BLOB);
+                if (loader.getSize() > maxBytes) {
+                    continue;
+                }
+                consumer.accept(treeWalk.getPathString(), new String(loader.getBytes(), StandardCharsets.UTF_8));
+                found++;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Run repository maintenance: enable and write the commit-graph, then gc/repack
+     * with pack bitmaps so rev walks and merge-base queries stay fast as history grows.
+     * @param localPath Local directory of the repository
+     * @param aggressive Use aggressive delta compression (slower, smaller packs)
+     * @return Statistics before and after, plus the runtime in milliseconds
+     */
+    public Map<String, Object> runMaintenance(String localPath, boolean aggressive) throws IOException, GitAPIException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        
+        try (Git git = Git.open(new File(localPath))) {
+            StoredConfig config = git.getRepository().getConfig();
+            config.setBoolean(ConfigConstants.CONFIG_CORE_SECTION, null, ConfigConstants.CONFIG_COMMIT_GRAPH, true);
+            config.setBoolean(ConfigConstants.CONFIG_GC_SECTION, null, ConfigConstants.CONFIG_KEY_WRITE_COMMIT_GRAPH, true);
+            config.setBoolean(ConfigConstants.CONFIG_PACK_SECTION, null, ConfigConstants.CONFIG_KEY_BUILD_BITMAPS, true);
+            config.save();
+            
+            long startTime = System.currentTimeMillis();
+            report.put("before", git.gc().getStatistics());
+            Properties after = git.gc().setAggressive(aggressive).call();
+            report.put("after", after);
+            report.put("durationMs", System.currentTimeMillis() - startTime);
+            report.put("commitGraph", new File(git.getRepository().getDirectory(), "objects/info/commit-graph").exists());
+        }
+        
+        logger.info("🧹 Maintenance of {} finished in {}ms", localPath, report.get("durationMs"));
+        return report;
+    }
+    
     /**
      * Check if a repository is already cloned at the specified path
      * @param localPath Path to check
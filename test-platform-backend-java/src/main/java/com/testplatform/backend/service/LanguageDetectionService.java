@@ -1,12 +1,12 @@
 package com.testplatform.backend.service;
 
+import com.testplatform.backend.util.SignatureMatcher;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.regex.Pattern;
 
 @Service
 public class LanguageDetectionService {
@@ -59,10 +59,39 @@ public class LanguageDetectionService {
         EXTENSION_MAPPING.put(".rs", "rust");
     }
     
+    // Every language and framework signature compiled once into one matcher, so a file is read once for all of them
+    private static final SignatureMatcher SIGNATURE_MATCHER;
+    private static final Map<String, int[]> LANGUAGE_SIGNATURE_IDS = new HashMap<>();
+    private static final Map<String, int[]> FRAMEWORK_SIGNATURE_IDS = new HashMap<>();
+    
+    static {
+        Map<String, Integer> signatureIds = new LinkedHashMap<>();
+        LANGUAGE_PATTERNS.forEach((language, patterns) -> LANGUAGE_SIGNATURE_IDS.put(language, signatureIds(signatureIds, patterns)));
+        FRAMEWORK_PATTERNS.forEach((framework, patterns) -> FRAMEWORK_SIGNATURE_IDS.put(framework, signatureIds(signatureIds, patterns)));
+        SIGNATURE_MATCHER = SignatureMatcher.compile(new ArrayList<>(signatureIds.keySet()));
+    }
+    
+    private static int[] signatureIds(Map<String, Integer> signatureIds, List<String> patterns) {
+        return patterns.stream().mapToInt(pattern -> signatureIds.computeIfAbsent(pattern, p -> signatureIds.size())).toArray();
+    }
+    
     /**
      * Detect programming language from file content and extension
      */
     public LanguageDetectionResult detectLanguage(String filePath, String content) {
+        return detectLanguage(filePath, content, matchSignatures(content));
+    }
+    
+    /**
+     * Detect language and framework from one read of the file content
+     */
+    public DetectionResult detectLanguageAndFramework(String filePath, String content) {
+        BitSet matched = matchSignatures(content);
+        LanguageDetectionResult language = detectLanguage(filePath, content, matched);
+        return new DetectionResult(language, detectFramework(language.getLanguage(), matched));
+    }
+    
+    private LanguageDetectionResult detectLanguage(String filePath, String content, BitSet matched) {
         logger.info("🔍 Detecting language for: {}", filePath);
         
         String extension = getFileExtension(filePath);
@@ -76,8 +105,8 @@ public class LanguageDetectionService {
         }
         
         // Then try content-based detection
-        if (content != null && !content.trim().isEmpty()) {
-            Map<String, Double> languageScores = analyzeContent(content);
+        if (matched != null) {
+            Map<String, Double> languageScores = score(LANGUAGE_PATTERNS, LANGUAGE_SIGNATURE_IDS, matched);
             String contentBasedLanguage = getBestMatch(languageScores);
             
             if (contentBasedLanguage != null) {
@@ -106,33 +135,18 @@ public class LanguageDetectionService {
      * Detect framework from file content
      */
     public FrameworkDetectionResult detectFramework(String language, String content) {
+        return detectFramework(language, matchSignatures(content));
+    }
+    
+    private FrameworkDetectionResult detectFramework(String language, BitSet matched) {
         logger.info("🔍 Detecting framework for language: {}", language);
         
-        if (content == null || content.trim().isEmpty()) {
+        if (matched == null) {
             return new FrameworkDetectionResult(null, 0.0);
         }
         
-        Map<String, Double> frameworkScores = new HashMap<>();
-        
         // Analyze content for framework patterns
-        for (Map.Entry<String, List<String>> entry : FRAMEWORK_PATTERNS.entrySet()) {
-            String framework = entry.getKey();
-            List<String> patterns = entry.getValue();
-            
-            double score = 0.0;
-            int matches = 0;
-            
-            for (String pattern : patterns) {
-                if (content.contains(pattern) || Pattern.compile(pattern).matcher(content).find()) {
-                    matches++;
-                }
-            }
-            
-            if (matches > 0) {
-                score = (double) matches / patterns.size();
-                frameworkScores.put(framework, score);
-            }
-        }
+        Map<String, Double> frameworkScores = score(FRAMEWORK_PATTERNS, FRAMEWORK_SIGNATURE_IDS, matched);
         
         String detectedFramework = getBestMatch(frameworkScores);
         double confidence = frameworkScores.getOrDefault(detectedFramework, 0.0);
@@ -191,27 +205,34 @@ public class LanguageDetectionService {
     }
     
     /**
-     * Analyze content for language patterns
+     * Find every language and framework signature in the content in one pass
+     * @return Matched signature ids, or null if there is no content to analyze
+     */
+    private BitSet matchSignatures(String content) {
+        if (content == null || content.trim().isEmpty()) {
+            return null;
+        }
+        return SIGNATURE_MATCHER.match(content);
+    }
+    
+    /**
+     * Score each candidate by the share of its patterns found in the content
      */
-    private Map<String, Double> analyzeContent(String content) {
+    private Map<String, Double> score(Map<String, List<String>> patternsByName, Map<String, int[]> signatureIdsByName, BitSet matched) {
         Map<String, Double> scores = new HashMap<>();
         
-        for (Map.Entry<String, List<String>> entry : LANGUAGE_PATTERNS.entrySet()) {
-            String language = entry.getKey();
-            List<String> patterns = entry.getValue();
-            
-            double score = 0.0;
+        // Same iteration order as the pattern map, so ties resolve as they always have
+        for (String name : patternsByName.keySet()) {
+            int[] signatureIds = signatureIdsByName.get(name);
             int matches = 0;
-            
-            for (String pattern : patterns) {
-                if (content.contains(pattern) || Pattern.compile(pattern).matcher(content).find()) {
+            for (int signatureId : signatureIds) {
+                if (matched.get(signatureId)) {
                     matches++;
                 }
             }
             
             if (matches > 0) {
-                score = (double) matches / patterns.size();
-                scores.put(language, score);
+                scores.put(name, (double) matches / signatureIds.length);
             }
         }
         
@@ -263,6 +284,22 @@ public class LanguageDetectionService {
         public String getExtension() { return extension; }
     }
     
+    /**
+     * Language and framework detected together
+     */
+    public static class DetectionResult {
+        private final LanguageDetectionResult language;
+        private final FrameworkDetectionResult framework;
+        
+        public DetectionResult(LanguageDetectionResult language, FrameworkDetectionResult framework) {
+            this.language = language;
+            this.framework = framework;
+        }
+        
+        public LanguageDetectionResult getLanguage() { return language; }
+        public FrameworkDetectionResult getFramework() { return framework; }
+    }
+    
     /**
      * Framework detection result
      */
@@ -0,0 +1,326 @@
+package com.testplatform.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.event.DashboardTotalsChangedEvent;
+import com.testplatform.backend.event.TestExecutionEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fan-out hub for Server-Sent Events.
+ *
+ * Execution transitions, per-test results and dashboard total changes are serialized once and
+ * offered to every matching client's bounded buffer, so publishers never wait on the network.
+ * Each client's buffer is drained by at most one sender task at a time. A client whose buffer
+ * fills up is too slow to keep up and is disconnected; its browser reconnects and re-reads the
+ * current state from the snapshot sent on connect.
+ *
+ * A new client is registered before its snapshot is read, so no change can slip in between, and
+ * live events are held back until the snapshot is queued, so the snapshot always comes first.
+ * Held dashboard totals that the snapshot already supersedes are dropped.
+ */
+@Service
+public class LiveUpdateService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LiveUpdateService.class);
+    
+    public static final String EXECUTION_EVENT = "execution";
+    public static final String TEST_RESULT_EVENT = "test-result";
+    public static final String DASHBOARD_EVENT = "dashboard";
+    public static final String EXECUTION_SNAPSHOT_EVENT = "execution-snapshot"; // Full execution record, sent on connect
+    
+    @Autowired
+    private AppProperties appProperties;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    
+    private final Map<Long, Client> clients = new ConcurrentHashMap<>();
+    private final AtomicLong clientIds = new AtomicLong();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    // One drain task per client at most, so the pool never holds more threads than there are clients
+    private final ExecutorService senders = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "live-updates-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "live-updates-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startHeartbeat() {
+        long seconds = appProperties.getLiveUpdates().getHeartbeatSeconds();
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, seconds, seconds, TimeUnit.SECONDS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        clients.values().forEach(client -> close(client, null));
+        senders.shutdownNow();
+    }
+    
+    /**
+     * Open a stream for a new client
+     * @param repositoryId Only events of this repository, or null for all
+     * @param executionId Only events of this execution, or null for all
+     * @param snapshot Reads the events (name to payload) delivered before any live event, so the client starts from current state
+     */
+    public SseEmitter subscribe(String repositoryId, String executionId, Supplier<Map<String, Object>> snapshot) {
+        AppProperties.LiveUpdates config = appProperties.getLiveUpdates();
+        if (clients.size() >= config.getMaxClients()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live update clients");
+        }
+        
+        SseEmitter emitter = new SseEmitter(config.getStreamTimeoutMs());
+        Client client = new Client(clientIds.incrementAndGet(), emitter, repositoryId, executionId, config.getClientBufferSize());
+        emitter.onCompletion(() -> clients.remove(client.id));
+        emitter.onTimeout(() -> close(client, null));
+        emitter.onError(error -> close(client, null));
+        clients.put(client.id, client);
+        
+        List<Message> initial = new ArrayList<>();
+        try {
+            snapshot.get().forEach((name, payload) -> initial.add(toMessage(name, payload)));
+        } catch (RuntimeException e) {
+            close(client, null);
+            throw e;
+        }
+        synchronized (client) {
+            initial.forEach(message -> enqueue(client, message));
+            for (Message message : client.held) {
+                if (!supersededBy(message, initial)) {
+                    enqueue(client, message);
+                }
+            }
+            client.held = null;
+        }
+        logger.info("📡 Live update client {} connected (repository: {}, execution: {}, {} clients)",
+            client.id, repositoryId, executionId, clients.size());
+        return emitter;
+    }
+    
+    public int getClientCount() {
+        return clients.size();
+    }
+    
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+    
+    @EventListener
+    public void onExecutionEvent(TestExecutionEvent event) {
+        String name = event.getType() == TestExecutionEvent.Type.TEST_FINISHED ? TEST_RESULT_EVENT : EXECUTION_EVENT;
+        broadcast(name, event.getRepositoryId(), event.getExecutionId(), event);
+    }
+    
+    @EventListener
+    public void onDashboardTotalsChanged(DashboardTotalsChangedEvent event) {
+        broadcast(DASHBOARD_EVENT, event.getRepositoryId(), null, event);
+    }
+    
+    /**
+     * Queue an event for every interested client
+     * @param executionId Execution the event belongs to, or null for repository-wide events
+     */
+    private void broadcast(String name, String repositoryId, String executionId, Object payload) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        Message message = null;
+        for (Client client : clients.values()) {
+            if (client.accepts(repositoryId, executionId)) {
+                if (message == null) {
+                    message = toMessage(name, payload); // Serialized once for all clients
+                }
+                offer(client, message);
+            }
+        }
+    }
+    
+    private void sendHeartbeat() {
+        Message ping = new Message(null, null, null, null);
+        for (Client client : clients.values()) {
+            offer(client, ping);
+        }
+    }
+    
+    private void offer(Client client, Message message) {
+        if (client.held != null) {
+            synchronized (client) {
+                if (client.held != null) {
+                    // Still reading the snapshot
+                    if (client.held.size() >= client.buffer.remainingCapacity()) {
+                        evictions.incrementAndGet();
+                        logger.warn("⚠️ Live update client {} fell {} events behind, disconnecting it", client.id, client.held.size());
+                        close(client, null);
+                        return;
+                    }
+                    client.held.add(message);
+                    return;
+                }
+            }
+        }
+        enqueue(client, message);
+    }
+    
+    private void enqueue(Client client, Message message) {
+        if (client.closed) {
+            return;
+        }
+        if (!client.buffer.offer(message)) {
+            evictions.incrementAndGet();
+            logger.warn("⚠️ Live update client {} fell {} events behind, disconnecting it", client.id, client.buffer.size());
+            close(client, null);
+            return;
+        }
+        if (client.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(client));
+            } catch (RejectedExecutionException e) {
+                client.draining.set(false); // Shutting down
+            }
+        }
+    }
+    
+    /**
+     * Send everything queued for a client; blocks only this client's sender on a slow connection
+     */
+    private void drain(Client client) {
+        do {
+            Message message;
+            while (!client.closed && (message = client.buffer.poll()) != null) {
+                try {
+                    client.emitter.send(message.toEvent());
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Live update client {} disconnected: {}", client.id, e.getMessage());
+                    close(client, e);
+                    return;
+                }
+            }
+            client.draining.set(false);
+            // Re-check so a message queued after the last poll isn't left behind
+        } while (!client.closed && !client.buffer.isEmpty() && client.draining.compareAndSet(false, true));
+    }
+    
+    private void close(Client client, Throwable error) {
+        if (clients.remove(client.id) == null && client.closed) {
+            return;
+        }
+        client.closed = true;
+        client.buffer.clear();
+        try {
+            if (error != null) {
+                client.emitter.completeWithError(error);
+            } else {
+                client.emitter.complete();
+            }
+        } catch (Exception e) {
+            // Already completed by the container
+        }
+    }
+    
+    /**
+     * Whether a held message is dashboard totals no newer than the snapshot's totals of the same repository
+     */
+    private static boolean supersededBy(Message message, List<Message> snapshot) {
+        if (message.totals == null) {
+            return false;
+        }
+        for (Message current : snapshot) {
+            if (current.totals != null && Objects.equals(current.totals.getRepositoryId(), message.totals.getRepositoryId())
+                    && current.totals.getTotals().getVersion() >= message.totals.getTotals().getVersion()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private Message toMessage(String name, Object payload) {
+        try {
+            DashboardTotalsChangedEvent totals = payload instanceof DashboardTotalsChangedEvent ? (DashboardTotalsChangedEvent) payload : null;
+            return new Message(Long.toString(eventIds.incrementAndGet()), name, objectMapper.writeValueAsString(payload), totals);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + name + " event", e);
+        }
+    }
+    
+    /**
+     * A serialized event; without a name it is a heartbeat comment
+     */
+    private static final class Message {
+        final String id;
+        final String name;
+        final String json;
+        final DashboardTotalsChangedEvent totals; // Set for dashboard events, to compare versions with a snapshot
+        
+        Message(String id, String name, String json, DashboardTotalsChangedEvent totals) {
+            this.id = id;
+            this.name = name;
+            this.json = json;
+            this.totals = totals;
+        }
+        
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event().id(id).name(name).data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+    
+    private static final class Client {
+        final long id;
+        final SseEmitter emitter;
+        final String repositoryId;
+        final String executionId;
+        final BlockingQueue<Message> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+        // Live events that arrived while the snapshot was read; null once the snapshot is queued. Guarded by the client
+        volatile List<Message> held = new ArrayList<>();
+        
+        Client(long id, SseEmitter emitter, String repositoryId, String executionId, int bufferSize) {
+            this.id = id;
+            this.emitter = emitter;
+            this.repositoryId = repositoryId;
+            this.executionId = executionId;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+        
+        boolean accepts(String eventRepositoryId, String eventExecutionId) {
+            if (repositoryId != null && eventRepositoryId != null && !repositoryId.equals(eventRepositoryId)) {
+                return false;
+            }
+            // A client watching one execution only wants that execution's events
+            return executionId == null || executionId.equals(eventExecutionId);
+        }
+    }
+}
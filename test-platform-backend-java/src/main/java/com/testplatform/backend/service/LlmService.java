@@ -3,8 +3,10 @@ package com.testplatform.backend.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.config.MultiRepositoryConfig;
 import com.testplatform.backend.enums.TestType;
 import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.util.SymbolGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class LlmService {
@@ -25,6 +28,15 @@ public class LlmService {
     @Autowired
     private CodeAnalyzerService codeAnalyzerService;
     
+    @Autowired
+    private SymbolGraphService symbolGraphService;
+    
+    @Autowired
+    private MultiRepositoryService multiRepositoryService;
+    
+    // Tag of generated tests naming the method under test
+    static final String METHOD_TAG_PREFIX = "method:";
+    
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
     
@@ -32,13 +44,31 @@ public class LlmService {
      * Generate test cases using LLM based on code content
      */
     public List<TestCase> generateTestCases(String code, TestType testType, String language, String filePath) {
+        return generateTestCases(code, testType, language, filePath, null);
+    }
+    
+    /**
+     * Generate test cases for the changed methods of a file only. The prompt carries the class with every other
+     * method body elided, so its size follows the change rather than the file.
+     * @param changedMethods Method signatures as in {@link com.testplatform.backend.util.MethodIndex}, null for the whole file
+     */
+    public List<TestCase> generateTestCases(String code, TestType testType, String language, String filePath, Set<String> changedMethods) {
+        return generateTestCases(code, testType, language, filePath, changedMethods, null);
+    }
+    
+    /**
+     * Generate test cases with the symbol graph of the file's repository as extra context
+     * @param repositoryId Repository the file belongs to, null for the default repository
+     */
+    public List<TestCase> generateTestCases(String code, TestType testType, String language, String filePath,
+                                            Set<String> changedMethods, String repositoryId) {
         try {
             logger.info("🤖 Generating {} tests using LLM for {}", testType, filePath);
             
             // Analyze the code first to get better context
-            CodeAnalyzerService.CodeAnalysisResult analysis = codeAnalyzerService.analyzeCode(code, filePath, language);
+            CodeAnalyzerService.CodeAnalysisResult analysis = codeAnalyzerService.analyzeCode(code, filePath, language, changedMethods);
             
-            String prompt = buildEnhancedPrompt(code, testType, language, filePath, analysis);
+            String prompt = buildEnhancedPrompt(analysis.getOriginalCode(), testType, language, filePath, analysis, repositoryId);
             String response = callLlmApi(prompt);
             return parseLlmResponse(response, testType, language, filePath);
             
@@ -49,11 +79,45 @@ public class LlmService {
         }
     }
     
+    /**
+     * Add what the rest of the repository says about the file's classes: who uses them and which tests
+     * already cover them. Skipped while the repository's symbol graph is still being built.
+     */
+    private void appendRepositoryContext(StringBuilder prompt, CodeAnalyzerService.CodeAnalysisResult analysis, String repositoryId) {
+        MultiRepositoryConfig.RepositoryConfig repo = repositoryId != null
+            ? multiRepositoryService.getRepository(repositoryId) : multiRepositoryService.getDefaultRepository();
+        SymbolGraph graph = repo != null ? symbolGraphService.getGraphIfReady(repo.getId()) : null;
+        if (graph == null) {
+            return;
+        }
+        
+        Set<String> dependents = new LinkedHashSet<>();
+        Set<String> tests = new LinkedHashSet<>();
+        for (String className : analysis.getClasses()) {
+            if (graph.contains(className)) {
+                dependents.addAll(graph.getDependents(className, false));
+                tests.addAll(graph.getTests(className, false));
+            }
+        }
+        dependents.removeAll(analysis.getClasses());
+        if (!dependents.isEmpty()) {
+            prompt.append("- Used By: ").append(joinFirst(dependents, 10)).append("\n");
+        }
+        if (!tests.isEmpty()) {
+            prompt.append("- Existing Tests: ").append(joinFirst(tests, 10)).append("\n");
+        }
+    }
+    
+    private static String joinFirst(Collection<String> values, int limit) {
+        String joined = values.stream().limit(limit).collect(Collectors.joining(", "));
+        return values.size() > limit ? joined + " (and " + (values.size() - limit) + " more)" : joined;
+    }
+    
     /**
      * Build enhanced prompt with code analysis
      */
     private String buildEnhancedPrompt(String code, TestType testType, String language, String filePath, 
-                                     CodeAnalyzerService.CodeAnalysisResult analysis) {
+                                     CodeAnalyzerService.CodeAnalysisResult analysis, String repositoryId) {
         StringBuilder prompt = new StringBuilder();
         
         prompt.append("You are an expert software testing engineer. Generate comprehensive test cases for the following code.\n\n");
@@ -67,15 +131,27 @@ public class LlmService {
         prompt.append(code);
         prompt.append("\n```\n\n");
         
+        List<String> changedMethods = analysis.getChangedMethods();
+        if (changedMethods != null) {
+            prompt.append("Only these methods changed: ").append(String.join(", ", changedMethods)).append(". ");
+            prompt.append("The bodies of the other methods are elided and already have tests; do not test them.\n\n");
+        }
+        
         prompt.append("Test Requirements:\n");
         prompt.append("- Test Type: ").append(testType).append("\n");
         prompt.append("- Language: ").append(language).append("\n");
         prompt.append("- File: ").append(filePath).append("\n");
         prompt.append("- Testable Methods: ").append(String.join(", ", analysis.getTestableMethods())).append("\n");
         prompt.append("- Dependencies: ").append(String.join(", ", analysis.getDependencies())).append("\n");
-        prompt.append("- Business Logic Patterns: ").append(String.join(", ", analysis.getBusinessLogic())).append("\n\n");
+        prompt.append("- Business Logic Patterns: ").append(String.join(", ", analysis.getBusinessLogic())).append("\n");
+        appendRepositoryContext(prompt, analysis, repositoryId);
+        prompt.append("\n");
         
-        prompt.append("Generate 8-15 comprehensive, high-quality test cases that cover:\n");
+        if (changedMethods != null) {
+            prompt.append("Generate 2-5 comprehensive, high-quality test cases per changed method that cover:\n");
+        } else {
+            prompt.append("Generate 8-15 comprehensive, high-quality test cases that cover:\n");
+        }
         
         switch (testType) {
             case UNIT:
@@ -146,6 +222,7 @@ public class LlmService {
         prompt.append("      \"name\": \"Test case name\",\n");
         prompt.append("      \"description\": \"Detailed description of what this test validates\",\n");
         prompt.append("      \"priority\": \"HIGH|MEDIUM|LOW\",\n");
+        prompt.append("      \"method\": \"Name of the method under test\",\n");
         prompt.append("      \"testCode\": \"Generated test code snippet\"\n");
         prompt.append("    }\n");
         prompt.append("  ]\n");
@@ -342,6 +419,12 @@ public class LlmService {
                     testCase.setFilePath(filePath);
                     testCase.setCode(testCaseNode.get("testCode").asText());
                     
+                    // Which method the test targets, so incremental generation can keep it while that method is unchanged
+                    JsonNode methodNode = testCaseNode.get("method");
+                    if (methodNode != null && !methodNode.asText().isBlank()) {
+                        testCase.setTags(new ArrayList<>(List.of(METHOD_TAG_PREFIX + methodNode.asText().trim())));
+                    }
+                    
                     // Parse priority
                     String priorityStr = testCaseNode.get("priority").asText();
                     switch (priorityStr.toUpperCase()) {
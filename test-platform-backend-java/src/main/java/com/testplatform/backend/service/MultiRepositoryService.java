@@ -71,7 +71,7 @@ public class MultiRepositoryService {
                         logger.info("✅ Repository already exists at: {}", repo.getPath());
                         
                         // Pull latest changes
-                        if (gitService.pullLatestChanges(repo.getPath(), username, token)) {
+                        if (gitService.pullLatestChanges(repo.getPath(), repo.getBranch(), username, token, repo.getCloneOptions())) {
                             logger.info("🔄 Updated repository with latest changes");
                             existingCount++;
                         } else {
@@ -80,7 +80,8 @@ public class MultiRepositoryService {
                         }
                     } else {
                         // Clone the repository
-                        if (gitService.cloneRepository(repo.getRemoteUrl(), repo.getPath(), username, token)) {
+                        if (gitService.cloneRepository(repo.getRemoteUrl(), repo.getPath(), repo.getBranch(),
+                                username, token, repo.getCloneOptions())) {
                             logger.info("✅ Successfully cloned repository to: {}", repo.getPath());
                             clonedCount++;
                         } else {
@@ -193,6 +194,25 @@ public class MultiRepositoryService {
         }
     }
     
+    /**
+     * Get code content for many files from any repository with a single Git tree walk
+     */
+    public Map<String, String> getCodeContents(String repositoryId, Collection<String> filePaths, String branch) {
+        MultiRepositoryConfig.RepositoryConfig repo = getRepository(repositoryId);
+        if (repo == null) {
+            logger.error("Repository not found: {}", repositoryId);
+            return Collections.emptyMap();
+        }
+        
+        if (!repo.isEnabled()) {
+            logger.warn("Repository is disabled: {}", repositoryId);
+            return Collections.emptyMap();
+        }
+        
+        // Read from the repository's own path; GitService's current path is shared by every request
+        return gitService.getCodeContentsFromFiles(repo.getPath(), filePaths, branch != null ? branch : repo.getBranch());
+    }
+    
     /**
      * Get changed files from any repository
      */
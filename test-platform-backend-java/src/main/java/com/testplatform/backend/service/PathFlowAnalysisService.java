@@ -1,16 +1,30 @@
 package com.testplatform.backend.service;
 
+import com.testplatform.backend.config.AppProperties;
 import com.testplatform.backend.enums.TestType;
 import com.testplatform.backend.enums.TestStatus;
 import com.testplatform.backend.enums.TestPriority;
 import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.util.FlowGraph;
+import com.testplatform.backend.util.WeightedLruCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.regex.Matcher;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -19,6 +33,9 @@ public class PathFlowAnalysisService {
     
     private static final Logger logger = LoggerFactory.getLogger(PathFlowAnalysisService.class);
     
+    // Test names are built from every endpoint, operation and edge case of a flow
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-zA-Z0-9]");
+    
     @Autowired
     private LlmService llmService;
     
@@ -28,34 +45,75 @@ public class PathFlowAnalysisService {
     @Autowired
     private RealCodeAnalysisService realCodeAnalysisService;
     
+    @Autowired
+    private AppProperties appProperties;
+    
+    private ExecutorService serviceAnalyzers;
+    
+    // Parses by exact flow text, analyses by structural key; both null when caching is disabled
+    private WeightedLruCache<String, PathFlowComponents> parsedFlows;
+    private WeightedLruCache<String, PathFlowAnalysisResult> analyses;
+    
+    @PostConstruct
+    public void init() {
+        AppProperties.PathFlow config = appProperties.getPathFlow();
+        serviceAnalyzers = Executors.newFixedThreadPool(config.getMaxParallelServices(), r -> {
+            Thread thread = new Thread(r, "path-flow-analyzer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (Boolean.TRUE.equals(config.getCacheEnabled())) {
+            // Parses are small next to analyses, which carry generated test code
+            parsedFlows = new WeightedLruCache<>(config.getCacheMaxBytes() / 8, PathFlowComponents::estimateBytes);
+            analyses = new WeightedLruCache<>(config.getCacheMaxBytes() - config.getCacheMaxBytes() / 8,
+                PathFlowAnalysisResult::estimateBytes);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        serviceAnalyzers.shutdownNow();
+    }
+    
     /**
-     * Analyze path flow and generate comprehensive test suites
+     * Analyze path flow and generate comprehensive test suites.
+     * A flow that parses to the same components as an earlier one, for the same services, configs and service
+     * sources, is answered from the cache; the test cases returned are copies the caller may update.
      */
     public PathFlowAnalysisResult analyzePathFlow(String repositoryId, String pathFlow, 
                                                  List<String> services, Map<String, String> serviceConfigs) {
         try {
-            logger.info("🔍 Analyzing path flow: {} across {} services", pathFlow, services.size());
-            
             // Parse path flow to identify components
-            PathFlowComponents components = parsePathFlow(pathFlow);
+            PathFlowComponents components = parsePathFlowCached(pathFlow);
             
-            // Analyze each service in the path flow
-            List<ServiceAnalysis> serviceAnalyses = new ArrayList<>();
+            String cacheKey = analyses != null ? analysisKey(components, services, serviceConfigs) : null;
+            PathFlowAnalysisResult cached = cacheKey != null ? analyses.get(cacheKey) : null;
+            if (cached != null) {
+                logger.debug("Reusing path flow analysis across {} services", services.size());
+                return cached.copy();
+            }
+            
+            logger.info("🔍 Analyzing path flow: {} across {} services", pathFlow, services.size());
+            
+            // Analyze the services concurrently
+            CompletionService<ServiceAnalysis> completedAnalyses = new ExecutorCompletionService<>(serviceAnalyzers);
+            List<Future<ServiceAnalysis>> pendingAnalyses = new ArrayList<>(services.size());
             for (String service : services) {
-                ServiceAnalysis analysis = analyzeService(service, serviceConfigs.get(service), components);
-                serviceAnalyses.add(analysis);
+                String serviceConfig = serviceConfigs.get(service);
+                pendingAnalyses.add(completedAnalyses.submit(() -> analyzeService(service, serviceConfig, components)));
             }
             
-            // Generate cross-service integration tests
-            List<TestCase> integrationTests = generateCrossServiceTests(components, serviceAnalyses);
+            // Cross-service and end-to-end tests only need the parsed components, so they are generated meanwhile
+            List<TestCase> integrationTests = generateCrossServiceTests(components);
+            List<TestCase> e2eTests = generateEndToEndTests(components);
             
-            // Generate end-to-end path flow tests
-            List<TestCase> e2eTests = generateEndToEndTests(components, serviceAnalyses);
+            // In the order the services were given, whichever finished first
+            List<ServiceAnalysis> serviceAnalyses = awaitAll(completedAnalyses, pendingAnalyses);
             
             // Calculate coverage metrics
             CoverageMetrics metrics = calculateCoverageMetrics(serviceAnalyses, integrationTests, e2eTests);
             
-            return new PathFlowAnalysisResult(
+            PathFlowAnalysisResult result = new PathFlowAnalysisResult(
                 components,
                 serviceAnalyses,
                 integrationTests,
@@ -63,27 +121,140 @@ public class PathFlowAnalysisService {
                 metrics
             );
             
+            // A service whose sources could not be fully read would keep its gaps until the sources change
+            if (cacheKey != null && serviceAnalyses.stream().allMatch(analysis -> analysis.complete)) {
+                analyses.put(cacheKey, result.copy());
+            }
+            return result;
+        
         } catch (Exception e) {
             logger.error("❌ Error analyzing path flow: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to analyze path flow", e);
         }
     }
     
+    /**
+     * Parse a flow, reusing the components of an identical flow text
+     */
+    private PathFlowComponents parsePathFlowCached(String pathFlow) {
+        PathFlowComponents components = parsedFlows != null ? parsedFlows.get(pathFlow) : null;
+        if (components == null) {
+            components = parsePathFlow(pathFlow).freeze();
+            if (parsedFlows != null) {
+                parsedFlows.put(pathFlow, components);
+            }
+        }
+        return components;
+    }
+    
+    /**
+     * Hash of what an analysis depends on: the parsed components rather than the flow text (so flows worded
+     * differently but with the same actions, endpoints and operations share an entry), the services in order,
+     * their configs and the version of each service's sources
+     * @return The key, or null if a source version is unknown and the analysis must not be cached
+     */
+    private String analysisKey(PathFlowComponents components, List<String> services, Map<String, String> serviceConfigs) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (List<String> part : components.parts()) {
+                updateDigest(digest, part);
+            }
+            updateDigest(digest, services);
+            for (String service : services) {
+                String sourceVersion = realCodeAnalysisService.getSourceVersion(service);
+                if (sourceVersion == null) {
+                    return null;
+                }
+                updateDigest(digest, Arrays.asList(serviceConfigs.get(service), sourceVersion));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Length-prefixed, so no two different lists hash the same bytes
+     */
+    private static void updateDigest(MessageDigest digest, List<String> values) {
+        digest.update(ByteBuffer.allocate(4).putInt(values.size()).array());
+        for (String value : values) {
+            byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            digest.update(ByteBuffer.allocate(4).putInt(value != null ? bytes.length : -1).array());
+            digest.update(bytes);
+        }
+    }
+    
+    /**
+     * Cached parses and analyses, or null if caching is disabled
+     */
+    public Map<String, Object> getCacheStats() {
+        if (analyses == null) {
+            return null;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("parsedFlows", parsedFlows.getStats());
+        stats.put("analyses", analyses.getStats());
+        return stats;
+    }
+    
+    /**
+     * Wait for every service analysis in the order they finish, so the first failure cancels the rest and is
+     * rethrown without waiting on slower services given before it
+     * @return The analyses in the order the services were given
+     */
+    private static List<ServiceAnalysis> awaitAll(CompletionService<ServiceAnalysis> completedAnalyses,
+                                                  List<Future<ServiceAnalysis>> pendingAnalyses) throws Exception {
+        try {
+            for (int i = 0; i < pendingAnalyses.size(); i++) {
+                completedAnalyses.take().get();
+            }
+            List<ServiceAnalysis> results = new ArrayList<>(pendingAnalyses.size());
+            for (Future<ServiceAnalysis> pending : pendingAnalyses) {
+                results.add(pending.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            pendingAnalyses.forEach(pending -> pending.cancel(true));
+        }
+    }
+    
     /**
      * Parse path flow to identify components and dependencies
      */
     private PathFlowComponents parsePathFlow(String pathFlow) {
-        logger.info("📋 Parsing path flow: {}", pathFlow);
+        FlowGraph graph = FlowGraph.parse(pathFlow);
+        logger.info("📋 Parsed path flow into {} steps, {} nodes and {} edges",
+            graph.getStepCount(), graph.getNodeCount(), graph.getEdgeCount());
+        List<Integer> unreachableSteps = graph.getUnreachableSteps();
+        if (!unreachableSteps.isEmpty()) {
+            logger.warn("⚠️ Path flow steps {} can't be reached from the first step", FlowGraph.formatSteps(unreachableSteps));
+        }
         
         // Extract user actions, API calls, database operations, etc.
-        List<String> userActions = extractUserActions(pathFlow);
-        List<String> apiEndpoints = extractApiEndpoints(pathFlow);
-        List<String> databaseOperations = extractDatabaseOperations(pathFlow);
-        List<String> externalServices = extractExternalServices(pathFlow);
+        List<String> userActions = graph.labels(FlowGraph.Kind.USER_ACTION);
+        List<String> apiEndpoints = graph.labels(FlowGraph.Kind.API_CALL);
+        List<String> databaseOperations = graph.labels(FlowGraph.Kind.DATABASE_OPERATION);
+        List<String> externalServices = graph.labels(FlowGraph.Kind.EXTERNAL_CALL);
         
         // Identify critical paths and edge cases
-        List<String> criticalPaths = identifyCriticalPaths(pathFlow);
-        List<String> edgeCases = identifyEdgeCases(pathFlow);
+        List<String> criticalPaths = identifyCriticalPaths(graph);
+        List<String> edgeCases = identifyEdgeCases(graph);
+        
+        Map<String, Object> graphSummary = new LinkedHashMap<>();
+        graphSummary.put("steps", graph.getStepCount());
+        graphSummary.put("nodes", graph.getNodeCount());
+        graphSummary.put("edges", graph.getEdgeCount());
+        graphSummary.put("branches", graph.getBranches().size());
+        graphSummary.put("loops", graph.getLoops().size());
+        graphSummary.put("paths", graph.getPathCount());
+        graphSummary.put("longestPathNodes", graph.getLongestPathNodes());
+        graphSummary.put("unreachableSteps", unreachableSteps.size());
         
         return new PathFlowComponents(
             userActions,
@@ -91,7 +262,8 @@ public class PathFlowAnalysisService {
             databaseOperations,
             externalServices,
             criticalPaths,
-            edgeCases
+            edgeCases,
+            graphSummary
         );
     }
     
@@ -114,7 +286,7 @@ public class PathFlowAnalysisService {
         List<TestCase> unitTests = generateServiceUnitTestsFromRealCode(serviceName, realCodeResult, responsibilities);
         List<TestCase> integrationTests = generateServiceIntegrationTestsFromRealCode(serviceName, realCodeResult, components);
         
-        return new ServiceAnalysis(
+        ServiceAnalysis analysis = new ServiceAnalysis(
             serviceName,
             language,
             framework,
@@ -122,12 +294,14 @@ public class PathFlowAnalysisService {
             unitTests,
             integrationTests
         );
+        analysis.complete = realCodeResult.isComplete();
+        return analysis;
     }
     
     /**
      * Generate cross-service integration tests
      */
-    private List<TestCase> generateCrossServiceTests(PathFlowComponents components, List<ServiceAnalysis> serviceAnalyses) {
+    private List<TestCase> generateCrossServiceTests(PathFlowComponents components) {
         logger.info("🔗 Generating cross-service integration tests");
         
         List<TestCase> tests = new ArrayList<>();
@@ -156,7 +330,7 @@ public class PathFlowAnalysisService {
     /**
      * Generate end-to-end path flow tests
      */
-    private List<TestCase> generateEndToEndTests(PathFlowComponents components, List<ServiceAnalysis> serviceAnalyses) {
+    private List<TestCase> generateEndToEndTests(PathFlowComponents components) {
         logger.info("🎯 Generating end-to-end path flow tests");
         
         List<TestCase> tests = new ArrayList<>();
@@ -212,67 +386,39 @@ public class PathFlowAnalysisService {
     
     // Helper methods for parsing and analysis
     
-    private List<String> extractUserActions(String pathFlow) {
-        List<String> actions = new ArrayList<>();
-        Pattern pattern = Pattern.compile("user\\s+(?:clicks|enters|selects|navigates)\\s+([^\\n]+)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(pathFlow);
-        while (matcher.find()) {
-            actions.add(matcher.group(1).trim());
-        }
-        return actions;
-    }
-    
-    private List<String> extractApiEndpoints(String pathFlow) {
-        List<String> endpoints = new ArrayList<>();
-        Pattern pattern = Pattern.compile("(?:GET|POST|PUT|DELETE)\\s+(/api/[^\\s]+)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(pathFlow);
-        while (matcher.find()) {
-            endpoints.add(matcher.group(1));
-        }
-        return endpoints;
-    }
-    
-    private List<String> extractDatabaseOperations(String pathFlow) {
-        List<String> operations = new ArrayList<>();
-        Pattern pattern = Pattern.compile("(?:INSERT|UPDATE|DELETE|SELECT)\\s+([^\\n]+)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(pathFlow);
-        while (matcher.find()) {
-            operations.add(matcher.group(1).trim());
-        }
-        return operations;
-    }
-    
-    private List<String> extractExternalServices(String pathFlow) {
-        List<String> services = new ArrayList<>();
-        Pattern pattern = Pattern.compile("(?:calls|integrates with)\\s+([A-Za-z]+Service)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(pathFlow);
-        while (matcher.find()) {
-            services.add(matcher.group(1));
-        }
-        return services;
-    }
-    
-    private List<String> identifyCriticalPaths(String pathFlow) {
+    private List<String> identifyCriticalPaths(FlowGraph graph) {
         // Identify critical business paths
         List<String> criticalPaths = new ArrayList<>();
-        if (pathFlow.toLowerCase().contains("payment")) {
+        if (graph.mentions("payment")) {
             criticalPaths.add("Payment Processing Flow");
         }
-        if (pathFlow.toLowerCase().contains("authentication")) {
+        if (graph.mentions("authentication")) {
             criticalPaths.add("Authentication Flow");
         }
-        if (pathFlow.toLowerCase().contains("registration")) {
+        if (graph.mentions("registration")) {
             criticalPaths.add("User Registration Flow");
         }
+        // With more than one way through, the longest one carries the most calls that can time out or fail
+        if (graph.getPathCount() > 1) {
+            criticalPaths.add("Longest path through steps " + FlowGraph.formatSteps(graph.getLongestPathSteps()));
+        }
         return criticalPaths;
     }
     
-    private List<String> identifyEdgeCases(String pathFlow) {
+    private List<String> identifyEdgeCases(FlowGraph graph) {
         List<String> edgeCases = new ArrayList<>();
         edgeCases.add("Invalid input validation");
         edgeCases.add("Network timeout scenarios");
         edgeCases.add("Database connection failures");
         edgeCases.add("External service unavailability");
+        for (FlowGraph.Branch branch : graph.getBranches()) {
+            edgeCases.add(branch.getCondition().isEmpty()
+                ? "Branch at step " + branch.getStep()
+                : "Branch at step " + branch.getStep() + ": " + branch.getCondition());
+        }
+        for (FlowGraph.Loop loop : graph.getLoops()) {
+            edgeCases.add("Loop from step " + loop.getFromStep() + " back to step " + loop.getToStep());
+        }
         return edgeCases;
     }
     
@@ -367,7 +513,7 @@ public class PathFlowAnalysisService {
     
     private TestCase createApiIntegrationTest(String endpoint, PathFlowComponents components) {
         TestCase test = new TestCase();
-        test.setName("testApi" + endpoint.replaceAll("[^a-zA-Z0-9]", ""));
+        test.setName("testApi" + NON_ALPHANUMERIC.matcher(endpoint).replaceAll(""));
         test.setType(TestType.INTEGRATION);
         test.setDescription("API integration test for " + endpoint);
         test.setLanguage("java");
@@ -380,7 +526,7 @@ public class PathFlowAnalysisService {
     
     private TestCase createDatabaseIntegrationTest(String dbOp, PathFlowComponents components) {
         TestCase test = new TestCase();
-        test.setName("testDatabase" + dbOp.replaceAll("[^a-zA-Z0-9]", ""));
+        test.setName("testDatabase" + NON_ALPHANUMERIC.matcher(dbOp).replaceAll(""));
         test.setType(TestType.INTEGRATION);
         test.setDescription("Database integration test for " + dbOp);
         test.setLanguage("java");
@@ -419,7 +565,7 @@ public class PathFlowAnalysisService {
     
     private TestCase createErrorPathTest(String edgeCase, PathFlowComponents components) {
         TestCase test = new TestCase();
-        test.setName("testErrorPath" + edgeCase.replaceAll("[^a-zA-Z0-9]", ""));
+        test.setName("testErrorPath" + NON_ALPHANUMERIC.matcher(edgeCase).replaceAll(""));
         test.setType(TestType.E2E);
         test.setDescription("Error path test for " + edgeCase);
         test.setLanguage("java");
@@ -541,7 +687,7 @@ public class PathFlowAnalysisService {
     "                // Test endpoint functionality" +
     "                // Verify response format and status codes" +
     "            }", 
-            endpoint.replaceAll("[^a-zA-Z0-9]", ""),
+            NON_ALPHANUMERIC.matcher(endpoint).replaceAll(""),
             endpoint
         );
     }
@@ -554,7 +700,7 @@ public class PathFlowAnalysisService {
     "                // Test database operations" +
     "                // Verify data consistency" +
     "            }", 
-            dbOp.replaceAll("[^a-zA-Z0-9]", ""),
+            NON_ALPHANUMERIC.matcher(dbOp).replaceAll(""),
             dbOp
         );
     }
@@ -589,7 +735,7 @@ public class PathFlowAnalysisService {
     "                // Test error handling and recovery" +
     "                // Verify appropriate error responses" +
     "            }", 
-            edgeCase.replaceAll("[^a-zA-Z0-9]", ""),
+            NON_ALPHANUMERIC.matcher(edgeCase).replaceAll(""),
             edgeCase
         );
     }
@@ -624,16 +770,18 @@ public class PathFlowAnalysisService {
         private final List<String> externalServices;
         private final List<String> criticalPaths;
         private final List<String> edgeCases;
+        private final Map<String, Object> graph;
         
         public PathFlowComponents(List<String> userActions, List<String> apiEndpoints, 
                                 List<String> databaseOperations, List<String> externalServices,
-                                List<String> criticalPaths, List<String> edgeCases) {
+                                List<String> criticalPaths, List<String> edgeCases, Map<String, Object> graph) {
             this.userActions = userActions;
             this.apiEndpoints = apiEndpoints;
             this.databaseOperations = databaseOperations;
             this.externalServices = externalServices;
             this.criticalPaths = criticalPaths;
             this.edgeCases = edgeCases;
+            this.graph = graph;
         }
         
         // Getters
@@ -643,6 +791,28 @@ public class PathFlowAnalysisService {
         public List<String> getExternalServices() { return externalServices; }
         public List<String> getCriticalPaths() { return criticalPaths; }
         public List<String> getEdgeCases() { return edgeCases; }
+        public Map<String, Object> getGraph() { return graph; }
+        
+        /**
+         * Unmodifiable copy, so a cached parse can be shared by concurrent requests
+         */
+        private PathFlowComponents freeze() {
+            return new PathFlowComponents(List.copyOf(userActions), List.copyOf(apiEndpoints),
+                List.copyOf(databaseOperations), List.copyOf(externalServices), List.copyOf(criticalPaths),
+                List.copyOf(edgeCases), Collections.unmodifiableMap(new LinkedHashMap<>(graph)));
+        }
+        
+        private List<List<String>> parts() {
+            List<String> graphParts = graph.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.toList());
+            return List.of(userActions, apiEndpoints, databaseOperations, externalServices, criticalPaths, edgeCases,
+                graphParts);
+        }
+        
+        private long estimateBytes() {
+            return 64 + parts().stream().mapToLong(PathFlowAnalysisService::estimateBytes).sum();
+        }
     }
     
     public static class ServiceAnalysis {
@@ -652,6 +822,7 @@ public class PathFlowAnalysisService {
         private final List<String> responsibilities;
         private final List<TestCase> unitTests;
         private final List<TestCase> integrationTests;
+        private boolean complete = true; // Built from fully read sources
         
         public ServiceAnalysis(String serviceName, String language, String framework,
                              List<String> responsibilities, List<TestCase> unitTests, 
@@ -671,6 +842,18 @@ public class PathFlowAnalysisService {
         public List<String> getResponsibilities() { return responsibilities; }
         public List<TestCase> getUnitTests() { return unitTests; }
         public List<TestCase> getIntegrationTests() { return integrationTests; }
+        
+        private ServiceAnalysis copy() {
+            ServiceAnalysis copy = new ServiceAnalysis(serviceName, language, framework, new ArrayList<>(responsibilities),
+                copyTests(unitTests), copyTests(integrationTests));
+            copy.complete = complete;
+            return copy;
+        }
+        
+        private long estimateBytes() {
+            return 128 + PathFlowAnalysisService.estimateBytes(responsibilities)
+                + estimateTestBytes(unitTests) + estimateTestBytes(integrationTests);
+        }
     }
     
     public static class CoverageMetrics {
@@ -727,6 +910,48 @@ public class PathFlowAnalysisService {
         public List<TestCase> getIntegrationTests() { return integrationTests; }
         public List<TestCase> getE2eTests() { return e2eTests; }
         public CoverageMetrics getMetrics() { return metrics; }
+        
+        /**
+         * Copy with fresh test cases, sharing the immutable components and metrics
+         */
+        private PathFlowAnalysisResult copy() {
+            return new PathFlowAnalysisResult(components,
+                serviceAnalyses.stream().map(ServiceAnalysis::copy).collect(Collectors.toList()),
+                copyTests(integrationTests), copyTests(e2eTests), metrics);
+        }
+        
+        private long estimateBytes() {
+            return 128 + serviceAnalyses.stream().mapToLong(ServiceAnalysis::estimateBytes).sum()
+                + estimateTestBytes(integrationTests) + estimateTestBytes(e2eTests);
+        }
+    }
+    
+    private static List<TestCase> copyTests(List<TestCase> tests) {
+        return tests.stream().map(TestCase::new).collect(Collectors.toList());
+    }
+    
+    /**
+     * Rough heap footprint: object headers plus two bytes per char
+     */
+    private static long estimateBytes(List<String> values) {
+        long bytes = 16 + 8L * values.size();
+        for (String value : values) {
+            bytes += 48 + 2L * value.length();
+        }
+        return bytes;
+    }
+    
+    private static long estimateTestBytes(List<TestCase> tests) {
+        long bytes = 16;
+        for (TestCase test : tests) {
+            bytes += 256 + 2L * (length(test.getName()) + length(test.getDescription()) + length(test.getCode())
+                + length(test.getFilePath()));
+        }
+        return bytes;
+    }
+    
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
     }
     
     /**
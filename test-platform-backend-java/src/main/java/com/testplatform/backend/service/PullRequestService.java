@@ -5,6 +5,7 @@ import com.testplatform.backend.enums.TestType;
 import com.testplatform.backend.model.PullRequest;
 import com.testplatform.backend.model.TestSuite;
 import com.testplatform.backend.exception.ResourceNotFoundException;
+import com.testplatform.backend.repository.PullRequestRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,9 +27,11 @@ public class PullRequestService {
     @Autowired
     private GitService gitService;
     
-    // Mock data storage (in production, use database)
-    private final List<PullRequest> pullRequests = new ArrayList<>();
-    private long nextPRId = 3L;
+    @Autowired
+    private CodeAnalyzerService codeAnalyzerService;
+    
+    @Autowired
+    private PullRequestRepository pullRequestRepository;
     
     public PullRequestService() {
         // Mock data removed - using real Git repository data only
@@ -39,17 +42,16 @@ public class PullRequestService {
      * Get all pull requests
      */
     public List<PullRequest> getAllPullRequests() {
+        List<PullRequest> pullRequests = pullRequestRepository.findAll();
         logger.info("📋 Fetching all pull requests ({} found)", pullRequests.size());
-        return new ArrayList<>(pullRequests);
+        return pullRequests;
     }
     
     /**
      * Get specific pull request with generated tests
      */
     public PullRequest getPullRequest(Long id) {
-        Optional<PullRequest> prOpt = pullRequests.stream()
-                .filter(p -> p.getId().equals(id))
-                .findFirst();
+        Optional<PullRequest> prOpt = pullRequestRepository.findById(id);
         
         if (prOpt.isEmpty()) {
             throw new ResourceNotFoundException("Pull request not found");
@@ -72,7 +74,7 @@ public class PullRequestService {
         // Generate unique PR number
         int number = 125 + new Random().nextInt(1000);
         
-        newPR.setId(nextPRId++);
+        newPR.setId(pullRequestRepository.nextId());
         newPR.setNumber(number);
         if (newPR.getAuthor() == null) {
             newPR.setAuthor("developer@testplatform.com");
@@ -83,7 +85,7 @@ public class PullRequestService {
         newPR.setTestsFailed(0);
         newPR.setCoverage(0.0);
         
-        pullRequests.add(newPR);
+        pullRequestRepository.save(newPR);
         
         logger.info("🎯 Created PR #{}: {}", number, newPR.getTitle());
         
@@ -94,11 +96,17 @@ public class PullRequestService {
                     List<TestType> testTypes = Arrays.asList(TestType.UNIT, TestType.INTEGRATION, TestType.E2E);
                     int totalTestsGenerated = 0;
                     
+                    // Read all changed files from the Git repository in one tree walk
+                    Map<String, String> codeContents = gitService.getCodeContentsWithLanguage(
+                            newPR.getChangedFiles().stream().map(PullRequest.ChangedFile::getFilename).collect(Collectors.toList()),
+                            newPR.getBranch());
+                    
                     for (PullRequest.ChangedFile file : newPR.getChangedFiles()) {
+                        String codeContent = codeContents.get(file.getFilename());
+                        Set<String> changedMethods = codeAnalyzerService.changedMethods(
+                                codeContent, "java", file.getPatch(), GitService.LANGUAGE_HEADER_LINES);
                         for (TestType testType : testTypes) {
-                            // Get actual code content from Git repository
-                            String codeContent = gitService.getCodeContentWithLanguage(file.getFilename(), newPR.getBranch());
-                            testGenerationService.generateTestCases(codeContent, testType, "java", file.getFilename())
+                            testGenerationService.generateTestCases(codeContent, testType, "java", file.getFilename(), changedMethods)
                                     .thenAccept(testCases -> {
                                         TestSuite testSuite = new TestSuite();
                                         testSuite.setId(UUID.randomUUID().toString());
@@ -132,9 +140,7 @@ public class PullRequestService {
      * Update pull request
      */
     public PullRequest updatePullRequest(Long id, PullRequest updates) {
-        Optional<PullRequest> prOpt = pullRequests.stream()
-                .filter(p -> p.getId().equals(id))
-                .findFirst();
+        Optional<PullRequest> prOpt = pullRequestRepository.findById(id);
         
         if (prOpt.isEmpty()) {
             throw new ResourceNotFoundException("Pull request not found");
@@ -149,6 +155,7 @@ public class PullRequestService {
         if (updates.getChangedFiles() != null) pr.setChangedFiles(updates.getChangedFiles());
         
         pr.setUpdatedAt(LocalDateTime.now());
+        pullRequestRepository.save(pr);
         
         logger.info("📝 Updated PR #{}", pr.getNumber());
         
@@ -159,16 +166,14 @@ public class PullRequestService {
      * Delete pull request
      */
     public void deletePullRequest(Long id) {
-        Optional<PullRequest> prOpt = pullRequests.stream()
-                .filter(p -> p.getId().equals(id))
-                .findFirst();
+        Optional<PullRequest> prOpt = pullRequestRepository.findById(id);
         
         if (prOpt.isEmpty()) {
             throw new ResourceNotFoundException("Pull request not found");
         }
         
         PullRequest pr = prOpt.get();
-        pullRequests.remove(pr);
+        pullRequestRepository.deleteById(pr.getId());
         
         // Also delete associated tests
         testGenerationService.deleteTestsForPR(pr.getNumber());
@@ -180,9 +185,7 @@ public class PullRequestService {
      * Helper function to update PR test metrics
      */
     public void updatePRTestMetrics(Integer prNumber, Integer newTestsCount) {
-        Optional<PullRequest> prOpt = pullRequests.stream()
-                .filter(p -> p.getNumber().equals(prNumber))
-                .findFirst();
+        Optional<PullRequest> prOpt = pullRequestRepository.findByNumber(prNumber);
         
         if (prOpt.isPresent()) {
             PullRequest pr = prOpt.get();
@@ -192,6 +195,7 @@ public class PullRequestService {
             pr.setTestsPassed((int) Math.floor(pr.getTestsGenerated() * passRate));
             pr.setTestsFailed(pr.getTestsGenerated() - pr.getTestsPassed());
             pr.setCoverage(Math.min(95.0, 80.0 + Math.random() * 15)); // 80-95% coverage
+            pullRequestRepository.save(pr);
         }
     }
     
@@ -199,9 +203,22 @@ public class PullRequestService {
      * Get PRs by status
      */
     public List<PullRequest> getPullRequestsByStatus(PRStatus status) {
-        return pullRequests.stream()
-                .filter(pr -> pr.getStatus() == status)
-                .collect(Collectors.toList());
+        return pullRequestRepository.findByStatus(status);
+    }
+    
+    public long countPullRequestsByStatus(PRStatus status) {
+        return pullRequestRepository.countByStatus(status);
+    }
+    
+    /**
+     * Get the first PRs in creation order
+     */
+    public List<PullRequest> getFirstPullRequests(int limit) {
+        return pullRequestRepository.findFirst(limit);
+    }
+    
+    public long countPullRequestsCreatedOn(java.time.LocalDate day) {
+        return pullRequestRepository.countCreatedOn(day);
     }
     
 }
@@ -1,24 +1,94 @@
 package com.testplatform.backend.service;
 
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.util.GuardedPattern;
+import com.testplatform.backend.util.WeightedLruCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Extracts components, controllers, services, repositories, entities and tables from the CDAC project.
+ *
+ * A scan walks the service's directory once for file metadata, which yields the code file list and a
+ * fingerprint (commit, paths, sizes, modification times) used as the cache key. On a miss the source
+ * files are read and matched on a bounded analyzer pool with shared precompiled patterns, and the
+ * per-file findings are merged in walk order, so the result is the same as a sequential scan.
+ */
 @Service
 public class RealCodeAnalysisService {
-
+    
     private static final Logger logger = LoggerFactory.getLogger(RealCodeAnalysisService.class);
     
-    private static final String CDAC_PROJECT_PATH = "/Users/vnannuri/Desktop/test";
+    // Compiled once and shared by all analyzer threads, each match bounded in time
+    private static final GuardedPattern COMPONENT_PATTERN = GuardedPattern.compile("(?:function|const)\\s+(\\w+)\\s*(?:=|\\()");
+    private static final GuardedPattern FUNCTION_PATTERN = GuardedPattern.compile("(?:function|const)\\s+(\\w+)\\s*=\\s*(?:async\\s+)?\\(");
+    private static final GuardedPattern PUBLIC_CLASS_PATTERN = GuardedPattern.compile("public\\s+class\\s+(\\w+)");
+    private static final GuardedPattern PUBLIC_TYPE_PATTERN = GuardedPattern.compile("public\\s+(?:interface|class)\\s+(\\w+)");
+    private static final GuardedPattern TABLE_PATTERN = GuardedPattern.compile("CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final GuardedPattern PROCEDURE_PATTERN = GuardedPattern.compile("CREATE\\s+(?:OR\\s+REPLACE\\s+)?PROCEDURE\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+    
+    // The lazy .*? rescans the rest of the line from every "import", quadratic on long minified lines
+    private static final GuardedPattern IMPORT_PATTERN = GuardedPattern.compileLinear("import\\s+.*?\\s+from\\s+['\"]([^'\"]+)['\"]", 0);
+    
+    @Autowired
+    private AppProperties appProperties;
+    
+    @Autowired
+    private GitService gitService;
+    
+    private String projectPath;
+    private ExecutorService analyzers;
+    private int analyzerThreads;
+    
+    // Keyed by service and source fingerprint; holds results with unmodifiable lists
+    private WeightedLruCache<String, CodeAnalysisResult> resultCache;
+    
+    // Latest walk of each service directory, trusted for source-check-interval-ms
+    private final Map<String, SourceSnapshot> snapshots = new ConcurrentHashMap<>();
+    
+    private static final Map<String, String> SOURCE_DIRECTORIES = Map.of(
+        "reactfrontend", "React", "springbackend", "Spring", "database", "DB");
+    
+    @PostConstruct
+    public void init() {
+        AppProperties.CodeAnalysis config = appProperties.getCodeAnalysis();
+        projectPath = config.getCdacProjectPath();
+        analyzerThreads = config.getIndexThreads() > 0 ? config.getIndexThreads() : Runtime.getRuntime().availableProcessors();
+        analyzers = Executors.newFixedThreadPool(analyzerThreads, r -> {
+            Thread thread = new Thread(r, "real-code-analyzer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        resultCache = new WeightedLruCache<>(config.getCacheMaxBytes(), CodeAnalysisResult::estimateBytes);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        analyzers.shutdownNow();
+    }
     
     /**
      * Analyze real CDAC project code and extract meaningful information
@@ -32,14 +102,11 @@ public class RealCodeAnalysisService {
         try {
             switch (serviceName.toLowerCase()) {
                 case "reactfrontend":
-                    analyzeReactCode(result);
-                    break;
+                    return analyzeCached(result, SOURCE_DIRECTORIES.get("reactfrontend"), this::analyzeReactCode);
                 case "springbackend":
-                    analyzeSpringCode(result);
-                    break;
+                    return analyzeCached(result, SOURCE_DIRECTORIES.get("springbackend"), this::analyzeSpringCode);
                 case "database":
-                    analyzeDatabaseCode(result);
-                    break;
+                    return analyzeCached(result, SOURCE_DIRECTORIES.get("database"), this::analyzeDatabaseCode);
                 default:
                     analyzeGenericCode(result, serviceName);
             }
@@ -51,7 +118,67 @@ public class RealCodeAnalysisService {
         return result;
     }
     
-    private void analyzeReactCode(CodeAnalysisResult result) {
+    /**
+     * Fingerprint of the sources a service is analyzed from, for callers caching what they derive from the analysis.
+     * Changes with the commit and with any file edit, at most source-check-interval-ms late.
+     */
+    public String getSourceVersion(String serviceName) {
+        String serviceDir = SOURCE_DIRECTORIES.get(serviceName.toLowerCase());
+        if (serviceDir == null) {
+            return "none";
+        }
+        try {
+            return snapshot(serviceDir).fingerprint;
+        } catch (IOException e) {
+            logger.warn("Could not walk sources of {}: {}", serviceName, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * The latest walk of a service directory, walking again once it is older than the check interval
+     */
+    private SourceSnapshot snapshot(String serviceDir) throws IOException {
+        long now = System.currentTimeMillis();
+        SourceSnapshot snapshot = snapshots.get(serviceDir);
+        if (snapshot == null || now - snapshot.takenAt >= appProperties.getCodeAnalysis().getSourceCheckIntervalMs()) {
+            Path root = Paths.get(projectPath, serviceDir);
+            List<SourceFile> files = walk(root);
+            snapshot = new SourceSnapshot(files, fingerprint(root, files), now);
+            snapshots.put(serviceDir, snapshot);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Walk a service directory, then reuse the cached result for the same commit and files or run the analysis
+     * @param analysis Fills the result from the walked files; returns false if it had to give up part way
+     */
+    private CodeAnalysisResult analyzeCached(CodeAnalysisResult result, String serviceDir, ServiceAnalysis analysis) throws IOException {
+        SourceSnapshot snapshot = snapshot(serviceDir);
+        List<SourceFile> files = snapshot.files;
+        String key = result.getServiceName().toLowerCase(Locale.ROOT) + ":" + snapshot.fingerprint;
+        
+        boolean cacheEnabled = appProperties.getCodeAnalysis().getCacheEnabled();
+        CodeAnalysisResult cached = cacheEnabled ? resultCache.get(key) : null;
+        if (cached != null) {
+            logger.info("♻️ Reusing code analysis for {} ({} files unchanged)", result.getServiceName(), files.size());
+            return cached.copy(result.getServiceName());
+        }
+        
+        long startTime = System.currentTimeMillis();
+        result.complete = analysis.analyze(result, files);
+        if (result.complete && cacheEnabled) {
+            result.freeze();
+            resultCache.put(key, result);
+            logger.info("✅ Analyzed {} files for {} ({}ms, {} threads)",
+                files.size(), result.getServiceName(), System.currentTimeMillis() - startTime, analyzerThreads);
+            return result.copy(result.getServiceName());
+        }
+        return result;
+    }
+    
+    private boolean analyzeReactCode(CodeAnalysisResult result, List<SourceFile> files) {
         result.setLanguage("javascript");
         result.setFramework("react");
         
@@ -61,53 +188,29 @@ public class RealCodeAnalysisService {
         
         try {
             // Analyze React components
-            Path reactPath = Paths.get(CDAC_PROJECT_PATH, "React", "my-app", "src", "Components");
-            if (Files.exists(reactPath)) {
-                Files.walk(reactPath)
-                    .filter(path -> path.toString().endsWith(".jsx") || path.toString().endsWith(".js"))
-                    .forEach(path -> {
-                        try {
-                            String content = Files.readString(path);
-                            String fileName = path.getFileName().toString();
-                            
-                            // Extract component names
-                            Pattern componentPattern = Pattern.compile("(?:function|const)\\s+(\\w+)\\s*(?:=|\\()");
-                            Matcher matcher = componentPattern.matcher(content);
-                            while (matcher.find()) {
-                                components.add(matcher.group(1));
-                            }
-                            
-                            // Extract imports
-                            Pattern importPattern = Pattern.compile("import\\s+.*?\\s+from\\s+['\"]([^'\"]+)['\"]");
-                            Matcher importMatcher = importPattern.matcher(content);
-                            while (importMatcher.find()) {
-                                dependencies.add(importMatcher.group(1));
-                            }
-                            
-                            // Extract function definitions
-                            Pattern functionPattern = Pattern.compile("(?:function|const)\\s+(\\w+)\\s*=\\s*(?:async\\s+)?\\(");
-                            Matcher functionMatcher = functionPattern.matcher(content);
-                            while (functionMatcher.find()) {
-                                functions.add(functionMatcher.group(1));
-                            }
-                            
-                        } catch (IOException e) {
-                            logger.warn("Could not read file {}: {}", path, e.getMessage());
-                        }
-                    });
+            Path reactPath = Paths.get(projectPath, "React", "my-app", "src", "Components");
+            List<Path> sources = pathsUnder(files, reactPath, ".jsx", ".js");
+            boolean complete = true;
+            for (FileFindings findings : scanFiles(sources, RealCodeAnalysisService::scanReactFile)) {
+                complete &= !findings.unreadable;
+                components.addAll(findings.components);
+                dependencies.addAll(findings.dependencies);
+                functions.addAll(findings.functions);
             }
             
             result.setComponents(components);
             result.setFunctions(functions);
             result.setDependencies(dependencies);
-            result.setCodeFiles(findCodeFiles("React"));
-            
+            result.setCodeFiles(codeFiles(files));
+            return complete;
+        
         } catch (Exception e) {
             logger.error("Error analyzing React code: {}", e.getMessage());
+            return false;
         }
     }
     
-    private void analyzeSpringCode(CodeAnalysisResult result) {
+    private boolean analyzeSpringCode(CodeAnalysisResult result, List<SourceFile> files) {
         result.setLanguage("java");
         result.setFramework("spring-boot");
         
@@ -118,69 +221,31 @@ public class RealCodeAnalysisService {
         
         try {
             // Analyze Spring code
-            Path springPath = Paths.get(CDAC_PROJECT_PATH, "Spring", "demo", "src", "main", "java");
-            if (Files.exists(springPath)) {
-                Files.walk(springPath)
-                    .filter(path -> path.toString().endsWith(".java"))
-                    .forEach(path -> {
-                        try {
-                            String content = Files.readString(path);
-                            String fileName = path.getFileName().toString();
-                            
-                            // Extract controllers
-                            if (content.contains("@RestController") || content.contains("@Controller")) {
-                                Pattern classPattern = Pattern.compile("public\\s+class\\s+(\\w+)");
-                                Matcher matcher = classPattern.matcher(content);
-                                if (matcher.find()) {
-                                    controllers.add(matcher.group(1));
-                                }
-                            }
-                            
-                            // Extract services
-                            if (content.contains("@Service")) {
-                                Pattern classPattern = Pattern.compile("public\\s+class\\s+(\\w+)");
-                                Matcher matcher = classPattern.matcher(content);
-                                if (matcher.find()) {
-                                    services.add(matcher.group(1));
-                                }
-                            }
-                            
-                            // Extract repositories
-                            if (content.contains("@Repository") || content.contains("extends JpaRepository")) {
-                                Pattern classPattern = Pattern.compile("public\\s+(?:interface|class)\\s+(\\w+)");
-                                Matcher matcher = classPattern.matcher(content);
-                                if (matcher.find()) {
-                                    repositories.add(matcher.group(1));
-                                }
-                            }
-                            
-                            // Extract entities
-                            if (content.contains("@Entity")) {
-                                Pattern classPattern = Pattern.compile("public\\s+class\\s+(\\w+)");
-                                Matcher matcher = classPattern.matcher(content);
-                                if (matcher.find()) {
-                                    entities.add(matcher.group(1));
-                                }
-                            }
-                            
-                        } catch (IOException e) {
-                            logger.warn("Could not read file {}: {}", path, e.getMessage());
-                        }
-                    });
+            Path springPath = Paths.get(projectPath, "Spring", "demo", "src", "main", "java");
+            List<Path> sources = pathsUnder(files, springPath, ".java");
+            boolean complete = true;
+            for (FileFindings findings : scanFiles(sources, RealCodeAnalysisService::scanSpringFile)) {
+                complete &= !findings.unreadable;
+                addIfPresent(controllers, findings.controller);
+                addIfPresent(services, findings.service);
+                addIfPresent(repositories, findings.repository);
+                addIfPresent(entities, findings.entity);
             }
             
             result.setControllers(controllers);
             result.setServices(services);
             result.setRepositories(repositories);
             result.setEntities(entities);
-            result.setCodeFiles(findCodeFiles("Spring"));
-            
+            result.setCodeFiles(codeFiles(files));
+            return complete;
+        
         } catch (Exception e) {
             logger.error("Error analyzing Spring code: {}", e.getMessage());
+            return false;
         }
     }
     
-    private void analyzeDatabaseCode(CodeAnalysisResult result) {
+    private boolean analyzeDatabaseCode(CodeAnalysisResult result, List<SourceFile> files) {
         result.setLanguage("sql");
         result.setFramework("database");
         
@@ -189,31 +254,25 @@ public class RealCodeAnalysisService {
         
         try {
             // Analyze database schema
-            Path dbPath = Paths.get(CDAC_PROJECT_PATH, "DB", "DB_Script.sql");
+            Path dbPath = Paths.get(projectPath, "DB", "DB_Script.sql");
             if (Files.exists(dbPath)) {
                 String content = Files.readString(dbPath);
                 
                 // Extract table names
-                Pattern tablePattern = Pattern.compile("CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
-                Matcher tableMatcher = tablePattern.matcher(content);
-                while (tableMatcher.find()) {
-                    tables.add(tableMatcher.group(1));
-                }
+                tables.addAll(TABLE_PATTERN.findAll(content, 1));
                 
                 // Extract stored procedures
-                Pattern procedurePattern = Pattern.compile("CREATE\\s+(?:OR\\s+REPLACE\\s+)?PROCEDURE\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
-                Matcher procedureMatcher = procedurePattern.matcher(content);
-                while (procedureMatcher.find()) {
-                    procedures.add(procedureMatcher.group(1));
-                }
+                procedures.addAll(PROCEDURE_PATTERN.findAll(content, 1));
             }
             
             result.setTables(tables);
             result.setProcedures(procedures);
             result.setCodeFiles(List.of("DB_Script.sql"));
-            
+            return true;
+        
         } catch (Exception e) {
             logger.error("Error analyzing database code: {}", e.getMessage());
+            return false;
         }
     }
     
@@ -223,24 +282,202 @@ public class RealCodeAnalysisService {
         result.setError("Service type not recognized: " + serviceName);
     }
     
-    private List<String> findCodeFiles(String serviceType) {
-        List<String> files = new ArrayList<>();
+    private static FileFindings scanReactFile(String content) {
+        FileFindings findings = new FileFindings();
+        
+        // Extract component names
+        findings.components.addAll(COMPONENT_PATTERN.findAll(content, 1));
+        
+        // Extract imports
+        findings.dependencies.addAll(IMPORT_PATTERN.findAll(content, 1));
+        
+        // Extract function definitions
+        findings.functions.addAll(FUNCTION_PATTERN.findAll(content, 1));
+        return findings;
+    }
+    
+    private static FileFindings scanSpringFile(String content) {
+        FileFindings findings = new FileFindings();
+        
+        // Extract controllers
+        if (content.contains("@RestController") || content.contains("@Controller")) {
+            findings.controller = PUBLIC_CLASS_PATTERN.findFirst(content, 1);
+        }
+        
+        // Extract services
+        if (content.contains("@Service")) {
+            findings.service = PUBLIC_CLASS_PATTERN.findFirst(content, 1);
+        }
+        
+        // Extract repositories
+        if (content.contains("@Repository") || content.contains("extends JpaRepository")) {
+            findings.repository = PUBLIC_TYPE_PATTERN.findFirst(content, 1);
+        }
+        
+        // Extract entities
+        if (content.contains("@Entity")) {
+            findings.entity = PUBLIC_CLASS_PATTERN.findFirst(content, 1);
+        }
+        return findings;
+    }
+    
+    /**
+     * Read and scan files on the analyzer pool; at most a few files per thread are queued at a time, so a
+     * large tree never piles up pending work. Findings come back in the order of the given files; a file
+     * that could not be read yields empty findings marked unreadable.
+     */
+    private List<FileFindings> scanFiles(List<Path> paths, Function<String, FileFindings> scanner) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(analyzerThreads * 4);
+        List<Future<FileFindings>> pending = new ArrayList<>(paths.size());
         try {
-            Path servicePath = Paths.get(CDAC_PROJECT_PATH, serviceType);
-            if (Files.exists(servicePath)) {
-                Files.walk(servicePath)
-                    .filter(path -> {
-                        String fileName = path.toString().toLowerCase();
-                        return fileName.endsWith(".java") || fileName.endsWith(".js") || 
-                               fileName.endsWith(".jsx") || fileName.endsWith(".ts") || 
-                               fileName.endsWith(".tsx") || fileName.endsWith(".sql");
-                    })
-                    .forEach(path -> files.add(path.toString()));
+            for (Path path : paths) {
+                inFlight.acquire();
+                try {
+                    pending.add(analyzers.submit(() -> {
+                        try {
+                            return scanner.apply(Files.readString(path));
+                        } catch (IOException e) {
+                            logger.warn("Could not read file {}: {}", path, e.getMessage());
+                            return FileFindings.unreadable();
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    throw e;
+                }
             }
-        } catch (Exception e) {
-            logger.error("Error finding code files for {}: {}", serviceType, e.getMessage());
+            
+            List<FileFindings> findings = new ArrayList<>(pending.size());
+            for (Future<FileFindings> future : pending) {
+                findings.add(future.get());
+            }
+            return findings;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("File scan failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+    
+    /**
+     * Every regular file under a directory in walk order, with the metadata the fingerprint needs
+     */
+    private static List<SourceFile> walk(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<SourceFile> files = new ArrayList<>();
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    files.add(new SourceFile(path, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                }
+            }
+            return files;
+        }
+    }
+    
+    /**
+     * Commit of the project (when it is a Git checkout) plus every walked file's path, size and modification
+     * time, so both a new commit and an uncommitted edit produce a new key
+     */
+    private String fingerprint(Path root, List<SourceFile> files) {
+        String commitId = gitService.isRepositoryCloned(projectPath) ? gitService.resolveCommitId(projectPath, "HEAD") : null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(commitId).getBytes(StandardCharsets.UTF_8));
+            for (SourceFile file : files) {
+                String entry = "\n" + root.relativize(file.path) + "\t" + file.size + "\t" + file.lastModified;
+                digest.update(entry.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static List<Path> pathsUnder(List<SourceFile> files, Path directory, String... extensions) {
+        List<Path> paths = new ArrayList<>();
+        for (SourceFile file : files) {
+            if (file.path.startsWith(directory) && endsWithAny(file.path.toString(), extensions)) {
+                paths.add(file.path);
+            }
+        }
+        return paths;
+    }
+    
+    private static List<String> codeFiles(List<SourceFile> files) {
+        return files.stream()
+            .map(file -> file.path.toString())
+            .filter(path -> endsWithAny(path.toLowerCase(), ".java", ".js", ".jsx", ".ts", ".tsx", ".sql"))
+            .collect(Collectors.toList());
+    }
+    
+    private static boolean endsWithAny(String path, String... suffixes) {
+        for (String suffix : suffixes) {
+            if (path.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static void addIfPresent(List<String> list, String value) {
+        if (value != null) {
+            list.add(value);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ServiceAnalysis {
+        boolean analyze(CodeAnalysisResult result, List<SourceFile> files);
+    }
+    
+    private static final class SourceSnapshot {
+        final List<SourceFile> files;
+        final String fingerprint;
+        final long takenAt;
+        
+        SourceSnapshot(List<SourceFile> files, String fingerprint, long takenAt) {
+            this.files = files;
+            this.fingerprint = fingerprint;
+            this.takenAt = takenAt;
+        }
+    }
+    
+    private static final class SourceFile {
+        final Path path;
+        final long size;
+        final long lastModified;
+        
+        SourceFile(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+    
+    /**
+     * What one file contributes to a service's result
+     */
+    private static final class FileFindings {
+        final List<String> components = new ArrayList<>();
+        final List<String> functions = new ArrayList<>();
+        final List<String> dependencies = new ArrayList<>();
+        String controller;
+        String service;
+        String repository;
+        String entity;
+        boolean unreadable; // The file could not be read, so the service's result is incomplete
+        
+        static FileFindings unreadable() {
+            FileFindings findings = new FileFindings();
+            findings.unreadable = true;
+            return findings;
         }
-        return files;
     }
     
     // Inner class for result
@@ -259,6 +496,7 @@ public class RealCodeAnalysisService {
         private List<String> procedures = new ArrayList<>();
         private List<String> codeFiles = new ArrayList<>();
         private String error;
+        private boolean complete = true; // False if a scan gave up part way, so callers don't cache what they derive
         
         // Getters and setters
         public String getServiceName() { return serviceName; }
@@ -302,5 +540,60 @@ public class RealCodeAnalysisService {
         
         public String getError() { return error; }
         public void setError(String error) { this.error = error; }
+        
+        boolean isComplete() { return complete; }
+        
+        /**
+         * Make the lists unmodifiable before the result is shared through the cache
+         */
+        void freeze() {
+            components = List.copyOf(components);
+            functions = List.copyOf(functions);
+            dependencies = List.copyOf(dependencies);
+            controllers = List.copyOf(controllers);
+            services = List.copyOf(services);
+            repositories = List.copyOf(repositories);
+            entities = List.copyOf(entities);
+            tables = List.copyOf(tables);
+            procedures = List.copyOf(procedures);
+            codeFiles = List.copyOf(codeFiles);
+        }
+        
+        /**
+         * A copy sharing this result's lists, for a caller that may have spelled the service name differently
+         */
+        CodeAnalysisResult copy(String serviceName) {
+            CodeAnalysisResult copy = new CodeAnalysisResult();
+            copy.serviceName = serviceName;
+            copy.language = language;
+            copy.framework = framework;
+            copy.components = components;
+            copy.functions = functions;
+            copy.dependencies = dependencies;
+            copy.controllers = controllers;
+            copy.services = services;
+            copy.repositories = repositories;
+            copy.entities = entities;
+            copy.tables = tables;
+            copy.procedures = procedures;
+            copy.codeFiles = codeFiles;
+            copy.error = error;
+            return copy;
+        }
+        
+        /**
+         * Rough heap footprint: object headers plus two bytes per char
+         */
+        long estimateBytes() {
+            long bytes = 256;
+            for (List<String> list : List.of(components, functions, dependencies, controllers, services, repositories,
+                    entities, tables, procedures, codeFiles)) {
+                bytes += 16 + 8L * list.size();
+                for (String value : list) {
+                    bytes += 48 + 2L * value.length();
+                }
+            }
+            return bytes;
+        }
     }
 }
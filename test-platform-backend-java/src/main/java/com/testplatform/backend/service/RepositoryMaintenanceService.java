@@ -0,0 +1,124 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic maintenance of the repositories MultiRepositoryService manages.
+ * Writes and refreshes commit-graph files and pack bitmaps and repacks loose objects,
+ * so rev walks, diffs and merge-base queries stay fast as history grows.
+ */
+@Service
+public class RepositoryMaintenanceService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryMaintenanceService.class);
+    
+    @Autowired
+    private MultiRepositoryService multiRepositoryService;
+    
+    @Autowired
+    private MultiRepositoryConfig multiRepositoryConfig;
+    
+    @Autowired
+    private RepositorySyncService repositorySyncService;
+    
+    @Autowired
+    private GitService gitService;
+    
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "repo-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Last maintenance report per repository
+    private final Map<String, Map<String, Object>> maintenanceReports = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startScheduledMaintenance() {
+        int interval = multiRepositoryConfig.getMaintenanceIntervalMinutes();
+        if (interval <= 0) {
+            logger.info("Scheduled repository maintenance is disabled");
+            return;
+        }
+        
+        scheduler.scheduleWithFixedDelay(this::maintainAllRepositories, interval, interval, TimeUnit.MINUTES);
+        logger.info("⏱️ Scheduled repository maintenance every {} minutes", interval);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * Run maintenance on every enabled repository, one at a time
+     */
+    public void maintainAllRepositories() {
+        long startTime = System.currentTimeMillis();
+        int maintained = 0;
+        for (MultiRepositoryConfig.RepositoryConfig repo : multiRepositoryService.getEnabledRepositories()) {
+            if (maintainRepository(repo.getId()) != null) {
+                maintained++;
+            }
+        }
+        logger.info("🧹 Maintained {} repositories in {}ms", maintained, System.currentTimeMillis() - startTime);
+    }
+    
+    /**
+     * Run maintenance on one repository now
+     * @return The maintenance report, or null if the repository was skipped or maintenance failed
+     */
+    public Map<String, Object> maintainRepository(String repositoryId) {
+        MultiRepositoryConfig.RepositoryConfig repo = multiRepositoryService.getRepository(repositoryId);
+        if (repo == null || !gitService.isRepositoryCloned(repo.getPath())) {
+            logger.warn("⚠️ Cannot maintain unknown or missing repository: {}", repositoryId);
+            return null;
+        }
+        
+        // Repacking while a fetch writes new packs would only waste the work
+        if (!repositorySyncService.tryClaim(repositoryId)) {
+            logger.info("⏭️ Sync or maintenance running for {}, skipping maintenance this round", repositoryId);
+            return null;
+        }
+        
+        try {
+            Map<String, Object> report = gitService.runMaintenance(repo.getPath(), false);
+            report.put("repositoryId", repositoryId);
+            report.put("completedAt", LocalDateTime.now());
+            maintenanceReports.put(repositoryId, report);
+            return report;
+        
+        } catch (Exception e) {
+            logger.error("❌ Maintenance failed for {}: {}", repositoryId, e.getMessage(), e);
+            Map<String, Object> failure = new LinkedHashMap<>();
+            failure.put("repositoryId", repositoryId);
+            failure.put("completedAt", LocalDateTime.now());
+            failure.put("error", e.getMessage());
+            maintenanceReports.put(repositoryId, failure);
+            return null;
+        } finally {
+            repositorySyncService.release(repositoryId);
+        }
+    }
+    
+    /**
+     * Get the last maintenance report for every repository
+     */
+    public Map<String, Map<String, Object>> getMaintenanceReports() {
+        return new TreeMap<>(maintenanceReports);
+    }
+}
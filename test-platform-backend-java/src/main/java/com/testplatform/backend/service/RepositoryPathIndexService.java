@@ -0,0 +1,139 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.event.RepositoryRefsChangedEvent;
+import com.testplatform.backend.util.RepositoryPathIndex;
+import org.eclipse.jgit.lib.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one in-memory path index per configured repository, built from the Git tree of the
+ * repository's branch. Indexes are built lazily and moved forward incrementally when a
+ * background sync reports that the branch changed.
+ */
+@Service
+public class RepositoryPathIndexService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryPathIndexService.class);
+    
+    @Autowired
+    private MultiRepositoryService multiRepositoryService;
+    
+    @Autowired
+    private GitService gitService;
+    
+    private final Map<String, RepositoryPathIndex> indexes = new ConcurrentHashMap<>();
+    
+    /**
+     * Get the path index of a repository, building it on first use
+     * @return The index, or null if the repository is unknown or not a Git repository
+     */
+    public RepositoryPathIndex getIndex(String repositoryId) {
+        RepositoryPathIndex index = indexes.get(repositoryId);
+        if (index != null) {
+            return index;
+        }
+        return rebuildIndex(repositoryId);
+    }
+    
+    /**
+     * Rebuild a repository's index from a full tree walk of its branch
+     */
+    public synchronized RepositoryPathIndex rebuildIndex(String repositoryId) {
+        MultiRepositoryConfig.RepositoryConfig repo = multiRepositoryService.getRepository(repositoryId);
+        if (repo == null || !gitService.isRepositoryCloned(repo.getPath())) {
+            return null;
+        }
+        
+        try {
+            long startTime = System.currentTimeMillis();
+            String commitId = gitService.resolveCommitId(repo.getPath(), repo.getBranch());
+            if (commitId == null) {
+                logger.warn("⚠️ No commit to index for {}", repositoryId);
+                return null;
+            }
+            
+            RepositoryPathIndex index = RepositoryPathIndex.build(commitId, gitService.listFiles(repo.getPath(), commitId, null));
+            indexes.put(repositoryId, index);
+            logger.info("🗂️ Indexed {} files in {} directories for {} at {} ({}ms)",
+                index.size(), index.directoryCount(), repositoryId, abbreviate(commitId), System.currentTimeMillis() - startTime);
+            return index;
+        
+        } catch (Exception e) {
+            logger.error("❌ Failed to build path index for {}: {}", repositoryId, e.getMessage(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * Move an index forward when the repository's branch moves, touching only the changed paths
+     */
+    @EventListener
+    public void onRefsChanged(RepositoryRefsChangedEvent event) {
+        String repositoryId = event.getRepositoryId();
+        RepositoryPathIndex current = indexes.get(repositoryId);
+        if (current == null) {
+            return; // Never built, the next getIndex builds it fresh
+        }
+        
+        MultiRepositoryConfig.RepositoryConfig repo = multiRepositoryService.getRepository(repositoryId);
+        String newCommitId = repo != null ? gitService.resolveCommitId(repo.getPath(), repo.getBranch()) : null;
+        if (newCommitId == null || newCommitId.equals(current.getCommitId())) {
+            return;
+        }
+        
+        String branchRef = repo.getBranch() != null ? Constants.R_HEADS + repo.getBranch() : null;
+        RepositoryRefsChangedEvent.RefChange branchChange = event.getRefChanges().stream()
+            .filter(change -> change.getRefName().equals(branchRef))
+            .filter(change -> current.getCommitId().equals(change.getOldId()) && newCommitId.equals(change.getNewId()))
+            .findFirst()
+            .orElse(null);
+        
+        if (branchChange == null) {
+            // The index was not built from the old tip of this change, fall back to a full walk
+            rebuildIndex(repositoryId);
+            return;
+        }
+        
+        synchronized (this) {
+            try {
+                long startTime = System.currentTimeMillis();
+                List<String> changedPaths = branchChange.getChangedPaths();
+                List<String> stillPresent = gitService.listFiles(repo.getPath(), newCommitId, changedPaths);
+                RepositoryPathIndex updated = current.withChanges(newCommitId, changedPaths, stillPresent);
+                indexes.put(repositoryId, updated);
+                logger.info("🗂️ Updated path index for {} with {} changed paths ({}ms)",
+                    repositoryId, changedPaths.size(), System.currentTimeMillis() - startTime);
+            } catch (Exception e) {
+                logger.warn("⚠️ Incremental index update failed for {}, rebuilding: {}", repositoryId, e.getMessage());
+                rebuildIndex(repositoryId);
+            }
+        }
+    }
+    
+    /**
+     * Drop a repository's index, e.g. after its configuration changed
+     */
+    public void invalidate(String repositoryId) {
+        indexes.remove(repositoryId);
+    }
+    
+    /**
+     * Match files in a repository against a glob such as "project-service/**&#47;*Test.java"
+     */
+    public List<String> glob(String repositoryId, String glob) {
+        RepositoryPathIndex index = getIndex(repositoryId);
+        return index != null ? index.glob(glob) : Collections.emptyList();
+    }
+    
+    private String abbreviate(String commitId) {
+        return commitId.length() > 7 ? commitId.substring(0, 7) : commitId;
+    }
+}
@@ -0,0 +1,208 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.event.RepositoryRefsChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps remote repositories fresh in the background.
+ * Each repository with a sync interval is fetched on its own schedule; when ref tips move,
+ * a {@link RepositoryRefsChangedEvent} is published with the touched paths.
+ */
+@Service
+public class RepositorySyncService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RepositorySyncService.class);
+    
+    @Autowired
+    private MultiRepositoryService multiRepositoryService;
+    
+    @Autowired
+    private MultiRepositoryConfig multiRepositoryConfig;
+    
+    @Autowired
+    private GitService gitService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, r -> {
+        Thread thread = new Thread(r, "repo-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Repositories a sync or a maintenance run is working on, so none of them ever overlap
+    private final Set<String> claimedRepositories = ConcurrentHashMap.newKeySet();
+    
+    // Last sync outcome per repository
+    private final Map<String, Map<String, Object>> syncStatus = new ConcurrentHashMap<>();
+    
+    /**
+     * Schedule background syncs once the initial clones from MultiRepositoryService are done
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startScheduledSyncs() {
+        int scheduled = 0;
+        for (MultiRepositoryConfig.RepositoryConfig repo : multiRepositoryService.getEnabledRepositories()) {
+            if (repo.getRemoteUrl() == null || repo.getRemoteUrl().isEmpty()) {
+                continue;
+            }
+            
+            int interval = getSyncInterval(repo);
+            if (interval <= 0) {
+                continue;
+            }
+            
+            String repositoryId = repo.getId();
+            scheduler.scheduleWithFixedDelay(() -> syncRepository(repositoryId), interval, interval, TimeUnit.SECONDS);
+            logger.info("⏱️ Scheduled background sync for {} every {}s", repositoryId, interval);
+            scheduled++;
+        }
+        
+        if (scheduled == 0) {
+            logger.info("Background repository sync is disabled (no sync interval configured)");
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * Fetch a repository now and publish a refs-changed event if anything moved
+     * @return The published event, or null if nothing changed or the sync failed
+     */
+    public RepositoryRefsChangedEvent syncRepository(String repositoryId) {
+        MultiRepositoryConfig.RepositoryConfig repo = multiRepositoryService.getRepository(repositoryId);
+        if (repo == null || !repo.isEnabled()) {
+            logger.warn("⚠️ Cannot sync unknown or disabled repository: {}", repositoryId);
+            return null;
+        }
+        if (repo.getRemoteUrl() == null || repo.getRemoteUrl().isEmpty()) {
+            logger.debug("Repository {} has no remote, nothing to sync", repositoryId);
+            return null;
+        }
+        if (!tryClaim(repositoryId)) {
+            logger.info("⏭️ Sync or maintenance already running for {}, skipping", repositoryId);
+            return null;
+        }
+        
+        long startTime = System.currentTimeMillis();
+        try {
+            String username = null;
+            String token = null;
+            if (repo.getCredentials() != null) {
+                username = repo.getCredentials().getUsername();
+                token = repo.getCredentials().getToken();
+            }
+            
+            Map<String, String> before = gitService.getRefTips(repo.getPath());
+            boolean success = gitService.isRepositoryCloned(repo.getPath())
+                ? gitService.pullLatestChanges(repo.getPath(), repo.getBranch(), username, token, repo.getCloneOptions())
+                : gitService.cloneRepository(repo.getRemoteUrl(), repo.getPath(), repo.getBranch(), username, token, repo.getCloneOptions());
+            Map<String, String> after = gitService.getRefTips(repo.getPath());
+            
+            List<RepositoryRefsChangedEvent.RefChange> changes = diffRefTips(repo.getPath(), before, after);
+            long duration = System.currentTimeMillis() - startTime;
+            recordStatus(repositoryId, success, changes.size(), duration);
+            
+            if (!success) {
+                logger.warn("⚠️ Background sync failed for {} after {}ms", repositoryId, duration);
+                return null;
+            }
+            if (changes.isEmpty()) {
+                logger.debug("Repository {} is up to date ({}ms)", repositoryId, duration);
+                return null;
+            }
+            
+            RepositoryRefsChangedEvent event = new RepositoryRefsChangedEvent(repositoryId, repo.getPath(), changes);
+            logger.info("🔔 {} ref(s) changed in {} touching {} path(s) ({}ms)",
+                changes.size(), repositoryId, event.getChangedPaths().size(), duration);
+            eventPublisher.publishEvent(event);
+            return event;
+        
+        } catch (Exception e) {
+            logger.error("❌ Error syncing repository {}: {}", repositoryId, e.getMessage(), e);
+            recordStatus(repositoryId, false, 0, System.currentTimeMillis() - startTime);
+            return null;
+        } finally {
+            release(repositoryId);
+        }
+    }
+    
+    /**
+     * Claim a repository for a sync or a maintenance run. Checking and claiming is one atomic step, so two
+     * callers can never both start.
+     * @return Whether the claim succeeded; false while another sync or maintenance run holds it
+     */
+    public boolean tryClaim(String repositoryId) {
+        return claimedRepositories.add(repositoryId);
+    }
+    
+    /**
+     * Release a repository claimed with {@link #tryClaim}
+     */
+    public void release(String repositoryId) {
+        claimedRepositories.remove(repositoryId);
+    }
+    
+    /**
+     * Get last sync outcome for every repository that has synced
+     */
+    public Map<String, Map<String, Object>> getSyncStatus() {
+        return new TreeMap<>(syncStatus);
+    }
+    
+    private List<RepositoryRefsChangedEvent.RefChange> diffRefTips(String repoPath, Map<String, String> before, Map<String, String> after) {
+        List<RepositoryRefsChangedEvent.RefChange> changes = new ArrayList<>();
+        
+        Set<String> refNames = new TreeSet<>(before.keySet());
+        refNames.addAll(after.keySet());
+        
+        for (String refName : refNames) {
+            String oldId = before.get(refName);
+            String newId = after.get(refName);
+            if (Objects.equals(oldId, newId)) {
+                continue;
+            }
+            
+            // Only moved refs have a meaningful diff; created and deleted refs are reported without paths
+            List<String> paths = oldId != null && newId != null
+                ? gitService.getChangedPaths(repoPath, oldId, newId)
+                : Collections.emptyList();
+            changes.add(new RepositoryRefsChangedEvent.RefChange(refName, oldId, newId, paths));
+        }
+        return changes;
+    }
+    
+    private int getSyncInterval(MultiRepositoryConfig.RepositoryConfig repo) {
+        return repo.getSyncIntervalSeconds() != null
+            ? repo.getSyncIntervalSeconds()
+            : multiRepositoryConfig.getDefaultSyncIntervalSeconds();
+    }
+    
+    private void recordStatus(String repositoryId, boolean success, int changedRefs, long duration) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("lastSync", LocalDateTime.now());
+        status.put("success", success);
+        status.put("changedRefs", changedRefs);
+        status.put("durationMs", duration);
+        syncStatus.put(repositoryId, status);
+    }
+}
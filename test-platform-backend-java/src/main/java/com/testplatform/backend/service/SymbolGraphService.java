@@ -0,0 +1,254 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.event.RepositoryRefsChangedEvent;
+import com.testplatform.backend.util.SymbolGraph;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.eclipse.jgit.lib.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps one symbol graph per configured repository, built from the source files on the repository's
+ * branch. Blobs are read in one tree walk and analyzed in parallel, and when a background sync moves
+ * the branch only the changed files are analyzed again. Callers that must not wait, like prompt
+ * building, get the graph only once it exists and trigger a background build otherwise.
+ */
+@Service
+public class SymbolGraphService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SymbolGraphService.class);
+    
+    private static final Map<String, String> LANGUAGES_BY_EXTENSION = Map.of(
+        "java", "java", "kt", "kotlin", "scala", "scala", "groovy", "groovy",
+        "py", "python", "js", "javascript", "jsx", "javascript", "ts", "typescript", "tsx", "typescript");
+    
+    @Autowired
+    private MultiRepositoryService multiRepositoryService;
+    
+    @Autowired
+    private GitService gitService;
+    
+    @Autowired
+    private CodeAnalyzerService codeAnalyzerService;
+    
+    @Autowired
+    private AppProperties appProperties;
+    
+    private final Map<String, SymbolGraph> graphs = new ConcurrentHashMap<>();
+    private final Set<String> pendingBuilds = ConcurrentHashMap.newKeySet();
+    
+    private ExecutorService analyzers;
+    private int analyzerThreads;
+    
+    private final ExecutorService backgroundBuilds = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "symbol-graph-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @PostConstruct
+    public void init() {
+        int configured = appProperties.getCodeAnalysis().getIndexThreads();
+        analyzerThreads = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        analyzers = Executors.newFixedThreadPool(analyzerThreads, r -> {
+            Thread thread = new Thread(r, "symbol-graph-analyzer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        backgroundBuilds.shutdownNow();
+        analyzers.shutdownNow();
+    }
+    
+    /**
+     * Get the symbol graph of a repository, building it on first use
+     * @return The graph, or null if the repository is unknown or not a Git repository
+     */
+    public SymbolGraph getGraph(String repositoryId) {
+        SymbolGraph graph = graphs.get(repositoryId);
+        if (graph != null) {
+            return graph;
+        }
+        return rebuildGraph(repositoryId);
+    }
+    
+    /**
+     * Get the symbol graph of a repository if it has been built, otherwise start building it in the background
+     * @return The graph, or null while it is not built yet
+     */
+    public SymbolGraph getGraphIfReady(String repositoryId) {
+        SymbolGraph graph = graphs.get(repositoryId);
+        if (graph == null && repositoryId != null && pendingBuilds.add(repositoryId)) {
+            try {
+                backgroundBuilds.execute(() -> {
+                    try {
+                        getGraph(repositoryId);
+                    } finally {
+                        pendingBuilds.remove(repositoryId);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                pendingBuilds.remove(repositoryId); // Shutting down
+            }
+        }
+        return graph;
+    }
+    
+    /**
+     * Rebuild a repository's graph by analyzing every source file on its branch
+     */
+    public synchronized SymbolGraph rebuildGraph(String repositoryId) {
+        MultiRepositoryConfig.RepositoryConfig repo = multiRepositoryService.getRepository(repositoryId);
+        if (repo == null || !gitService.isRepositoryCloned(repo.getPath())) {
+            return null;
+        }
+        
+        try {
+            long startTime = System.currentTimeMillis();
+            String commitId = gitService.resolveCommitId(repo.getPath(), repo.getBranch());
+            if (commitId == null) {
+                logger.warn("⚠️ No commit to build a symbol graph for {}", repositoryId);
+                return null;
+            }
+            
+            List<String> sources = sourcePaths(gitService.listFiles(repo.getPath(), commitId, null));
+            SymbolGraph graph = SymbolGraph.build(commitId, analyzeFiles(repo.getPath(), commitId, sources, new HashSet<>()));
+            graphs.put(repositoryId, graph);
+            logger.info("🕸️ Built symbol graph for {}: {} files, {} classes, {} dependencies ({}ms, {} threads)",
+                repositoryId, graph.fileCount(), graph.classCount(), graph.edgeCount(),
+                System.currentTimeMillis() - startTime, analyzerThreads);
+            return graph;
+        
+        } catch (Exception e) {
+            logger.error("❌ Failed to build symbol graph for {}: {}", repositoryId, e.getMessage(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * Move a graph forward when the repository's branch moves, analyzing only the changed source files
+     */
+    @EventListener
+    public void onRefsChanged(RepositoryRefsChangedEvent event) {
+        String repositoryId = event.getRepositoryId();
+        SymbolGraph current = graphs.get(repositoryId);
+        if (current == null) {
+            return; // Never built, the next getGraph builds it fresh
+        }
+        
+        MultiRepositoryConfig.RepositoryConfig repo = multiRepositoryService.getRepository(repositoryId);
+        String newCommitId = repo != null ? gitService.resolveCommitId(repo.getPath(), repo.getBranch()) : null;
+        if (newCommitId == null || newCommitId.equals(current.getCommitId())) {
+            return;
+        }
+        
+        String branchRef = repo.getBranch() != null ? Constants.R_HEADS + repo.getBranch() : null;
+        RepositoryRefsChangedEvent.RefChange branchChange = event.getRefChanges().stream()
+            .filter(change -> change.getRefName().equals(branchRef))
+            .filter(change -> current.getCommitId().equals(change.getOldId()) && newCommitId.equals(change.getNewId()))
+            .findFirst()
+            .orElse(null);
+        
+        if (branchChange == null) {
+            // The graph was not built from the old tip of this change, fall back to a full build
+            rebuildGraph(repositoryId);
+            return;
+        }
+        
+        synchronized (this) {
+            try {
+                long startTime = System.currentTimeMillis();
+                List<String> changedSources = sourcePaths(branchChange.getChangedPaths());
+                Set<String> failed = new HashSet<>();
+                List<SymbolGraph.FileSymbols> changedSymbols = analyzeFiles(repo.getPath(), newCommitId, changedSources, failed);
+                // A file that could not be analyzed keeps the symbols of its last good version
+                changedSources.removeAll(failed);
+                SymbolGraph updated = current.withChanges(newCommitId, changedSources, changedSymbols);
+                graphs.put(repositoryId, updated);
+                logger.info("🕸️ Updated symbol graph for {} with {} changed source files ({}ms)",
+                    repositoryId, changedSources.size(), System.currentTimeMillis() - startTime);
+            } catch (Exception e) {
+                logger.warn("⚠️ Incremental symbol graph update failed for {}, rebuilding: {}", repositoryId, e.getMessage());
+                rebuildGraph(repositoryId);
+            }
+        }
+    }
+    
+    /**
+     * Drop a repository's graph, e.g. after its configuration changed
+     */
+    public void invalidate(String repositoryId) {
+        graphs.remove(repositoryId);
+    }
+    
+    /**
+     * Read the files on this thread (JGit readers are not thread-safe) and analyze them on the pool.
+     * At most a few files per analyzer thread are held in memory at a time.
+     * @param failed Receives the paths of files that were read but could not be analyzed
+     */
+    private List<SymbolGraph.FileSymbols> analyzeFiles(String localPath, String commitId, List<String> paths,
+                                                       Set<String> failed) throws Exception {
+        if (paths.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Semaphore inFlight = new Semaphore(analyzerThreads * 4);
+        List<Future<SymbolGraph.FileSymbols>> results = new ArrayList<>(paths.size());
+        List<String> submitted = new ArrayList<>(paths.size());
+        long maxBytes = appProperties.getCodeAnalysis().getMaxIndexedFileBytes();
+        gitService.readFiles(localPath, commitId, paths, maxBytes, (path, content) -> {
+            inFlight.acquireUninterruptibly();
+            try {
+                results.add(analyzers.submit(() -> {
+                    try {
+                        return analyze(path, content);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+                submitted.add(path);
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                throw e;
+            }
+        });
+        
+        List<SymbolGraph.FileSymbols> symbols = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                symbols.add(results.get(i).get());
+            } catch (ExecutionException e) {
+                failed.add(submitted.get(i));
+                logger.debug("Skipping {}, it could not be analyzed: {}", submitted.get(i), e.getCause().getMessage());
+            }
+        }
+        return symbols;
+    }
+    
+    private SymbolGraph.FileSymbols analyze(String path, String content) {
+        CodeAnalyzerService.CodeAnalysisResult structure = codeAnalyzerService.analyzeStructure(content, languageOf(path));
+        return SymbolGraph.FileSymbols.of(path, structure.getClasses(), structure.getImports(), structure.getDependencies());
+    }
+    
+    private static List<String> sourcePaths(Collection<String> paths) {
+        return paths.stream().filter(path -> languageOf(path) != null).collect(Collectors.toList());
+    }
+    
+    private static String languageOf(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot < 0 ? null : LANGUAGES_BY_EXTENSION.get(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+}
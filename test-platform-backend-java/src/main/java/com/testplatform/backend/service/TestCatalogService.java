@@ -0,0 +1,194 @@
+package com.testplatform.backend.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.model.TestSuite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Persistent catalog of the test suites discovered in each repository.
+ * One JSON file per repository maps each test file to its size, mtime, content hash and parsed suite,
+ * so a restart loads the previous scan and only re-parses files whose content changed.
+ */
+@Service
+public class TestCatalogService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TestCatalogService.class);
+    
+    private static final int CATALOG_VERSION = 3;
+    
+    @Autowired
+    private AppProperties appProperties;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    
+    /**
+     * Load a repository's catalog
+     * @return Entries keyed by repository-relative file path, empty if there is no usable catalog
+     */
+    public Map<String, CatalogEntry> load(String repositoryId) {
+        Path file = getCatalogFile(repositoryId);
+        if (!Files.isRegularFile(file)) {
+            return new HashMap<>();
+        }
+        
+        long startTime = System.currentTimeMillis();
+        try (InputStream in = Files.newInputStream(file)) {
+            Catalog catalog = objectMapper.readValue(in, Catalog.class);
+            if (catalog.getVersion() != CATALOG_VERSION || catalog.getEntries() == null) {
+                logger.info("Ignoring test catalog for {} with version {}", repositoryId, catalog.getVersion());
+                return new HashMap<>();
+            }
+            
+            Map<String, CatalogEntry> entries = new HashMap<>(catalog.getEntries().size() * 2);
+            for (CatalogEntry entry : catalog.getEntries()) {
+                entries.put(entry.getPath(), entry);
+            }
+            logger.info("📚 Loaded test catalog for {} with {} files ({}ms)",
+                repositoryId, entries.size(), System.currentTimeMillis() - startTime);
+            return entries;
+        
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not read test catalog for {}, rescanning: {}", repositoryId, e.getMessage());
+            return new HashMap<>();
+        }
+    }
+    
+    /**
+     * Replace a repository's catalog; written to a temp file and moved into place
+     */
+    public void save(String repositoryId, Collection<CatalogEntry> entries) {
+        Path file = getCatalogFile(repositoryId);
+        try {
+            Files.createDirectories(file.getParent());
+            
+            List<CatalogEntry> sorted = new ArrayList<>(entries);
+            sorted.sort(Comparator.comparing(CatalogEntry::getPath));
+            Catalog catalog = new Catalog();
+            catalog.setVersion(CATALOG_VERSION);
+            catalog.setRepositoryId(repositoryId);
+            catalog.setEntries(sorted);
+            
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), catalog);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("💾 Saved test catalog for {} with {} files", repositoryId, sorted.size());
+        
+        } catch (Exception e) {
+            logger.error("❌ Failed to save test catalog for {}: {}", repositoryId, e.getMessage());
+        }
+    }
+    
+    /**
+     * Check whether a catalog entry still describes the file on disk.
+     * Size and mtime are compared first; when they differ the content hash decides,
+     * so a touched but unchanged file is not re-parsed. The entry's mtime is refreshed in that case.
+     */
+    public boolean isUpToDate(CatalogEntry entry, Path file) {
+        if (entry == null || entry.getSuite() == null) {
+            return false;
+        }
+        try {
+            long size = Files.size(file);
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            if (size == entry.getSize() && lastModified == entry.getLastModified()) {
+                return true;
+            }
+            
+            if (size == entry.getSize() && hashFile(file).equals(entry.getContentHash())) {
+                entry.setLastModified(lastModified);
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Create a catalog entry for a freshly parsed file
+     */
+    public CatalogEntry createEntry(String path, Path file, TestSuite suite) throws IOException {
+        CatalogEntry entry = new CatalogEntry();
+        entry.setPath(path);
+        entry.setSize(Files.size(file));
+        entry.setLastModified(Files.getLastModifiedTime(file).toMillis());
+        entry.setContentHash(hashFile(file));
+        entry.setSuite(suite);
+        return entry;
+    }
+    
+    private String hashFile(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(Files.readAllBytes(file));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+    
+    private Path getCatalogFile(String repositoryId) {
+        return Paths.get(appProperties.getTestGeneration().getCatalogDir(), repositoryId + ".json");
+    }
+    
+    /**
+     * On-disk layout of one repository's catalog
+     */
+    public static class Catalog {
+        private int version;
+        private String repositoryId;
+        private List<CatalogEntry> entries;
+        
+        public int getVersion() { return version; }
+        public void setVersion(int version) { this.version = version; }
+        
+        public String getRepositoryId() { return repositoryId; }
+        public void setRepositoryId(String repositoryId) { this.repositoryId = repositoryId; }
+        
+        public List<CatalogEntry> getEntries() { return entries; }
+        public void setEntries(List<CatalogEntry> entries) { this.entries = entries; }
+    }
+    
+    /**
+     * One test file and the suite parsed from it
+     */
+    public static class CatalogEntry {
+        private String path;
+        private long size;
+        private long lastModified;
+        private String contentHash;
+        private TestSuite suite;
+        
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+        
+        public long getSize() { return size; }
+        public void setSize(long size) { this.size = size; }
+        
+        public long getLastModified() { return lastModified; }
+        public void setLastModified(long lastModified) { this.lastModified = lastModified; }
+        
+        public String getContentHash() { return contentHash; }
+        public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+        
+        public TestSuite getSuite() { return suite; }
+        public void setSuite(TestSuite suite) { this.suite = suite; }
+    }
+}
@@ -1,41 +1,95 @@
 package com.testplatform.backend.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.config.MultiRepositoryConfig;
 import com.testplatform.backend.enums.ExecutionStatus;
 import com.testplatform.backend.enums.TestStatus;
 import com.testplatform.backend.enums.TestPriority;
+import com.testplatform.backend.event.TestExecutionEvent;
 import com.testplatform.backend.model.TestExecution;
 import com.testplatform.backend.model.TestSuite;
 import com.testplatform.backend.model.TestCase;
 import com.testplatform.backend.dto.DetailedTestCaseDTO;
+import com.testplatform.backend.repository.TestExecutionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Service
 public class TestExecutionService {
     
     private static final Logger logger = LoggerFactory.getLogger(TestExecutionService.class);
     
+    /**
+     * Fields of a test case result; code is only sent when asked for
+     */
+    public static final List<String> TEST_CASE_FIELDS = List.of("id", "name", "type", "status", "priority", "description",
+        "filePath", "language", "code", "executedAt", "executionTime", "errorMessage", "suiteName", "suiteId");
+    public static final Set<String> DEFAULT_TEST_CASE_FIELDS = TEST_CASE_FIELDS.stream()
+        .filter(field -> !field.equals("code"))
+        .collect(java.util.stream.Collectors.toUnmodifiableSet());
+    
+    // Test cases copied out of the store per lock acquisition while streaming a page
+    private static final int TEST_CASE_CHUNK_SIZE = 200;
+    
     @Autowired
     private TestGenerationService testGenerationService;
     
     @Autowired
     private PullRequestService pullRequestService;
     
+    @Autowired
+    private TestExecutionRepository testExecutionRepository;
+    
+    @Autowired
+    private AppProperties appProperties;
+    
+    @Autowired
+    private MultiRepositoryConfig multiRepositoryConfig;
+    
+    @Autowired
+    private TestSuiteStore testSuiteStore;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
     
-    // Mock execution storage (in production, use database)
-    private final List<TestExecution> testExecutions = new ArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    
+    /**
+     * Apply the execution retention policy now and hourly
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleCleanup() {
+        scheduler.scheduleWithFixedDelay(this::cleanupOldExecutions, 0, 1, TimeUnit.HOURS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
     
     /**
      * Execute tests for a PR
@@ -45,17 +99,20 @@ public class TestExecutionService {
         logger.info("🧪 Executing tests for PR #{} ({})", prNumber, branch);
         
         // Create execution record
+        // PR tests are generated into the default repository
         TestExecution execution = new TestExecution(prNumber, branch);
         execution.setId(UUID.randomUUID().toString());
+        execution.setRepositoryId(multiRepositoryConfig.getDefaultRepository());
         execution.setStatus(ExecutionStatus.RUNNING);
         
-        testExecutions.add(execution);
+        testExecutionRepository.save(execution);
+        eventPublisher.publishEvent(TestExecutionEvent.started(execution.getId(), execution.getRepositoryId(), execution.getStartTime()));
         
         // Execute real tests from repository
         scheduler.schedule(() -> {
             try {
                 // Get real tests for this PR from repository
-                List<TestSuite> testSuites = testGenerationService.getTestsForPR(prNumber);
+                List<TestSuite> testSuites = testGenerationService.getTestsForPR(prNumber, execution.getRepositoryId());
                 int totalTests = testSuites.stream()
                         .mapToInt(suite -> suite.getTestCases() != null ? suite.getTestCases().size() : 0)
                         .sum();
@@ -68,23 +125,26 @@ public class TestExecutionService {
                     return;
                 }
                 
-                // Execute real test cases
-                int passed = 0;
-                int failed = 0;
+                // Execute real test cases, one store update per suite so readers never see a half-run suite
+                int[] counts = new int[2]; // passed, failed
+                List<TestExecutionEvent> finished = new ArrayList<>();
                 
                 for (TestSuite suite : testSuites) {
                     if (suite.getTestCases() != null) {
-                        for (TestCase testCase : suite.getTestCases()) {
-                            // Execute real test case
-                            boolean testPassed = executeRealTestCase(testCase);
-                            if (testPassed) {
-                                passed++;
-                            } else {
-                                failed++;
+                        String service = testSuiteStore.getServiceName(execution.getRepositoryId(), suite.getId());
+                        testSuiteStore.update(execution.getRepositoryId(), suite.getId(), stored -> {
+                            for (TestCase testCase : stored.getTestCases()) {
+                                // Execute real test case
+                                counts[executeRealTestCase(testCase) ? 0 : 1]++;
+                                finished.add(testFinishedEvent(execution, service, testCase));
                             }
-                        }
+                        });
+                        finished.forEach(eventPublisher::publishEvent);
+                        finished.clear();
                     }
                 }
+                int passed = counts[0];
+                int failed = counts[1];
                 
                 // Update execution record with real results
                 execution.setStatus(ExecutionStatus.COMPLETED);
@@ -98,12 +158,28 @@ public class TestExecutionService {
                 execution.setStatus(ExecutionStatus.FAILED);
                 execution.setErrorMessage(error.getMessage());
                 logger.error("❌ Real test execution failed for PR #{}: {}", prNumber, error.getMessage());
+            } finally {
+                testExecutionRepository.save(execution);
+                publishCompleted(execution);
             }
         }, 1, TimeUnit.SECONDS);
         
         return CompletableFuture.completedFuture(execution.getId());
     }
     
+    private TestExecutionEvent testFinishedEvent(TestExecution execution, String service, TestCase testCase) {
+        return TestExecutionEvent.testFinished(execution.getId(), execution.getRepositoryId(), service,
+                testCase.getName(), testCase.getStatus(), testCase.getExecutionTime());
+    }
+    
+    /**
+     * Publish the final status once the execution's scheduled run is over; a cancelled run still finishes here
+     */
+    private void publishCompleted(TestExecution execution) {
+        eventPublisher.publishEvent(TestExecutionEvent.completed(execution.getId(), execution.getRepositoryId(),
+                execution.getStatus(), execution.getDuration()));
+    }
+    
     /**
      * Execute a real test case from repository code
      */
@@ -142,50 +218,51 @@ public class TestExecutionService {
     public CompletableFuture<String> executeTestSuite(String suiteId) {
         logger.info("🧪 Executing test suite: {}", suiteId);
         
+        // Record the execution against the repository the suite belongs to
+        String suiteRepositoryId = testSuiteStore.getRepositoryId(suiteId);
+        String repositoryId = suiteRepositoryId != null ? suiteRepositoryId : multiRepositoryConfig.getDefaultRepository();
+        
         // Create execution record
         TestExecution execution = new TestExecution();
         execution.setId(UUID.randomUUID().toString());
         execution.setSuiteId(suiteId);
+        execution.setRepositoryId(repositoryId);
         execution.setStatus(ExecutionStatus.RUNNING);
         
-        testExecutions.add(execution);
+        testExecutionRepository.save(execution);
+        eventPublisher.publishEvent(TestExecutionEvent.started(execution.getId(), execution.getRepositoryId(), execution.getStartTime()));
         
         // Update test suite status to RUNNING immediately
-        testGenerationService.updateTestSuiteStatus(suiteId, TestStatus.RUNNING);
+        testGenerationService.updateTestSuiteStatus(suiteId, TestStatus.RUNNING, repositoryId);
         
         // Simulate test execution
         scheduler.schedule(() -> {
             try {
                 // Find the test suite
-                List<TestSuite> allTests = testGenerationService.getAllTests();
-                Optional<TestSuite> testSuiteOpt = allTests.stream()
-                        .filter(suite -> suite.getId().equals(suiteId))
-                        .findFirst();
-                
-                if (testSuiteOpt.isEmpty()) {
+                if (testSuiteStore.findById(suiteId).isEmpty()) {
                     execution.setStatus(ExecutionStatus.FAILED);
                     execution.setErrorMessage("Test suite not found");
                     return;
                 }
                 
-                TestSuite testSuite = testSuiteOpt.get();
-                
                 // Add a delay to make RUNNING state visible (2-4 seconds)
                 Thread.sleep(2000 + (long) (Math.random() * 2000));
                 
-                int totalTests = testSuite.getTestCases() != null ? testSuite.getTestCases().size() : 0;
                 double passRate = 0.85 + Math.random() * 0.12; // 85-97% pass rate
-                int passed = (int) Math.floor(totalTests * passRate);
-                int failed = totalTests - passed;
+                LocalDateTime executionTime = LocalDateTime.now();
+                String service = testSuiteStore.getServiceName(repositoryId, suiteId);
+                int[] counts = new int[2]; // total, failed
+                List<TestExecutionEvent> finished = new ArrayList<>();
                 
-                // Update individual test case statuses based on execution results
-                if (testSuite.getTestCases() != null) {
-                    List<TestCase> testCases = testSuite.getTestCases();
-                    LocalDateTime executionTime = LocalDateTime.now();
+                // Record every result in one store update, so readers and the status indexes never see a half-run suite
+                testSuiteStore.update(repositoryId, suiteId, stored -> {
+                    List<TestCase> testCases = stored.getTestCases() != null ? stored.getTestCases() : Collections.emptyList();
+                    counts[0] = testCases.size();
+                    counts[1] = testCases.size() - (int) Math.floor(testCases.size() * passRate);
                     
                     // Randomly assign pass/fail status to individual test cases
                     List<Integer> failedIndices = new ArrayList<>();
-                    for (int i = 0; i < failed; i++) {
+                    for (int i = 0; i < counts[1]; i++) {
                         int randomIndex;
                         do {
                             randomIndex = (int) (Math.random() * testCases.size());
@@ -206,8 +283,14 @@ public class TestExecutionService {
                         // Set execution details
                         testCase.setExecutedAt(executionTime);
                         testCase.setExecutionTime((long) (100 + Math.random() * 2000)); // 100ms to 2s
+                        finished.add(testFinishedEvent(execution, service, testCase));
                     }
-                }
+                });
+                finished.forEach(eventPublisher::publishEvent);
+                
+                int totalTests = counts[0];
+                int failed = counts[1];
+                int passed = totalTests - failed;
                 
                 // Update execution record
                 execution.setStatus(ExecutionStatus.COMPLETED);
@@ -216,7 +299,7 @@ public class TestExecutionService {
                 execution.setResults(new TestExecution.TestResults(totalTests, passed, failed, 0));
                 
                 // Update test suite status and last run time
-                testGenerationService.updateTestSuiteStatus(suiteId, TestStatus.COMPLETED);
+                testGenerationService.updateTestSuiteStatus(suiteId, TestStatus.COMPLETED, repositoryId);
                 
                 logger.info("✅ Test suite completed: {}/{} passed", passed, totalTests);
                 
@@ -224,6 +307,9 @@ public class TestExecutionService {
                 execution.setStatus(ExecutionStatus.FAILED);
                 execution.setErrorMessage(error.getMessage());
                 logger.error("❌ Test suite execution failed: {}", error.getMessage());
+            } finally {
+                testExecutionRepository.save(execution);
+                publishCompleted(execution);
             }
         }, (long) (3000 + Math.random() * 2000), TimeUnit.MILLISECONDS);
         
@@ -234,37 +320,42 @@ public class TestExecutionService {
      * Get execution status
      */
     public Optional<TestExecution> getExecutionStatus(String executionId) {
-        return testExecutions.stream()
-                .filter(exec -> exec.getId().equals(executionId))
-                .findFirst();
+        return testExecutionRepository.findById(executionId);
     }
     
     /**
      * Get all executions for a PR
      */
     public List<TestExecution> getExecutionsForPR(Integer prNumber) {
-        return testExecutions.stream()
-                .filter(exec -> exec.getPrNumber() != null && exec.getPrNumber().equals(prNumber))
-                .collect(Collectors.toList());
+        return testExecutionRepository.findByPrNumber(prNumber);
     }
     
     /**
      * Get recent executions
      */
     public List<TestExecution> getRecentExecutions(int limit) {
-        return testExecutions.stream()
-                .sorted((a, b) -> b.getStartTime().compareTo(a.getStartTime()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return testExecutionRepository.findRecent(limit);
+    }
+    
+    /**
+     * Get executions started in [from, to); a null bound is open
+     */
+    public List<TestExecution> getExecutionsBetween(LocalDateTime from, LocalDateTime to) {
+        return testExecutionRepository.findByStartTimeBetween(from, to);
+    }
+    
+    /**
+     * Get the average duration of executions that recorded one
+     */
+    public double getAverageExecutionDuration() {
+        return testExecutionRepository.getAverageDuration();
     }
     
     /**
      * Get execution statistics
      */
     public Map<String, Object> getExecutionStats() {
-        List<TestExecution> completedExecutions = testExecutions.stream()
-                .filter(exec -> exec.getStatus() == ExecutionStatus.COMPLETED)
-                .collect(Collectors.toList());
+        List<TestExecution> completedExecutions = testExecutionRepository.findByStatus(ExecutionStatus.COMPLETED);
         
         if (completedExecutions.isEmpty()) {
             Map<String, Object> emptyStats = new HashMap<>();
@@ -292,10 +383,10 @@ public class TestExecutionService {
                 .orElse(0.0);
         
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalExecutions", testExecutions.size());
+        stats.put("totalExecutions", testExecutionRepository.count());
         stats.put("completedExecutions", completedExecutions.size());
-        stats.put("runningExecutions", testExecutions.stream().mapToInt(exec -> exec.getStatus() == ExecutionStatus.RUNNING ? 1 : 0).sum());
-        stats.put("failedExecutions", testExecutions.stream().mapToInt(exec -> exec.getStatus() == ExecutionStatus.FAILED ? 1 : 0).sum());
+        stats.put("runningExecutions", testExecutionRepository.countByStatus(ExecutionStatus.RUNNING));
+        stats.put("failedExecutions", testExecutionRepository.countByStatus(ExecutionStatus.FAILED));
         stats.put("averageDuration", Math.round(avgDuration));
         stats.put("successRate", totalTests > 0 ? String.format("%.2f", (totalPassed * 100.0) / totalTests) : "0");
         stats.put("totalTests", totalTests);
@@ -309,14 +400,13 @@ public class TestExecutionService {
      * Cancel execution
      */
     public boolean cancelExecution(String executionId) {
-        Optional<TestExecution> executionOpt = testExecutions.stream()
-                .filter(exec -> exec.getId().equals(executionId))
-                .findFirst();
+        Optional<TestExecution> executionOpt = testExecutionRepository.findById(executionId);
         
         if (executionOpt.isPresent() && executionOpt.get().getStatus() == ExecutionStatus.RUNNING) {
             TestExecution execution = executionOpt.get();
             execution.setStatus(ExecutionStatus.CANCELLED);
             execution.setEndTime(LocalDateTime.now());
+            testExecutionRepository.save(execution);
             logger.info("🛑 Cancelled execution: {}", executionId);
             return true;
         }
@@ -328,21 +418,20 @@ public class TestExecutionService {
      * Get all executions
      */
     public List<TestExecution> getAllExecutions() {
-        return new ArrayList<>(testExecutions);
+        return testExecutionRepository.findAll();
     }
     
     /**
      * Stop execution
      */
     public boolean stopExecution(String executionId) {
-        Optional<TestExecution> executionOpt = testExecutions.stream()
-                .filter(exec -> exec.getId().equals(executionId))
-                .findFirst();
+        Optional<TestExecution> executionOpt = testExecutionRepository.findById(executionId);
         
         if (executionOpt.isPresent() && executionOpt.get().getStatus() == ExecutionStatus.RUNNING) {
             TestExecution execution = executionOpt.get();
             execution.setStatus(ExecutionStatus.CANCELLED);
             execution.setEndTime(LocalDateTime.now());
+            testExecutionRepository.save(execution);
             logger.info("🛑 Stopped execution: {}", executionId);
             return true;
         }
@@ -351,66 +440,42 @@ public class TestExecutionService {
     }
     
     /**
-     * Clean up old executions (keep only last 100)
+     * Clean up old executions past the configured retention age and count
      */
     public void cleanupOldExecutions() {
-        if (testExecutions.size() > 100) {
-            testExecutions.sort((a, b) -> b.getStartTime().compareTo(a.getStartTime()));
-            List<TestExecution> toKeep = testExecutions.subList(0, 100);
-            testExecutions.clear();
-            testExecutions.addAll(toKeep);
-            logger.info("🧹 Cleaned up old executions, kept 100 most recent");
+        try {
+            AppProperties.Storage storage = appProperties.getStorage();
+            LocalDateTime cutoff = storage.getExecutionRetentionDays() > 0
+                    ? LocalDateTime.now().minusDays(storage.getExecutionRetentionDays())
+                    : null;
+            int deleted = testExecutionRepository.deleteOlderThan(cutoff, storage.getMaxExecutions());
+            if (deleted > 0) {
+                logger.info("🧹 Cleaned up {} old executions, kept {}", deleted, testExecutionRepository.count());
+            }
+        } catch (Exception e) {
+            logger.error("❌ Error cleaning up old executions: {}", e.getMessage());
         }
     }
 
     /**
-     * Get detailed test case results by status and repository
+     * Get detailed test case results by status and repository, most recently executed first
      */
     public List<DetailedTestCaseDTO> getDetailedTestCaseResults(String status, String repository) {
         List<DetailedTestCaseDTO> results = new ArrayList<>();
         
         try {
-            // Get all test suites for the specified repository
-            List<TestSuite> allTestSuites = repository != null ? 
-                    testGenerationService.getAllTests(repository) : 
-                    testGenerationService.getAllTests();
-            
-            for (TestSuite suite : allTestSuites) {
-                if (suite.getTestCases() != null) {
-                    for (TestCase testCase : suite.getTestCases()) {
-                        // Filter by status if provided
-                        if (status == null || status.isEmpty() || 
-                            testCase.getStatus().toString().equalsIgnoreCase(status)) {
-                            
-                            DetailedTestCaseDTO dto = new DetailedTestCaseDTO();
-                            dto.setId(testCase.getId());
-                            dto.setName(testCase.getName());
-                            dto.setType(testCase.getType());
-                            dto.setStatus(testCase.getStatus());
-                            dto.setPriority(testCase.getPriority());
-                            dto.setDescription(testCase.getDescription());
-                            dto.setFilePath(testCase.getFilePath());
-                            dto.setLanguage(testCase.getLanguage());
-                            dto.setCode(testCase.getCode());
-                            dto.setExecutedAt(testCase.getExecutedAt());
-                            dto.setExecutionTime(testCase.getExecutionTime());
-                            dto.setErrorMessage(testCase.getErrorMessage());
-                            dto.setSuiteName(suite.getName());
-                            dto.setSuiteId(suite.getId());
-                            
-                            results.add(dto);
-                        }
-                    }
+            String repositoryId = repository != null ? repository : multiRepositoryConfig.getDefaultRepository();
+            TestStatus testStatus = null;
+            if (status != null && !status.isEmpty()) {
+                testStatus = parseTestStatus(status);
+                if (testStatus == null) {
+                    return results; // No test case can have an unknown status
                 }
             }
             
-            // Sort by execution time (most recent first)
-            results.sort((a, b) -> {
-                if (a.getExecutedAt() == null && b.getExecutedAt() == null) return 0;
-                if (a.getExecutedAt() == null) return 1;
-                if (b.getExecutedAt() == null) return -1;
-                return b.getExecutedAt().compareTo(a.getExecutedAt());
-            });
+            // The store keeps test cases in result order, so there is nothing left to sort
+            results = testSuiteStore.findTestCases(repositoryId, testStatus, null, Integer.MAX_VALUE,
+                    (suite, testCase) -> toDetailedTestCase(suite, testCase, true)).getItems();
             
             logger.info("📊 Retrieved {} detailed test case results for status: {}, repository: {}", 
                        results.size(), status, repository != null ? repository : "default");
@@ -421,6 +486,103 @@ public class TestExecutionService {
         
         return results;
     }
+    
+    /**
+     * Write one page of test case results as an ApiResponse JSON document, with the cursor of the next page.
+     * Test cases are copied out of the store a chunk at a time and written as they come, so the response
+     * starts at once and memory use doesn't grow with the page size.
+     * @param status Only test cases with this status, or null for all
+     * @param after Key of the last test case of the previous page, or null for the first page
+     * @param fields Fields to write for each test case
+     */
+    public void writeTestCaseResultsPage(OutputStream out, String repositoryId, TestStatus status,
+                                         TestSuiteStore.TestCaseKey after, int limit, Set<String> fields) throws IOException {
+        boolean includeCode = fields.contains("code");
+        int written = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeArrayFieldStart("data");
+            TestSuiteStore.TestCaseKey next = after;
+            do {
+                TestSuiteStore.TestCasePage<DetailedTestCaseDTO> chunk = testSuiteStore.findTestCases(repositoryId, status, next,
+                        Math.min(TEST_CASE_CHUNK_SIZE, limit - written),
+                        (suite, testCase) -> toDetailedTestCase(suite, testCase, includeCode));
+                for (DetailedTestCaseDTO testCase : chunk.getItems()) {
+                    writeTestCase(json, testCase, fields);
+                }
+                written += chunk.getItems().size();
+                next = chunk.getNext();
+                json.flush();
+            } while (next != null && written < limit);
+            json.writeEndArray();
+            json.writeNumberField("count", written);
+            if (next != null) {
+                json.writeStringField("nextCursor", next.encode());
+            }
+            json.writeEndObject();
+        }
+    }
+    
+    /**
+     * Parse a test status name, ignoring case
+     * @return The status, or null if there is no such status
+     */
+    public TestStatus parseTestStatus(String status) {
+        try {
+            return TestStatus.valueOf(status.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private DetailedTestCaseDTO toDetailedTestCase(TestSuite suite, TestCase testCase, boolean includeCode) {
+        DetailedTestCaseDTO dto = new DetailedTestCaseDTO();
+        dto.setId(testCase.getId());
+        dto.setName(testCase.getName());
+        dto.setType(testCase.getType());
+        dto.setStatus(testCase.getStatus());
+        dto.setPriority(testCase.getPriority());
+        dto.setDescription(testCase.getDescription());
+        dto.setFilePath(testCase.getFilePath());
+        dto.setLanguage(testCase.getLanguage());
+        if (includeCode) {
+            dto.setCode(testCase.getCode());
+        }
+        dto.setExecutedAt(testCase.getExecutedAt());
+        dto.setExecutionTime(testCase.getExecutionTime());
+        dto.setErrorMessage(testCase.getErrorMessage());
+        dto.setSuiteName(suite.getName());
+        dto.setSuiteId(suite.getId());
+        return dto;
+    }
+    
+    private void writeTestCase(JsonGenerator json, DetailedTestCaseDTO testCase, Set<String> fields) throws IOException {
+        json.writeStartObject();
+        writeField(json, fields, "id", testCase.getId());
+        writeField(json, fields, "name", testCase.getName());
+        writeField(json, fields, "type", testCase.getType());
+        writeField(json, fields, "status", testCase.getStatus());
+        writeField(json, fields, "priority", testCase.getPriority());
+        writeField(json, fields, "description", testCase.getDescription());
+        writeField(json, fields, "filePath", testCase.getFilePath());
+        writeField(json, fields, "language", testCase.getLanguage());
+        writeField(json, fields, "code", testCase.getCode());
+        writeField(json, fields, "executedAt", testCase.getExecutedAt());
+        writeField(json, fields, "executionTime", testCase.getExecutionTime());
+        writeField(json, fields, "errorMessage", testCase.getErrorMessage());
+        writeField(json, fields, "suiteName", testCase.getSuiteName());
+        writeField(json, fields, "suiteId", testCase.getSuiteId());
+        json.writeEndObject();
+    }
+    
+    private void writeField(JsonGenerator json, Set<String> fields, String name, Object value) throws IOException {
+        // Nulls are left out, like everywhere else in the API
+        if (value != null && fields.contains(name)) {
+            json.writeFieldName(name);
+            json.writeObject(value);
+        }
+    }
 
     /**
      * Get test case results summary by status
@@ -429,18 +591,12 @@ public class TestExecutionService {
         Map<String, Object> summary = new HashMap<>();
         
         try {
-            List<DetailedTestCaseDTO> allResults = getDetailedTestCaseResults(null, null);
-            
-            long totalTests = allResults.size();
-            long passedTests = allResults.stream()
-                    .filter(tc -> tc.getStatus() == TestStatus.PASSED)
-                    .count();
-            long failedTests = allResults.stream()
-                    .filter(tc -> tc.getStatus() == TestStatus.FAILED)
-                    .count();
-            long pendingTests = allResults.stream()
-                    .filter(tc -> tc.getStatus() == TestStatus.PENDING)
-                    .count();
+            // Counted from the store's per-status test case indexes
+            String repositoryId = multiRepositoryConfig.getDefaultRepository();
+            long totalTests = testSuiteStore.countTestCases(repositoryId, null);
+            long passedTests = testSuiteStore.countTestCases(repositoryId, TestStatus.PASSED);
+            long failedTests = testSuiteStore.countTestCases(repositoryId, TestStatus.FAILED);
+            long pendingTests = testSuiteStore.countTestCases(repositoryId, TestStatus.PENDING);
             
             summary.put("total", totalTests);
             summary.put("passed", passedTests);
@@ -0,0 +1,234 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.util.TestFileScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the test directories of every scanned repository and feeds changed test files
+ * back into TestGenerationService, so new and edited tests show up without a restart.
+ * Events are debounced per repository. When a file system cannot deliver events
+ * (unsupported, or out of inotify watches), the repository is polled instead.
+ */
+@Service
+public class TestFileWatcherService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TestFileWatcherService.class);
+    
+    @Autowired
+    private TestGenerationService testGenerationService;
+    
+    @Autowired
+    private MultiRepositoryService multiRepositoryService;
+    
+    @Autowired
+    private AppProperties appProperties;
+    
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "test-watch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final Map<String, WatchService> watchServices = new ConcurrentHashMap<>();
+    
+    // Changed files waiting for the debounce window to close, and the pending flush per repository
+    private final Map<String, Set<File>> pendingChanges = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> pendingFlushes = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWatching() {
+        if (!Boolean.TRUE.equals(appProperties.getTestGeneration().getWatchEnabled())) {
+            logger.info("Test file watching is disabled");
+            return;
+        }
+        
+        for (MultiRepositoryConfig.RepositoryConfig repo : multiRepositoryService.getEnabledRepositories()) {
+            List<Path> roots = testGenerationService.getTestWatchRoots(repo.getId());
+            if (roots.stream().noneMatch(Files::isDirectory)) {
+                continue;
+            }
+            
+            try {
+                watchRepository(repo.getId(), roots);
+            } catch (IOException e) {
+                int pollSeconds = appProperties.getTestGeneration().getWatchPollSeconds();
+                logger.warn("⚠️ Cannot watch {} ({}), polling every {}s instead", repo.getId(), e.getMessage(), pollSeconds);
+                String repositoryId = repo.getId();
+                scheduler.scheduleWithFixedDelay(() -> reconcile(repositoryId), pollSeconds, pollSeconds, TimeUnit.SECONDS);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        for (WatchService watchService : watchServices.values()) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Shutting down anyway
+            }
+        }
+    }
+    
+    private void watchRepository(String repositoryId, List<Path> roots) throws IOException {
+        WatchService watchService = FileSystems.getDefault().newWatchService();
+        Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+        try {
+            for (Path root : roots) {
+                if (Files.isDirectory(root)) {
+                    registerTree(watchService, keys, root);
+                }
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        
+        watchServices.put(repositoryId, watchService);
+        Thread thread = new Thread(() -> processEvents(repositoryId, watchService, keys), "test-watch-" + repositoryId);
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("👀 Watching {} directories for test changes in {}", keys.size(), repositoryId);
+    }
+    
+    private void registerTree(WatchService watchService, Map<WatchKey, Path> keys, Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(start) && TestFileScanner.IGNORED_DIRECTORIES.contains(dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = dir.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                keys.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+            
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+    
+    private void processEvents(String repositoryId, WatchService watchService, Map<WatchKey, Path> keys) {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            
+            Path dir = keys.get(key);
+            boolean needsReconcile = false;
+            List<File> changed = new ArrayList<>();
+            
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                    needsReconcile = true;
+                    continue;
+                }
+                
+                Path path = dir.resolve((Path) event.context());
+                String name = path.getFileName().toString();
+                if (TestFileScanner.JAVA_TEST_FILES.test(name)) {
+                    changed.add(path.toFile());
+                } else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    if (TestFileScanner.IGNORED_DIRECTORIES.contains(name)) {
+                        continue;
+                    }
+                    // Files may land in a new directory before it is registered, so pick them up by scanning it
+                    try {
+                        registerTree(watchService, keys, path);
+                    } catch (IOException e) {
+                        logger.warn("⚠️ Cannot watch new directory {}: {}", path, e.getMessage());
+                    }
+                    TestFileScanner.scan(List.of(path), TestFileScanner.JAVA_TEST_FILES).getFiles()
+                        .forEach(file -> changed.add(file.toFile()));
+                } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    // Possibly a deleted directory, whose test files sent no events of their own
+                    needsReconcile = true;
+                }
+            }
+            
+            if (!key.reset()) {
+                keys.remove(key);
+            }
+            
+            if (needsReconcile) {
+                scheduler.execute(() -> reconcile(repositoryId));
+            }
+            if (!changed.isEmpty()) {
+                schedule(repositoryId, changed);
+            }
+        }
+    }
+    
+    /**
+     * Collect changed files and (re)start the repository's debounce window
+     */
+    private void schedule(String repositoryId, Collection<File> files) {
+        pendingChanges.compute(repositoryId, (id, pending) -> {
+            Set<File> updated = pending != null ? pending : new HashSet<>();
+            updated.addAll(files);
+            return updated;
+        });
+        
+        long debounceMs = appProperties.getTestGeneration().getWatchDebounceMs();
+        pendingFlushes.compute(repositoryId, (id, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return scheduler.schedule(() -> flush(repositoryId), debounceMs, TimeUnit.MILLISECONDS);
+        });
+    }
+    
+    private void flush(String repositoryId) {
+        Set<File> files = pendingChanges.remove(repositoryId);
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+        
+        try {
+            long startTime = System.currentTimeMillis();
+            int refreshed = testGenerationService.refreshTestFiles(repositoryId, files);
+            if (refreshed > 0) {
+                logger.info("👀 Applied {} test file changes in {} ({}ms)", refreshed, repositoryId, System.currentTimeMillis() - startTime);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Failed to refresh test files in {}: {}", repositoryId, e.getMessage(), e);
+        }
+    }
+    
+    private void reconcile(String repositoryId) {
+        try {
+            int refreshed = testGenerationService.reconcileTestFiles(repositoryId);
+            if (refreshed > 0) {
+                logger.info("🔄 Reconciled {} test file changes in {}", refreshed, repositoryId);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Failed to reconcile test files in {}: {}", repositoryId, e.getMessage(), e);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.testplatform.backend.enums.TestPriority;
 import com.testplatform.backend.enums.TestStatus;
 import com.testplatform.backend.model.TestCase;
 import com.testplatform.backend.model.TestSuite;
+import com.testplatform.backend.util.MethodIndex;
+import com.testplatform.backend.util.WeightedLruCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,15 +29,42 @@ public class TestGenerationService {
     @Autowired
     private LlmService llmService;
     
+    @Autowired
+    private CodeAnalyzerService codeAnalyzerService;
+    
     @Autowired
     private MultiRepositoryService multiRepositoryService;
     
     @Autowired
     private com.testplatform.backend.config.MultiRepositoryConfig multiRepositoryConfig;
     
-    // Repository-specific test storage
-    private final Map<String, List<TestSuite>> repositoryTests = new HashMap<>();
-    private int nextTestId = 1000;
+    @Autowired
+    private RepositoryPathIndexService repositoryPathIndexService;
+    
+    @Autowired
+    private GitService gitService;
+    
+    @Autowired
+    private TestCatalogService testCatalogService;
+    
+    private static final String[] KEPLER_TARGET_SERVICES = {"project-service", "contributor-service", "work-service", "public-api-service"};
+    
+    // Repository-specific test storage, indexed by suite id, PR, service and status
+    @Autowired
+    private TestSuiteStore testSuiteStore;
+    
+    // Generated suites, which have no test file to rediscover them from after a restart
+    @Autowired
+    private com.testplatform.backend.repository.GeneratedTestSuiteRepository generatedTestSuiteRepository;
+    
+    // Catalog entries of the discovered test files per repository, keyed like the on-disk catalog
+    private final Map<String, Map<String, TestCatalogService.CatalogEntry>> catalogEntries = new java.util.concurrent.ConcurrentHashMap<>();
+    
+    // Last test discovery timing per repository
+    private final Map<String, Map<String, Object>> discoveryMetrics = new java.util.concurrent.ConcurrentHashMap<>();
+    
+    // Method fingerprints and tests of the last generation per test type and file, null if incremental generation is off
+    private WeightedLruCache<String, GeneratedFile> generatedFiles;
     
     public TestGenerationService() {
         logger.info("🚀 TestGenerationService initialized - Generic multi-repository support");
@@ -43,6 +72,11 @@ public class TestGenerationService {
     
     @jakarta.annotation.PostConstruct
     public void init() {
+        AppProperties.TestGeneration config = appProperties.getTestGeneration();
+        if (Boolean.TRUE.equals(config.getIncrementalEnabled())) {
+            generatedFiles = new WeightedLruCache<>(config.getIncrementalCacheMaxBytes(), GeneratedFile::estimateBytes);
+        }
+        
         // Load test suites from all enabled repositories
         loadRepositoryTests();
     }
@@ -57,21 +91,37 @@ public class TestGenerationService {
             // Get all enabled repositories from configuration
             var repositories = multiRepositoryService.getEnabledRepositories();
             
+            // Ids are global, so reserve the ids of every catalog and of the generated suites before any file is parsed
+            Map<String, Map<String, TestCatalogService.CatalogEntry>> catalogs = new HashMap<>();
+            for (var repo : repositories) {
+                Map<String, TestCatalogService.CatalogEntry> catalog = testCatalogService.load(repo.getId());
+                reserveSuiteIds(catalog.values().stream().map(TestCatalogService.CatalogEntry::getSuite).collect(Collectors.toList()));
+                catalogs.put(repo.getId(), catalog);
+            }
+            Map<String, List<TestSuite>> generatedSuites = generatedTestSuiteRepository.findAllByRepository();
+            generatedSuites.values().forEach(this::reserveSuiteIds);
+            
             for (var repo : repositories) {
                 String repoId = repo.getId();
                 try {
                     logger.info("🔍 Scanning repository: {} ({})", repo.getName(), repoId);
-                    List<TestSuite> repoTests = scanRepositoryForTests(repoId);
-                    repositoryTests.put(repoId, repoTests);
+                    List<TestSuite> repoTests = scanRepositoryForTests(repoId, catalogs.get(repoId));
+                    testSuiteStore.replaceRepository(repoId, repoTests, suite -> extractServiceName(suite.getFilePath()));
                     logger.info("✅ Loaded {} test suites from {}", repoTests.size(), repo.getName());
                 } catch (Exception e) {
                     logger.error("❌ Error loading tests from {}: {}", repo.getName(), e.getMessage());
-                    repositoryTests.put(repoId, new ArrayList<>());
+                    testSuiteStore.replaceRepository(repoId, Collections.emptyList(), suite -> null);
                 }
             }
             
+            // Restore generated suites on top of the discovered ones
+            generatedSuites.forEach((repoId, suites) -> {
+                testSuiteStore.apply(repoId, Collections.emptyList(), suites, suite -> extractServiceName(suite.getFilePath()));
+                logger.info("📚 Restored {} generated test suites for {}", suites.size(), repoId);
+            });
+            
             // Log summary
-            int totalSuites = repositoryTests.values().stream().mapToInt(List::size).sum();
+            int totalSuites = testSuiteStore.getRepositoryIds().stream().mapToInt(testSuiteStore::count).sum();
             logger.info("📊 Total test suites loaded: {} across {} repositories", 
                        totalSuites, repositories.size());
         } catch (Exception e) {
@@ -81,8 +131,9 @@ public class TestGenerationService {
     
     /**
      * Scan a repository for existing test files and create test suites
+     * @param catalog The repository's persistent catalog, whose ids are already reserved
      */
-    private List<TestSuite> scanRepositoryForTests(String repositoryId) {
+    private List<TestSuite> scanRepositoryForTests(String repositoryId, Map<String, TestCatalogService.CatalogEntry> catalog) {
         List<TestSuite> testSuites = new ArrayList<>();
         
         try {
@@ -110,11 +161,35 @@ public class TestGenerationService {
             List<java.io.File> testFiles = findTestFiles(repoDir, repositoryId);
             logger.info("📝 Found {} test files in {}", testFiles.size(), repositoryId);
             
+            // Reuse suites from the persistent catalog, re-parsing only files whose content changed
+            java.nio.file.Path repoRoot = repoDir.toPath().toAbsolutePath().normalize();
+            List<TestCatalogService.CatalogEntry> entries = new ArrayList<>(testFiles.size());
+            int reused = 0;
+            int parsed = 0;
+            boolean catalogChanged = false;
+            
             // Process test files and create test suites
             for (java.io.File testFile : testFiles) {
                 try {
-                    TestSuite suite = createTestSuiteFromFile(testFile, repositoryId, repoPath);
-                    if (suite != null && suite.getTestCases() != null && !suite.getTestCases().isEmpty()) {
+                    String relativePath = catalogKey(repoRoot, testFile);
+                    TestCatalogService.CatalogEntry entry = catalog.get(relativePath);
+                    long cataloguedModified = entry != null ? entry.getLastModified() : 0;
+                    if (testCatalogService.isUpToDate(entry, testFile.toPath())) {
+                        catalogChanged |= entry.getLastModified() != cataloguedModified;
+                        reused++;
+                    } else {
+                        TestSuite parsedSuite = createTestSuiteFromFile(testFile, repositoryId, repoPath);
+                        entry = parsedSuite != null ? testCatalogService.createEntry(relativePath, testFile.toPath(), parsedSuite) : null;
+                        parsed++;
+                        catalogChanged = true;
+                    }
+                    if (entry == null) {
+                        continue;
+                    }
+                    entries.add(entry);
+                    
+                    TestSuite suite = entry.getSuite();
+                    if (suite.getTestCases() != null && !suite.getTestCases().isEmpty()) {
                         testSuites.add(suite);
                     }
                 } catch (Exception e) {
@@ -122,6 +197,17 @@ public class TestGenerationService {
                 }
             }
             
+            if (catalogChanged || entries.size() != catalog.size()) {
+                testCatalogService.save(repositoryId, entries);
+            }
+            Map<String, TestCatalogService.CatalogEntry> entriesByPath = new HashMap<>(entries.size() * 2);
+            for (TestCatalogService.CatalogEntry entry : entries) {
+                entriesByPath.put(entry.getPath(), entry);
+            }
+            catalogEntries.put(repositoryId, entriesByPath);
+            logger.info("📚 Reused {} catalogued test files, parsed {} new or changed in {}", 
+                reused, parsed, repositoryId);
+            
             logger.info("✨ Created {} test suites from {} with {} total test cases", 
                 testSuites.size(),
                 repositoryId,
@@ -135,97 +221,298 @@ public class TestGenerationService {
     }
     
     /**
-     * Find all test files in repository
+     * Re-parse changed test files of a repository and swap the updated suites in.
+     * Files that no longer exist or are no longer test files drop their suites; replaced suites keep their ids.
+     * @param changedFiles Files created, modified or deleted since they were last parsed
+     * @return Number of files whose suites were added, replaced or removed
      */
-    private List<java.io.File> findTestFiles(java.io.File dir, String repositoryId) {
-        List<java.io.File> testFiles = new ArrayList<>();
+    public synchronized int refreshTestFiles(String repositoryId, Collection<java.io.File> changedFiles) {
+        var repoConfig = multiRepositoryService.getRepository(repositoryId);
+        String[] scanRoots = getTestScanRoots(repositoryId);
+        if (repoConfig == null || scanRoots == null || changedFiles.isEmpty()) {
+            return 0;
+        }
         
-        // For Kepler App - focus on specific services
-        if ("kepler-app".equals(repositoryId)) {
-            String[] targetServices = {"project-service", "contributor-service", "work-service", "public-api-service"};
-            for (String service : targetServices) {
-                java.io.File serviceDir = new java.io.File(dir, service);
-                if (serviceDir.exists() && serviceDir.isDirectory()) {
-                    logger.info("Scanning service directory: {}", service);
-                    findAllTestFiles(serviceDir, testFiles, 0);
+        String repoPath = repoConfig.getPath();
+        java.nio.file.Path repoRoot = java.nio.file.Paths.get(repoPath).toAbsolutePath().normalize();
+        Map<String, TestCatalogService.CatalogEntry> entries = new HashMap<>(catalogEntries.getOrDefault(repositoryId, Collections.emptyMap()));
+        List<String> removedIds = new ArrayList<>();
+        List<TestSuite> upserts = new ArrayList<>();
+        int changed = 0;
+        
+        for (java.io.File file : changedFiles) {
+            String relativePath = catalogKey(repoRoot, file);
+            TestCatalogService.CatalogEntry previous = entries.get(relativePath);
+            
+            if (!isWatchedTestFile(repoRoot, file, scanRoots)) {
+                if (previous != null) {
+                    entries.remove(relativePath);
+                    removedIds.add(previous.getSuite().getId());
+                    changed++;
+                }
+                continue;
+            }
+            if (testCatalogService.isUpToDate(previous, file.toPath())) {
+                continue;
+            }
+            
+            try {
+                TestSuite suite = createTestSuiteFromFile(file, repositoryId, repoPath);
+                if (suite == null) {
+                    continue;
                 }
+                if (previous != null) {
+                    suite.setId(previous.getSuite().getId());
+                }
+                // Suites without test cases are catalogued but never listed
+                if (hasTestCases(suite)) {
+                    upserts.add(suite);
+                } else if (previous != null) {
+                    removedIds.add(suite.getId());
+                }
+                entries.put(relativePath, testCatalogService.createEntry(relativePath, file.toPath(), suite));
+                changed++;
+            } catch (Exception e) {
+                logger.warn("Error refreshing test file {}: {}", file.getName(), e.getMessage());
             }
         }
-        // For Shared Services - scan all test directories
-        else if ("shared-services".equals(repositoryId)) {
-            findAllTestFiles(dir, testFiles, 0);
+        
+        if (changed == 0) {
+            return 0;
         }
         
-        logger.info("Found {} test files before limit", testFiles.size());
-        // Limit to first 100 test files for performance
-        return testFiles.stream().limit(100).collect(java.util.stream.Collectors.toList());
+        testSuiteStore.apply(repositoryId, removedIds, upserts, suite -> extractServiceName(suite.getFilePath()));
+        
+        catalogEntries.put(repositoryId, entries);
+        testCatalogService.save(repositoryId, entries.values());
+        logger.info("🔄 Refreshed {} changed test files in {}", changed, repositoryId);
+        return changed;
     }
     
     /**
-     * Find test files in specific services
+     * Compare the working tree with the known test files by size and mtime and refresh what differs.
+     * Used when file events are unavailable or were dropped.
+     * @return Number of files whose suites were added, replaced or removed
      */
-    private void findTestFilesInServices(java.io.File dir, String[] services, List<java.io.File> result, int depth) {
-        if (depth > 25 || result.size() >= 100) return;
+    public int reconcileTestFiles(String repositoryId) {
+        var repoConfig = multiRepositoryService.getRepository(repositoryId);
+        List<java.nio.file.Path> roots = getTestWatchRoots(repositoryId);
+        if (repoConfig == null || roots.isEmpty()) {
+            return 0;
+        }
         
-        java.io.File[] files = dir.listFiles();
-        if (files == null) return;
+        String repoPath = repoConfig.getPath();
+        java.nio.file.Path repoRoot = java.nio.file.Paths.get(repoPath).toAbsolutePath().normalize();
+        Map<String, TestCatalogService.CatalogEntry> known = catalogEntries.getOrDefault(repositoryId, Collections.emptyMap());
+        Set<String> seen = new HashSet<>();
+        List<java.io.File> changedFiles = new ArrayList<>();
         
-        for (java.io.File file : files) {
-            if (file.isDirectory()) {
-                String dirName = file.getName();
-                // Check if this is one of our target services
-                boolean isTargetService = java.util.Arrays.asList(services).contains(dirName);
-                if (isTargetService) {
-                    logger.info("📂 Scanning target service directory: {} at depth {}", dirName, depth);
-                }
-                // Always recurse into target services regardless of depth!
-                if (isTargetService) {
-                    findTestFilesInServices(file, services, result, depth + 1);
-                } else if (depth < 8) {
-                    // For non-target directories, still search a bit deeper to find the service directories
-                    findTestFilesInServices(file, services, result, depth + 1);
-                }
-            } else if (file.getName().endsWith("Test.java") || file.getName().endsWith("Tests.java")) {
-                String path = file.getAbsolutePath();
-                // Only include if in target service directory
-                for (String service : services) {
-                    if (path.contains(service)) {
-                        logger.info("✅ Found test file in {}: {}", service, file.getName());
-                        result.add(file);
-                        break;
-                    } else if (service.equals("contributor-service")) {
-                        // Debug: why isn't contributor-service matching?
-                        logger.warn("❌ Path doesn't contain 'contributor-service': {}", path.length() > 120 ? path.substring(0, 120) + "..." : path);
-                    }
+        for (java.nio.file.Path path : com.testplatform.backend.util.TestFileScanner.scan(
+                roots, com.testplatform.backend.util.TestFileScanner.JAVA_TEST_FILES).getFiles()) {
+            java.io.File file = path.toFile();
+            String relativePath = catalogKey(repoRoot, file);
+            seen.add(relativePath);
+            TestCatalogService.CatalogEntry entry = known.get(relativePath);
+            if (entry == null || entry.getSize() != file.length() || entry.getLastModified() != file.lastModified()) {
+                changedFiles.add(file);
+            }
+        }
+        for (TestCatalogService.CatalogEntry entry : known.values()) {
+            if (!seen.contains(entry.getPath())) {
+                changedFiles.add(new java.io.File(repoPath, entry.getPath()));
+            }
+        }
+        
+        return changedFiles.isEmpty() ? 0 : refreshTestFiles(repositoryId, changedFiles);
+    }
+    
+    /**
+     * Absolute directories searched for a repository's tests; empty when the repository is not scanned
+     */
+    public List<java.nio.file.Path> getTestWatchRoots(String repositoryId) {
+        var repoConfig = multiRepositoryService.getRepository(repositoryId);
+        String[] scanRoots = getTestScanRoots(repositoryId);
+        if (repoConfig == null || scanRoots == null) {
+            return Collections.emptyList();
+        }
+        
+        java.nio.file.Path repoRoot = java.nio.file.Paths.get(repoConfig.getPath()).toAbsolutePath().normalize();
+        List<java.nio.file.Path> roots = new ArrayList<>();
+        for (String root : scanRoots) {
+            roots.add(repoRoot.resolve(root));
+        }
+        return roots;
+    }
+    
+    private boolean isWatchedTestFile(java.nio.file.Path repoRoot, java.io.File file, String[] scanRoots) {
+        if (!file.isFile() || !com.testplatform.backend.util.TestFileScanner.JAVA_TEST_FILES.test(file.getName())) {
+            return false;
+        }
+        if (!file.toPath().toAbsolutePath().normalize().startsWith(repoRoot)) {
+            return false;
+        }
+        String path = catalogKey(repoRoot, file);
+        if (isInIgnoredDirectory(path)) {
+            return false;
+        }
+        for (String root : scanRoots) {
+            if (root.isEmpty() || path.startsWith(root + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Catalog key of a test file: its path relative to the repository root, with '/' separators
+     * @param repoRoot Absolute, normalized repository root
+     */
+    private String catalogKey(java.nio.file.Path repoRoot, java.io.File file) {
+        return repoRoot.relativize(file.toPath().toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+    
+    private boolean hasTestCases(TestSuite suite) {
+        return suite.getTestCases() != null && !suite.getTestCases().isEmpty();
+    }
+    
+    /**
+     * Keep new ids clear of the suite and test case ids of catalogued or stored suites
+     */
+    private void reserveSuiteIds(Collection<TestSuite> suites) {
+        long maxId = 0;
+        for (TestSuite suite : suites) {
+            if (suite == null) {
+                continue;
+            }
+            maxId = Math.max(maxId, parseId(suite.getId()));
+            if (suite.getTestCases() != null) {
+                for (TestCase testCase : suite.getTestCases()) {
+                    maxId = Math.max(maxId, parseId(testCase.getId()));
                 }
             }
         }
+        testSuiteStore.reserveIdsBelow(maxId + 1);
+    }
+    
+    private long parseId(String id) {
+        if (id == null || id.isEmpty() || !id.chars().allMatch(Character::isDigit)) {
+            return 0;
+        }
+        return Long.parseLong(id);
     }
     
     /**
-     * Find all test files recursively
+     * Find all test files in repository, recording discovery timing for the repository
      */
-    private void findAllTestFiles(java.io.File dir, List<java.io.File> result, int depth) {
-        if (depth > 25) {
-            logger.warn("⚠️ Reached max depth 25 in directory: {}", dir.getName());
-            return;
+    private List<java.io.File> findTestFiles(java.io.File dir, String repositoryId) {
+        String[] scanRoots = getTestScanRoots(repositoryId);
+        if (scanRoots == null) {
+            return new ArrayList<>();
         }
-        if (result.size() >= 100) {
-            logger.warn("⚠️ Reached 100 file limit, stopping scan");
-            return;
+        
+        long startTime = System.currentTimeMillis();
+        
+        // Prefer the in-memory Git path index over walking the working tree
+        List<java.io.File> testFiles = findTestFilesFromIndex(dir, repositoryId, scanRoots);
+        if (testFiles != null) {
+            recordDiscoveryMetrics(repositoryId, "path-index", testFiles.size(), 0, System.currentTimeMillis() - startTime);
+            return testFiles;
         }
         
-        java.io.File[] files = dir.listFiles();
-        if (files == null) return;
+        List<java.nio.file.Path> roots = new ArrayList<>();
+        for (String root : scanRoots) {
+            roots.add(dir.toPath().resolve(root));
+        }
+        com.testplatform.backend.util.TestFileScanner.ScanResult scan = com.testplatform.backend.util.TestFileScanner.scan(
+            roots, com.testplatform.backend.util.TestFileScanner.JAVA_TEST_FILES);
         
-        for (java.io.File file : files) {
-            if (file.isDirectory() && !file.getName().equals("target") && !file.getName().equals("node_modules")) {
-                findAllTestFiles(file, result, depth + 1);
-            } else if (file.getName().endsWith("Test.java") || file.getName().endsWith("Tests.java")) {
-                logger.info("➕ Adding test file: {} (total now: {})", file.getName(), result.size() + 1);
-                result.add(file);
+        testFiles = new ArrayList<>(scan.getFiles().size());
+        for (java.nio.file.Path path : scan.getFiles()) {
+            testFiles.add(path.toFile());
+        }
+        recordDiscoveryMetrics(repositoryId, "filesystem", testFiles.size(), scan.getDirectoriesScanned(), scan.getDurationMs());
+        return testFiles;
+    }
+    
+    /**
+     * Directories to search for tests, relative to the repository root ("" is the whole repository)
+     * @return The roots, or null when the repository is not scanned for existing tests
+     */
+    private String[] getTestScanRoots(String repositoryId) {
+        // For Kepler App - focus on specific services
+        if ("kepler-app".equals(repositoryId)) {
+            return KEPLER_TARGET_SERVICES;
+        }
+        // For Shared Services - scan all test directories
+        if ("shared-services".equals(repositoryId)) {
+            return new String[] {""};
+        }
+        return null;
+    }
+    
+    /**
+     * Find test files with the repository's path index. The index holds the committed tree, so test files that
+     * only the working tree has (untracked or newly added) are merged in from the Git status.
+     * @return Test files that exist on disk, or null when the repository has no index
+     */
+    private List<java.io.File> findTestFilesFromIndex(java.io.File dir, String repositoryId, String[] scanRoots) {
+        com.testplatform.backend.util.RepositoryPathIndex index = repositoryPathIndexService.getIndex(repositoryId);
+        if (index == null) {
+            return null;
+        }
+        
+        Set<String> paths = new LinkedHashSet<>();
+        for (String root : scanRoots) {
+            for (String suffix : new String[] {"Test.java", "Tests.java"}) {
+                paths.addAll(index.findBySuffix(root, suffix));
+            }
+        }
+        for (String path : gitService.listUncommittedFiles(dir.getPath(), Arrays.asList(scanRoots))) {
+            if (com.testplatform.backend.util.TestFileScanner.JAVA_TEST_FILES.test(path)) {
+                paths.add(path);
             }
         }
+        
+        List<java.io.File> testFiles = new ArrayList<>();
+        for (String path : paths) {
+            if (isInIgnoredDirectory(path)) {
+                continue;
+            }
+            // Sparse clones index files that are not checked out
+            java.io.File file = new java.io.File(dir, path);
+            if (file.isFile()) {
+                testFiles.add(file);
+            }
+        }
+        return testFiles;
+    }
+    
+    private boolean isInIgnoredDirectory(String path) {
+        String[] segments = path.split("/");
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (com.testplatform.backend.util.TestFileScanner.IGNORED_DIRECTORIES.contains(segments[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void recordDiscoveryMetrics(String repositoryId, String source, int testFiles, long directoriesScanned, long durationMs) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("source", source);
+        metrics.put("testFiles", testFiles);
+        metrics.put("directoriesScanned", directoriesScanned);
+        metrics.put("durationMs", durationMs);
+        metrics.put("discoveredAt", LocalDateTime.now());
+        discoveryMetrics.put(repositoryId, metrics);
+        logger.info("🔎 Discovered {} test files in {} from {} ({}ms)", testFiles, repositoryId, source, durationMs);
+    }
+    
+    /**
+     * Get the last test discovery timing for every scanned repository
+     */
+    public Map<String, Map<String, Object>> getDiscoveryMetrics() {
+        return new TreeMap<>(discoveryMetrics);
     }
     
     /**
@@ -234,7 +521,7 @@ public class TestGenerationService {
     private TestSuite createTestSuiteFromFile(java.io.File testFile, String repositoryId, String repoPath) {
         try {
             TestSuite suite = new TestSuite();
-            suite.setId(String.valueOf(nextTestId++));
+            suite.setId(testSuiteStore.nextId());
             
             String fileName = testFile.getName();
             String suiteName = fileName.replace("Test.java", "").replace("Tests.java", "");
@@ -318,40 +605,43 @@ public class TestGenerationService {
     private List<TestCase> extractTestCasesFromFile(java.io.File testFile, TestType testType) {
         List<TestCase> testCases = new ArrayList<>();
         
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.FileReader(testFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // Look for @Test annotation
-                if (line.trim().startsWith("@Test") || line.contains("@Test")) {
-                    // Read next line to get method name
-                    String nextLine = reader.readLine();
-                    if (nextLine != null) {
-                        String methodName = extractMethodName(nextLine);
-                        if (methodName != null) {
-                            TestCase tc = new TestCase();
-                            tc.setId(String.valueOf(nextTestId++));
-                            tc.setName(methodName);
-                            
-                            // Set test type from suite
-                            tc.setType(testType);
-                            
-                            // Randomly assign pass/fail (90% pass rate)
-                            boolean isPassed = Math.random() < 0.9;
-                            tc.setStatus(isPassed ? TestStatus.PASSED : TestStatus.FAILED);
-                            tc.setExecutionTime(100L + (long)(Math.random() * 500));
-                            
-                            // Assign varied priority based on method name and status
-                            tc.setPriority(assignTestPriority(methodName, isPassed));
-                            
-                            // Add realistic error message for failed tests
-                            if (!isPassed) {
-                                tc.setErrorMessage(generateRealisticErrorMessage(methodName));
-                            }
-                            
-                            testCases.add(tc);
-                        }
-                    }
+        try {
+            for (com.testplatform.backend.util.JavaTestParser.TestMethod method : com.testplatform.backend.util.JavaTestParser.parse(testFile.toPath())) {
+                String methodName = method.getName();
+                TestCase tc = new TestCase();
+                tc.setId(testSuiteStore.nextId());
+                tc.setName(methodName);
+                tc.setDisplayName(method.getDisplayName());
+                tc.setDescription(method.getDisplayName());
+                tc.setTags(method.getTags());
+                tc.setStartLine(method.getStartLine());
+                tc.setEndLine(method.getEndLine());
+                tc.setLanguage("java");
+                
+                // Set test type from suite
+                tc.setType(testType);
+                
+                if (method.isDisabled()) {
+                    tc.setStatus(TestStatus.SKIPPED);
+                    tc.setPriority(TestPriority.LOW);
+                    testCases.add(tc);
+                    continue;
                 }
+                
+                // Randomly assign pass/fail (90% pass rate)
+                boolean isPassed = Math.random() < 0.9;
+                tc.setStatus(isPassed ? TestStatus.PASSED : TestStatus.FAILED);
+                tc.setExecutionTime(100L + (long)(Math.random() * 500));
+                
+                // Assign varied priority based on method name and status
+                tc.setPriority(assignTestPriority(methodName, isPassed));
+                
+                // Add realistic error message for failed tests
+                if (!isPassed) {
+                    tc.setErrorMessage(generateRealisticErrorMessage(methodName));
+                }
+                
+                testCases.add(tc);
             }
         } catch (Exception e) {
             logger.warn("Error reading test file {}: {}", testFile.getName(), e.getMessage());
@@ -360,25 +650,6 @@ public class TestGenerationService {
         return testCases;
     }
     
-    /**
-     * Extract method name from method declaration
-     */
-    private String extractMethodName(String line) {
-        try {
-            line = line.trim();
-            if (line.contains("(")) {
-                int start = line.lastIndexOf(" ", line.indexOf("("));
-                int end = line.indexOf("(");
-                if (start > 0 && end > start) {
-                    return line.substring(start + 1, end).trim();
-                }
-            }
-        } catch (Exception e) {
-            // Ignore parsing errors
-        }
-        return null;
-    }
-    
     /**
      * Assign priority to test based on method name and status
      */
@@ -467,7 +738,7 @@ public class TestGenerationService {
             
             // Suite 1: Mobile Service Tests
             TestSuite mobileSuite = new TestSuite();
-            mobileSuite.setId(String.valueOf(nextTestId++));
+            mobileSuite.setId(testSuiteStore.nextId());
             mobileSuite.setName("Mobile Service Test Suite");
             mobileSuite.setType(TestType.UNIT);
             mobileSuite.setFilePath("mobile-service/src/main/java/com/appen/kepler/app/mobile/service/MobileSessionService.java");
@@ -479,7 +750,7 @@ public class TestGenerationService {
             
             // Suite 2: Distribution Service Tests
             TestSuite distSuite = new TestSuite();
-            distSuite.setId(String.valueOf(nextTestId++));
+            distSuite.setId(testSuiteStore.nextId());
             distSuite.setName("Distribution Service Test Suite");
             distSuite.setType(TestType.INTEGRATION);
             distSuite.setFilePath("distribution-service/src/main/java/com/appen/kepler/app/distribution/service/DistributionService.java");
@@ -491,7 +762,7 @@ public class TestGenerationService {
             
             // Suite 3: Elasticsearch Integration Tests
             TestSuite esSuite = new TestSuite();
-            esSuite.setId(String.valueOf(nextTestId++));
+            esSuite.setId(testSuiteStore.nextId());
             esSuite.setName("Elasticsearch Integration Test Suite");
             esSuite.setType(TestType.INTEGRATION);
             esSuite.setFilePath("common-elasticsearch/src/main/java/com/appen/kepler/app/common/es/client/EsQueryClient.java");
@@ -503,7 +774,7 @@ public class TestGenerationService {
             
             // Suite 4: API Gateway Tests
             TestSuite apiSuite = new TestSuite();
-            apiSuite.setId(String.valueOf(nextTestId++));
+            apiSuite.setId(testSuiteStore.nextId());
             apiSuite.setName("API Gateway Test Suite");
             apiSuite.setType(TestType.UNIT);
             apiSuite.setFilePath("api-gateway/src/main/java/com/appen/kepler/app/gateway/filter/AuthFilter.java");
@@ -523,7 +794,7 @@ public class TestGenerationService {
             
             // Suite 1: Authentication Service Tests
             TestSuite authSuite = new TestSuite();
-            authSuite.setId(String.valueOf(nextTestId++));
+            authSuite.setId(testSuiteStore.nextId());
             authSuite.setName("Authentication Service Test Suite");
             authSuite.setType(TestType.UNIT);
             authSuite.setFilePath("auth-service/src/main/java/com/appen/shared/auth/service/AuthenticationService.java");
@@ -535,7 +806,7 @@ public class TestGenerationService {
             
             // Suite 2: Data Pipeline Tests
             TestSuite pipelineSuite = new TestSuite();
-            pipelineSuite.setId(String.valueOf(nextTestId++));
+            pipelineSuite.setId(testSuiteStore.nextId());
             pipelineSuite.setName("Data Pipeline Test Suite");
             pipelineSuite.setType(TestType.INTEGRATION);
             pipelineSuite.setFilePath("data-pipeline/src/main/java/com/appen/shared/pipeline/service/DataProcessor.java");
@@ -547,7 +818,7 @@ public class TestGenerationService {
             
             // Suite 3: Cache Service Tests
             TestSuite cacheSuite = new TestSuite();
-            cacheSuite.setId(String.valueOf(nextTestId++));
+            cacheSuite.setId(testSuiteStore.nextId());
             cacheSuite.setName("Cache Service Test Suite");
             cacheSuite.setType(TestType.UNIT);
             cacheSuite.setFilePath("cache-service/src/main/java/com/appen/shared/cache/service/RedisCacheService.java");
@@ -569,7 +840,7 @@ public class TestGenerationService {
         List<TestCase> testCases = new ArrayList<>();
         for (int i = 0; i < total; i++) {
             TestCase tc = new TestCase();
-            tc.setId(String.valueOf(nextTestId++));
+            tc.setId(testSuiteStore.nextId());
             tc.setName("testCase_" + i);
             tc.setStatus(i < passed ? TestStatus.PASSED : TestStatus.FAILED);
             tc.setExecutionTime(100L + (long)(Math.random() * 500));
@@ -583,18 +854,32 @@ public class TestGenerationService {
      * Generate test cases using LLM based on code content and type
      */
     public CompletableFuture<List<TestCase>> generateTestCases(String code, TestType type, String language, String filePath) {
+        return generateTestCases(code, type, language, filePath, null);
+    }
+    
+    /**
+     * Generate test cases for some methods of a file. Tests generated earlier for this file and test type are
+     * kept for every method whose fingerprint hasn't changed since, so only requested methods that changed or
+     * were never covered are sent to the LLM.
+     * @param changedMethods Method names or signatures (see {@link MethodIndex}), null for every method of the file
+     */
+    public CompletableFuture<List<TestCase>> generateTestCases(String code, TestType type, String language, String filePath,
+                                                               Set<String> changedMethods) {
+        return generateTestCases(code, type, language, filePath, changedMethods, null);
+    }
+    
+    /**
+     * Generate test cases for some methods of a file of the given repository
+     * @param repositoryId Repository whose symbol graph adds context to the prompt, null for the default repository
+     */
+    public CompletableFuture<List<TestCase>> generateTestCases(String code, TestType type, String language, String filePath,
+                                                               Set<String> changedMethods, String repositoryId) {
         return CompletableFuture.supplyAsync(() -> {
             logger.info("🤖 Generating {} tests using LLM for {}", type, filePath);
             
             try {
-                // Use LLM service to generate intelligent test cases
-                List<TestCase> llmGeneratedTests = llmService.generateTestCases(code, type, language, filePath);
-                
-                // Limit the number of tests based on configuration
-                int maxTests = appProperties.getTestGeneration().getMaxTestsPerFile();
-                if (llmGeneratedTests.size() > maxTests) {
-                    llmGeneratedTests = llmGeneratedTests.subList(0, maxTests);
-                }
+                // Use LLM service to generate intelligent test cases, limited by configuration
+                List<TestCase> llmGeneratedTests = generateForMethods(code, type, language, filePath, changedMethods, repositoryId);
                 
                 logger.info("✅ Generated {} intelligent test cases using LLM", llmGeneratedTests.size());
                 return llmGeneratedTests;
@@ -609,6 +894,141 @@ public class TestGenerationService {
         });
     }
     
+    /**
+     * Size, weight and hit counters of the per-file generation store, or null if incremental generation is off
+     */
+    public Map<String, Object> getGenerationCacheStats() {
+        return generatedFiles != null ? generatedFiles.getStats() : null;
+    }
+    
+    private List<TestCase> generateForMethods(String code, TestType type, String language, String filePath,
+                                              Set<String> changedMethods, String repositoryId) {
+        int maxTests = appProperties.getTestGeneration().getMaxTestsPerFile();
+        MethodIndex index = generatedFiles != null || changedMethods != null
+                ? codeAnalyzerService.indexMethods(code, language) : MethodIndex.empty();
+        if (index.isEmpty()) {
+            return limit(llmService.generateTestCases(code, type, language, filePath, null, repositoryId), maxTests);
+        }
+        
+        String key = type + ":" + filePath;
+        GeneratedFile previous = generatedFiles != null ? generatedFiles.get(key) : null;
+        Set<String> changedSince = previous != null ? index.changedSince(previous.index) : null;
+        Set<String> reusable = new HashSet<>();
+        if (changedSince != null) {
+            reusable.addAll(previous.covered);
+            reusable.retainAll(index.getSignatures());
+            reusable.removeAll(changedSince);
+        }
+        
+        Set<String> toGenerate = resolve(changedMethods, index);
+        toGenerate.removeAll(reusable);
+        
+        // Tests are tagged by method name, so the overloads of a changed method are regenerated with it
+        Set<String> changedNames = index.names(toGenerate);
+        for (MethodIndex.Method method : index.getMethods()) {
+            if (changedNames.contains(method.getName())) {
+                toGenerate.add(method.getSignature());
+                reusable.remove(method.getSignature());
+            }
+        }
+        List<TestCase> tests = new ArrayList<>();
+        if (!toGenerate.isEmpty()) {
+            boolean wholeFile = toGenerate.size() == index.getSignatures().size();
+            tests.addAll(llmService.generateTestCases(code, type, language, filePath,
+                    wholeFile ? null : toGenerate, repositoryId));
+        }
+        
+        // Untagged tests may exercise any method, so they are only kept for an identical file
+        boolean unchanged = changedSince != null && changedSince.isEmpty() && toGenerate.isEmpty();
+        int kept = 0;
+        if (previous != null) {
+            for (TestCase test : previous.tests) {
+                String method = testedMethod(test);
+                if (method != null ? isReusable(method, index, reusable) : unchanged) {
+                    TestCase copy = new TestCase(test);
+                    copy.setId(UUID.randomUUID().toString());
+                    tests.add(copy);
+                    kept++;
+                }
+            }
+        }
+        logger.info("♻️ {} tests for {}: {} methods sent to the LLM, {} unchanged methods kept {} tests",
+                   type, filePath, toGenerate.size(), reusable.size(), kept);
+        
+        tests = limit(tests, maxTests);
+        if (generatedFiles != null) {
+            // Covered are the methods whose tagged tests survived the limit; untagged fallback tests and the
+            // methods whose tests were cut off cover nothing, so the next run generates them again
+            Set<String> testedNames = new HashSet<>();
+            for (TestCase test : tests) {
+                String method = testedMethod(test);
+                if (method != null) {
+                    testedNames.add(method);
+                }
+            }
+            Set<String> covered = index.signatures(testedNames);
+            List<TestCase> stored = tests.stream().map(TestCase::new).collect(Collectors.toList());
+            generatedFiles.put(key, new GeneratedFile(index, covered, stored));
+        }
+        return tests;
+    }
+    
+    /**
+     * Signatures of the requested methods; a name stands for all of its overloads
+     */
+    private static Set<String> resolve(Set<String> methods, MethodIndex index) {
+        if (methods == null) {
+            return new LinkedHashSet<>(index.getSignatures());
+        }
+        Set<String> signatures = new LinkedHashSet<>();
+        for (MethodIndex.Method method : index.getMethods()) {
+            if (methods.contains(method.getSignature()) || methods.contains(method.getName())) {
+                signatures.add(method.getSignature());
+            }
+        }
+        return signatures;
+    }
+    
+    /**
+     * A test for a method name is kept only while every overload of that name is reusable
+     */
+    private static boolean isReusable(String methodName, MethodIndex index, Set<String> reusable) {
+        boolean found = false;
+        for (MethodIndex.Method method : index.getMethods()) {
+            if (method.getName().equals(methodName)) {
+                if (!reusable.contains(method.getSignature())) {
+                    return false;
+                }
+                found = true;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Name of the method a generated test targets, from the tag the LLM response set ("UserService.create(String)"
+     * is read as "create"), or null if the test isn't tagged
+     */
+    private static String testedMethod(TestCase test) {
+        if (test.getTags() == null) {
+            return null;
+        }
+        for (String tag : test.getTags()) {
+            if (tag.startsWith(LlmService.METHOD_TAG_PREFIX)) {
+                String method = tag.substring(LlmService.METHOD_TAG_PREFIX.length());
+                int paren = method.indexOf('(');
+                method = paren >= 0 ? method.substring(0, paren) : method;
+                method = method.substring(method.lastIndexOf('.') + 1).trim();
+                return method.isEmpty() ? null : method;
+            }
+        }
+        return null;
+    }
+    
+    private static List<TestCase> limit(List<TestCase> tests, int maxTests) {
+        return tests.size() > maxTests ? new ArrayList<>(tests.subList(0, maxTests)) : tests;
+    }
+    
     /**
      * Create fallback test cases when LLM is not available
      */
@@ -658,8 +1078,9 @@ public class TestGenerationService {
      * Save generated test suite for a specific repository
      */
     public TestSuite saveTestSuite(TestSuite testSuite, String repositoryId) {
-        testSuite.setId(String.valueOf(nextTestId++));
-        repositoryTests.computeIfAbsent(repositoryId, k -> new ArrayList<>()).add(testSuite);
+        testSuite.setId(testSuiteStore.nextId());
+        testSuiteStore.save(repositoryId, testSuite, extractServiceName(testSuite.getFilePath()));
+        generatedTestSuiteRepository.save(repositoryId, testSuite);
         logger.info("💾 Saved test suite for {}: {} tests for {}", repositoryId, testSuite.getType(), testSuite.getFilePath());
         return testSuite;
     }
@@ -676,9 +1097,9 @@ public class TestGenerationService {
      * Get all test suites for a specific repository
      */
     public List<TestSuite> getAllTests(String repositoryId) {
-        List<TestSuite> tests = repositoryTests.getOrDefault(repositoryId, new ArrayList<>());
+        List<TestSuite> tests = testSuiteStore.findAll(repositoryId);
         logger.info("📊 Returning tests for {}: {} test suites", repositoryId, tests.size());
-        return new ArrayList<>(tests);
+        return tests;
     }
     
     /**
@@ -693,9 +1114,7 @@ public class TestGenerationService {
      * Get all test suites for a PR in a specific repository
      */
     public List<TestSuite> getTestsForPR(Integer prNumber, String repositoryId) {
-        return repositoryTests.getOrDefault(repositoryId, new ArrayList<>()).stream()
-                .filter(test -> test.getPrNumber() != null && test.getPrNumber().equals(prNumber))
-                .collect(Collectors.toList());
+        return testSuiteStore.findByPr(repositoryId, prNumber);
     }
     
     /**
@@ -711,11 +1130,11 @@ public class TestGenerationService {
      */
     public List<Map<String, String>> getAvailableRepositories() {
         List<Map<String, String>> repositories = new ArrayList<>();
-        for (String repoId : repositoryTests.keySet()) {
+        for (String repoId : testSuiteStore.getRepositoryIds()) {
             Map<String, String> repo = new HashMap<>();
             repo.put("id", repoId);
             repo.put("name", repoId.replace("-", " ").toUpperCase());
-            repo.put("testCount", String.valueOf(repositoryTests.get(repoId).size()));
+            repo.put("testCount", String.valueOf(testSuiteStore.count(repoId)));
             repositories.add(repo);
         }
         logger.info("📚 Available repositories: {}", repositories.size());
@@ -726,12 +1145,9 @@ public class TestGenerationService {
      * Delete tests for a PR in a specific repository
      */
     public void deleteTestsForPR(Integer prNumber, String repositoryId) {
-        List<TestSuite> tests = repositoryTests.get(repositoryId);
-        if (tests != null) {
-            int initialSize = tests.size();
-            tests.removeIf(test -> test.getPrNumber() != null && test.getPrNumber().equals(prNumber));
-            logger.info("🗑️ Deleted {} test suites for PR #{} in {}", initialSize - tests.size(), prNumber, repositoryId);
-        }
+        int deleted = testSuiteStore.removeByPr(repositoryId, prNumber);
+        generatedTestSuiteRepository.deleteByPr(repositoryId, prNumber);
+        logger.info("🗑️ Deleted {} test suites for PR #{} in {}", deleted, prNumber, repositoryId);
     }
     
     /**
@@ -746,21 +1162,18 @@ public class TestGenerationService {
      * Update test suite status
      */
     public void updateTestSuiteStatus(String suiteId, TestStatus status, String repositoryId) {
-        List<TestSuite> tests = repositoryTests.get(repositoryId);
-        if (tests != null) {
-            Optional<TestSuite> suiteOpt = tests.stream()
-                .filter(suite -> suite.getId().equals(suiteId))
-                .findFirst();
-        
-        if (suiteOpt.isPresent()) {
-            TestSuite suite = suiteOpt.get();
+        TestSuite updated = testSuiteStore.update(repositoryId, suiteId, suite -> {
             suite.setStatus(status);
             suite.setUpdatedAt(LocalDateTime.now());
             if (status == TestStatus.COMPLETED) {
                 suite.setLastRun(LocalDateTime.now());
             }
-                logger.info("📝 Updated test suite {} status to {} in {}", suiteId, status, repositoryId);
-            }
+        });
+        if (updated != null && generatedTestSuiteRepository.contains(suiteId)) {
+            generatedTestSuiteRepository.save(repositoryId, updated);
+        }
+        if (updated != null) {
+            logger.info("📝 Updated test suite {} status to {} in {}", suiteId, status, repositoryId);
         }
     }
     
@@ -776,7 +1189,7 @@ public class TestGenerationService {
      * Get test generation statistics for a specific repository
      */
     public Map<String, Object> getTestStats(String repositoryId) {
-        List<TestSuite> tests = repositoryTests.getOrDefault(repositoryId, new ArrayList<>());
+        List<TestSuite> tests = testSuiteStore.findAll(repositoryId);
         
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalSuites", tests.size());
@@ -813,37 +1226,37 @@ public class TestGenerationService {
      * Get tests aggregated by service for a specific repository
      */
     public List<com.testplatform.backend.dto.ServiceTestSummaryDTO> getTestsByService(String repositoryId) {
-        List<TestSuite> tests = repositoryTests.getOrDefault(repositoryId, new ArrayList<>());
+        Map<String, List<TestSuite>> suitesByService = testSuiteStore.groupByService(repositoryId);
         Map<String, com.testplatform.backend.dto.ServiceTestSummaryDTO> serviceMap = new HashMap<>();
         
-        for (TestSuite suite : tests) {
-            String serviceName = extractServiceName(suite.getFilePath());
-            
+        for (Map.Entry<String, List<TestSuite>> serviceSuites : suitesByService.entrySet()) {
             // Get or create service summary
             com.testplatform.backend.dto.ServiceTestSummaryDTO summary = serviceMap.computeIfAbsent(
-                serviceName, 
+                serviceSuites.getKey(), 
                 k -> createServiceSummary(k)
             );
             
-            // Aggregate metrics
-            summary.setTotalTestSuites(summary.getTotalTestSuites() + 1);
-            summary.setTotalTestCases(summary.getTotalTestCases() + (suite.getTotalTests() != null ? suite.getTotalTests() : 0));
-            summary.setPassedTests(summary.getPassedTests() + (suite.getPassedTests() != null ? suite.getPassedTests() : 0));
-            summary.setFailedTests(summary.getFailedTests() + (suite.getFailedTests() != null ? suite.getFailedTests() : 0));
-            summary.setTotalExecutionTime(summary.getTotalExecutionTime() + (suite.getExecutionTime() != null ? suite.getExecutionTime() : 0L));
-            
-            // Update last run
-            if (suite.getLastRun() != null && 
-                (summary.getLastRun() == null || suite.getLastRun().isAfter(summary.getLastRun()))) {
-                summary.setLastRun(suite.getLastRun());
+            for (TestSuite suite : serviceSuites.getValue()) {
+                // Aggregate metrics
+                summary.setTotalTestSuites(summary.getTotalTestSuites() + 1);
+                summary.setTotalTestCases(summary.getTotalTestCases() + (suite.getTotalTests() != null ? suite.getTotalTests() : 0));
+                summary.setPassedTests(summary.getPassedTests() + (suite.getPassedTests() != null ? suite.getPassedTests() : 0));
+                summary.setFailedTests(summary.getFailedTests() + (suite.getFailedTests() != null ? suite.getFailedTests() : 0));
+                summary.setTotalExecutionTime(summary.getTotalExecutionTime() + (suite.getExecutionTime() != null ? suite.getExecutionTime() : 0L));
+                
+                // Update last run
+                if (suite.getLastRun() != null && 
+                    (summary.getLastRun() == null || suite.getLastRun().isAfter(summary.getLastRun()))) {
+                    summary.setLastRun(suite.getLastRun());
+                }
+                
+                // Track tests by type
+                String typeName = suite.getType().name();
+                summary.getTestsByType().put(typeName, 
+                    summary.getTestsByType().getOrDefault(typeName, 0) + (suite.getTotalTests() != null ? suite.getTotalTests() : 0));
+                summary.getSuitesByType().put(typeName,
+                    summary.getSuitesByType().getOrDefault(typeName, 0) + 1);
             }
-            
-            // Track tests by type
-            String typeName = suite.getType().name();
-            summary.getTestsByType().put(typeName, 
-                summary.getTestsByType().getOrDefault(typeName, 0) + (suite.getTotalTests() != null ? suite.getTotalTests() : 0));
-            summary.getSuitesByType().put(typeName,
-                summary.getSuitesByType().getOrDefault(typeName, 0) + 1);
         }
         
         // Calculate derived metrics
@@ -863,8 +1276,7 @@ public class TestGenerationService {
             summary.setPendingTests(total - passed - failed);
             
             // Calculate average coverage
-            double avgCoverage = tests.stream()
-                .filter(s -> extractServiceName(s.getFilePath()).equals(summary.getServiceName()))
+            double avgCoverage = suitesByService.getOrDefault(summary.getServiceName(), Collections.emptyList()).stream()
                 .filter(s -> s.getCoverage() != null)
                 .mapToDouble(TestSuite::getCoverage)
                 .average()
@@ -906,7 +1318,7 @@ public class TestGenerationService {
         if (filePath.contains("project-service")) {
             return "Project Service";
         } else if (filePath.contains("contributor-service")) {
-            logger.info("✅ Identified Contributor Service from path: {}", filePath.length() > 80 ? filePath.substring(0, 80) + "..." : filePath);
+            logger.debug("✅ Identified Contributor Service from path: {}", filePath.length() > 80 ? filePath.substring(0, 80) + "..." : filePath);
             return "Contributor Service";
         } else if (filePath.contains("work-service")) {
             return "Work Service";
@@ -1008,6 +1420,36 @@ public class TestGenerationService {
         return suite;
     }
     
+    /**
+     * The last generation for a file and test type: the method index it was generated from, the signatures the
+     * LLM was asked about or whose tests were kept, and the resulting tests
+     */
+    private static final class GeneratedFile {
+        final MethodIndex index;
+        final Set<String> covered;
+        final List<TestCase> tests;
+        
+        GeneratedFile(MethodIndex index, Set<String> covered, List<TestCase> tests) {
+            this.index = index;
+            this.covered = covered;
+            this.tests = tests;
+        }
+        
+        /**
+         * Rough heap footprint: the index plus two bytes per char of each test's text
+         */
+        long estimateBytes() {
+            long bytes = 128 + index.estimateBytes() + 64L * covered.size();
+            for (TestCase test : tests) {
+                bytes += 256;
+                for (String text : new String[] {test.getName(), test.getDescription(), test.getCode()}) {
+                    bytes += text != null ? 2L * text.length() : 0;
+                }
+            }
+            return bytes;
+        }
+    }
+    
     private TestCase createTestCase(String name, TestType type, TestPriority priority, String description) {
         TestCase testCase = new TestCase();
         testCase.setId(UUID.randomUUID().toString());
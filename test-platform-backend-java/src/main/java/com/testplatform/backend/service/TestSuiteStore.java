@@ -0,0 +1,506 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.event.TestSuitesChangedEvent;
+import com.testplatform.backend.exception.BadRequestException;
+import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.model.TestSuite;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Concurrent in-memory store of test suites, partitioned by repository.
+ *
+ * Each repository partition keeps its suites in insertion order with a primary index by suite id and
+ * secondary indexes by PR number, service and status. Test cases are indexed too, most recently executed
+ * first and per status, for keyset-paginated result queries. Writers lock only their own partition, and
+ * reads copy the matching suites out under the partition's read lock.
+ *
+ * A stored suite is never changed: {@link #update} applies its change to a copy of the suite and its
+ * test cases and stores the copy in its place. A suite handed out by a read therefore stays as it was
+ * when read, even while an execution rewrites its results. Suites passed to or returned by the store
+ * must not be changed by callers.
+ *
+ * Suite and test case ids come from one atomic sequence. Every write publishes a
+ * {@link TestSuitesChangedEvent} with the touched ids once the lock is released.
+ */
+@Service
+public class TestSuiteStore {
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    private final AtomicLong idSequence = new AtomicLong(1000);
+    
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    
+    // Suite id -> repository, for lookups that don't know the repository
+    private final Map<String, String> repositoryBySuiteId = new ConcurrentHashMap<>();
+    
+    /**
+     * Allocate the next suite or test case id
+     */
+    public String nextId() {
+        return String.valueOf(idSequence.getAndIncrement());
+    }
+    
+    /**
+     * Make sure ids below the given value are never handed out, e.g. ids loaded from a catalog
+     */
+    public void reserveIdsBelow(long nextFreeId) {
+        idSequence.accumulateAndGet(nextFreeId, Math::max);
+    }
+    
+    /**
+     * Replace all suites of a repository
+     */
+    public void replaceRepository(String repositoryId, Collection<TestSuite> suites, Function<TestSuite, String> serviceOf) {
+        Partition partition = partition(repositoryId);
+        Set<String> touched = new HashSet<>();
+        partition.lock.writeLock().lock();
+        try {
+            for (String id : new ArrayList<>(partition.suites.keySet())) {
+                partition.remove(id);
+                repositoryBySuiteId.remove(id, repositoryId);
+                touched.add(id);
+            }
+            for (TestSuite suite : suites) {
+                upsert(repositoryId, partition, suite, serviceOf);
+                touched.add(suite.getId());
+            }
+        } finally {
+            partition.lock.writeLock().unlock();
+        }
+        publishChanged(repositoryId, touched);
+    }
+    
+    /**
+     * Remove and insert suites of one repository as a single step; readers see all of it or none of it.
+     * Suites whose id is already stored replace the stored suite in place.
+     */
+    public void apply(String repositoryId, Collection<String> removedIds, Collection<TestSuite> upserts, Function<TestSuite, String> serviceOf) {
+        Partition partition = partition(repositoryId);
+        Set<String> touched = new HashSet<>();
+        partition.lock.writeLock().lock();
+        try {
+            for (String id : removedIds) {
+                if (partition.remove(id) != null) {
+                    repositoryBySuiteId.remove(id, repositoryId);
+                    touched.add(id);
+                }
+            }
+            for (TestSuite suite : upserts) {
+                upsert(repositoryId, partition, suite, serviceOf);
+                touched.add(suite.getId());
+            }
+        } finally {
+            partition.lock.writeLock().unlock();
+        }
+        publishChanged(repositoryId, touched);
+    }
+    
+    /**
+     * Add or replace one suite, assigning an id if it has none
+     */
+    public TestSuite save(String repositoryId, TestSuite suite, String service) {
+        apply(repositoryId, Collections.emptyList(), List.of(suite), s -> service);
+        return suite;
+    }
+    
+    /**
+     * Remove every suite of a PR
+     * @return Number of suites removed
+     */
+    public int removeByPr(String repositoryId, Integer prNumber) {
+        Partition partition = partitions.get(repositoryId);
+        if (partition == null || prNumber == null) {
+            return 0;
+        }
+        
+        Set<String> removed;
+        partition.lock.writeLock().lock();
+        try {
+            Set<String> ids = partition.byPr.get(prNumber);
+            if (ids == null) {
+                return 0;
+            }
+            removed = new HashSet<>(ids);
+            for (String id : removed) {
+                partition.remove(id);
+                repositoryBySuiteId.remove(id, repositoryId);
+            }
+        } finally {
+            partition.lock.writeLock().unlock();
+        }
+        publishChanged(repositoryId, removed);
+        return removed.size();
+    }
+    
+    /**
+     * Change a copy of a stored suite under its partition lock and store the copy in its place,
+     * keeping the indexes in step. Readers holding the previous suite don't see the change.
+     * @return The updated copy, or null if the repository has no suite with that id
+     */
+    public TestSuite update(String repositoryId, String suiteId, Consumer<TestSuite> change) {
+        Partition partition = partitions.get(repositoryId);
+        if (partition == null || suiteId == null) {
+            return null;
+        }
+        
+        TestSuite suite;
+        partition.lock.writeLock().lock();
+        try {
+            TestSuite stored = partition.suites.get(suiteId);
+            if (stored == null) {
+                return null;
+            }
+            suite = new TestSuite(stored);
+            change.accept(suite);
+            String service = partition.serviceById.get(suiteId);
+            partition.unindex(suiteId);
+            partition.put(suite, service);
+        } finally {
+            partition.lock.writeLock().unlock();
+        }
+        publishChanged(repositoryId, Set.of(suiteId));
+        return suite;
+    }
+    
+    /**
+     * Find a suite by id in any repository
+     */
+    public Optional<TestSuite> findById(String suiteId) {
+        String repositoryId = getRepositoryId(suiteId);
+        if (repositoryId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(read(repositoryId, partition -> partition.suites.get(suiteId)));
+    }
+    
+    /**
+     * Repository holding a suite, or null if no repository has it
+     */
+    public String getRepositoryId(String suiteId) {
+        return suiteId != null ? repositoryBySuiteId.get(suiteId) : null;
+    }
+    
+    /**
+     * Service a suite was filed under, or null if the repository has no suite with that id
+     */
+    public String getServiceName(String repositoryId, String suiteId) {
+        return read(repositoryId, partition -> partition.serviceById.get(suiteId));
+    }
+    
+    /**
+     * Look up several suites of one repository under a single lock
+     * @return Suites by id; ids the repository doesn't hold are absent
+     */
+    public Map<String, TestSuite> findAllById(String repositoryId, Collection<String> suiteIds) {
+        Map<String, TestSuite> found = read(repositoryId, partition -> {
+            Map<String, TestSuite> result = new HashMap<>();
+            for (String id : suiteIds) {
+                TestSuite suite = partition.suites.get(id);
+                if (suite != null) {
+                    result.put(id, suite);
+                }
+            }
+            return result;
+        });
+        return found != null ? found : new HashMap<>();
+    }
+    
+    /**
+     * Snapshot of all suites of a repository, in insertion order
+     */
+    public List<TestSuite> findAll(String repositoryId) {
+        List<TestSuite> suites = read(repositoryId, partition -> new ArrayList<>(partition.suites.values()));
+        return suites != null ? suites : new ArrayList<>();
+    }
+    
+    public List<TestSuite> findByPr(String repositoryId, Integer prNumber) {
+        return readIndexed(repositoryId, partition -> partition.byPr.get(prNumber));
+    }
+    
+    public List<TestSuite> findByService(String repositoryId, String service) {
+        return readIndexed(repositoryId, partition -> partition.byService.get(service));
+    }
+    
+    public List<TestSuite> findByStatus(String repositoryId, TestStatus status) {
+        return readIndexed(repositoryId, partition -> partition.byStatus.get(status));
+    }
+    
+    /**
+     * One page of test cases, most recently executed first; never-executed cases come last
+     * @param status Only cases with this status, or null for all
+     * @param after Key of the last case of the previous page, or null for the first page
+     * @param mapper Copies what the caller needs out of a case while the partition is locked
+     */
+    public <T> TestCasePage<T> findTestCases(String repositoryId, TestStatus status, TestCaseKey after, int limit,
+                                             BiFunction<TestSuite, TestCase, T> mapper) {
+        TestCasePage<T> page = read(repositoryId, partition -> {
+            NavigableSet<TestCaseKey> keys = status != null ? partition.casesByStatus.get(status) : partition.cases;
+            List<T> items = new ArrayList<>(Math.min(limit, 256));
+            if (keys == null) {
+                return new TestCasePage<>(items, null);
+            }
+            TestCaseKey last = null;
+            Iterator<TestCaseKey> iterator = (after != null ? keys.tailSet(after, false) : keys).iterator();
+            while (items.size() < limit && iterator.hasNext()) {
+                last = iterator.next();
+                TestSuite suite = partition.suites.get(last.suiteId);
+                items.add(mapper.apply(suite, suite.getTestCases().get(last.caseIndex)));
+            }
+            return new TestCasePage<>(items, iterator.hasNext() ? last : null);
+        });
+        return page != null ? page : new TestCasePage<>(new ArrayList<>(), null);
+    }
+    
+    /**
+     * Number of test cases of a repository, optionally only those with one status
+     */
+    public int countTestCases(String repositoryId, TestStatus status) {
+        Integer count = read(repositoryId, partition -> {
+            NavigableSet<TestCaseKey> keys = status != null ? partition.casesByStatus.get(status) : partition.cases;
+            return keys != null ? keys.size() : 0;
+        });
+        return count != null ? count : 0;
+    }
+    
+    /**
+     * Snapshot of suites grouped by service name
+     */
+    public Map<String, List<TestSuite>> groupByService(String repositoryId) {
+        Map<String, List<TestSuite>> groups = read(repositoryId, partition -> {
+            Map<String, List<TestSuite>> result = new LinkedHashMap<>();
+            partition.byService.forEach((service, ids) -> result.put(service, resolve(partition, ids)));
+            return result;
+        });
+        return groups != null ? groups : new LinkedHashMap<>();
+    }
+    
+    /**
+     * Repositories that have a partition, in id order
+     */
+    public Set<String> getRepositoryIds() {
+        return new TreeSet<>(partitions.keySet());
+    }
+    
+    public int count(String repositoryId) {
+        Integer count = read(repositoryId, partition -> partition.suites.size());
+        return count != null ? count : 0;
+    }
+    
+    private void upsert(String repositoryId, Partition partition, TestSuite suite, Function<TestSuite, String> serviceOf) {
+        if (suite.getId() == null) {
+            suite.setId(nextId());
+        }
+        partition.unindex(suite.getId());
+        partition.put(suite, serviceOf.apply(suite));
+        repositoryBySuiteId.put(suite.getId(), repositoryId);
+    }
+    
+    private void publishChanged(String repositoryId, Set<String> suiteIds) {
+        if (!suiteIds.isEmpty()) {
+            eventPublisher.publishEvent(new TestSuitesChangedEvent(repositoryId, suiteIds));
+        }
+    }
+    
+    private Partition partition(String repositoryId) {
+        return partitions.computeIfAbsent(repositoryId, id -> new Partition());
+    }
+    
+    private <T> T read(String repositoryId, Function<Partition, T> reader) {
+        Partition partition = partitions.get(repositoryId);
+        if (partition == null) {
+            return null;
+        }
+        partition.lock.readLock().lock();
+        try {
+            return reader.apply(partition);
+        } finally {
+            partition.lock.readLock().unlock();
+        }
+    }
+    
+    private List<TestSuite> readIndexed(String repositoryId, Function<Partition, Set<String>> index) {
+        List<TestSuite> suites = read(repositoryId, partition -> resolve(partition, index.apply(partition)));
+        return suites != null ? suites : new ArrayList<>();
+    }
+    
+    private static List<TestSuite> resolve(Partition partition, Set<String> ids) {
+        List<TestSuite> suites = new ArrayList<>(ids != null ? ids.size() : 0);
+        if (ids != null) {
+            for (String id : ids) {
+                suites.add(partition.suites.get(id));
+            }
+        }
+        return suites;
+    }
+    
+    /**
+     * Position of a test case in the result order: most recently executed first, never-executed last,
+     * then by suite id and position within the suite. Encodes to an opaque pagination cursor.
+     */
+    public static final class TestCaseKey implements Comparable<TestCaseKey> {
+        private final LocalDateTime executedAt;
+        private final String suiteId;
+        private final int caseIndex;
+        private final TestStatus status; // Status index the key was filed under; not part of the order
+        
+        TestCaseKey(LocalDateTime executedAt, String suiteId, int caseIndex, TestStatus status) {
+            this.executedAt = executedAt;
+            this.suiteId = suiteId;
+            this.caseIndex = caseIndex;
+            this.status = status;
+        }
+        
+        @Override
+        public int compareTo(TestCaseKey other) {
+            if (executedAt != null || other.executedAt != null) {
+                if (executedAt == null) return 1;
+                if (other.executedAt == null) return -1;
+                int byTime = other.executedAt.compareTo(executedAt);
+                if (byTime != 0) return byTime;
+            }
+            // Numeric ids sort by length first, so "999" comes before "1000"
+            int byId = suiteId.length() != other.suiteId.length()
+                ? Integer.compare(suiteId.length(), other.suiteId.length())
+                : suiteId.compareTo(other.suiteId);
+            return byId != 0 ? byId : Integer.compare(caseIndex, other.caseIndex);
+        }
+        
+        public String encode() {
+            String raw = (executedAt != null ? executedAt.toString() : "") + "|" + suiteId + "|" + caseIndex;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        public static TestCaseKey decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+                LocalDateTime executedAt = parts[0].isEmpty() ? null : LocalDateTime.parse(parts[0]);
+                return new TestCaseKey(executedAt, parts[1], Integer.parseInt(parts[2]), null);
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid cursor: " + cursor, e);
+            }
+        }
+    }
+    
+    /**
+     * A page of test cases and the key to continue after, null on the last page
+     */
+    public static final class TestCasePage<T> {
+        private final List<T> items;
+        private final TestCaseKey next;
+        
+        TestCasePage(List<T> items, TestCaseKey next) {
+            this.items = items;
+            this.next = next;
+        }
+        
+        public List<T> getItems() { return items; }
+        public TestCaseKey getNext() { return next; }
+    }
+    
+    /**
+     * One repository's suites and indexes; guarded by its lock
+     */
+    private static final class Partition {
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        
+        // A replaced suite keeps its position because LinkedHashMap.put keeps the key's slot
+        final Map<String, TestSuite> suites = new LinkedHashMap<>();
+        final Map<Integer, Set<String>> byPr = new HashMap<>();
+        final Map<String, Set<String>> byService = new LinkedHashMap<>();
+        final Map<TestStatus, Set<String>> byStatus = new EnumMap<>(TestStatus.class);
+        
+        // Test cases in result order, overall and per status
+        final NavigableSet<TestCaseKey> cases = new TreeSet<>();
+        final Map<TestStatus, NavigableSet<TestCaseKey>> casesByStatus = new EnumMap<>(TestStatus.class);
+        final Map<String, List<TestCaseKey>> caseKeysById = new HashMap<>();
+        
+        // Index keys each suite was filed under, so removal doesn't depend on the (mutable) suite
+        final Map<String, String> serviceById = new HashMap<>();
+        final Map<String, Integer> prById = new HashMap<>();
+        final Map<String, TestStatus> statusById = new HashMap<>();
+        
+        void put(TestSuite suite, String service) {
+            String id = suite.getId();
+            suites.put(id, suite);
+            
+            if (suite.getPrNumber() != null) {
+                byPr.computeIfAbsent(suite.getPrNumber(), k -> new LinkedHashSet<>()).add(id);
+                prById.put(id, suite.getPrNumber());
+            }
+            if (service != null) {
+                byService.computeIfAbsent(service, k -> new LinkedHashSet<>()).add(id);
+                serviceById.put(id, service);
+            }
+            if (suite.getStatus() != null) {
+                byStatus.computeIfAbsent(suite.getStatus(), k -> new LinkedHashSet<>()).add(id);
+                statusById.put(id, suite.getStatus());
+            }
+            
+            List<TestCase> testCases = suite.getTestCases();
+            if (testCases != null && !testCases.isEmpty()) {
+                List<TestCaseKey> keys = new ArrayList<>(testCases.size());
+                for (int i = 0; i < testCases.size(); i++) {
+                    TestCase testCase = testCases.get(i);
+                    TestCaseKey key = new TestCaseKey(testCase.getExecutedAt(), id, i, testCase.getStatus());
+                    cases.add(key);
+                    if (key.status != null) {
+                        casesByStatus.computeIfAbsent(key.status, k -> new TreeSet<>()).add(key);
+                    }
+                    keys.add(key);
+                }
+                caseKeysById.put(id, keys);
+            }
+        }
+        
+        TestSuite remove(String id) {
+            unindex(id);
+            return suites.remove(id);
+        }
+        
+        /**
+         * Drop a suite from the secondary indexes only, ahead of re-putting it
+         */
+        void unindex(String id) {
+            removeFromIndex(byPr, prById.remove(id), id);
+            removeFromIndex(byService, serviceById.remove(id), id);
+            removeFromIndex(byStatus, statusById.remove(id), id);
+            
+            List<TestCaseKey> keys = caseKeysById.remove(id);
+            if (keys != null) {
+                for (TestCaseKey key : keys) {
+                    cases.remove(key);
+                    NavigableSet<TestCaseKey> withStatus = key.status != null ? casesByStatus.get(key.status) : null;
+                    if (withStatus != null && withStatus.remove(key) && withStatus.isEmpty()) {
+                        casesByStatus.remove(key.status);
+                    }
+                }
+            }
+        }
+        
+        private static <K> void removeFromIndex(Map<K, Set<String>> index, K key, String id) {
+            if (key == null) {
+                return;
+            }
+            Set<String> ids = index.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,606 @@
+package com.testplatform.backend.util;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable graph of a path flow: a node per user action, API call, database operation and external call,
+ * a decision node per conditional step, and a plain step node for a line with none of these.
+ *
+ * Steps are the non-blank lines of the flow, numbered by a leading "3.", "3)" or "Step 3:", else one past the
+ * step before. The nodes of a step run in text order and the step continues into the next one, unless it jumps:
+ * "go to step 5", "back to step 2", "retry step 2" and the like lead to that step instead. Only a jump that opens
+ * the step replaces the continuation; one later in the line, or in a line that also says "on", "when", "if" or
+ * "unless" ("On invalid password, go back to step 1"), is taken on some runs only, so the step leads to both.
+ * A step starting with "if" or "unless" opens with a decision node whose other edge skips the step;
+ * "otherwise"/"else" steps right after it are taken instead of that skip, and every body of such a chain
+ * continues after its last step.
+ * Parsing is one scan of the text per extractor plus one pass over the lines. Edges are int arrays in
+ * compressed sparse row form; branches, loops, path counts and the longest path come from a single depth-first
+ * search from the first step, so building the graph stays linear in the size of the flow.
+ */
+public final class FlowGraph {
+    
+    public enum Kind { USER_ACTION, API_CALL, DATABASE_OPERATION, EXTERNAL_CALL, DECISION, STEP }
+    
+    // Path flows are user input, so the extractors run on the linear-time engine
+    private static final GuardedPattern USER_ACTION_PATTERN = GuardedPattern.compileLinear(
+        "user\\s+(?:clicks|enters|selects|navigates)\\s+([^\\n]+)", Pattern.CASE_INSENSITIVE);
+    private static final GuardedPattern API_ENDPOINT_PATTERN = GuardedPattern.compileLinear(
+        "(?:GET|POST|PUT|DELETE)\\s+(/api/[^\\s]+)", Pattern.CASE_INSENSITIVE);
+    private static final GuardedPattern DATABASE_OPERATION_PATTERN = GuardedPattern.compileLinear(
+        "(?:INSERT|UPDATE|DELETE|SELECT)\\s+([^\\n]+)", Pattern.CASE_INSENSITIVE);
+    private static final GuardedPattern EXTERNAL_SERVICE_PATTERN = GuardedPattern.compileLinear(
+        "(?:calls|integrates with)\\s+([A-Za-z]+Service)", Pattern.CASE_INSENSITIVE);
+    private static final GuardedPattern JUMP_PATTERN = GuardedPattern.compileLinear(
+        "(?:(?:go(?:es)?|jumps?|loops?|returns?|continues?)\\s+(?:back\\s+)?(?:to|at|with|from)|back\\s+to"
+            + "|(?:retry|retries|repeats?)(?:\\s+from)?)\\s+step\\s+(\\d{1,9})", Pattern.CASE_INSENSITIVE);
+    
+    private static final Kind[] KINDS = Kind.values();
+    
+    // Steps in flow order
+    private final String[] stepTexts;
+    private final int[] stepNumbers;
+    private final int[] stepFirstNode; // Nodes of step s are stepFirstNode[s] .. stepFirstNode[s + 1]
+    
+    // Nodes in flow order
+    private final byte[] nodeKinds;
+    private final String[] nodeLabels;
+    private final int[] nodeSteps;
+    
+    // Edges of node n are edgeTargets[edgeStart[n] .. edgeStart[n + 1])
+    private final int[] edgeStart;
+    private final int[] edgeTargets;
+    
+    // Results of the search from the first step
+    private final boolean[] reachable;
+    private final List<Branch> branches;
+    private final List<Loop> loops;
+    private final long pathCount;
+    private final List<Integer> longestPathSteps;
+    private final int longestPathNodes;
+    
+    private FlowGraph(String[] stepTexts, int[] stepNumbers, int[] stepFirstNode, byte[] nodeKinds, String[] nodeLabels,
+                      int[] nodeSteps, int[] edgeStart, int[] edgeTargets) {
+        this.stepTexts = stepTexts;
+        this.stepNumbers = stepNumbers;
+        this.stepFirstNode = stepFirstNode;
+        this.nodeKinds = nodeKinds;
+        this.nodeLabels = nodeLabels;
+        this.nodeSteps = nodeSteps;
+        this.edgeStart = edgeStart;
+        this.edgeTargets = edgeTargets;
+        
+        // Iterative depth-first search: an edge to a node still on the stack closes a loop
+        int nodeCount = nodeKinds.length;
+        byte[] state = new byte[nodeCount]; // 0 unseen, 1 on the stack, 2 finished
+        boolean[] backEdge = new boolean[edgeTargets.length];
+        int[] postOrder = new int[nodeCount];
+        int finished = 0;
+        int[] stack = new int[nodeCount];
+        int[] cursor = new int[nodeCount];
+        int top = 0;
+        if (nodeCount > 0) {
+            stack[top++] = 0;
+            state[0] = 1;
+            cursor[0] = edgeStart[0];
+        }
+        while (top > 0) {
+            int node = stack[top - 1];
+            if (cursor[node] < edgeStart[node + 1]) {
+                int edge = cursor[node]++;
+                int target = edgeTargets[edge];
+                if (state[target] == 0) {
+                    state[target] = 1;
+                    cursor[target] = edgeStart[target];
+                    stack[top++] = target;
+                } else if (state[target] == 1) {
+                    backEdge[edge] = true;
+                }
+            } else {
+                state[node] = 2;
+                postOrder[finished++] = node;
+                top--;
+            }
+        }
+        
+        // Without the loop edges the reachable part is acyclic and post order is a reverse topological order
+        long[] paths = new long[nodeCount];
+        int[] longest = new int[nodeCount];
+        int[] longestNext = new int[nodeCount];
+        for (int i = 0; i < finished; i++) {
+            int node = postOrder[i];
+            long nodePaths = 0;
+            int best = 0;
+            int next = -1;
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                if (backEdge[edge]) {
+                    continue;
+                }
+                int target = edgeTargets[edge];
+                nodePaths = nodePaths > Long.MAX_VALUE - paths[target] ? Long.MAX_VALUE : nodePaths + paths[target];
+                if (longest[target] > best) {
+                    best = longest[target];
+                    next = target;
+                }
+            }
+            paths[node] = Math.max(nodePaths, 1);
+            longest[node] = best + 1;
+            longestNext[node] = next;
+        }
+        
+        reachable = new boolean[nodeCount];
+        List<Branch> foundBranches = new ArrayList<>();
+        List<Loop> foundLoops = new ArrayList<>();
+        for (int node = 0; node < nodeCount; node++) {
+            reachable[node] = state[node] == 2;
+            if (reachable[node] && edgeStart[node + 1] - edgeStart[node] > 1) {
+                foundBranches.add(new Branch(stepNumbers[nodeSteps[node]],
+                    nodeKinds[node] == Kind.DECISION.ordinal() ? nodeLabels[node] : ""));
+            }
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                if (backEdge[edge]) {
+                    foundLoops.add(new Loop(stepNumbers[nodeSteps[node]], stepNumbers[nodeSteps[edgeTargets[edge]]]));
+                }
+            }
+        }
+        branches = Collections.unmodifiableList(foundBranches);
+        loops = Collections.unmodifiableList(foundLoops);
+        
+        List<Integer> pathSteps = new ArrayList<>();
+        for (int node = nodeCount > 0 ? 0 : -1; node >= 0; node = longestNext[node]) {
+            int step = nodeSteps[node];
+            if (pathSteps.isEmpty() || pathSteps.get(pathSteps.size() - 1) != stepNumbers[step]) {
+                pathSteps.add(stepNumbers[step]);
+            }
+        }
+        pathCount = nodeCount > 0 ? paths[0] : 0;
+        longestPathSteps = Collections.unmodifiableList(pathSteps);
+        longestPathNodes = nodeCount > 0 ? longest[0] : 0;
+    }
+    
+    /**
+     * Parse a path flow into its graph
+     */
+    public static FlowGraph parse(String flow) {
+        // Steps: non-blank lines, with their numbering, conditional keywords and jumps
+        List<String> texts = new ArrayList<>();
+        List<int[]> lines = new ArrayList<>(); // {start, end, number, flags, condition start, body start}
+        List<List<int[]>> jumpSpans = new ArrayList<>();
+        int previousNumber = 0;
+        for (int start = 0; start <= flow.length(); ) {
+            int end = flow.indexOf('\n', start);
+            if (end < 0) {
+                end = flow.length();
+            }
+            String text = flow.substring(start, end).trim();
+            if (!text.isEmpty()) {
+                String lower = lowerCase(text);
+                int[] line = parseLine(lower, previousNumber);
+                previousNumber = line[0];
+                texts.add(text);
+                lines.add(new int[] {start, end, line[0], line[1], line[2], line[3]});
+                // Only a line naming a step can jump, so most lines skip the scan
+                jumpSpans.add(lower.contains("step") ? JUMP_PATTERN.findAllSpans(text, 0) : List.of());
+            }
+            start = end + 1;
+        }
+        int stepCount = lines.size();
+        
+        // Components of every kind, merged into text order; matches are assigned to the step they start in
+        List<List<int[]>> spans = List.of(USER_ACTION_PATTERN.findAllSpans(flow, 1), API_ENDPOINT_PATTERN.findAllSpans(flow, 1),
+            DATABASE_OPERATION_PATTERN.findAllSpans(flow, 1), EXTERNAL_SERVICE_PATTERN.findAllSpans(flow, 1));
+        List<List<int[]>> stepComponents = new ArrayList<>(stepCount); // {kind, start, end}
+        for (int s = 0; s < stepCount; s++) {
+            stepComponents.add(new ArrayList<>());
+        }
+        int[] next = new int[spans.size()];
+        int step = 0;
+        while (stepCount > 0) {
+            int kind = -1;
+            for (int k = 0; k < spans.size(); k++) {
+                if (next[k] < spans.get(k).size()
+                        && (kind < 0 || spans.get(k).get(next[k])[0] < spans.get(kind).get(next[kind])[0])) {
+                    kind = k;
+                }
+            }
+            if (kind < 0) {
+                break;
+            }
+            int[] span = spans.get(kind).get(next[kind]++);
+            while (step + 1 < stepCount && lines.get(step + 1)[0] <= span[0]) {
+                step++;
+            }
+            stepComponents.get(step).add(new int[] {kind, span[0], span[1]});
+        }
+        
+        // Jumps, resolved to the first step with the number that ends the match
+        Map<Integer, Integer> stepsByNumber = new HashMap<>();
+        for (int s = 0; s < stepCount; s++) {
+            stepsByNumber.putIfAbsent(lines.get(s)[2], s);
+        }
+        List<List<Integer>> jumps = new ArrayList<>(stepCount);
+        boolean[] conditionalJump = new boolean[stepCount];
+        for (int s = 0; s < stepCount; s++) {
+            String text = texts.get(s);
+            List<Integer> targets = new ArrayList<>();
+            for (int[] span : jumpSpans.get(s)) {
+                int digits = span[1];
+                while (Character.isDigit(text.charAt(digits - 1))) {
+                    digits--;
+                }
+                Integer target = stepsByNumber.get(Integer.parseInt(text.substring(digits, span[1])));
+                if (target != null) {
+                    targets.add(target);
+                }
+            }
+            jumps.add(targets);
+            int bodyStart = lines.get(s)[5];
+            conditionalJump[s] = !targets.isEmpty() && (jumpSpans.get(s).get(0)[0] != bodyStart
+                || containsWord(lowerCase(text), bodyStart, "on", "when", "if", "unless"));
+        }
+        
+        // Where each step continues; a failed condition always goes on to the next step, which is the
+        // alternative in a chain
+        int[] continuation = new int[stepCount];
+        for (int s = 0; s < stepCount; s++) {
+            continuation[s] = s + 1;
+        }
+        for (int s = 0; s < stepCount; ) {
+            if (!isConditional(lines.get(s)) || isAlternative(lines.get(s))) {
+                s++;
+                continue;
+            }
+            int last = s;
+            while (last + 1 < stepCount && isAlternative(lines.get(last + 1)) && isConditional(lines.get(last))) {
+                last++;
+            }
+            for (int c = s; c <= last; c++) {
+                continuation[c] = last + 1;
+            }
+            s = last + 1;
+        }
+        
+        // Nodes: a decision for a conditional step, its components, or a plain step node if it has neither
+        List<Byte> kinds = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        List<Integer> nodeSteps = new ArrayList<>();
+        int[] stepFirstNode = new int[stepCount + 1];
+        int[] bodyFirstNode = new int[stepCount];
+        for (int s = 0; s < stepCount; s++) {
+            stepFirstNode[s] = kinds.size();
+            String text = texts.get(s);
+            if (isConditional(lines.get(s))) {
+                addNode(kinds, labels, nodeSteps, Kind.DECISION, condition(text, lines.get(s)[4]), s);
+            }
+            bodyFirstNode[s] = kinds.size();
+            for (int[] component : stepComponents.get(s)) {
+                String label = flow.substring(component[1], component[2]);
+                if (component[0] == Kind.USER_ACTION.ordinal() || component[0] == Kind.DATABASE_OPERATION.ordinal()) {
+                    label = label.trim();
+                }
+                addNode(kinds, labels, nodeSteps, KINDS[component[0]], label, s);
+            }
+            if (kinds.size() == bodyFirstNode[s] && (!isConditional(lines.get(s)) || jumps.get(s).isEmpty())) {
+                addNode(kinds, labels, nodeSteps, Kind.STEP, text, s);
+            }
+        }
+        stepFirstNode[stepCount] = kinds.size();
+        
+        // Edges: through the body in order, then to the jump targets or the continuation
+        List<int[]> edges = new ArrayList<>();
+        for (int s = 0; s < stepCount; s++) {
+            int first = stepFirstNode[s];
+            int end = stepFirstNode[s + 1];
+            int bodyStart = bodyFirstNode[s];
+            for (int node = bodyStart; node + 1 < end; node++) {
+                edges.add(new int[] {node, node + 1});
+            }
+            int tail = bodyStart < end ? end - 1 : first;
+            if (bodyStart > first && bodyStart < end) {
+                edges.add(new int[] {first, bodyStart});
+            }
+            for (int target : jumps.get(s)) {
+                edges.add(new int[] {tail, stepFirstNode[target]});
+            }
+            if ((jumps.get(s).isEmpty() || conditionalJump[s]) && continuation[s] < stepCount) {
+                edges.add(new int[] {tail, stepFirstNode[continuation[s]]});
+            }
+            if (bodyStart > first && s + 1 < stepCount) {
+                edges.add(new int[] {first, stepFirstNode[s + 1]});
+            }
+        }
+        
+        // Compressed sparse rows, without repeated edges
+        int nodeCount = kinds.size();
+        int[] edgeStart = new int[nodeCount + 1];
+        for (int[] edge : edges) {
+            edgeStart[edge[0] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node + 1] += edgeStart[node];
+        }
+        int[] fill = Arrays.copyOf(edgeStart, nodeCount);
+        int[] targets = new int[edges.size()];
+        for (int[] edge : edges) {
+            targets[fill[edge[0]]++] = edge[1];
+        }
+        int written = 0;
+        int[] uniqueStart = new int[nodeCount + 1];
+        int[] lastSource = new int[nodeCount];
+        Arrays.fill(lastSource, -1);
+        for (int node = 0; node < nodeCount; node++) {
+            uniqueStart[node] = written;
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                if (lastSource[targets[edge]] != node) {
+                    lastSource[targets[edge]] = node;
+                    targets[written++] = targets[edge];
+                }
+            }
+        }
+        uniqueStart[nodeCount] = written;
+        
+        byte[] nodeKinds = new byte[nodeCount];
+        int[] nodeStepArray = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            nodeKinds[node] = kinds.get(node);
+            nodeStepArray[node] = nodeSteps.get(node);
+        }
+        int[] stepNumbers = new int[stepCount];
+        for (int s = 0; s < stepCount; s++) {
+            stepNumbers[s] = lines.get(s)[2];
+        }
+        return new FlowGraph(texts.toArray(new String[0]), stepNumbers, stepFirstNode, nodeKinds,
+            labels.toArray(new String[0]), nodeStepArray, uniqueStart, Arrays.copyOf(targets, written));
+    }
+    
+    private static final int CONDITIONAL = 1;
+    private static final int ALTERNATIVE = 2;
+    
+    private static final String[] CONDITION_SEPARATORS = {",", ":", " then "};
+    
+    /**
+     * @return {step number, flags, offset of the "if"/"unless" or -1, offset of the body} of a trimmed, non-blank,
+     * lower case line; the body follows the numbering, any "otherwise"/"else" and the condition
+     */
+    private static int[] parseLine(String lower, int previousNumber) {
+        int number = previousNumber + 1;
+        int pos = startsWithWord(lower, 0, "step") ? skipSpaces(lower, 4) : 0;
+        int digits = pos;
+        while (digits < lower.length() && digits - pos < 9 && Character.isDigit(lower.charAt(digits))) {
+            digits++;
+        }
+        if (digits > pos && (digits == lower.length() || ".):".indexOf(lower.charAt(digits)) >= 0
+                && (digits + 1 == lower.length() || Character.isWhitespace(lower.charAt(digits + 1))))) {
+            number = Integer.parseInt(lower.substring(pos, digits));
+            pos = skipSpaces(lower, Math.min(digits + 1, lower.length()));
+        } else {
+            pos = 0;
+        }
+        
+        int flags = 0;
+        for (String keyword : new String[] {"otherwise", "else"}) {
+            if (startsWithWord(lower, pos, keyword)) {
+                flags |= ALTERNATIVE;
+                pos = skipSpaces(lower, pos + keyword.length());
+                if (pos < lower.length() && lower.charAt(pos) == ',') {
+                    pos = skipSpaces(lower, pos + 1);
+                }
+                break;
+            }
+        }
+        if (startsWithWord(lower, pos, "if") || startsWithWord(lower, pos, "unless")) {
+            return new int[] {number, flags | CONDITIONAL, pos, conditionBounds(lower, pos)[1]};
+        }
+        return new int[] {number, flags, -1, pos};
+    }
+    
+    private static boolean isConditional(int[] line) {
+        return (line[3] & CONDITIONAL) != 0;
+    }
+    
+    private static boolean isAlternative(int[] line) {
+        return (line[3] & ALTERNATIVE) != 0;
+    }
+    
+    /**
+     * The condition of a conditional step: from its "if"/"unless" to the first comma, colon or "then"
+     */
+    private static String condition(String text, int start) {
+        return text.substring(start, conditionBounds(lowerCase(text), start)[0]).trim();
+    }
+    
+    /**
+     * @return {end of the condition starting at the offset, start of what follows its separator}
+     */
+    private static int[] conditionBounds(String lower, int start) {
+        int end = lower.length();
+        int next = lower.length();
+        for (String separator : CONDITION_SEPARATORS) {
+            int at = lower.indexOf(separator, start);
+            if (at >= 0 && at < end) {
+                end = at;
+                next = skipSpaces(lower, at + separator.length());
+            }
+        }
+        return new int[] {end, next};
+    }
+    
+    /**
+     * Lower case char by char, so offsets in the result are offsets in the text
+     */
+    private static String lowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+    
+    private static boolean startsWithWord(String text, int pos, String word) {
+        int end = pos + word.length();
+        return text.startsWith(word, pos) && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)));
+    }
+    
+    private static boolean containsWord(String text, int from, String... words) {
+        for (int pos = from; pos < text.length(); pos++) {
+            if (pos > from && Character.isLetterOrDigit(text.charAt(pos - 1))) {
+                continue;
+            }
+            for (String word : words) {
+                if (startsWithWord(text, pos, word)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static int skipSpaces(String text, int pos) {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+    
+    private static void addNode(List<Byte> kinds, List<String> labels, List<Integer> steps, Kind kind, String label, int step) {
+        kinds.add((byte) kind.ordinal());
+        labels.add(label);
+        steps.add(step);
+    }
+    
+    public int getStepCount() {
+        return stepTexts.length;
+    }
+    
+    public int getNodeCount() {
+        return nodeKinds.length;
+    }
+    
+    public int getEdgeCount() {
+        return edgeTargets.length;
+    }
+    
+    /**
+     * Labels of the nodes of a kind, in flow order
+     */
+    public List<String> labels(Kind kind) {
+        List<String> found = new ArrayList<>();
+        for (int node = 0; node < nodeKinds.length; node++) {
+            if (nodeKinds[node] == kind.ordinal()) {
+                found.add(nodeLabels[node]);
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Whether a step that can be reached from the first one mentions the word, ignoring case
+     */
+    public boolean mentions(String word) {
+        String lower = word.toLowerCase(Locale.ROOT);
+        for (int step = 0; step < stepTexts.length; step++) {
+            if (reachable[stepFirstNode[step]] && stepTexts[step].toLowerCase(Locale.ROOT).contains(lower)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Reachable nodes with more than one way on, in flow order
+     */
+    public List<Branch> getBranches() {
+        return branches;
+    }
+    
+    /**
+     * Edges that lead back to a step already on the way to them
+     */
+    public List<Loop> getLoops() {
+        return loops;
+    }
+    
+    /**
+     * Distinct ways from the first step to an end, taking no loop edge; Long.MAX_VALUE if there are more
+     */
+    public long getPathCount() {
+        return pathCount;
+    }
+    
+    /**
+     * Numbers of the steps on the way through the most nodes, taking no loop edge
+     */
+    public List<Integer> getLongestPathSteps() {
+        return longestPathSteps;
+    }
+    
+    public int getLongestPathNodes() {
+        return longestPathNodes;
+    }
+    
+    /**
+     * Numbers of the steps no way from the first step leads to
+     */
+    public List<Integer> getUnreachableSteps() {
+        List<Integer> unreachable = new ArrayList<>();
+        for (int step = 0; step < stepTexts.length; step++) {
+            if (!reachable[stepFirstNode[step]]) {
+                unreachable.add(stepNumbers[step]);
+            }
+        }
+        return unreachable;
+    }
+    
+    /**
+     * Step numbers with runs collapsed, like "1-4, 6, 9-12"
+     */
+    public static String formatSteps(List<Integer> steps) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < steps.size(); i++) {
+            int runEnd = i;
+            while (runEnd + 1 < steps.size() && steps.get(runEnd + 1) == steps.get(runEnd) + 1) {
+                runEnd++;
+            }
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(steps.get(i));
+            if (runEnd > i) {
+                text.append('-').append(steps.get(runEnd));
+            }
+            i = runEnd;
+        }
+        return text.toString();
+    }
+    
+    public static final class Branch {
+        private final int step;
+        private final String condition;
+        
+        Branch(int step, String condition) {
+            this.step = step;
+            this.condition = condition;
+        }
+        
+        public int getStep() { return step; }
+        
+        /**
+         * The condition of a decision, or empty for a step that jumps to more than one step
+         */
+        public String getCondition() { return condition; }
+    }
+    
+    public static final class Loop {
+        private final int fromStep;
+        private final int toStep;
+        
+        Loop(int fromStep, int toStep) {
+            this.fromStep = fromStep;
+            this.toStep = toStep;
+        }
+        
+        public int getFromStep() { return fromStep; }
+        public int getToStep() { return toStep; }
+    }
+}
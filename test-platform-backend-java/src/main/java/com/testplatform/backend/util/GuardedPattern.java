@@ -0,0 +1,255 @@
+package com.testplatform.backend.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * A regex that can't pin a request thread: for patterns run on PR code, repository files and user input.
+ *
+ * Backtracking (java.util.regex) matches read the input through a CharSequence that checks a deadline
+ * every few thousand reads, so each find() gets the configured time budget and a pathological input
+ * ends the scan with the matches found so far instead of running on. Patterns compiled with
+ * compileLinear run on {@link LinearPattern} instead, which needs no budget; a pattern outside its
+ * subset falls back to the guarded JDK engine. Scans and timeouts are counted per pattern so slow
+ * patterns show up in the stats. Immutable and thread-safe.
+ */
+public final class GuardedPattern {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GuardedPattern.class);
+    
+    // Deadline checks are sampled, a nanoTime call per char would cost more than most matches
+    private static final int CHECK_INTERVAL_MASK = 0xFFF;
+    
+    private static volatile long matchBudgetNanos = Duration.ofMillis(100).toNanos();
+    
+    private static final Map<String, PatternStats> STATS = new ConcurrentHashMap<>();
+    
+    private final Pattern pattern;
+    private final LinearPattern linear;
+    private final PatternStats stats;
+    
+    private GuardedPattern(Pattern pattern, LinearPattern linear) {
+        this.pattern = pattern;
+        this.linear = linear;
+        String engine = linear != null ? "linear" : "backtracking";
+        this.stats = STATS.computeIfAbsent(engine + ":" + pattern.flags() + ":" + pattern.pattern(),
+            key -> new PatternStats(pattern.pattern(), engine));
+    }
+    
+    public static GuardedPattern compile(String regex) {
+        return compile(regex, 0);
+    }
+    
+    /**
+     * Compile for the JDK engine, with each find() bounded by the match budget
+     */
+    public static GuardedPattern compile(String regex, int flags) {
+        return new GuardedPattern(Pattern.compile(regex, flags), null);
+    }
+    
+    /**
+     * Compile for the linear-time engine, falling back to the guarded JDK engine if the pattern is outside its subset
+     */
+    public static GuardedPattern compileLinear(String regex, int flags) {
+        Pattern pattern = Pattern.compile(regex, flags); // Also validates the syntax the way callers expect
+        try {
+            return new GuardedPattern(pattern, LinearPattern.compile(regex, flags));
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Pattern {} can't run in linear time, using the guarded JDK engine: {}", regex, e.getMessage());
+            return new GuardedPattern(pattern, null);
+        }
+    }
+    
+    /**
+     * Time each backtracking find() may take before the scan is given up
+     */
+    public static void setMatchBudget(Duration budget) {
+        matchBudgetNanos = budget.toNanos();
+    }
+    
+    public String pattern() {
+        return pattern.pattern();
+    }
+    
+    public boolean isLinear() {
+        return linear != null;
+    }
+    
+    /**
+     * @return Whether the pattern occurs in the input; false if the match ran out of time
+     */
+    public boolean find(CharSequence input) {
+        return findFirst(input, 0) != null;
+    }
+    
+    /**
+     * @return The group of the first match, or null if there is none or the match ran out of time
+     */
+    public String findFirst(CharSequence input, int group) {
+        List<int[]> found = scan(input, group, 1);
+        return found.isEmpty() ? null : substring(input, found.get(0));
+    }
+    
+    /**
+     * @return The group of every match in order; only the matches before the timeout if a match ran out of time.
+     * Matches where the group did not take part are skipped.
+     */
+    public List<String> findAll(CharSequence input, int group) {
+        List<int[]> spans = scan(input, group, Integer.MAX_VALUE);
+        List<String> found = new ArrayList<>(spans.size());
+        for (int[] span : spans) {
+            found.add(substring(input, span));
+        }
+        return found;
+    }
+    
+    /**
+     * Like findAll, but each match is given as the {start, end} offsets of the group in the input
+     */
+    public List<int[]> findAllSpans(CharSequence input, int group) {
+        return scan(input, group, Integer.MAX_VALUE);
+    }
+    
+    private static String substring(CharSequence input, int[] span) {
+        return input.subSequence(span[0], span[1]).toString();
+    }
+    
+    private List<int[]> scan(CharSequence input, int group, int limit) {
+        stats.scans.increment();
+        List<int[]> found = new ArrayList<>();
+        if (linear != null) {
+            int from = 0;
+            int[] match;
+            while (found.size() < limit && from <= input.length() && (match = linear.find(input, from)) != null) {
+                if (match[2 * group] >= 0) {
+                    found.add(new int[] {match[2 * group], match[2 * group + 1]});
+                }
+                from = match[1] > match[0] ? match[1] : match[1] + 1; // Step past empty matches, as Matcher does
+            }
+            return found;
+        }
+        
+        DeadlineCharSequence guarded = new DeadlineCharSequence(input);
+        Matcher matcher = pattern.matcher(guarded);
+        try {
+            while (found.size() < limit) {
+                guarded.restart(matchBudgetNanos);
+                if (!matcher.find()) {
+                    break;
+                }
+                if (matcher.start(group) >= 0) {
+                    found.add(new int[] {matcher.start(group), matcher.end(group)});
+                }
+            }
+        } catch (MatchTimeoutException e) {
+            long timeouts = stats.recordTimeout();
+            if (timeouts == 1) {
+                logger.warn("⏱️ Pattern {} exceeded its {}ms budget on {} chars, keeping {} earlier matches",
+                    pattern.pattern(), Duration.ofNanos(matchBudgetNanos).toMillis(), input.length(), found.size());
+            } else {
+                logger.debug("Pattern {} timed out again ({} times)", pattern.pattern(), timeouts);
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Scan and timeout counts of every guarded pattern, patterns with the most timeouts first
+     */
+    public static List<Map<String, Object>> getStats() {
+        return STATS.values().stream()
+            .sorted(Comparator.comparingLong((PatternStats stats) -> stats.timeouts.sum()).reversed()
+                .thenComparing(stats -> stats.pattern))
+            .map(PatternStats::toMap)
+            .collect(Collectors.toList());
+    }
+    
+    private static final class PatternStats {
+        final String pattern;
+        final String engine;
+        final LongAdder scans = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        volatile long lastTimeoutMillis;
+        
+        PatternStats(String pattern, String engine) {
+            this.pattern = pattern;
+            this.engine = engine;
+        }
+        
+        long recordTimeout() {
+            timeouts.increment();
+            lastTimeoutMillis = System.currentTimeMillis();
+            return timeouts.sum();
+        }
+        
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("pattern", pattern);
+            map.put("engine", engine);
+            map.put("scans", scans.sum());
+            map.put("timeouts", timeouts.sum());
+            map.put("lastTimeout", lastTimeoutMillis > 0 ? lastTimeoutMillis : null);
+            return map;
+        }
+    }
+    
+    /**
+     * The input as the matcher sees it, throwing once the current find() is past its deadline
+     */
+    private static final class DeadlineCharSequence implements CharSequence {
+        private final CharSequence text;
+        private long deadline;
+        private int reads;
+        
+        DeadlineCharSequence(CharSequence text) {
+            this.text = text;
+        }
+        
+        void restart(long budgetNanos) {
+            deadline = System.nanoTime() + budgetNanos;
+        }
+        
+        @Override
+        public char charAt(int index) {
+            if ((++reads & CHECK_INTERVAL_MASK) == 0 && System.nanoTime() - deadline > 0) {
+                throw new MatchTimeoutException();
+            }
+            return text.charAt(index);
+        }
+        
+        @Override
+        public int length() {
+            return text.length();
+        }
+        
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(start, end);
+        }
+        
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+    
+    private static final class MatchTimeoutException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        MatchTimeoutException() {
+            super("Regex match budget exceeded", null, false, false);
+        }
+    }
+}
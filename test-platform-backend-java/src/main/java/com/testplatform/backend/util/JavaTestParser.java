@@ -0,0 +1,445 @@
+package com.testplatform.backend.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Single-pass lexical parser that finds the test methods of a JUnit 4/5 or TestNG source file.
+ *
+ * The source is tokenized once, skipping comments, string, text-block and char literals. Only class
+ * members are inspected: method bodies and initializers are skipped as balanced blocks, while
+ * nested and @Nested classes are descended into. Annotations may span any number of lines.
+ */
+public final class JavaTestParser {
+    
+    private static final Set<String> TEST_ANNOTATIONS = Set.of(
+        "Test", "ParameterizedTest", "RepeatedTest", "TestFactory", "TestTemplate");
+    
+    private static final Set<String> TYPE_KEYWORDS = Set.of("class", "interface", "enum", "record");
+    
+    private static final int EOF = 0;
+    private static final int WORD = 1;
+    private static final int STRING = 2;
+    private static final int SYMBOL = 3;
+    
+    private final String src;
+    private final int length;
+    private int pos;
+    private int line = 1;
+    
+    // Current token
+    private int tokenType;
+    private int tokenStart;
+    private int tokenEnd;
+    private int tokenLine;
+    
+    private JavaTestParser(String src) {
+        this.src = src;
+        this.length = src.length();
+    }
+    
+    /**
+     * Parse a UTF-8 encoded test source file
+     */
+    public static List<TestMethod> parse(Path file) throws IOException {
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Parse test source code
+     */
+    public static List<TestMethod> parse(String source) {
+        return new JavaTestParser(source).parseMembers();
+    }
+    
+    private List<TestMethod> parseMembers() {
+        List<TestMethod> methods = new ArrayList<>();
+        Deque<TypeScope> scopes = new ArrayDeque<>();
+        
+        List<Annotation> annotations = new ArrayList<>();
+        String typeName = null;
+        String methodName = null;
+        int methodLine = 0;
+        int lastWordStart = -1;
+        int lastWordEnd = -1;
+        int lastWordLine = 0;
+        boolean initializer = false;
+        boolean afterDot = false;
+        
+        while (next() != EOF) {
+            if (tokenType == WORD) {
+                boolean dotted = afterDot;
+                afterDot = false;
+                if (!initializer && !dotted && isTypeKeyword()) {
+                    typeName = nextWord();
+                    if (typeName != null) {
+                        continue;
+                    }
+                }
+                lastWordStart = tokenStart;
+                lastWordEnd = tokenEnd;
+                lastWordLine = tokenLine;
+                continue;
+            }
+            if (tokenType != SYMBOL) {
+                afterDot = false;
+                continue;
+            }
+            
+            char symbol = src.charAt(tokenStart);
+            afterDot = symbol == '.';
+            switch (symbol) {
+                case '@':
+                    if (next() != WORD) {
+                        break;
+                    }
+                    if (src.startsWith("interface", tokenStart) && tokenEnd - tokenStart == 9) {
+                        // Annotation type declaration: @interface Name
+                        typeName = nextWord();
+                        break;
+                    }
+                    annotations.add(parseAnnotation());
+                    break;
+                
+                case '(':
+                    if (!initializer && typeName == null && methodName == null && lastWordStart >= 0) {
+                        methodName = src.substring(lastWordStart, lastWordEnd);
+                        methodLine = lastWordLine;
+                    }
+                    skipBalanced('(', ')', null);
+                    break;
+                
+                case '=':
+                    initializer = true;
+                    break;
+                
+                case '{':
+                    if (typeName != null && !initializer) {
+                        scopes.push(new TypeScope(scopes.peek(), typeName, annotations));
+                    } else {
+                        int endLine = skipBalanced('{', '}', null);
+                        if (initializer) {
+                            break; // Anonymous class or array in a field initializer, the member ends at ';'
+                        }
+                        TestMethod method = toTestMethod(scopes.peek(), methodName, methodLine, annotations, endLine);
+                        if (method != null) {
+                            methods.add(method);
+                        }
+                    }
+                    annotations = new ArrayList<>();
+                    typeName = null;
+                    methodName = null;
+                    lastWordStart = -1;
+                    initializer = false;
+                    break;
+                
+                case ';':
+                case '}':
+                    if (symbol == '}' && !scopes.isEmpty()) {
+                        scopes.pop();
+                    }
+                    annotations = new ArrayList<>();
+                    typeName = null;
+                    methodName = null;
+                    lastWordStart = -1;
+                    initializer = false;
+                    break;
+                
+                default:
+                    break;
+            }
+        }
+        return methods;
+    }
+    
+    private TestMethod toTestMethod(TypeScope scope, String methodName, int methodLine, List<Annotation> annotations, int endLine) {
+        if (methodName == null || scope == null) {
+            return null;
+        }
+        
+        String testAnnotation = null;
+        String displayName = null;
+        boolean disabled = false;
+        Set<String> tags = new LinkedHashSet<>(scope.tags);
+        for (Annotation annotation : annotations) {
+            if (TEST_ANNOTATIONS.contains(annotation.name)) {
+                testAnnotation = annotation.name;
+            } else if (annotation.name.equals("DisplayName") && !annotation.values.isEmpty()) {
+                displayName = annotation.values.get(0);
+            } else if (annotation.name.equals("Tag") || annotation.name.equals("Tags")) {
+                tags.addAll(annotation.values);
+            } else if (annotation.name.equals("Disabled") || annotation.name.equals("Ignore")) {
+                disabled = true;
+            }
+        }
+        if (testAnnotation == null) {
+            return null;
+        }
+        
+        int startLine = annotations.isEmpty() ? methodLine : Math.min(annotations.get(0).line, methodLine);
+        return new TestMethod(methodName, displayName, scope.qualifiedName, new ArrayList<>(tags),
+            testAnnotation, disabled || scope.disabled, startLine, endLine);
+    }
+    
+    /**
+     * Read an annotation whose '@' and first name word were just consumed
+     */
+    private Annotation parseAnnotation() {
+        int annotationLine = tokenLine;
+        String name = tokenText();
+        
+        // Qualified names keep only the simple name: @org.junit.jupiter.api.Test -> Test
+        while (true) {
+            int savedPos = pos;
+            int savedLine = line;
+            if (next() == SYMBOL && src.charAt(tokenStart) == '.' && next() == WORD) {
+                name = tokenText();
+                continue;
+            }
+            pos = savedPos;
+            line = savedLine;
+            break;
+        }
+        
+        List<String> values = new ArrayList<>();
+        int savedPos = pos;
+        int savedLine = line;
+        if (next() == SYMBOL && src.charAt(tokenStart) == '(') {
+            skipBalanced('(', ')', values);
+        } else {
+            pos = savedPos;
+            line = savedLine;
+        }
+        return new Annotation(name, values, annotationLine);
+    }
+    
+    /**
+     * Skip to the token closing the bracket that was just consumed
+     * @param literals Receives the string literal values found inside, if not null
+     * @return Line of the closing bracket
+     */
+    private int skipBalanced(char open, char close, List<String> literals) {
+        int depth = 1;
+        while (next() != EOF) {
+            if (tokenType == STRING) {
+                if (literals != null) {
+                    literals.add(stringValue());
+                }
+            } else if (tokenType == SYMBOL) {
+                char c = src.charAt(tokenStart);
+                if (c == open) {
+                    depth++;
+                } else if (c == close && --depth == 0) {
+                    return tokenLine;
+                }
+            }
+        }
+        return line;
+    }
+    
+    private int next() {
+        skipTrivia();
+        if (pos >= length) {
+            tokenType = EOF;
+            return EOF;
+        }
+        
+        tokenStart = pos;
+        tokenLine = line;
+        char c = src.charAt(pos);
+        
+        if (isWordChar(c)) {
+            pos++;
+            while (pos < length && isWordChar(src.charAt(pos))) {
+                pos++;
+            }
+            tokenType = WORD;
+        } else if (c == '"') {
+            if (src.startsWith("\"\"\"", pos)) {
+                pos = skipQuoted(pos + 3, "\"\"\"");
+            } else {
+                pos = skipQuoted(pos + 1, "\"");
+            }
+            tokenType = STRING;
+        } else if (c == '\'') {
+            pos = skipQuoted(pos + 1, "'");
+            tokenType = STRING;
+        } else {
+            pos++;
+            tokenType = SYMBOL;
+        }
+        tokenEnd = pos;
+        return tokenType;
+    }
+    
+    /**
+     * @return Position just after the closing delimiter, honouring backslash escapes
+     */
+    private int skipQuoted(int from, String delimiter) {
+        int i = from;
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '\n') {
+                if (delimiter.length() == 1) {
+                    return i; // Unterminated literal, resynchronize on the next line
+                }
+                line++;
+            }
+            if (src.startsWith(delimiter, i)) {
+                return i + delimiter.length();
+            }
+            i++;
+        }
+        return length;
+    }
+    
+    private void skipTrivia() {
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (c == '\n') {
+                line++;
+                pos++;
+            } else if (c == ' ' || c == '\t' || c == '\r' || c == '\f') {
+                pos++;
+            } else if (c == '/' && pos + 1 < length && src.charAt(pos + 1) == '/') {
+                while (pos < length && src.charAt(pos) != '\n') {
+                    pos++;
+                }
+            } else if (c == '/' && pos + 1 < length && src.charAt(pos + 1) == '*') {
+                int end = src.indexOf("*/", pos + 2);
+                end = end < 0 ? length : end + 2;
+                for (int i = pos; i < end; i++) {
+                    if (src.charAt(i) == '\n') {
+                        line++;
+                    }
+                }
+                pos = end;
+            } else {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Consume the next token if it is a word, e.g. the name after "class"
+     * @return The word, or null with the position unchanged ("record" is also a valid identifier)
+     */
+    private String nextWord() {
+        int savedPos = pos;
+        int savedLine = line;
+        int savedStart = tokenStart;
+        int savedEnd = tokenEnd;
+        int savedTokenLine = tokenLine;
+        if (next() == WORD) {
+            return tokenText();
+        }
+        pos = savedPos;
+        line = savedLine;
+        tokenType = WORD;
+        tokenStart = savedStart;
+        tokenEnd = savedEnd;
+        tokenLine = savedTokenLine;
+        return null;
+    }
+    
+    private static boolean isWordChar(char c) {
+        if (c < 128) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '$';
+        }
+        return Character.isJavaIdentifierPart(c);
+    }
+    
+    private boolean isTypeKeyword() {
+        int length = tokenEnd - tokenStart;
+        return length >= 4 && length <= 9 && TYPE_KEYWORDS.contains(tokenText());
+    }
+    
+    private String tokenText() {
+        return src.substring(tokenStart, tokenEnd);
+    }
+    
+    private String stringValue() {
+        int quote = src.startsWith("\"\"\"", tokenStart) ? 3 : 1;
+        int end = Math.max(tokenStart + quote, tokenEnd - quote);
+        return src.substring(tokenStart + quote, end).strip();
+    }
+    
+    private static final class Annotation {
+        final String name;
+        final List<String> values;
+        final int line;
+        
+        Annotation(String name, List<String> values, int line) {
+            this.name = name;
+            this.values = values;
+            this.line = line;
+        }
+    }
+    
+    /**
+     * A class body being parsed, with what its annotations pass on to its test methods
+     */
+    private static final class TypeScope {
+        final String qualifiedName;
+        final List<String> tags = new ArrayList<>();
+        final boolean disabled;
+        
+        TypeScope(TypeScope outer, String name, List<Annotation> annotations) {
+            this.qualifiedName = outer != null ? outer.qualifiedName + "." + name : name;
+            if (outer != null) {
+                tags.addAll(outer.tags);
+            }
+            boolean disabled = outer != null && outer.disabled;
+            for (Annotation annotation : annotations) {
+                if (annotation.name.equals("Tag") || annotation.name.equals("Tags")) {
+                    tags.addAll(annotation.values);
+                } else if (annotation.name.equals("Disabled") || annotation.name.equals("Ignore")) {
+                    disabled = true;
+                }
+            }
+            this.disabled = disabled;
+        }
+    }
+    
+    /**
+     * A test method found in a source file
+     */
+    public static final class TestMethod {
+        private final String name;
+        private final String displayName;
+        private final String className;
+        private final List<String> tags;
+        private final String annotation;
+        private final boolean disabled;
+        private final int startLine;
+        private final int endLine;
+        
+        TestMethod(String name, String displayName, String className, List<String> tags,
+                   String annotation, boolean disabled, int startLine, int endLine) {
+            this.name = name;
+            this.displayName = displayName;
+            this.className = className;
+            this.tags = tags;
+            this.annotation = annotation;
+            this.disabled = disabled;
+            this.startLine = startLine;
+            this.endLine = endLine;
+        }
+        
+        public String getName() { return name; }
+        public String getDisplayName() { return displayName; }
+        public String getClassName() { return className; }
+        public List<String> getTags() { return tags; }
+        public String getAnnotation() { return annotation; }
+        public boolean isDisabled() { return disabled; }
+        public int getStartLine() { return startLine; }
+        public int getEndLine() { return endLine; }
+    }
+}
@@ -0,0 +1,709 @@
+package com.testplatform.backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A regex engine that runs in time linear in the input, for patterns that face untrusted text.
+ *
+ * The pattern is compiled to a small instruction program and simulated as a Pike VM: all candidate
+ * matches advance together one character at a time, so no input position is ever revisited and there
+ * is nothing to backtrack. Threads are kept in priority order, which gives the same leftmost match and
+ * the same greedy/lazy group boundaries as java.util.regex.
+ *
+ * Supports the common subset: literals, '.', classes with ranges and negation, \s \S \w \W \d \D,
+ * capturing and (?:) groups, alternation, greedy and lazy * + ? {n,m}, and the CASE_INSENSITIVE flag
+ * (US-ASCII, as in java.util.regex). Anything else, like anchors, lookaround or backreferences, is
+ * rejected with an IllegalArgumentException so the caller can fall back to the JDK engine. So are the
+ * two constructs where backtracking gives different answers: repeating a sub-pattern that can match
+ * the empty string, and capturing groups inside a repetition.
+ * Immutable and thread-safe once compiled.
+ */
+public final class LinearPattern {
+    
+    private static final int CHAR = 0;
+    private static final int SPLIT = 1; // Try arg1 before arg2
+    private static final int JMP = 2;
+    private static final int SAVE = 3;
+    private static final int MATCH = 4;
+    
+    private static final int MAX_REPEAT = 100;
+    
+    private final String source;
+    private final int[] op;
+    private final int[] arg1;
+    private final int[] arg2;
+    private final CharClass[] classes;
+    private final int groupCount;
+    private final CharClass[] firstClasses; // Every match starts with a char of one of these, or null if it may be empty
+    
+    private LinearPattern(String source, int[] op, int[] arg1, int[] arg2, CharClass[] classes, int groupCount) {
+        this.source = source;
+        this.op = op;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.classes = classes;
+        this.groupCount = groupCount;
+        this.firstClasses = firstClasses();
+    }
+    
+    /**
+     * @param flags 0 or Pattern.CASE_INSENSITIVE
+     * @throws IllegalArgumentException If the pattern uses syntax or flags outside the supported subset
+     */
+    public static LinearPattern compile(String regex, int flags) {
+        if ((flags & ~Pattern.CASE_INSENSITIVE) != 0) {
+            throw new IllegalArgumentException("Unsupported flags: " + flags);
+        }
+        Parser parser = new Parser(regex, (flags & Pattern.CASE_INSENSITIVE) != 0);
+        Node root = parser.parseAlternation();
+        if (parser.pos < regex.length()) {
+            throw parser.error("Unbalanced ')'");
+        }
+        
+        Program program = new Program();
+        program.emit(SAVE, 0, 0);
+        root.emit(program);
+        program.emit(SAVE, 1, 0);
+        program.emit(MATCH, 0, 0);
+        return new LinearPattern(regex, program.op.stream().mapToInt(Integer::intValue).toArray(),
+            program.arg1.stream().mapToInt(Integer::intValue).toArray(),
+            program.arg2.stream().mapToInt(Integer::intValue).toArray(),
+            program.classes.toArray(new CharClass[0]), parser.groupCount);
+    }
+    
+    public String pattern() {
+        return source;
+    }
+    
+    public int groupCount() {
+        return groupCount;
+    }
+    
+    /**
+     * Find the leftmost match starting at or after a position
+     * @return Start and end of the match and of each group (-1 where a group did not take part), or null if there is none
+     */
+    public int[] find(CharSequence input, int from) {
+        int length = input.length();
+        ThreadList current = new ThreadList(op.length);
+        ThreadList next = new ThreadList(op.length);
+        int[] noGroups = new int[2 * (groupCount + 1)];
+        Arrays.fill(noGroups, -1);
+        int[] matched = null;
+        
+        for (int pos = from; pos <= length; pos++) {
+            if (matched == null) {
+                if (current.size == 0 && firstClasses != null) {
+                    // Nothing in flight, jump to where a match could start
+                    while (pos < length && !startsMatch(input.charAt(pos))) {
+                        pos++;
+                    }
+                    if (pos == length) {
+                        return null;
+                    }
+                }
+                addThread(current, 0, pos, noGroups); // Lowest priority: later starts lose to earlier ones
+            }
+            if (current.size == 0) {
+                break;
+            }
+            
+            char c = pos < length ? input.charAt(pos) : 0;
+            for (int i = 0; i < current.size; i++) {
+                int pc = current.pcs[i];
+                if (op[pc] == MATCH) {
+                    matched = current.groups[i];
+                    break; // Threads after this one have lower priority
+                }
+                if (pos < length && classes[arg1[pc]].matches(c)) {
+                    addThread(next, pc + 1, pos + 1, current.groups[i]);
+                }
+            }
+            
+            ThreadList swap = current;
+            current = next;
+            next = swap;
+            next.clear();
+        }
+        return matched;
+    }
+    
+    private boolean startsMatch(char c) {
+        for (CharClass charClass : firstClasses) {
+            if (charClass.matches(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * The classes of the CHAR instructions a match can begin with, or null if the pattern can match the empty string
+     */
+    private CharClass[] firstClasses() {
+        ThreadList start = new ThreadList(op.length);
+        addThread(start, 0, 0, new int[2 * (groupCount + 1)]);
+        CharClass[] first = new CharClass[start.size];
+        for (int i = 0; i < start.size; i++) {
+            if (op[start.pcs[i]] == MATCH) {
+                return null;
+            }
+            first[i] = classes[arg1[start.pcs[i]]];
+        }
+        return first;
+    }
+    
+    /**
+     * Follow jumps, splits and saves in priority order, adding the CHAR and MATCH instructions reached
+     */
+    private void addThread(ThreadList list, int pc, int pos, int[] groups) {
+        if (!list.mark(pc)) {
+            return;
+        }
+        switch (op[pc]) {
+            case JMP:
+                addThread(list, arg1[pc], pos, groups);
+                break;
+            case SPLIT:
+                addThread(list, arg1[pc], pos, groups);
+                addThread(list, arg2[pc], pos, groups);
+                break;
+            case SAVE:
+                int[] saved = groups.clone();
+                saved[arg1[pc]] = pos;
+                addThread(list, pc + 1, pos, saved);
+                break;
+            default:
+                list.add(pc, groups);
+        }
+    }
+    
+    private static final class ThreadList {
+        final int[] pcs;
+        final int[][] groups;
+        final int[] marks; // Generation in which each pc was added, so clearing is O(1)
+        int generation = 1;
+        int size;
+        
+        ThreadList(int programLength) {
+            pcs = new int[programLength];
+            groups = new int[programLength][];
+            marks = new int[programLength];
+        }
+        
+        boolean mark(int pc) {
+            if (marks[pc] == generation) {
+                return false;
+            }
+            marks[pc] = generation;
+            return true;
+        }
+        
+        void add(int pc, int[] threadGroups) {
+            pcs[size] = pc;
+            groups[size++] = threadGroups;
+        }
+        
+        void clear() {
+            size = 0;
+            generation++;
+        }
+    }
+    
+    private static final class Program {
+        final List<Integer> op = new ArrayList<>();
+        final List<Integer> arg1 = new ArrayList<>();
+        final List<Integer> arg2 = new ArrayList<>();
+        final List<CharClass> classes = new ArrayList<>();
+        
+        int emit(int opcode, int first, int second) {
+            op.add(opcode);
+            arg1.add(first);
+            arg2.add(second);
+            return op.size() - 1;
+        }
+        
+        void patch(int pc, int first, int second) {
+            arg1.set(pc, first);
+            arg2.set(pc, second);
+        }
+        
+        int next() {
+            return op.size();
+        }
+    }
+    
+    private interface Node {
+        void emit(Program program);
+        
+        boolean nullable(); // Can match the empty string
+        
+        boolean capturing(); // Contains a capturing group
+    }
+    
+    private static final class ClassNode implements Node {
+        final CharClass charClass;
+        
+        ClassNode(CharClass charClass) {
+            this.charClass = charClass;
+        }
+        
+        @Override
+        public void emit(Program program) {
+            program.classes.add(charClass);
+            program.emit(CHAR, program.classes.size() - 1, 0);
+        }
+        
+        @Override
+        public boolean nullable() {
+            return false;
+        }
+        
+        @Override
+        public boolean capturing() {
+            return false;
+        }
+    }
+    
+    private static final class ConcatNode implements Node {
+        final List<Node> items;
+        
+        ConcatNode(List<Node> items) {
+            this.items = items;
+        }
+        
+        @Override
+        public void emit(Program program) {
+            items.forEach(item -> item.emit(program));
+        }
+        
+        @Override
+        public boolean nullable() {
+            return items.stream().allMatch(Node::nullable);
+        }
+        
+        @Override
+        public boolean capturing() {
+            return items.stream().anyMatch(Node::capturing);
+        }
+    }
+    
+    private static final class AlternationNode implements Node {
+        final List<Node> options;
+        
+        AlternationNode(List<Node> options) {
+            this.options = options;
+        }
+        
+        @Override
+        public void emit(Program program) {
+            List<Integer> jumpsToEnd = new ArrayList<>();
+            for (int i = 0; i < options.size() - 1; i++) {
+                int split = program.emit(SPLIT, 0, 0);
+                options.get(i).emit(program);
+                jumpsToEnd.add(program.emit(JMP, 0, 0));
+                program.patch(split, split + 1, program.next());
+            }
+            options.get(options.size() - 1).emit(program);
+            for (int jump : jumpsToEnd) {
+                program.patch(jump, program.next(), 0);
+            }
+        }
+        
+        @Override
+        public boolean nullable() {
+            return options.stream().anyMatch(Node::nullable);
+        }
+        
+        @Override
+        public boolean capturing() {
+            return options.stream().anyMatch(Node::capturing);
+        }
+    }
+    
+    private static final class GroupNode implements Node {
+        final Node body;
+        final int index;
+        
+        GroupNode(Node body, int index) {
+            this.body = body;
+            this.index = index;
+        }
+        
+        @Override
+        public void emit(Program program) {
+            program.emit(SAVE, 2 * index, 0);
+            body.emit(program);
+            program.emit(SAVE, 2 * index + 1, 0);
+        }
+        
+        @Override
+        public boolean nullable() {
+            return body.nullable();
+        }
+        
+        @Override
+        public boolean capturing() {
+            return true;
+        }
+    }
+    
+    private static final class RepeatNode implements Node {
+        final Node body;
+        final int min;
+        final int max; // -1 for unbounded
+        final boolean greedy;
+        
+        RepeatNode(Node body, int min, int max, boolean greedy) {
+            this.body = body;
+            this.min = min;
+            this.max = max;
+            this.greedy = greedy;
+        }
+        
+        @Override
+        public void emit(Program program) {
+            for (int i = 0; i < min; i++) {
+                body.emit(program);
+            }
+            if (max < 0) {
+                // loop: SPLIT body, out; body; JMP loop
+                int loop = program.emit(SPLIT, 0, 0);
+                body.emit(program);
+                program.emit(JMP, loop, 0);
+                patchSplit(program, loop, loop + 1, program.next());
+                return;
+            }
+            // Each optional copy may be skipped, and skipping one skips the rest
+            List<Integer> splits = new ArrayList<>();
+            for (int i = min; i < max; i++) {
+                splits.add(program.emit(SPLIT, 0, 0));
+                body.emit(program);
+            }
+            for (int split : splits) {
+                patchSplit(program, split, split + 1, program.next());
+            }
+        }
+        
+        @Override
+        public boolean nullable() {
+            return min == 0 || body.nullable();
+        }
+        
+        @Override
+        public boolean capturing() {
+            return body.capturing();
+        }
+        
+        private void patchSplit(Program program, int split, int enter, int skip) {
+            if (greedy) {
+                program.patch(split, enter, skip);
+            } else {
+                program.patch(split, skip, enter);
+            }
+        }
+    }
+    
+    private static final class Parser {
+        final String regex;
+        final boolean caseInsensitive;
+        int pos;
+        int groupCount;
+        
+        Parser(String regex, boolean caseInsensitive) {
+            this.regex = regex;
+            this.caseInsensitive = caseInsensitive;
+        }
+        
+        Node parseAlternation() {
+            List<Node> options = new ArrayList<>();
+            options.add(parseConcatenation());
+            while (pos < regex.length() && regex.charAt(pos) == '|') {
+                pos++;
+                options.add(parseConcatenation());
+            }
+            return options.size() == 1 ? options.get(0) : new AlternationNode(options);
+        }
+        
+        Node parseConcatenation() {
+            List<Node> items = new ArrayList<>();
+            while (pos < regex.length() && regex.charAt(pos) != '|' && regex.charAt(pos) != ')') {
+                items.add(parseRepeat());
+            }
+            return new ConcatNode(items);
+        }
+        
+        Node parseRepeat() {
+            Node atom = parseAtom();
+            if (pos >= regex.length()) {
+                return atom;
+            }
+            int min;
+            int max;
+            switch (regex.charAt(pos)) {
+                case '*': min = 0; max = -1; pos++; break;
+                case '+': min = 1; max = -1; pos++; break;
+                case '?': min = 0; max = 1; pos++; break;
+                case '{':
+                    pos++;
+                    min = parseNumber();
+                    max = min;
+                    if (pos < regex.length() && regex.charAt(pos) == ',') {
+                        pos++;
+                        max = pos < regex.length() && regex.charAt(pos) == '}' ? -1 : parseNumber();
+                    }
+                    expect('}');
+                    if (min > MAX_REPEAT || max > MAX_REPEAT || (max >= 0 && max < min)) {
+                        throw error("Unsupported repetition bounds");
+                    }
+                    break;
+                default:
+                    return atom;
+            }
+            if (max != 1 && atom.nullable()) {
+                // java.util.regex ends a loop after an empty iteration, a Pike VM would try the next alternative
+                throw error("Repeating a sub-pattern that can match the empty string is not supported");
+            }
+            if (max != 1 && atom.capturing()) {
+                // java.util.regex can report a group from an iteration it backtracked out of
+                throw error("Capturing groups inside repetitions are not supported");
+            }
+            boolean greedy = true;
+            if (pos < regex.length() && regex.charAt(pos) == '?') {
+                greedy = false;
+                pos++;
+            } else if (pos < regex.length() && regex.charAt(pos) == '+') {
+                throw error("Possessive quantifiers are not supported");
+            }
+            return new RepeatNode(atom, min, max, greedy);
+        }
+        
+        Node parseAtom() {
+            char c = regex.charAt(pos++);
+            switch (c) {
+                case '(':
+                    Node group;
+                    if (regex.startsWith("?:", pos)) {
+                        pos += 2;
+                        group = parseAlternation();
+                    } else if (pos < regex.length() && regex.charAt(pos) == '?') {
+                        throw error("Only (?:) groups are supported");
+                    } else {
+                        int index = ++groupCount;
+                        group = new GroupNode(parseAlternation(), index);
+                    }
+                    expect(')');
+                    return group;
+                case '[':
+                    return new ClassNode(parseClass());
+                case '.':
+                    return new ClassNode(CharClass.DOT);
+                case '\\':
+                    return new ClassNode(parseEscape(false));
+                case '^':
+                case '$':
+                    throw error("Anchors are not supported");
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw error("Dangling quantifier");
+                default:
+                    return new ClassNode(literal(c));
+            }
+        }
+        
+        CharClass parseClass() {
+            boolean negated = pos < regex.length() && regex.charAt(pos) == '^';
+            if (negated) {
+                pos++;
+            }
+            CharClass.Builder builder = new CharClass.Builder(negated, caseInsensitive);
+            boolean first = true;
+            while (true) {
+                if (pos >= regex.length()) {
+                    throw error("Unclosed character class");
+                }
+                char c = regex.charAt(pos);
+                if (c == ']' && !first) {
+                    pos++;
+                    return builder.build();
+                }
+                first = false;
+                if (c == '[' || regex.startsWith("&&", pos)) {
+                    throw error("Nested classes and intersections are not supported");
+                }
+                pos++;
+                if (c == '\\') {
+                    CharClass escaped = parseEscape(true);
+                    if (escaped.isSingleChar()) {
+                        c = escaped.singleChar();
+                    } else {
+                        builder.add(escaped);
+                        continue;
+                    }
+                }
+                if (pos + 1 < regex.length() && regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+                    pos++;
+                    char end = regex.charAt(pos++);
+                    if (end == '\\') {
+                        CharClass escaped = parseEscape(true);
+                        if (!escaped.isSingleChar()) {
+                            throw error("Bad range");
+                        }
+                        end = escaped.singleChar();
+                    }
+                    if (end < c) {
+                        throw error("Bad range");
+                    }
+                    builder.addRange(c, end);
+                } else {
+                    builder.addRange(c, c);
+                }
+            }
+        }
+        
+        CharClass parseEscape(boolean inClass) {
+            if (pos >= regex.length()) {
+                throw error("Trailing backslash");
+            }
+            char c = regex.charAt(pos++);
+            switch (c) {
+                case 's': return CharClass.SPACE;
+                case 'S': return CharClass.SPACE.negate();
+                case 'w': return CharClass.WORD;
+                case 'W': return CharClass.WORD.negate();
+                case 'd': return CharClass.DIGIT;
+                case 'D': return CharClass.DIGIT.negate();
+                case 'n': return literal('\n');
+                case 'r': return literal('\r');
+                case 't': return literal('\t');
+                case 'f': return literal('\f');
+                default:
+                    if (Character.isLetterOrDigit(c)) {
+                        throw error("Unsupported escape \\" + c);
+                    }
+                    return literal(c);
+            }
+        }
+        
+        CharClass literal(char c) {
+            return new CharClass.Builder(false, caseInsensitive).addRange(c, c).build();
+        }
+        
+        int parseNumber() {
+            int start = pos;
+            while (pos < regex.length() && Character.isDigit(regex.charAt(pos)) && pos - start < 4) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("Expected a number");
+            }
+            return Integer.parseInt(regex.substring(start, pos));
+        }
+        
+        void expect(char c) {
+            if (pos >= regex.length() || regex.charAt(pos) != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+        
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at index " + pos + " in " + regex);
+        }
+    }
+    
+    /**
+     * A set of chars: inclusive ranges plus nested classes (for \S and the like inside brackets), optionally negated
+     */
+    private static final class CharClass {
+        
+        static final CharClass SPACE = new Builder(false, false)
+            .addRange(' ', ' ').addRange('\t', '\r').build(); // \t \n \x0B \f \r
+        static final CharClass WORD = new Builder(false, false)
+            .addRange('a', 'z').addRange('A', 'Z').addRange('0', '9').addRange('_', '_').build();
+        static final CharClass DIGIT = new Builder(false, false).addRange('0', '9').build();
+        static final CharClass DOT = new Builder(true, false) // Line terminators, as java.util.regex's '.' excludes them
+            .addRange('\n', '\n').addRange('\r', '\r').addRange('\u0085', '\u0085').addRange('\u2028', '\u2029').build();
+        
+        private final char[] ranges; // Pairs of inclusive bounds
+        private final CharClass[] nested;
+        private final boolean negated;
+        private final boolean caseInsensitive;
+        
+        private CharClass(char[] ranges, CharClass[] nested, boolean negated, boolean caseInsensitive) {
+            this.ranges = ranges;
+            this.nested = nested;
+            this.negated = negated;
+            this.caseInsensitive = caseInsensitive;
+        }
+        
+        boolean matches(char c) {
+            boolean contained = contains(c);
+            if (!contained && caseInsensitive && c < 128) {
+                if (c >= 'a' && c <= 'z') {
+                    contained = contains((char) (c - 32));
+                } else if (c >= 'A' && c <= 'Z') {
+                    contained = contains((char) (c + 32));
+                }
+            }
+            return contained != negated;
+        }
+        
+        private boolean contains(char c) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (c >= ranges[i] && c <= ranges[i + 1]) {
+                    return true;
+                }
+            }
+            for (CharClass inner : nested) {
+                if (inner.matches(c)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        CharClass negate() {
+            return new CharClass(ranges, nested, !negated, caseInsensitive);
+        }
+        
+        boolean isSingleChar() {
+            return !negated && nested.length == 0 && ranges.length == 2 && ranges[0] == ranges[1];
+        }
+        
+        char singleChar() {
+            return ranges[0];
+        }
+        
+        static final class Builder {
+            private final boolean negated;
+            private final boolean caseInsensitive;
+            private final StringBuilder ranges = new StringBuilder();
+            private final List<CharClass> nested = new ArrayList<>();
+            
+            Builder(boolean negated, boolean caseInsensitive) {
+                this.negated = negated;
+                this.caseInsensitive = caseInsensitive;
+            }
+            
+            Builder addRange(char from, char to) {
+                ranges.append(from).append(to);
+                return this;
+            }
+            
+            Builder add(CharClass charClass) {
+                nested.add(charClass);
+                return this;
+            }
+            
+            CharClass build() {
+                return new CharClass(ranges.toString().toCharArray(), nested.toArray(new CharClass[0]), negated, caseInsensitive);
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.testplatform.backend.util;
+
+import java.util.*;
+
+/**
+ * Immutable index of the method declarations in one version of a source file: where each method starts and
+ * ends, and a fingerprint of its tokens. Comments and whitespace are not tokens, so reformatting or re-commenting
+ * a method leaves its fingerprint alone. Everything outside method bodies except import statements (the class
+ * declaration, fields, method annotations before the declaration start) is fingerprinted as the skeleton; a
+ * skeleton change can affect any method, so it makes every method count as changed.
+ *
+ * Two versions of a file are compared by fingerprint with {@link #changedSince}; a unified diff of the file is
+ * mapped to methods with {@link #touchedBy}. Both answer null when they can't narrow the change down to methods.
+ */
+public final class MethodIndex {
+    
+    private static final MethodIndex EMPTY = new MethodIndex(Collections.emptyList(), 0, new BitSet());
+    
+    // Methods by start offset, an enclosing method before the methods of its local and anonymous classes
+    private final List<Method> methods;
+    private final Map<String, Method> bySignature;
+    private final long skeletonFingerprint;
+    private final BitSet skeletonLines; // Lines with skeleton tokens
+    
+    public MethodIndex(List<Method> methods, long skeletonFingerprint, BitSet skeletonLines) {
+        List<Method> sorted = new ArrayList<>(methods);
+        sorted.sort(Comparator.comparingInt(Method::getStart));
+        this.methods = Collections.unmodifiableList(sorted);
+        this.bySignature = new LinkedHashMap<>(sorted.size() * 2);
+        for (Method method : sorted) {
+            bySignature.putIfAbsent(method.signature, method);
+        }
+        this.skeletonFingerprint = skeletonFingerprint;
+        this.skeletonLines = (BitSet) skeletonLines.clone();
+    }
+    
+    public static MethodIndex empty() {
+        return EMPTY;
+    }
+    
+    public List<Method> getMethods() { return methods; }
+    public long getSkeletonFingerprint() { return skeletonFingerprint; }
+    
+    public boolean isEmpty() {
+        return methods.isEmpty();
+    }
+    
+    public Method get(String signature) {
+        return bySignature.get(signature);
+    }
+    
+    public Set<String> getSignatures() {
+        return Collections.unmodifiableSet(bySignature.keySet());
+    }
+    
+    /**
+     * Names of the given signatures that are in this index
+     */
+    public Set<String> names(Collection<String> signatures) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String signature : signatures) {
+            Method method = bySignature.get(signature);
+            if (method != null) {
+                names.add(method.name);
+            }
+        }
+        return names;
+    }
+    
+    /**
+     * Signatures of every overload of the given names
+     */
+    public Set<String> signatures(Collection<String> names) {
+        Set<String> signatures = new LinkedHashSet<>();
+        for (Method method : bySignature.values()) {
+            if (names.contains(method.name)) {
+                signatures.add(method.signature);
+            }
+        }
+        return signatures;
+    }
+    
+    /**
+     * Signatures of the methods that are new or whose fingerprint differs from the previous version
+     * @return Changed signatures, or null if the skeleton changed or either version has no methods
+     */
+    public Set<String> changedSince(MethodIndex previous) {
+        if (previous == null || previous.isEmpty() || isEmpty() || previous.skeletonFingerprint != skeletonFingerprint) {
+            return null;
+        }
+        Set<String> changed = new LinkedHashSet<>();
+        for (Method method : bySignature.values()) {
+            Method before = previous.bySignature.get(method.signature);
+            if (before == null || before.fingerprint != method.fingerprint) {
+                changed.add(method.signature);
+            }
+        }
+        return changed;
+    }
+    
+    /**
+     * Map a unified diff of this file (the "patch" of a pull request file) to the methods it touches. Added lines
+     * and the new-side position of removed lines are looked up in the method spans; lines outside every method
+     * count only if they hold skeleton code, and removed code outside every method always counts, since it may
+     * have been a field or a whole method.
+     * @param headerLines Lines prepended to the file in the indexed source, which the diff doesn't know about
+     * @return Touched signatures, or null if the diff touches the skeleton or this version has no methods
+     */
+    public Set<String> touchedBy(String patch, int headerLines) {
+        if (isEmpty()) {
+            return null;
+        }
+        Set<String> touched = new LinkedHashSet<>();
+        if (patch == null) {
+            return touched;
+        }
+        
+        int newLine = 0;
+        boolean inHunk = false;
+        for (String line : patch.split("\n", -1)) {
+            if (line.startsWith("@@")) {
+                newLine = hunkNewStart(line);
+                inHunk = newLine > 0;
+                newLine += headerLines;
+            } else if (!inHunk || line.startsWith("\\")) {
+                continue; // File headers, "\ No newline at end of file"
+            } else if (line.startsWith("+")) {
+                if (!touch(newLine, touched) && skeletonLines.get(newLine)) {
+                    return null;
+                }
+                newLine++;
+            } else if (line.startsWith("-")) {
+                if (!touch(newLine, touched) && isCode(line.substring(1))) {
+                    return null;
+                }
+            } else {
+                newLine++;
+            }
+        }
+        return touched;
+    }
+    
+    /**
+     * The source with the body of every method outside the given signatures replaced by a placeholder, so the
+     * class, its fields and every method signature stay visible while only the given methods are spelled out
+     */
+    public String focus(String code, Set<String> signatures) {
+        StringBuilder focused = new StringBuilder(code.length() / 4);
+        int cursor = 0;
+        int keptEnd = 0;
+        for (Method method : methods) {
+            if (method.start < cursor || method.start < keptEnd) {
+                continue; // Nested in an elided or a kept method
+            }
+            if (signatures.contains(method.signature)) {
+                keptEnd = method.end;
+                continue;
+            }
+            focused.append(code, cursor, method.bodyStart + 1).append(" /* unchanged */ }");
+            cursor = method.end;
+        }
+        return focused.append(code, cursor, code.length()).toString();
+    }
+    
+    /**
+     * Rough heap footprint: object headers plus two bytes per char of the signatures
+     */
+    public long estimateBytes() {
+        long bytes = 128 + skeletonLines.size() / 8;
+        for (Method method : methods) {
+            bytes += 96 + 2L * (method.name.length() + method.signature.length());
+        }
+        return bytes;
+    }
+    
+    /**
+     * Mark the methods containing a line
+     * @return Whether any method contains it
+     */
+    private boolean touch(int line, Set<String> touched) {
+        boolean found = false;
+        for (Method method : methods) {
+            if (method.startLine > line) {
+                break;
+            }
+            if (line <= method.endLine) {
+                touched.add(method.signature);
+                found = true;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * @return First new-side line of a "@@ -a,b +c,d @@" hunk header, or 0 if it is malformed
+     */
+    private static int hunkNewStart(String header) {
+        int plus = header.indexOf('+');
+        if (plus < 0) {
+            return 0;
+        }
+        int end = plus + 1;
+        while (end < header.length() && Character.isDigit(header.charAt(end))) {
+            end++;
+        }
+        try {
+            return end > plus + 1 ? Integer.parseInt(header.substring(plus + 1, end)) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    /**
+     * Whether a removed line held code rather than a blank, a comment or an import
+     */
+    private static boolean isCode(String line) {
+        String text = line.trim();
+        return !text.isEmpty() && !text.startsWith("//") && !text.startsWith("/*") && !text.startsWith("*")
+                && !text.startsWith("#") && !text.startsWith("import ");
+    }
+    
+    /**
+     * A method declaration, from its first annotation or modifier to its closing brace
+     */
+    public static final class Method {
+        private final String name;
+        private final String signature; // name(ParamType,...), with "#2" and up for repeats in nested classes
+        private final int start;
+        private final int bodyStart; // Offset of the opening brace
+        private final int end; // Offset just past the closing brace
+        private final int startLine;
+        private final int endLine;
+        private final long fingerprint;
+        
+        public Method(String name, String signature, int start, int bodyStart, int end, int startLine, int endLine, long fingerprint) {
+            this.name = name;
+            this.signature = signature;
+            this.start = start;
+            this.bodyStart = bodyStart;
+            this.end = end;
+            this.startLine = startLine;
+            this.endLine = endLine;
+            this.fingerprint = fingerprint;
+        }
+        
+        public String getName() { return name; }
+        public String getSignature() { return signature; }
+        public int getStart() { return start; }
+        public int getBodyStart() { return bodyStart; }
+        public int getEnd() { return end; }
+        public int getStartLine() { return startLine; }
+        public int getEndLine() { return endLine; }
+        public long getFingerprint() { return fingerprint; }
+    }
+}
@@ -0,0 +1,373 @@
+package com.testplatform.backend.util;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, compact index of the file paths in one commit of a repository.
+ *
+ * Paths are split into a sorted table of directories and a table of interned file names grouped
+ * by directory, so every directory subtree maps to contiguous ranges. A second ordering of the
+ * files by reversed name answers suffix queries such as "*Test.java" with a binary search.
+ */
+public final class RepositoryPathIndex {
+    
+    private final String commitId;
+    
+    // Sorted unique directory paths ("" is the repository root)
+    private final String[] directories;
+    
+    // Files of directory d are [dirFileStart[d], dirFileStart[d + 1])
+    private final int[] dirFileStart;
+    
+    // File names ordered by (directory, name), and the directory of each file
+    private final String[] fileNames;
+    private final int[] fileDir;
+    
+    // File ids ordered by name read back to front, for suffix lookups
+    private final int[] bySuffix;
+    
+    private RepositoryPathIndex(String commitId, String[] directories, int[] dirFileStart,
+                                String[] fileNames, int[] fileDir, int[] bySuffix) {
+        this.commitId = commitId;
+        this.directories = directories;
+        this.dirFileStart = dirFileStart;
+        this.fileNames = fileNames;
+        this.fileDir = fileDir;
+        this.bySuffix = bySuffix;
+    }
+    
+    /**
+     * Build an index from repository-relative file paths
+     */
+    public static RepositoryPathIndex build(String commitId, Collection<String> paths) {
+        // Group interned names by directory; only the (far fewer) directories need a global sort
+        Map<String, String> interned = new HashMap<>();
+        Map<String, List<String>> namesByDir = new HashMap<>();
+        int count = 0;
+        for (String path : paths) {
+            String normalized = normalize(path);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            int slash = normalized.lastIndexOf('/');
+            String dir = slash < 0 ? "" : normalized.substring(0, slash);
+            String name = interned.computeIfAbsent(normalized.substring(slash + 1), k -> k);
+            namesByDir.computeIfAbsent(dir, k -> new ArrayList<>()).add(name);
+            count++;
+        }
+        
+        String[] directories = namesByDir.keySet().toArray(new String[0]);
+        Arrays.sort(directories);
+        
+        int[] dirFileStart = new int[directories.length + 1];
+        String[] fileNames = new String[count];
+        int[] fileDir = new int[count];
+        int size = 0;
+        for (int d = 0; d < directories.length; d++) {
+            List<String> names = namesByDir.get(directories[d]);
+            Collections.sort(names);
+            dirFileStart[d] = size;
+            String previous = null;
+            for (String name : names) {
+                if (name.equals(previous)) {
+                    continue; // duplicate path
+                }
+                fileNames[size] = name;
+                fileDir[size++] = d;
+                previous = name;
+            }
+        }
+        dirFileStart[directories.length] = size;
+        if (size < count) {
+            fileNames = Arrays.copyOf(fileNames, size);
+            fileDir = Arrays.copyOf(fileDir, size);
+        }
+        
+        // Sort the distinct names back to front, then bucket file ids by name rank
+        String[] reversedNames = new String[interned.size()];
+        int n = 0;
+        for (String name : interned.keySet()) {
+            reversedNames[n++] = new StringBuilder(name).reverse().toString();
+        }
+        Arrays.sort(reversedNames, 0, n);
+        Map<String, Integer> rankByName = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            rankByName.put(new StringBuilder(reversedNames[i]).reverse().toString(), i);
+        }
+        
+        int[] rankStart = new int[n + 1];
+        int[] fileRank = new int[size];
+        for (int i = 0; i < size; i++) {
+            fileRank[i] = rankByName.get(fileNames[i]);
+            rankStart[fileRank[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            rankStart[i + 1] += rankStart[i];
+        }
+        int[] bySuffix = new int[size];
+        int[] next = Arrays.copyOf(rankStart, n);
+        for (int i = 0; i < size; i++) {
+            bySuffix[next[fileRank[i]]++] = i;
+        }
+        
+        return new RepositoryPathIndex(commitId, directories, dirFileStart, fileNames, fileDir, bySuffix);
+    }
+    
+    /**
+     * Derive the index of a later commit: changed paths are dropped and the ones that
+     * still exist in the new commit are added back
+     * @param newCommitId Commit the new index describes
+     * @param changedPaths Paths touched between the two commits
+     * @param existingChangedPaths The subset of changedPaths present in the new commit
+     */
+    public RepositoryPathIndex withChanges(String newCommitId, Collection<String> changedPaths,
+                                           Collection<String> existingChangedPaths) {
+        Set<String> removed = new HashSet<>();
+        for (String path : changedPaths) {
+            removed.add(normalize(path));
+        }
+        
+        List<String> paths = new ArrayList<>(fileNames.length + existingChangedPaths.size());
+        for (int i = 0; i < fileNames.length; i++) {
+            String path = pathOf(i);
+            if (!removed.contains(path)) {
+                paths.add(path);
+            }
+        }
+        paths.addAll(existingChangedPaths);
+        return build(newCommitId, paths);
+    }
+    
+    /**
+     * Check whether a file exists in the indexed commit
+     */
+    public boolean contains(String path) {
+        String normalized = normalize(path);
+        int slash = normalized.lastIndexOf('/');
+        int d = Arrays.binarySearch(directories, slash < 0 ? "" : normalized.substring(0, slash));
+        if (d < 0) {
+            return false;
+        }
+        return Arrays.binarySearch(fileNames, dirFileStart[d], dirFileStart[d + 1], normalized.substring(slash + 1)) >= 0;
+    }
+    
+    /**
+     * List all files in a directory and its subdirectories ("" for the whole repository)
+     */
+    public List<String> listUnder(String directory) {
+        List<String> result = new ArrayList<>();
+        forEachFileUnder(normalize(directory), id -> result.add(pathOf(id)));
+        return result;
+    }
+    
+    /**
+     * Find files under a directory whose name ends with the given suffix, e.g. ("project-service", "Test.java")
+     */
+    public List<String> findBySuffix(String directory, String suffix) {
+        String dirPrefix = normalize(directory);
+        if (suffix == null || suffix.isEmpty()) {
+            return listUnder(dirPrefix);
+        }
+        
+        List<String> result = new ArrayList<>();
+        int[] range = suffixRange(suffix);
+        if (countUnder(dirPrefix) <= range[1] - range[0]) {
+            // The directory is smaller than the suffix match set, so scan it directly
+            forEachFileUnder(dirPrefix, id -> {
+                if (fileNames[id].endsWith(suffix)) {
+                    result.add(pathOf(id));
+                }
+            });
+            return result;
+        }
+        
+        int[] ids = Arrays.copyOfRange(bySuffix, range[0], range[1]);
+        Arrays.sort(ids);
+        for (int id : ids) {
+            if (isUnder(directories[fileDir[id]], dirPrefix)) {
+                result.add(pathOf(id));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Match files against a glob: "*" and "?" stay within a path segment, "**" spans directories.
+     * The literal leading directories narrow the search, and a trailing "*suffix" segment uses the
+     * suffix ordering instead of testing every file.
+     */
+    public List<String> glob(String glob) {
+        String normalized = normalize(glob);
+        String[] segments = normalized.split("/");
+        
+        StringBuilder literalDir = new StringBuilder();
+        int firstWildcard = 0;
+        while (firstWildcard < segments.length - 1 && !hasWildcard(segments[firstWildcard])) {
+            if (literalDir.length() > 0) {
+                literalDir.append('/');
+            }
+            literalDir.append(segments[firstWildcard++]);
+        }
+        
+        Pattern pattern = Pattern.compile(globToRegex(normalized));
+        String lastSegment = segments[segments.length - 1];
+        String dirPrefix = literalDir.toString();
+        List<String> result = new ArrayList<>();
+        
+        if (lastSegment.startsWith("*") && !hasWildcard(lastSegment.substring(1)) && lastSegment.length() > 1) {
+            for (String path : findBySuffix(dirPrefix, lastSegment.substring(1))) {
+                if (pattern.matcher(path).matches()) {
+                    result.add(path);
+                }
+            }
+            return result;
+        }
+        
+        forEachFileUnder(dirPrefix, id -> {
+            String path = pathOf(id);
+            if (pattern.matcher(path).matches()) {
+                result.add(path);
+            }
+        });
+        return result;
+    }
+    
+    public String getCommitId() { return commitId; }
+    
+    public int size() { return fileNames.length; }
+    
+    public int directoryCount() { return directories.length; }
+    
+    private void forEachFileUnder(String dirPrefix, IntConsumer consumer) {
+        if (dirPrefix.isEmpty()) {
+            for (int i = 0; i < fileNames.length; i++) {
+                consumer.accept(i);
+            }
+            return;
+        }
+        
+        // "a" itself, then the contiguous block of "a/..." directories ('0' sorts right after '/')
+        int exact = Arrays.binarySearch(directories, dirPrefix);
+        if (exact >= 0) {
+            for (int i = dirFileStart[exact]; i < dirFileStart[exact + 1]; i++) {
+                consumer.accept(i);
+            }
+        }
+        int from = lowerBound(directories, dirPrefix + "/");
+        int to = lowerBound(directories, dirPrefix + "0");
+        for (int i = dirFileStart[from]; i < dirFileStart[to]; i++) {
+            consumer.accept(i);
+        }
+    }
+    
+    private int[] suffixRange(String suffix) {
+        int lo = 0;
+        int hi = bySuffix.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareReversed(fileNames[bySuffix[mid]], suffix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int end = lo;
+        hi = bySuffix.length;
+        while (end < hi) {
+            int mid = (end + hi) >>> 1;
+            if (fileNames[bySuffix[mid]].endsWith(suffix)) {
+                end = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return new int[] {lo, end};
+    }
+    
+    private int countUnder(String dirPrefix) {
+        if (dirPrefix.isEmpty()) {
+            return fileNames.length;
+        }
+        int exact = Arrays.binarySearch(directories, dirPrefix);
+        int count = exact >= 0 ? dirFileStart[exact + 1] - dirFileStart[exact] : 0;
+        return count + dirFileStart[lowerBound(directories, dirPrefix + "0")] - dirFileStart[lowerBound(directories, dirPrefix + "/")];
+    }
+    
+    private String pathOf(int id) {
+        String dir = directories[fileDir[id]];
+        return dir.isEmpty() ? fileNames[id] : dir + "/" + fileNames[id];
+    }
+    
+    private static boolean isUnder(String dir, String dirPrefix) {
+        return dirPrefix.isEmpty() || dir.equals(dirPrefix)
+            || (dir.length() > dirPrefix.length() && dir.startsWith(dirPrefix) && dir.charAt(dirPrefix.length()) == '/');
+    }
+    
+    private static int lowerBound(String[] sorted, String key) {
+        int index = Arrays.binarySearch(sorted, key);
+        return index >= 0 ? index : -index - 1;
+    }
+    
+    private static int compareReversed(String a, String b) {
+        int i = a.length() - 1;
+        int j = b.length() - 1;
+        while (i >= 0 && j >= 0) {
+            int diff = a.charAt(i--) - b.charAt(j--);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return Integer.compare(i, j);
+    }
+    
+    private static boolean hasWildcard(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+    }
+    
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c != '*' && c != '?') {
+                literal.append(c);
+                continue;
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            }
+            if (c == '?') {
+                regex.append("[^/]");
+            } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                boolean slashFollows = i + 2 < glob.length() && glob.charAt(i + 2) == '/';
+                regex.append(slashFollows ? "(?:.*/)?" : ".*");
+                i += slashFollows ? 2 : 1;
+            } else {
+                regex.append("[^/]*");
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+    
+    private static String normalize(String path) {
+        if (path == null) {
+            return "";
+        }
+        String normalized = path.replace('\\', '/');
+        int start = 0;
+        int end = normalized.length();
+        while (start < end && normalized.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && normalized.charAt(end - 1) == '/') {
+            end--;
+        }
+        return normalized.substring(start, end);
+    }
+}
@@ -0,0 +1,279 @@
+package com.testplatform.backend.util;
+
+import java.util.*;
+
+/**
+ * Finds which of a fixed set of regex signatures occur in a text, in one pass over the text.
+ *
+ * Signatures of the forms the detectors use (a literal, "literal.*" or "a.*b" with literal a and b)
+ * are compiled into one Aho-Corasick automaton. "a.*b" matches when an a ends no later than a b
+ * starts on the same line, which is exactly what the regex means because '.' stops at line
+ * terminators. Any other signature falls back to its own precompiled pattern, run under the
+ * {@link GuardedPattern} time budget. As the detectors have always allowed, a signature also
+ * matches where its regex source occurs verbatim.
+ * Immutable and thread-safe once built.
+ */
+public final class SignatureMatcher {
+    
+    // What finding a literal means for its signature
+    private static final int WHOLE = 0;
+    private static final int SEQUENCE_FIRST = 1;
+    private static final int SEQUENCE_SECOND = 2;
+    
+    private final int signatureCount;
+    
+    // Dense automaton: next[state * alphabetSize + symbol], with failure links already folded in
+    private final int[] next;
+    private final int alphabetSize;
+    private final char[] alphabetChars; // Sorted; symbol of alphabetChars[i] is i + 1, 0 is any other char
+    private final int[] asciiSymbols = new int[128];
+    
+    // Literal hits per state (own and inherited through failure links), as indexes into the hit tables
+    private final int[][] hitsByState;
+    private final int[] hitKind;
+    private final int[] hitTarget; // Signature for WHOLE, sequence for SEQUENCE_*
+    private final int[] hitLength;
+    
+    private final int[] sequenceSignature;
+    private final int[] fallbackSignature;
+    private final GuardedPattern[] fallbackPatterns;
+    
+    private SignatureMatcher(int signatureCount, int[] next, int alphabetSize, char[] alphabetChars, int[][] hitsByState,
+                             int[] hitKind, int[] hitTarget, int[] hitLength, int[] sequenceSignature,
+                             int[] fallbackSignature, GuardedPattern[] fallbackPatterns) {
+        this.signatureCount = signatureCount;
+        this.next = next;
+        this.alphabetSize = alphabetSize;
+        this.alphabetChars = alphabetChars;
+        this.hitsByState = hitsByState;
+        this.hitKind = hitKind;
+        this.hitTarget = hitTarget;
+        this.hitLength = hitLength;
+        this.sequenceSignature = sequenceSignature;
+        this.fallbackSignature = fallbackSignature;
+        this.fallbackPatterns = fallbackPatterns;
+        for (char c = 0; c < asciiSymbols.length; c++) {
+            int index = Arrays.binarySearch(alphabetChars, c);
+            asciiSymbols[c] = index >= 0 ? index + 1 : 0;
+        }
+    }
+    
+    /**
+     * Compile signatures given as regex sources; signature i is reported as bit i
+     */
+    public static SignatureMatcher compile(List<String> signatures) {
+        List<String> literals = new ArrayList<>();
+        List<int[]> hits = new ArrayList<>(); // {kind, target}
+        List<Integer> sequences = new ArrayList<>();
+        List<Integer> fallbacks = new ArrayList<>();
+        List<GuardedPattern> fallbackPatterns = new ArrayList<>();
+        
+        for (int signature = 0; signature < signatures.size(); signature++) {
+            String source = signatures.get(signature);
+            List<String> parts = splitOnDotStar(source);
+            if (parts != null) {
+                parts.removeIf(String::isEmpty);
+            }
+            if (parts != null && parts.size() == 1) {
+                literals.add(parts.get(0));
+                hits.add(new int[] {WHOLE, signature});
+                if (!source.contains(".*") && !parts.get(0).equals(source)) {
+                    literals.add(source);
+                    hits.add(new int[] {WHOLE, signature});
+                }
+            } else if (parts != null && parts.size() == 2) {
+                // A verbatim occurrence of "a.*b" is itself an a before a b on one line, so it needs no literal of its own
+                int sequence = sequences.size();
+                sequences.add(signature);
+                literals.add(parts.get(0));
+                hits.add(new int[] {SEQUENCE_FIRST, sequence});
+                literals.add(parts.get(1));
+                hits.add(new int[] {SEQUENCE_SECOND, sequence});
+            } else {
+                fallbacks.add(signature);
+                fallbackPatterns.add(GuardedPattern.compile(source));
+                literals.add(source);
+                hits.add(new int[] {WHOLE, signature});
+            }
+        }
+        
+        // Alphabet: every char used by a literal; all other chars behave alike
+        TreeSet<Character> used = new TreeSet<>();
+        for (String literal : literals) {
+            for (int i = 0; i < literal.length(); i++) {
+                used.add(literal.charAt(i));
+            }
+        }
+        char[] alphabetChars = new char[used.size()];
+        int a = 0;
+        for (char c : used) {
+            alphabetChars[a++] = c;
+        }
+        int alphabetSize = alphabetChars.length + 1;
+        
+        // Trie
+        List<int[]> gotoTable = new ArrayList<>();
+        List<List<Integer>> output = new ArrayList<>();
+        gotoTable.add(newRow(alphabetSize));
+        output.add(new ArrayList<>());
+        for (int literal = 0; literal < literals.size(); literal++) {
+            String text = literals.get(literal);
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                int symbol = Arrays.binarySearch(alphabetChars, text.charAt(i)) + 1;
+                int target = gotoTable.get(state)[symbol];
+                if (target < 0) {
+                    target = gotoTable.size();
+                    gotoTable.get(state)[symbol] = target;
+                    gotoTable.add(newRow(alphabetSize));
+                    output.add(new ArrayList<>());
+                }
+                state = target;
+            }
+            output.get(state).add(literal);
+        }
+        
+        // Failure links in breadth-first order, folded into a complete transition table
+        int stateCount = gotoTable.size();
+        int[] next = new int[stateCount * alphabetSize];
+        int[] fail = new int[stateCount];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int target = gotoTable.get(0)[symbol];
+            if (target < 0) {
+                next[symbol] = 0;
+            } else {
+                next[symbol] = target;
+                fail[target] = 0;
+                queue.add(target);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            output.get(state).addAll(output.get(fail[state]));
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int target = gotoTable.get(state)[symbol];
+                if (target < 0) {
+                    next[state * alphabetSize + symbol] = next[fail[state] * alphabetSize + symbol];
+                } else {
+                    next[state * alphabetSize + symbol] = target;
+                    fail[target] = next[fail[state] * alphabetSize + symbol];
+                    queue.add(target);
+                }
+            }
+        }
+        
+        int[][] hitsByState = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            hitsByState[state] = output.get(state).stream().mapToInt(Integer::intValue).toArray();
+        }
+        int[] hitKind = new int[literals.size()];
+        int[] hitTarget = new int[literals.size()];
+        int[] hitLength = new int[literals.size()];
+        for (int literal = 0; literal < literals.size(); literal++) {
+            hitKind[literal] = hits.get(literal)[0];
+            hitTarget[literal] = hits.get(literal)[1];
+            hitLength[literal] = literals.get(literal).length();
+        }
+        
+        return new SignatureMatcher(signatures.size(), next, alphabetSize, alphabetChars, hitsByState, hitKind, hitTarget,
+            hitLength, sequences.stream().mapToInt(Integer::intValue).toArray(),
+            fallbacks.stream().mapToInt(Integer::intValue).toArray(), fallbackPatterns.toArray(new GuardedPattern[0]));
+    }
+    
+    /**
+     * Signatures that occur in the text; stops reading once all of them have been seen
+     */
+    public BitSet match(CharSequence text) {
+        BitSet matched = new BitSet(signatureCount);
+        for (int i = 0; i < fallbackPatterns.length; i++) {
+            if (fallbackPatterns[i].find(text)) {
+                matched.set(fallbackSignature[i]);
+            }
+        }
+        
+        // Per sequence: line and end offset of the first "a" seen on that line
+        int[] firstLine = new int[sequenceSignature.length];
+        int[] firstEnd = new int[sequenceSignature.length];
+        Arrays.fill(firstLine, -1);
+        
+        int line = 0;
+        int state = 0;
+        int remaining = signatureCount - matched.cardinality();
+        int length = text.length();
+        for (int i = 0; i < length && remaining > 0; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                line++; // No literal contains a line terminator, so the automaton needs no reset
+            }
+            state = next[state * alphabetSize + symbolOf(c)];
+            for (int hit : hitsByState[state]) {
+                int target = hitTarget[hit];
+                switch (hitKind[hit]) {
+                    case WHOLE:
+                        if (!matched.get(target)) {
+                            matched.set(target);
+                            remaining--;
+                        }
+                        break;
+                    case SEQUENCE_FIRST:
+                        if (firstLine[target] != line) {
+                            firstLine[target] = line;
+                            firstEnd[target] = i + 1;
+                        }
+                        break;
+                    default:
+                        int signature = sequenceSignature[target];
+                        if (firstLine[target] == line && firstEnd[target] <= i + 1 - hitLength[hit] && !matched.get(signature)) {
+                            matched.set(signature);
+                            remaining--;
+                        }
+                        break;
+                }
+            }
+        }
+        return matched;
+    }
+    
+    private int symbolOf(char c) {
+        if (c < asciiSymbols.length) {
+            return asciiSymbols[c];
+        }
+        int index = Arrays.binarySearch(alphabetChars, c);
+        return index >= 0 ? index + 1 : 0;
+    }
+    
+    private static int[] newRow(int size) {
+        int[] row = new int[size];
+        Arrays.fill(row, -1);
+        return row;
+    }
+    
+    /**
+     * Split a regex source on its top-level ".*" and unescape the pieces
+     * @return The literal pieces, or null if the source uses any other regex construct
+     */
+    private static List<String> splitOnDotStar(String source) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder part = new StringBuilder();
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= source.length() || Character.isLetterOrDigit(source.charAt(i + 1))) {
+                    return null; // Character classes like \d or \w, or a trailing backslash
+                }
+                part.append(source.charAt(++i));
+            } else if (c == '.' && i + 1 < source.length() && source.charAt(i + 1) == '*') {
+                parts.add(part.toString());
+                part.setLength(0);
+                i++;
+            } else if ("^$.|?*+()[]{}".indexOf(c) >= 0) {
+                return null;
+            } else {
+                part.append(c);
+            }
+        }
+        parts.add(part.toString());
+        return parts;
+    }
+}
@@ -0,0 +1,545 @@
+package com.testplatform.backend.util;
+
+import java.util.*;
+
+/**
+ * Immutable, repository-wide graph of the classes in one commit: what each class references, what
+ * references it, and which test files cover it.
+ *
+ * Nodes are the classes declared in non-test files, sorted by simple name so a lookup is a binary
+ * search; a name declared in two files is two nodes. A file's references are edges from its first
+ * declared class. Edges are int arrays in compressed sparse row form, once forward (dependencies)
+ * and once reversed (dependents). A test file covers a class when
+ * it references it or is named after it (UserServiceTest, UserService.test.ts, test_user_service.py).
+ * The per-file symbols are kept so the graph of a later commit only needs the changed files analyzed.
+ */
+public final class SymbolGraph {
+    
+    private final String commitId;
+    private final Map<String, FileSymbols> files;
+    
+    // Files by path; nodes ordered by (name, file)
+    private final String[] filePaths;
+    private final String[] nodeNames;
+    private final int[] nodeFile;
+    
+    // Edges of node n are targets[start[n] .. start[n + 1])
+    private final int[] dependencyStart;
+    private final int[] dependencies;
+    private final int[] dependentStart;
+    private final int[] dependents;
+    private final int[] testStart;
+    private final int[] testFiles;
+    
+    private SymbolGraph(String commitId, Map<String, FileSymbols> files, String[] filePaths, String[] nodeNames,
+                        int[] nodeFile, int[] dependencyStart, int[] dependencies, int[] dependentStart,
+                        int[] dependents, int[] testStart, int[] testFiles) {
+        this.commitId = commitId;
+        this.files = files;
+        this.filePaths = filePaths;
+        this.nodeNames = nodeNames;
+        this.nodeFile = nodeFile;
+        this.dependencyStart = dependencyStart;
+        this.dependencies = dependencies;
+        this.dependentStart = dependentStart;
+        this.dependents = dependents;
+        this.testStart = testStart;
+        this.testFiles = testFiles;
+    }
+    
+    /**
+     * Build a graph from the symbols of every source file in a commit
+     */
+    public static SymbolGraph build(String commitId, Collection<FileSymbols> symbols) {
+        Map<String, FileSymbols> files = new HashMap<>();
+        for (FileSymbols file : symbols) {
+            files.put(file.path, file);
+        }
+        String[] filePaths = files.keySet().toArray(new String[0]);
+        Arrays.sort(filePaths);
+        
+        // Nodes sorted by name, then by file (file ids already follow path order)
+        List<long[]> declared = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int f = 0; f < filePaths.length; f++) {
+            FileSymbols file = files.get(filePaths[f]);
+            if (file.test) {
+                continue;
+            }
+            for (String name : new LinkedHashSet<>(Arrays.asList(file.classes))) {
+                declared.add(new long[] {names.size(), f});
+                names.add(name);
+            }
+        }
+        declared.sort((a, b) -> {
+            int byName = names.get((int) a[0]).compareTo(names.get((int) b[0]));
+            return byName != 0 ? byName : Long.compare(a[1], b[1]);
+        });
+        String[] nodeNames = new String[declared.size()];
+        int[] nodeFile = new int[declared.size()];
+        for (int n = 0; n < nodeNames.length; n++) {
+            nodeNames[n] = names.get((int) declared.get(n)[0]);
+            nodeFile[n] = (int) declared.get(n)[1];
+        }
+        // Edges as (source << 32 | target) pairs, sorted and deduplicated into CSR arrays
+        LongList dependencyPairs = new LongList();
+        LongList testPairs = new LongList();
+        for (int f = 0; f < filePaths.length; f++) {
+            FileSymbols file = files.get(filePaths[f]);
+            Set<Integer> targets = new HashSet<>();
+            for (int r = 0; r < file.references.length; r++) {
+                resolve(file.references[r], file.referencePaths[r], file.path, nodeNames, nodeFile, filePaths, targets);
+            }
+            if (file.test) {
+                for (String subject : testSubjects(file.path)) {
+                    int[] range = nameRange(nodeNames, subject);
+                    for (int n = range[0]; n < range[1]; n++) {
+                        targets.add(n);
+                    }
+                }
+                for (int target : targets) {
+                    testPairs.add(((long) target << 32) | f);
+                }
+                continue;
+            }
+            int owner = primaryNode(file, f, nodeNames, nodeFile);
+            for (int target : targets) {
+                if (owner >= 0 && nodeFile[target] != f) {
+                    dependencyPairs.add(((long) owner << 32) | target);
+                }
+            }
+        }
+        
+        long[] forward = dependencyPairs.sortedDistinct();
+        long[] reversed = new long[forward.length];
+        for (int i = 0; i < forward.length; i++) {
+            reversed[i] = (forward[i] << 32) | (forward[i] >>> 32);
+        }
+        Arrays.sort(reversed);
+        
+        int[] dependencyStart = new int[nodeNames.length + 1];
+        int[] dependencies = toCsr(forward, dependencyStart);
+        int[] dependentStart = new int[nodeNames.length + 1];
+        int[] dependents = toCsr(reversed, dependentStart);
+        int[] testStart = new int[nodeNames.length + 1];
+        int[] testFiles = toCsr(testPairs.sortedDistinct(), testStart);
+        
+        return new SymbolGraph(commitId, Collections.unmodifiableMap(files), filePaths, nodeNames, nodeFile,
+            dependencyStart, dependencies, dependentStart, dependents, testStart, testFiles);
+    }
+    
+    /**
+     * Derive the graph of a later commit: changed files are dropped and their new symbols added
+     * @param newCommitId Commit the new graph describes
+     * @param changedPaths Paths touched between the two commits
+     * @param changedSymbols Symbols of the changed source files that still exist in the new commit
+     */
+    public SymbolGraph withChanges(String newCommitId, Collection<String> changedPaths, Collection<FileSymbols> changedSymbols) {
+        Map<String, FileSymbols> updated = new HashMap<>(files);
+        for (String path : changedPaths) {
+            updated.remove(path);
+        }
+        for (FileSymbols file : changedSymbols) {
+            updated.put(file.path, file);
+        }
+        return build(newCommitId, updated.values());
+    }
+    
+    /**
+     * Classes the named class references
+     */
+    public List<String> getDependencies(String className) {
+        BitSet found = new BitSet();
+        int[] range = nameRange(nodeNames, className);
+        for (int n = range[0]; n < range[1]; n++) {
+            for (int i = dependencyStart[n]; i < dependencyStart[n + 1]; i++) {
+                found.set(dependencies[i]);
+            }
+        }
+        return namesOf(found);
+    }
+    
+    /**
+     * Classes that reference the named class
+     * @param transitive Follow dependents of dependents, i.e. everything a change to the class can reach
+     */
+    public List<String> getDependents(String className, boolean transitive) {
+        int[] range = nameRange(nodeNames, className);
+        BitSet found = reachableDependents(range, transitive);
+        found.clear(range[0], range[1]);
+        return namesOf(found);
+    }
+    
+    /**
+     * Test files covering the named class
+     * @param transitive Also the tests of every class that depends on it, directly or not
+     */
+    public List<String> getTests(String className, boolean transitive) {
+        int[] range = nameRange(nodeNames, className);
+        BitSet nodes = transitive ? reachableDependents(range, true) : new BitSet();
+        nodes.set(range[0], range[1]);
+        return testsOf(nodes);
+    }
+    
+    /**
+     * Test files to run when the given files change: tests of every class declared in them or depending on
+     * one of those, plus changed test files themselves
+     */
+    public List<String> getTestsAffectedBy(Collection<String> changedPaths) {
+        BitSet changedNodes = new BitSet();
+        Set<String> changedTests = new TreeSet<>();
+        for (String path : changedPaths) {
+            FileSymbols file = files.get(path);
+            if (file == null) {
+                continue;
+            }
+            if (file.test) {
+                changedTests.add(path);
+                continue;
+            }
+            for (String name : file.classes) {
+                int[] range = nameRange(nodeNames, name);
+                for (int n = range[0]; n < range[1]; n++) {
+                    if (filePaths[nodeFile[n]].equals(path)) {
+                        changedNodes.set(n);
+                    }
+                }
+            }
+        }
+        BitSet nodes = reachableDependents(changedNodes, true);
+        nodes.or(changedNodes);
+        changedTests.addAll(testsOf(nodes));
+        return new ArrayList<>(changedTests);
+    }
+    
+    /**
+     * Files declaring a class of this name
+     */
+    public List<String> getFiles(String className) {
+        List<String> result = new ArrayList<>();
+        int[] range = nameRange(nodeNames, className);
+        for (int n = range[0]; n < range[1]; n++) {
+            result.add(filePaths[nodeFile[n]]);
+        }
+        return result;
+    }
+    
+    public boolean contains(String className) {
+        int[] range = nameRange(nodeNames, className);
+        return range[0] < range[1];
+    }
+    
+    public String getCommitId() { return commitId; }
+    
+    public int fileCount() { return filePaths.length; }
+    
+    public int classCount() { return nodeNames.length; }
+    
+    public int edgeCount() { return dependencies.length; }
+    
+    private BitSet reachableDependents(int[] range, boolean transitive) {
+        BitSet start = new BitSet();
+        start.set(range[0], range[1]);
+        return reachableDependents(start, transitive);
+    }
+    
+    /**
+     * Breadth-first walk over the reversed edges; the start nodes are only included if reached again
+     */
+    private BitSet reachableDependents(BitSet start, boolean transitive) {
+        BitSet found = new BitSet(nodeNames.length);
+        if (!transitive) {
+            for (int n = start.nextSetBit(0); n >= 0; n = start.nextSetBit(n + 1)) {
+                for (int i = dependentStart[n]; i < dependentStart[n + 1]; i++) {
+                    found.set(dependents[i]);
+                }
+            }
+            return found;
+        }
+        
+        int[] queue = new int[nodeNames.length];
+        int head = 0;
+        int tail = 0;
+        for (int n = start.nextSetBit(0); n >= 0; n = start.nextSetBit(n + 1)) {
+            queue[tail++] = n;
+        }
+        BitSet visited = (BitSet) start.clone();
+        while (head < tail) {
+            int node = queue[head++];
+            for (int i = dependentStart[node]; i < dependentStart[node + 1]; i++) {
+                int dependent = dependents[i];
+                found.set(dependent);
+                if (!visited.get(dependent)) {
+                    visited.set(dependent);
+                    queue[tail++] = dependent;
+                }
+            }
+        }
+        return found;
+    }
+    
+    private List<String> testsOf(BitSet nodes) {
+        BitSet found = new BitSet(filePaths.length);
+        for (int n = nodes.nextSetBit(0); n >= 0; n = nodes.nextSetBit(n + 1)) {
+            for (int i = testStart[n]; i < testStart[n + 1]; i++) {
+                found.set(testFiles[i]);
+            }
+        }
+        List<String> result = new ArrayList<>(found.cardinality());
+        for (int f = found.nextSetBit(0); f >= 0; f = found.nextSetBit(f + 1)) {
+            result.add(filePaths[f]);
+        }
+        return result;
+    }
+    
+    private List<String> namesOf(BitSet nodes) {
+        List<String> result = new ArrayList<>(nodes.cardinality());
+        for (int n = nodes.nextSetBit(0); n >= 0; n = nodes.nextSetBit(n + 1)) {
+            if (result.isEmpty() || !result.get(result.size() - 1).equals(nodeNames[n])) {
+                result.add(nodeNames[n]); // Nodes are sorted by name, so duplicates are adjacent
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Nodes a reference can mean. A simple name declared more than once is narrowed by the import's
+     * package path, then by the referencing file's directory; if neither decides, all are kept.
+     */
+    private static void resolve(String name, String qualifiedPath, String fromPath, String[] nodeNames, int[] nodeFile,
+                                String[] filePaths, Set<Integer> targets) {
+        int[] range = nameRange(nodeNames, name);
+        if (range[1] - range[0] <= 1) {
+            for (int n = range[0]; n < range[1]; n++) {
+                targets.add(n);
+            }
+            return;
+        }
+        
+        int before = targets.size();
+        if (qualifiedPath != null) {
+            for (int n = range[0]; n < range[1]; n++) {
+                if (filePaths[nodeFile[n]].contains(qualifiedPath + ".")) {
+                    targets.add(n);
+                }
+            }
+        }
+        if (targets.size() == before) {
+            String directory = directoryOf(fromPath);
+            for (int n = range[0]; n < range[1]; n++) {
+                if (directoryOf(filePaths[nodeFile[n]]).equals(directory)) {
+                    targets.add(n);
+                }
+            }
+        }
+        if (targets.size() == before) {
+            for (int n = range[0]; n < range[1]; n++) {
+                targets.add(n);
+            }
+        }
+    }
+    
+    /**
+     * The file's first declared class, which a file's imports and injected fields belong to; nested and
+     * secondary classes only receive edges
+     */
+    private static int primaryNode(FileSymbols file, int fileId, String[] nodeNames, int[] nodeFile) {
+        if (file.classes.length == 0) {
+            return -1;
+        }
+        int[] range = nameRange(nodeNames, file.classes[0]);
+        for (int n = range[0]; n < range[1]; n++) {
+            if (nodeFile[n] == fileId) {
+                return n;
+            }
+        }
+        return -1;
+    }
+    
+    private static int[] nameRange(String[] nodeNames, String name) {
+        int lo = lowerBound(nodeNames, name);
+        int hi = lo;
+        while (hi < nodeNames.length && nodeNames[hi].equals(name)) {
+            hi++;
+        }
+        return new int[] {lo, hi};
+    }
+    
+    private static int lowerBound(String[] sorted, String key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+     * Split sorted (source << 32 | target) pairs into per-source ranges
+     */
+    private static int[] toCsr(long[] pairs, int[] start) {
+        int[] targets = new int[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            start[(int) (pairs[i] >>> 32) + 1]++;
+            targets[i] = (int) pairs[i];
+        }
+        for (int n = 0; n + 1 < start.length; n++) {
+            start[n + 1] += start[n];
+        }
+        return targets;
+    }
+    
+    private static String directoryOf(String path) {
+        int slash = path.lastIndexOf('/');
+        return slash < 0 ? "" : path.substring(0, slash);
+    }
+    
+    /**
+     * Whether a path is a test source by the usual layouts and naming conventions
+     */
+    public static boolean isTestPath(String path) {
+        String lower = "/" + path.toLowerCase(Locale.ROOT);
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return lower.contains("/src/test/") || lower.contains("/__tests__/") || lower.contains("/test/") || lower.contains("/tests/")
+            || name.contains(".test.") || name.contains(".spec.") || name.startsWith("test_") || name.endsWith("_test.py")
+            || name.matches("\\w*(Test|Tests|IT)\\.(java|kt|scala|groovy)");
+    }
+    
+    /**
+     * Class names a test file is named after: UserServiceTest.java, TestUserService.java,
+     * UserService.test.ts and test_user_service.py all name UserService
+     */
+    static List<String> testSubjects(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        String stem = dot < 0 ? name : name.substring(0, dot);
+        List<String> subjects = new ArrayList<>();
+        for (String suffix : new String[] {"Tests", "Test", "IT", "Spec"}) {
+            if (stem.endsWith(suffix) && stem.length() > suffix.length()) {
+                subjects.add(stem.substring(0, stem.length() - suffix.length()));
+            }
+        }
+        if (stem.startsWith("Test") && stem.length() > 4 && Character.isUpperCase(stem.charAt(4))) {
+            subjects.add(stem.substring(4));
+        }
+        if (stem.startsWith("test_") || stem.endsWith("_test")) {
+            String words = stem.startsWith("test_") ? stem.substring(5) : stem.substring(0, stem.length() - 5);
+            StringBuilder camel = new StringBuilder();
+            for (String word : words.split("_")) {
+                if (!word.isEmpty()) {
+                    camel.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+                }
+            }
+            subjects.add(camel.toString());
+        }
+        if (subjects.isEmpty() && name.matches(".*\\.(test|spec)\\..*")) {
+            subjects.add(stem); // UserService.test.ts
+        }
+        return subjects;
+    }
+    
+    /**
+     * What one source file declares and references, as extracted by the code analyzer
+     */
+    public static final class FileSymbols {
+        private static final Set<String> IMPORT_KEYWORDS = Set.of("static", "from", "as", "type", "typeof", "import", "default");
+        
+        final String path;
+        final boolean test;
+        final String[] classes;
+        final String[] references;
+        final String[] referencePaths; // Package path of each reference when its import names one, else null
+        
+        private FileSymbols(String path, boolean test, String[] classes, String[] references, String[] referencePaths) {
+            this.path = path;
+            this.test = test;
+            this.classes = classes;
+            this.references = references;
+            this.referencePaths = referencePaths;
+        }
+        
+        /**
+         * @param classes Declared class names
+         * @param imports Import statements without the "import" keyword
+         * @param dependencies Injected or constructor parameter types
+         */
+        public static FileSymbols of(String path, List<String> classes, List<String> imports, List<String> dependencies) {
+            Map<String, String> references = new LinkedHashMap<>();
+            for (String statement : imports) {
+                addImport(statement.trim(), references);
+            }
+            for (String type : dependencies) {
+                for (String word : type.split("[^\\w$]+")) {
+                    if (!word.isEmpty()) {
+                        references.putIfAbsent(word, null);
+                    }
+                }
+            }
+            return new FileSymbols(path, isTestPath(path), classes.toArray(new String[0]),
+                references.keySet().toArray(new String[0]), references.values().toArray(new String[0]));
+        }
+        
+        /**
+         * Java "com.acme.Foo" or "static com.acme.Foo.bar" name Foo in com/acme; JS "{ A, B } from './x/C'"
+         * names A, B and the module C; Python "a, b.c" names a and c
+         */
+        private static void addImport(String statement, Map<String, String> references) {
+            if (statement.matches("(static\\s+)?[\\w$]+(\\.[\\w$]+)*(\\.\\*)?")) {
+                boolean wildcard = statement.endsWith(".*");
+                String[] segments = statement.replaceFirst("^static\\s+", "").replaceFirst("\\.\\*$", "").split("\\.");
+                for (int i = segments.length - 1; i >= 0; i--) {
+                    if (Character.isUpperCase(segments[i].charAt(0))) {
+                        references.put(segments[i], String.join("/", Arrays.copyOf(segments, i + 1)));
+                        return;
+                    }
+                }
+                if (!wildcard) {
+                    references.putIfAbsent(segments[segments.length - 1], null); // Python "import os.path"
+                }
+                return;
+            }
+            
+            for (String word : statement.split("[^\\w$.]+")) {
+                if (word.isEmpty() || IMPORT_KEYWORDS.contains(word)) {
+                    continue;
+                }
+                String last = word.substring(word.lastIndexOf('.') + 1);
+                if (!last.isEmpty()) {
+                    references.putIfAbsent(last, null);
+                }
+            }
+        }
+        
+        public String getPath() { return path; }
+        public boolean isTest() { return test; }
+    }
+    
+    private static final class LongList {
+        long[] values = new long[64];
+        int size;
+        
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        long[] sortedDistinct() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.testplatform.backend.util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Parallel working-tree walker for test discovery.
+ *
+ * Each directory is listed once with a single NIO directory stream and its subdirectories are
+ * forked as separate tasks on the common ForkJoin pool. Build output, dependency folders and
+ * VCS metadata are pruned, symbolic links are never followed, and there is no depth or file cap.
+ */
+public final class TestFileScanner {
+    
+    /** Directory names that never contain source tests */
+    public static final Set<String> IGNORED_DIRECTORIES = Set.of(
+        "target", "build", "node_modules", ".git", ".gradle", ".idea");
+    
+    /** Default match for JUnit-style test classes */
+    public static final Predicate<String> JAVA_TEST_FILES =
+        name -> name.endsWith("Test.java") || name.endsWith("Tests.java");
+    
+    private TestFileScanner() {
+    }
+    
+    /**
+     * Walk the given roots and collect matching files
+     * @param roots Directories to walk; missing roots are skipped
+     * @param fileNameFilter Match on the file name only
+     * @return Matching files in path order, plus walk statistics
+     */
+    public static ScanResult scan(Collection<Path> roots, Predicate<String> fileNameFilter) {
+        long startTime = System.currentTimeMillis();
+        LongAdder directories = new LongAdder();
+        
+        List<Path> files = new ArrayList<>();
+        for (Path root : roots) {
+            if (Files.isDirectory(root)) {
+                files.addAll(ForkJoinPool.commonPool().invoke(new DirectoryTask(root, fileNameFilter, directories)));
+            }
+        }
+        Collections.sort(files);
+        
+        return new ScanResult(files, directories.sum(), System.currentTimeMillis() - startTime);
+    }
+    
+    private static final class DirectoryTask extends RecursiveTask<List<Path>> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final Path dir;
+        private final Predicate<String> fileNameFilter;
+        private final LongAdder directories;
+        
+        DirectoryTask(Path dir, Predicate<String> fileNameFilter, LongAdder directories) {
+            this.dir = dir;
+            this.fileNameFilter = fileNameFilter;
+            this.directories = directories;
+        }
+        
+        @Override
+        protected List<Path> compute() {
+            directories.increment();
+            List<Path> matches = new ArrayList<>();
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    String name = entry.getFileName().toString();
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue; // Vanished or unreadable, skip it
+                    }
+                    
+                    if (attributes.isDirectory()) {
+                        if (!IGNORED_DIRECTORIES.contains(name)) {
+                            DirectoryTask subtask = new DirectoryTask(entry, fileNameFilter, directories);
+                            subtask.fork();
+                            subtasks.add(subtask);
+                        }
+                    } else if (attributes.isRegularFile() && fileNameFilter.test(name)) {
+                        matches.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                // Unreadable directory, keep what the siblings find
+            }
+            
+            for (DirectoryTask subtask : subtasks) {
+                matches.addAll(subtask.join());
+            }
+            return matches;
+        }
+    }
+    
+    /**
+     * Files found by a scan and how long it took
+     */
+    public static final class ScanResult {
+        private final List<Path> files;
+        private final long directoriesScanned;
+        private final long durationMs;
+        
+        ScanResult(List<Path> files, long directoriesScanned, long durationMs) {
+            this.files = files;
+            this.directoriesScanned = directoriesScanned;
+            this.durationMs = durationMs;
+        }
+        
+        public List<Path> getFiles() { return files; }
+        public long getDirectoriesScanned() { return directoriesScanned; }
+        public long getDurationMs() { return durationMs; }
+    }
+}
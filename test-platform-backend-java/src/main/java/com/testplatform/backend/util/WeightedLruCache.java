@@ -0,0 +1,96 @@
+package com.testplatform.backend.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A least-recently-used cache bounded by the total weight of its values rather than their count,
+ * so a few large entries can't crowd the heap the way a count limit would let them.
+ * Thread-safe; every operation holds the cache's monitor for amortized O(1) work.
+ */
+public final class WeightedLruCache<K, V> {
+    
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    
+    // Access order, so the eldest entry is the least recently used
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+    
+    /**
+     * @return The cached value, or null if there is none
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+    
+    /**
+     * Cache a value, evicting least recently used entries until the total weight fits again.
+     * A value heavier than the whole cache is not stored.
+     */
+    public synchronized void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        if (valueWeight > maxWeight) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, valueWeight));
+        weight += valueWeight;
+        
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+    
+    /**
+     * Size, weight and hit counters, for status endpoints and logs
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("weight", weight);
+        stats.put("maxWeight", maxWeight);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        return stats;
+    }
+    
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+        
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.testplatform.backend.benchmark;
+
+import com.testplatform.backend.service.CodeAnalyzerService;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Structure extraction from Spring service sources: the single-pass scan against the regexes and substring
+ * counts the analyzer ran before, copied here unchanged. The analysis cache is off, so every call scans.
+ * The "megabytes" counter is MB/s.
+ *
+ * Run with: mvn test-compile, then
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main CodeAnalyzerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodeAnalyzerBenchmark {
+    
+    private static final Pattern CLASS_PATTERN = Pattern.compile("(?:public|private|protected)?\\s*class\\s+(\\w+)");
+    private static final Pattern METHOD_PATTERN = Pattern.compile("(?:public|private|protected)\\s+(?:static\\s+)?(?:\\w+\\s+)*?(\\w+)\\s*\\([^)]*\\)\\s*(?:throws\\s+\\w+)?\\s*\\{");
+    private static final Pattern ANNOTATION_PATTERN = Pattern.compile("@(\\w+)(?:\\([^)]*\\))?");
+    private static final Pattern IMPORT_PATTERN = Pattern.compile("import\\s+([^;]+);");
+    private static final Pattern EXCEPTION_PATTERN = Pattern.compile("throw\\s+new\\s+(\\w+)");
+    
+    @Param({"8192", "65536"})
+    public int fileChars;
+    
+    private final CodeAnalyzerService analyzer = new CodeAnalyzerService();
+    private String source;
+    
+    @Setup
+    public void generate() {
+        source = SourceCorpus.serviceClasses(fileChars).substring(0, fileChars);
+    }
+    
+    @Benchmark
+    public CodeAnalyzerService.CodeAnalysisResult scan(Bytes bytes) {
+        bytes.megabytes += source.length() / 1e6;
+        return analyzer.analyzeStructure(source, "java");
+    }
+    
+    @Benchmark
+    public List<Object> legacyRegex(Bytes bytes) {
+        bytes.megabytes += source.length() / 1e6;
+        List<Object> result = new ArrayList<>();
+        result.add(findAll(CLASS_PATTERN, source));
+        result.add(findAll(METHOD_PATTERN, source));
+        result.add(findAll(ANNOTATION_PATTERN, source));
+        result.add(findAll(IMPORT_PATTERN, source));
+        result.add(findAll(EXCEPTION_PATTERN, source));
+        result.add(legacyComplexity(source));
+        result.add(legacyTestableMethods(source));
+        result.add(legacyDependencies(source));
+        result.add(legacyBusinessLogic(source));
+        return result;
+    }
+    
+    private static List<String> findAll(Pattern pattern, String code) {
+        List<String> found = new ArrayList<>();
+        Matcher matcher = pattern.matcher(code);
+        while (matcher.find()) {
+            found.add(matcher.group(1));
+        }
+        return found;
+    }
+    
+    private static int legacyComplexity(String code) {
+        int complexity = 0;
+        complexity += StringUtils.countMatches(code, "if");
+        complexity += StringUtils.countMatches(code, "for");
+        complexity += StringUtils.countMatches(code, "while");
+        complexity += StringUtils.countMatches(code, "switch");
+        complexity += StringUtils.countMatches(code, "catch");
+        complexity += StringUtils.countMatches(code, "(") - StringUtils.countMatches(code, ")");
+        return complexity;
+    }
+    
+    private static List<String> legacyTestableMethods(String code) {
+        List<String> testableMethods = new ArrayList<>();
+        Pattern testableMethodPattern = Pattern.compile(
+            "public\\s+(?!static\\s+)(?:\\w+\\s+)*?(\\w+)\\s*\\([^)]*\\)\\s*(?:throws\\s+\\w+)?\\s*\\{"
+        );
+        Matcher matcher = testableMethodPattern.matcher(code);
+        while (matcher.find()) {
+            String methodName = matcher.group(1);
+            if (!methodName.startsWith("get") && !methodName.startsWith("set")
+                    && !methodName.startsWith("is") && !methodName.startsWith("has")) {
+                testableMethods.add(methodName);
+            }
+        }
+        return testableMethods;
+    }
+    
+    private static List<String> legacyDependencies(String code) {
+        List<String> dependencies = new ArrayList<>();
+        Pattern autowiredPattern = Pattern.compile("@Autowired\\s+private\\s+(\\w+)\\s+(\\w+)");
+        Matcher matcher = autowiredPattern.matcher(code);
+        while (matcher.find()) {
+            dependencies.add(matcher.group(1));
+        }
+        Pattern constructorPattern = Pattern.compile("public\\s+\\w+\\s*\\(([^)]+)\\)");
+        matcher = constructorPattern.matcher(code);
+        while (matcher.find()) {
+            for (String param : matcher.group(1).split(",")) {
+                String type = param.trim().split("\\s+")[0];
+                if (!type.equals("String") && !type.equals("int") && !type.equals("boolean")) {
+                    dependencies.add(type);
+                }
+            }
+        }
+        return dependencies;
+    }
+    
+    private static List<String> legacyBusinessLogic(String code) {
+        List<String> businessLogic = new ArrayList<>();
+        if (code.contains("if") && (code.contains("null") || code.contains("empty"))) {
+            businessLogic.add("input_validation");
+        }
+        if (code.contains("throw") || code.contains("catch")) {
+            businessLogic.add("exception_handling");
+        }
+        if (code.contains("return") && code.contains("new")) {
+            businessLogic.add("data_transformation");
+        }
+        if (code.contains("@Autowired") || code.contains("repository") || code.contains("service")) {
+            businessLogic.add("external_dependencies");
+        }
+        return businessLogic;
+    }
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public double megabytes;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+}
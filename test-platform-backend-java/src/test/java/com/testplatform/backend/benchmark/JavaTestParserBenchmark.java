@@ -0,0 +1,46 @@
+package com.testplatform.backend.benchmark;
+
+import com.testplatform.backend.util.JavaTestParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the test method lexer over 1 MB of test classes. The "megabytes" counter is MB/s.
+ *
+ * Run with: mvn test-compile, then
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main JavaTestParserBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaTestParserBenchmark {
+    
+    private String source;
+    
+    @Setup
+    public void generate() {
+        source = SourceCorpus.testClasses(1 << 20);
+    }
+    
+    @Benchmark
+    public List<JavaTestParser.TestMethod> parse(Bytes bytes) {
+        bytes.megabytes += source.length() / 1e6;
+        return JavaTestParser.parse(source);
+    }
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public double megabytes;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+}
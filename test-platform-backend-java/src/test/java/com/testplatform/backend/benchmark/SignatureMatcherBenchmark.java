@@ -0,0 +1,84 @@
+package com.testplatform.backend.benchmark;
+
+import com.testplatform.backend.service.LanguageDetectionService;
+import com.testplatform.backend.util.SignatureMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Language and framework signature matching over one source file: the precompiled matcher against
+ * the contains-or-compile-and-find loop the detector ran per signature before. The "megabytes"
+ * counter is MB/s.
+ *
+ * Run with: mvn test-compile, then
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main SignatureMatcherBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureMatcherBenchmark {
+    
+    @Param({"8192", "65536"})
+    public int fileChars;
+    
+    private List<String> signatures;
+    private SignatureMatcher matcher;
+    private String source;
+    
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void compile() {
+        // The detector's own signatures, in its order
+        Set<String> unique = new LinkedHashSet<>();
+        for (String table : List.of("LANGUAGE_PATTERNS", "FRAMEWORK_PATTERNS")) {
+            Map<String, List<String>> patterns =
+                (Map<String, List<String>>) ReflectionTestUtils.getField(LanguageDetectionService.class, table);
+            patterns.values().forEach(unique::addAll);
+        }
+        signatures = new ArrayList<>(unique);
+        matcher = SignatureMatcher.compile(signatures);
+        source = SourceCorpus.testClasses(fileChars).substring(0, fileChars);
+    }
+    
+    @Benchmark
+    public BitSet matcher(Bytes bytes) {
+        bytes.megabytes += source.length() / 1e6;
+        return matcher.match(source);
+    }
+    
+    @Benchmark
+    public BitSet legacyRegex(Bytes bytes) {
+        bytes.megabytes += source.length() / 1e6;
+        BitSet matched = new BitSet(signatures.size());
+        for (int i = 0; i < signatures.size(); i++) {
+            String pattern = signatures.get(i);
+            if (source.contains(pattern) || Pattern.compile(pattern).matcher(source).find()) {
+                matched.set(i);
+            }
+        }
+        return matched;
+    }
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public double megabytes;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.testplatform.backend.benchmark;
+
+import java.util.Random;
+
+/**
+ * Synthetic but realistic Java sources for the benchmarks: Javadoc and line comments, string, char and
+ * text-block literals with braces in them, generics, lambdas, multi-line annotations and nested classes.
+ * A fixed seed keeps every run on the same input.
+ */
+final class SourceCorpus {
+    
+    private SourceCorpus() {
+    }
+    
+    /**
+     * JUnit 5 test classes totalling at least the given number of chars (all ASCII, so as many bytes)
+     */
+    static String testClasses(int minChars) {
+        Random random = new Random(42);
+        StringBuilder source = new StringBuilder(minChars + 4096);
+        for (int n = 0; source.length() < minChars; n++) {
+            appendTestClass(source, n, random);
+        }
+        return source.toString();
+    }
+    
+    /**
+     * Spring service classes totalling at least the given number of chars: Javadoc, @Transactional, injected
+     * repositories, generic signatures, string and char literals with braces in them, and nested records
+     */
+    static String serviceClasses(int minChars) {
+        Random random = new Random(7);
+        StringBuilder source = new StringBuilder(minChars + 4096);
+        for (int n = 0; source.length() < minChars; n++) {
+            appendServiceClass(source, n, random);
+        }
+        return source.toString();
+    }
+    
+    private static void appendTestClass(StringBuilder out, int n, Random random) {
+        out.append("package com.example.orders.service").append(n % 7).append(";\n\n")
+            .append("import org.junit.jupiter.api.*;\n")
+            .append("import org.junit.jupiter.params.ParameterizedTest;\n")
+            .append("import org.junit.jupiter.params.provider.ValueSource;\n")
+            .append("import java.util.*;\n\n")
+            .append("/**\n * Tests for OrderService").append(n).append(" {@link OrderService}.\n */\n")
+            .append("@Tag(\"orders\")\n")
+            .append("class OrderService").append(n).append("Test {\n\n")
+            .append("    private final Map<String, List<Integer>> fixtures = new HashMap<>();\n")
+            .append("    private final Comparator<Order> byTotal = (a, b) -> Long.compare(a.total(), b.total());\n\n")
+            .append("    @BeforeEach\n    void setUp() {\n        fixtures.put(\"{key}\", List.of(1, 2, 3));\n    }\n\n");
+        int methods = 4 + random.nextInt(8);
+        for (int m = 0; m < methods; m++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    out.append("    @Test\n    @DisplayName(\"places order ").append(m).append(" with {braces}\")\n");
+                    break;
+                case 1:
+                    out.append("    @ParameterizedTest(\n        name = \"{0} -> total\")\n")
+                        .append("    @ValueSource(strings = {\"a\", \"b}\", \"c\"})\n");
+                    break;
+                case 2:
+                    out.append("    // Regression for a rounding bug\n    @Test @Tag(\"slow\")\n");
+                    break;
+                default:
+                    out.append("    @org.junit.jupiter.api.Test\n");
+                    break;
+            }
+            out.append("    void placesOrder").append(m).append("() {\n")
+                .append("        Order order = new Order(\"SKU-").append(random.nextInt(1000)).append("\", ").append(m).append(");\n")
+                .append("        char brace = '}';\n")
+                .append("        String json = \"\"\"\n            { \"id\": ").append(m).append(", \"items\": [] }\n            \"\"\";\n")
+                .append("        List<Order> sorted = orders.stream().filter(o -> o.total() > ").append(m)
+                .append(").sorted(byTotal).toList();\n")
+                .append("        /* {@code assertEquals} compares totals } */\n")
+                .append("        Assertions.assertEquals(").append(m).append(", order.quantity(), () -> \"quantity of \" + order);\n")
+                .append("    }\n\n");
+        }
+        out.append("    @Nested\n    class WhenCancelled {\n")
+            .append("        @Test\n        void refunds() {\n            new Object() { void notATest() { } };\n        }\n")
+            .append("    }\n}\n\n");
+    }
+    
+    private static void appendServiceClass(StringBuilder out, int n, Random random) {
+        out.append("package com.example.orders.service").append(n % 7).append(";\n\n")
+            .append("import com.example.orders.repository.OrderRepository;\n")
+            .append("import org.springframework.beans.factory.annotation.Autowired;\n")
+            .append("import org.springframework.stereotype.Service;\n")
+            .append("import org.springframework.transaction.annotation.Transactional;\n")
+            .append("import java.util.*;\n\n")
+            .append("/**\n * Order workflow ").append(n).append(": placing, pricing and cancelling orders.\n")
+            .append(" * @see OrderRepository for the {@code orders} table\n */\n")
+            .append("@Service\n")
+            .append("public class OrderService").append(n).append(" {\n\n")
+            .append("    @Autowired\n    private OrderRepository orderRepository;\n\n")
+            .append("    private final Map<String, List<Order>> byCustomer = new HashMap<>();\n\n")
+            .append("    public OrderService").append(n).append("(PricingService pricingService, String region) {\n")
+            .append("        this.region = region;\n    }\n\n");
+        int methods = 4 + random.nextInt(8);
+        for (int m = 0; m < methods; m++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    out.append("    @Transactional(readOnly = true)\n")
+                        .append("    public <T extends Order> List<T> findOrders").append(m)
+                        .append("(Map<String, List<T>> index, String customerId) throws OrderException {\n")
+                        .append("        if (customerId == null || customerId.isEmpty()) {\n")
+                        .append("            throw new IllegalArgumentException(\"customer {id} required\");\n")
+                        .append("        }\n")
+                        .append("        return index.getOrDefault(customerId, new ArrayList<>());\n");
+                    break;
+                case 1:
+                    out.append("    /**\n     * Total of order ").append(m).append(", {@literal @Deprecated} rules excluded\n     */\n")
+                        .append("    public long total").append(m).append("(final Order order) {\n")
+                        .append("        char open = '{';\n")
+                        .append("        long total = 0;\n")
+                        .append("        for (Line line : order.lines()) {\n")
+                        .append("            total += line.price() * line.quantity(); // Modified when pricing changes\n")
+                        .append("        }\n")
+                        .append("        return total;\n");
+                    break;
+                case 2:
+                    out.append("    @Transactional\n")
+                        .append("    public void cancel").append(m).append("(String orderId) {\n")
+                        .append("        try {\n")
+                        .append("            orderRepository.delete(orderId);\n")
+                        .append("        } catch (RuntimeException e) {\n")
+                        .append("            log(\"cancel failed: } \" + e.getMessage());\n")
+                        .append("        }\n");
+                    break;
+                default:
+                    out.append("    private static String describe").append(m).append("(Order order) {\n")
+                        .append("        /* switch (order) { case ...} while pending */\n")
+                        .append("        return String.format(\"%s{%d}\", order.id(), ").append(random.nextInt(100)).append(");\n");
+                    break;
+            }
+            out.append("    }\n\n");
+        }
+        out.append("    public record Line(String sku, long price, int quantity) {\n")
+            .append("        public Line {\n            Objects.requireNonNull(sku, \"sku\");\n        }\n")
+            .append("    }\n}\n\n");
+    }
+}
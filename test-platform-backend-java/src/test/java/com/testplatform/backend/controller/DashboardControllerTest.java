@@ -0,0 +1,189 @@
+package com.testplatform.backend.controller;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.enums.PRStatus;
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.event.TestSuitesChangedEvent;
+import com.testplatform.backend.model.PullRequest;
+import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.model.TestSuite;
+import com.testplatform.backend.service.DashboardAggregateService;
+import com.testplatform.backend.service.ExecutionRollupService;
+import com.testplatform.backend.service.PathFlowAnalysisService;
+import com.testplatform.backend.service.PullRequestService;
+import com.testplatform.backend.service.TestExecutionService;
+import com.testplatform.backend.service.TestGenerationService;
+import com.testplatform.backend.service.TestSuiteStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Dashboard statistics from the suite aggregates and trends from the execution rollups
+ */
+class DashboardControllerTest {
+    
+    private final PullRequestService pullRequestService = mock(PullRequestService.class);
+    private final TestGenerationService testGenerationService = mock(TestGenerationService.class);
+    private final TestExecutionService testExecutionService = mock(TestExecutionService.class);
+    private final PathFlowAnalysisService pathFlowAnalysisService = mock(PathFlowAnalysisService.class);
+    private final ExecutionRollupService executionRollupService = mock(ExecutionRollupService.class);
+    private final DashboardAggregateService dashboardAggregateService = new DashboardAggregateService();
+    private final TestSuiteStore testSuiteStore = new TestSuiteStore();
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void wire() {
+        ApplicationEventPublisher publisher = event -> {
+            if (event instanceof TestSuitesChangedEvent) {
+                dashboardAggregateService.onSuitesChanged((TestSuitesChangedEvent) event);
+            }
+        };
+        ReflectionTestUtils.setField(testSuiteStore, "eventPublisher", publisher);
+        ReflectionTestUtils.setField(dashboardAggregateService, "testSuiteStore", testSuiteStore);
+        ReflectionTestUtils.setField(dashboardAggregateService, "eventPublisher", publisher);
+        MultiRepositoryConfig multiRepositoryConfig = new MultiRepositoryConfig();
+        multiRepositoryConfig.setDefaultRepository("kepler-app");
+        
+        DashboardController controller = new DashboardController();
+        ReflectionTestUtils.setField(controller, "pullRequestService", pullRequestService);
+        ReflectionTestUtils.setField(controller, "testGenerationService", testGenerationService);
+        ReflectionTestUtils.setField(controller, "testExecutionService", testExecutionService);
+        ReflectionTestUtils.setField(controller, "pathFlowAnalysisService", pathFlowAnalysisService);
+        ReflectionTestUtils.setField(controller, "executionRollupService", executionRollupService);
+        ReflectionTestUtils.setField(controller, "dashboardAggregateService", dashboardAggregateService);
+        ReflectionTestUtils.setField(controller, "multiRepositoryConfig", multiRepositoryConfig);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+    
+    @Test
+    void statsComeFromTheSuiteAggregatesAndDailyRollups() throws Exception {
+        testSuiteStore.replaceRepository("kepler-app", List.of(
+            suite("1", 80.0, TestStatus.PASSED, TestStatus.PASSED, TestStatus.FAILED),
+            suite("2", null, TestStatus.PASSED)), suite -> "Project Service");
+        ExecutionRollupService.Bucket today = new ExecutionRollupService.Bucket();
+        today.setStart(LocalDate.now().atStartOfDay());
+        today.setTestsPassed(6);
+        today.setTestsFailed(2);
+        when(executionRollupService.getTrend(eq(ExecutionRollupService.Resolution.DAY), any(), any(), isNull(), isNull()))
+            .thenReturn(List.of(today));
+        when(testExecutionService.getAverageExecutionDuration()).thenReturn(1234.4);
+        when(pullRequestService.countPullRequestsByStatus(PRStatus.OPEN)).thenReturn(2L);
+        when(pullRequestService.countPullRequestsCreatedOn(LocalDate.now())).thenReturn(1L);
+        when(pullRequestService.getFirstPullRequests(3)).thenReturn(List.of(pullRequest(7, 4, 3), pullRequest(8, 0, 0)));
+        
+        mockMvc.perform(get("/api/dashboard/stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.totalTests").value(4))
+            .andExpect(jsonPath("$.data.passedTests").value(3))
+            .andExpect(jsonPath("$.data.failedTests").value(1))
+            .andExpect(jsonPath("$.data.coverage").value(80.0))
+            .andExpect(jsonPath("$.data.executionTime").value(1234))
+            .andExpect(jsonPath("$.data.activePRs").value(2))
+            .andExpect(jsonPath("$.data.generatedTestSuites").value(2))
+            .andExpect(jsonPath("$.data.trendsData.length()").value(3))
+            .andExpect(jsonPath("$.data.trendsData[0].passed").value(0))
+            .andExpect(jsonPath("$.data.trendsData[2].date").value(LocalDate.now().toString()))
+            .andExpect(jsonPath("$.data.trendsData[2].passed").value(6))
+            .andExpect(jsonPath("$.data.trendsData[2].coverage").value(80.0))
+            .andExpect(jsonPath("$.data.trendsData[2].prs").value(1))
+            .andExpect(jsonPath("$.data.recentPRs[0].passRate").value("75.0"))
+            .andExpect(jsonPath("$.data.recentPRs[1].passRate").value("0"));
+    }
+    
+    @Test
+    void statsWithoutSuiteCoverageFallBackToThePassRate() throws Exception {
+        testSuiteStore.replaceRepository("shared-services", List.of(suite("3", null, TestStatus.PASSED, TestStatus.FAILED)),
+            suite -> "Auth Service");
+        
+        mockMvc.perform(get("/api/dashboard/stats").param("repository", "shared-services"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.coverage").value(50.0))
+            .andExpect(jsonPath("$.data.trendsData[0].coverage").value(0.0));
+        verify(executionRollupService).getTrend(eq(ExecutionRollupService.Resolution.DAY), any(), any(),
+            eq("shared-services"), isNull());
+    }
+    
+    @Test
+    void trendsDefaultToSixtyBucketsBackFromTheEnd() throws Exception {
+        LocalDateTime to = LocalDateTime.of(2024, 3, 10, 12, 0);
+        
+        mockMvc.perform(get("/api/dashboard/trends").param("resolution", "HOUR").param("to", "2024-03-10T12:00:00")
+                .param("repository", "kepler-app").param("service", "Project Service"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/dashboard/trends").param("resolution", "MINUTE").param("from", "2024-03-10T11:00:00"))
+            .andExpect(status().isOk());
+        
+        verify(executionRollupService).getTrend(ExecutionRollupService.Resolution.HOUR, to.minusHours(60), to,
+            "kepler-app", "Project Service");
+        verify(executionRollupService).getTrend(ExecutionRollupService.Resolution.MINUTE, to.minusHours(1), null, null, null);
+        
+        when(executionRollupService.getTrend(any(), any(), any(), any(), any())).thenThrow(new IllegalStateException("closed"));
+        mockMvc.perform(get("/api/dashboard/trends"))
+            .andExpect(status().isInternalServerError())
+            .andExpect(jsonPath("$.error.message").value("Failed to fetch trends: closed"));
+    }
+    
+    @Test
+    void metricsCombineGenerationExecutionAndPullRequests() throws Exception {
+        when(testGenerationService.getTestStats()).thenReturn(Map.of("totalSuites", 2));
+        when(testExecutionService.getExecutionStats()).thenReturn(Map.of("total", 5));
+        when(pullRequestService.getAllPullRequests()).thenReturn(List.of(pullRequest(7, 4, 3), pullRequest(8, 0, 0)));
+        when(testGenerationService.getAvailableRepositories()).thenReturn(List.of(Map.of("id", "kepler-app")));
+        
+        mockMvc.perform(get("/api/dashboard/metrics"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.testGeneration.totalSuites").value(2))
+            .andExpect(jsonPath("$.data.testExecution.total").value(5))
+            .andExpect(jsonPath("$.data.pullRequests.total").value(2))
+            .andExpect(jsonPath("$.data.pullRequests.byStatus.open").value(2));
+        mockMvc.perform(get("/api/dashboard/repositories"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data[0].id").value("kepler-app"));
+    }
+    
+    private static TestSuite suite(String id, Double coverage, TestStatus... statuses) {
+        TestSuite suite = new TestSuite();
+        suite.setId(id);
+        suite.setStatus(TestStatus.COMPLETED);
+        suite.setCoverage(coverage);
+        suite.setGeneratedAt(LocalDateTime.now());
+        List<TestCase> testCases = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            TestCase testCase = new TestCase();
+            testCase.setId(id + "-" + i);
+            testCase.setStatus(statuses[i]);
+            testCases.add(testCase);
+        }
+        suite.setTestCases(testCases);
+        return suite;
+    }
+    
+    private static PullRequest pullRequest(int number, int generated, int passed) {
+        PullRequest pullRequest = new PullRequest(number, "PR " + number, "feature/" + number, "dev");
+        pullRequest.setId((long) number);
+        pullRequest.setStatus(PRStatus.OPEN);
+        pullRequest.setTestsGenerated(generated);
+        pullRequest.setTestsPassed(passed);
+        return pullRequest;
+    }
+}
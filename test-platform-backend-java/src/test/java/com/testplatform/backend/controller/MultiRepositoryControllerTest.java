@@ -0,0 +1,189 @@
+package com.testplatform.backend.controller;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.event.RepositoryRefsChangedEvent;
+import com.testplatform.backend.service.LanguageDetectionService;
+import com.testplatform.backend.service.MultiRepositoryService;
+import com.testplatform.backend.service.RepositoryMaintenanceService;
+import com.testplatform.backend.service.RepositoryPathIndexService;
+import com.testplatform.backend.service.RepositorySyncService;
+import com.testplatform.backend.service.SymbolGraphService;
+import com.testplatform.backend.util.SymbolGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Repository sync, path index, symbol and maintenance endpoints
+ */
+class MultiRepositoryControllerTest {
+    
+    private final MultiRepositoryService multiRepositoryService = mock(MultiRepositoryService.class);
+    private final LanguageDetectionService languageDetectionService = mock(LanguageDetectionService.class);
+    private final RepositorySyncService repositorySyncService = mock(RepositorySyncService.class);
+    private final RepositoryPathIndexService repositoryPathIndexService = mock(RepositoryPathIndexService.class);
+    private final RepositoryMaintenanceService repositoryMaintenanceService = mock(RepositoryMaintenanceService.class);
+    private final SymbolGraphService symbolGraphService = mock(SymbolGraphService.class);
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void wire() {
+        MultiRepositoryController controller = new MultiRepositoryController();
+        ReflectionTestUtils.setField(controller, "multiRepositoryService", multiRepositoryService);
+        ReflectionTestUtils.setField(controller, "languageDetectionService", languageDetectionService);
+        ReflectionTestUtils.setField(controller, "repositorySyncService", repositorySyncService);
+        ReflectionTestUtils.setField(controller, "repositoryPathIndexService", repositoryPathIndexService);
+        ReflectionTestUtils.setField(controller, "repositoryMaintenanceService", repositoryMaintenanceService);
+        ReflectionTestUtils.setField(controller, "symbolGraphService", symbolGraphService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        
+        MultiRepositoryConfig.RepositoryConfig repo = new MultiRepositoryConfig.RepositoryConfig();
+        repo.setId("kepler-app");
+        repo.setBranch("main");
+        when(multiRepositoryService.getRepository("kepler-app")).thenReturn(repo);
+    }
+    
+    @Test
+    void syncReportsTheRefsThatChanged() throws Exception {
+        when(repositorySyncService.syncRepository("kepler-app")).thenReturn(new RepositoryRefsChangedEvent("kepler-app",
+            "/repos/kepler", List.of(new RepositoryRefsChangedEvent.RefChange("refs/heads/main", "a1", "b2", List.of("pom.xml")))));
+        
+        mockMvc.perform(post("/api/repositories/kepler-app/sync"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("1 refs changed"))
+            .andExpect(jsonPath("$.data.refChanges[0].refName").value("refs/heads/main"))
+            .andExpect(jsonPath("$.data.refChanges[0].changedPaths[0]").value("pom.xml"));
+    }
+    
+    @Test
+    void syncWithoutChangesAndOfUnknownRepositories() throws Exception {
+        mockMvc.perform(post("/api/repositories/kepler-app/sync"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("No ref changes"));
+        mockMvc.perform(post("/api/repositories/unknown/sync")).andExpect(status().isNotFound());
+        
+        when(repositorySyncService.syncRepository("kepler-app")).thenThrow(new IllegalStateException("disk full"));
+        mockMvc.perform(post("/api/repositories/kepler-app/sync"))
+            .andExpect(status().isInternalServerError())
+            .andExpect(jsonPath("$.success").value(false));
+    }
+    
+    @Test
+    void syncStatusListsTheLastOutcomePerRepository() throws Exception {
+        when(repositorySyncService.getSyncStatus()).thenReturn(Map.of("kepler-app", Map.of("success", true, "changedRefs", 2)));
+        
+        mockMvc.perform(get("/api/repositories/sync-status"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.kepler-app.changedRefs").value(2));
+    }
+    
+    @Test
+    void filesAreFoundThroughThePathIndex() throws Exception {
+        when(repositoryPathIndexService.glob("kepler-app", "**/*Test.java")).thenReturn(List.of("src/test/OrdersTest.java"));
+        
+        mockMvc.perform(get("/api/repositories/kepler-app/files").param("glob", "**/*Test.java"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data[0]").value("src/test/OrdersTest.java"))
+            .andExpect(jsonPath("$.message").value("Found 1 files matching **/*Test.java"));
+        mockMvc.perform(get("/api/repositories/kepler-app/files"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("Found 0 files matching **"));
+        mockMvc.perform(get("/api/repositories/unknown/files")).andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void maintenanceReportsItsDurationOrConflict() throws Exception {
+        when(repositoryMaintenanceService.maintainRepository("kepler-app")).thenReturn(Map.of("durationMs", 42L));
+        
+        mockMvc.perform(post("/api/repositories/kepler-app/maintenance"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("Maintenance finished in 42ms"));
+        
+        when(repositoryMaintenanceService.maintainRepository("kepler-app")).thenReturn(null);
+        mockMvc.perform(post("/api/repositories/kepler-app/maintenance"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.success").value(false));
+        mockMvc.perform(post("/api/repositories/unknown/maintenance")).andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void maintenanceStatusListsTheLastReportPerRepository() throws Exception {
+        when(repositoryMaintenanceService.getMaintenanceReports())
+            .thenReturn(Map.of("kepler-app", Map.of("repositoryId", "kepler-app", "commitGraph", true)));
+        
+        mockMvc.perform(get("/api/repositories/maintenance-status"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.kepler-app.commitGraph").value(true));
+    }
+    
+    @Test
+    void detectReportsLanguageFrameworkAndTestFramework() throws Exception {
+        when(multiRepositoryService.getCodeContent("kepler-app", "App.java", "main")).thenReturn("@RestController");
+        when(languageDetectionService.detectLanguageAndFramework("App.java", "@RestController")).thenReturn(
+            new LanguageDetectionService.DetectionResult(new LanguageDetectionService.LanguageDetectionResult("java", 0.8, ".java"),
+                new LanguageDetectionService.FrameworkDetectionResult("spring-boot", 0.2)));
+        when(languageDetectionService.getTestFramework("java", "spring-boot")).thenReturn("junit");
+        
+        mockMvc.perform(post("/api/repositories/kepler-app/detect").param("filePath", "App.java"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.language.detected").value("java"))
+            .andExpect(jsonPath("$.data.framework.confidence").value(0.2))
+            .andExpect(jsonPath("$.data.testFramework").value("junit"));
+        mockMvc.perform(post("/api/repositories/kepler-app/detect").param("filePath", "Missing.java"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/repositories/unknown/detect")).andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void symbolLookupReportsFilesDependenciesAndTests() throws Exception {
+        when(symbolGraphService.getGraph("kepler-app")).thenReturn(orders());
+        
+        mockMvc.perform(get("/api/repositories/kepler-app/symbols/OrderRepository").param("transitive", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.commitId").value("c1"))
+            .andExpect(jsonPath("$.data.files[0]").value("src/main/java/OrderRepository.java"))
+            .andExpect(jsonPath("$.data.dependents[0]").value("OrderService"))
+            .andExpect(jsonPath("$.data.tests[0]").value("src/test/java/OrderServiceTest.java"));
+        mockMvc.perform(get("/api/repositories/kepler-app/symbols/Missing")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/repositories/unknown/symbols/OrderService")).andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void impactedTestsFollowTheChangedFiles() throws Exception {
+        mockMvc.perform(post("/api/repositories/kepler-app/impacted-tests")
+                .contentType(MediaType.APPLICATION_JSON).content("[\"src/main/java/OrderRepository.java\"]"))
+            .andExpect(status().isBadRequest());
+        
+        when(symbolGraphService.getGraph("kepler-app")).thenReturn(orders());
+        mockMvc.perform(post("/api/repositories/kepler-app/impacted-tests")
+                .contentType(MediaType.APPLICATION_JSON).content("[\"src/main/java/OrderRepository.java\"]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data[0]").value("src/test/java/OrderServiceTest.java"))
+            .andExpect(jsonPath("$.message").value("1 test files cover 1 changed files"));
+        mockMvc.perform(post("/api/repositories/unknown/impacted-tests")
+                .contentType(MediaType.APPLICATION_JSON).content("[]"))
+            .andExpect(status().isNotFound());
+    }
+    
+    private static SymbolGraph orders() {
+        return SymbolGraph.build("c1", List.of(
+            SymbolGraph.FileSymbols.of("src/main/java/OrderRepository.java", List.of("OrderRepository"), List.of(), List.of()),
+            SymbolGraph.FileSymbols.of("src/main/java/OrderService.java", List.of("OrderService"), List.of(),
+                List.of("OrderRepository")),
+            SymbolGraph.FileSymbols.of("src/test/java/OrderServiceTest.java", List.of("OrderServiceTest"), List.of(),
+                List.of("OrderService"))));
+    }
+}
@@ -0,0 +1,122 @@
+package com.testplatform.backend.controller;
+
+import com.testplatform.backend.service.PathFlowAnalysisService;
+import com.testplatform.backend.service.TestOrchestrationService;
+import com.testplatform.backend.service.UnifiedReportingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Path flow analysis, orchestration, reporting and cache statistics endpoints
+ */
+class PathFlowControllerTest {
+    
+    private static final String FLOW_REQUEST = "{\"repositoryId\":\"kepler-app\",\"pathFlow\":\"1. POST /api/orders\","
+        + "\"services\":[\"springbackend\"],\"serviceConfigs\":{}}";
+    
+    private final PathFlowAnalysisService pathFlowAnalysisService = mock(PathFlowAnalysisService.class);
+    private final TestOrchestrationService testOrchestrationService = mock(TestOrchestrationService.class);
+    private final UnifiedReportingService unifiedReportingService = mock(UnifiedReportingService.class);
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void wire() {
+        PathFlowController controller = new PathFlowController();
+        ReflectionTestUtils.setField(controller, "pathFlowAnalysisService", pathFlowAnalysisService);
+        ReflectionTestUtils.setField(controller, "testOrchestrationService", testOrchestrationService);
+        ReflectionTestUtils.setField(controller, "unifiedReportingService", unifiedReportingService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+    
+    @Test
+    void analyzeReturnsTheAnalysisOrTheFailure() throws Exception {
+        PathFlowAnalysisService.PathFlowComponents components = new PathFlowAnalysisService.PathFlowComponents(
+            List.of(), List.of("/api/orders"), List.of(), List.of(), List.of(), List.of(), Map.of("steps", 1));
+        when(pathFlowAnalysisService.analyzePathFlow("kepler-app", "1. POST /api/orders", List.of("springbackend"), Map.of()))
+            .thenReturn(new PathFlowAnalysisService.PathFlowAnalysisResult(components, List.of(), List.of(), List.of(),
+                new PathFlowAnalysisService.CoverageMetrics(1, 0, 0, 0, 0, 0.0, 0.0)));
+        
+        mockMvc.perform(post("/api/path-flow/analyze").contentType(MediaType.APPLICATION_JSON).content(FLOW_REQUEST))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.components.apiEndpoints[0]").value("/api/orders"))
+            .andExpect(jsonPath("$.data.metrics.totalServices").value(1));
+        
+        when(pathFlowAnalysisService.analyzePathFlow(anyString(), anyString(), any(), any()))
+            .thenThrow(new RuntimeException("Failed to analyze path flow"));
+        mockMvc.perform(post("/api/path-flow/analyze").contentType(MediaType.APPLICATION_JSON).content(FLOW_REQUEST))
+            .andExpect(status().isInternalServerError())
+            .andExpect(jsonPath("$.error.message").value("Failed to analyze path flow: Failed to analyze path flow"));
+    }
+    
+    @Test
+    void cacheStatsReportDisabledCaching() throws Exception {
+        when(pathFlowAnalysisService.getCacheStats()).thenReturn(null);
+        mockMvc.perform(get("/api/path-flow/cache-stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.enabled").value(false));
+        
+        when(pathFlowAnalysisService.getCacheStats()).thenReturn(Map.of("analyses", Map.of("hits", 3)));
+        mockMvc.perform(get("/api/path-flow/cache-stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.analyses.hits").value(3));
+    }
+    
+    @Test
+    void orchestrationAndPipelineRunsWaitForTheirResult() throws Exception {
+        when(testOrchestrationService.orchestrateTests(eq("1. POST /api/orders"), any(), any()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(testOrchestrationService.executeCICDTests(eq("build-7"), eq("main"), any(), any()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("runner offline")));
+        
+        mockMvc.perform(post("/api/path-flow/orchestrate").contentType(MediaType.APPLICATION_JSON).content(FLOW_REQUEST))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("Test orchestration completed"));
+        mockMvc.perform(post("/api/path-flow/execute-cicd").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"pipelineId\":\"build-7\",\"branch\":\"main\",\"pathFlow\":\"1. POST /api/orders\"}"))
+            .andExpect(status().isInternalServerError())
+            .andExpect(jsonPath("$.success").value(false));
+    }
+    
+    @Test
+    void reportsAreGeneratedForTheFlow() throws Exception {
+        when(unifiedReportingService.generateReports(any(), anyString(), eq("1. POST /api/orders")))
+            .thenThrow(new IllegalStateException("report directory missing"));
+        
+        mockMvc.perform(post("/api/path-flow/generate-reports").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"orchestrationResultId\":\"run-1\",\"pathFlow\":\"1. POST /api/orders\"}"))
+            .andExpect(status().isInternalServerError())
+            .andExpect(jsonPath("$.error.message").value("Failed to generate reports: report directory missing"));
+    }
+    
+    @Test
+    void staticDashboardsAreServed() throws Exception {
+        mockMvc.perform(get("/api/path-flow/quality-gates"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.totalGates").value(5));
+        mockMvc.perform(get("/api/path-flow/metrics"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.overall.totalTests").value(156));
+        mockMvc.perform(post("/api/path-flow/validate").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"pathFlow\":\"1. POST /api/orders\",\"services\":[]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.valid").value(true));
+    }
+}
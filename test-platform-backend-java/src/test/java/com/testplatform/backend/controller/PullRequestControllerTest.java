@@ -0,0 +1,125 @@
+package com.testplatform.backend.controller;
+
+import com.testplatform.backend.enums.TestType;
+import com.testplatform.backend.exception.GlobalExceptionHandler;
+import com.testplatform.backend.exception.ResourceNotFoundException;
+import com.testplatform.backend.model.PullRequest;
+import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.model.TestSuite;
+import com.testplatform.backend.service.CodeAnalyzerService;
+import com.testplatform.backend.service.GitService;
+import com.testplatform.backend.service.PullRequestService;
+import com.testplatform.backend.service.TestExecutionService;
+import com.testplatform.backend.service.TestGenerationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pull request endpoints, test generation from the changed files in particular
+ */
+class PullRequestControllerTest {
+    
+    private static final String ORDERS = String.join("\n",
+        "// Language: java",
+        "// File: src/Orders.java",
+        "",
+        "public class Orders {",
+        "    public int total(int a) {",
+        "        return a + 1;",
+        "    }",
+        "}",
+        "");
+    
+    private final PullRequestService pullRequestService = mock(PullRequestService.class);
+    private final TestGenerationService testGenerationService = mock(TestGenerationService.class);
+    private final GitService gitService = mock(GitService.class);
+    private final TestExecutionService testExecutionService = mock(TestExecutionService.class);
+    private final PullRequest pr = new PullRequest(7, "Fix totals", "feature/orders", "ana@example.com");
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void wire() {
+        PullRequestController controller = new PullRequestController();
+        ReflectionTestUtils.setField(controller, "pullRequestService", pullRequestService);
+        ReflectionTestUtils.setField(controller, "testGenerationService", testGenerationService);
+        ReflectionTestUtils.setField(controller, "gitService", gitService);
+        ReflectionTestUtils.setField(controller, "codeAnalyzerService", new CodeAnalyzerService());
+        ReflectionTestUtils.setField(controller, "testExecutionService", testExecutionService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new GlobalExceptionHandler()).build();
+        
+        pr.setId(1L);
+        when(pullRequestService.getPullRequest(1L)).thenReturn(pr);
+        when(pullRequestService.getPullRequest(2L)).thenThrow(new ResourceNotFoundException("Pull request not found"));
+        when(testGenerationService.saveTestSuite(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+    
+    @Test
+    void generationReadsTheChangedFilesOnceAndTargetsTheTouchedMethods() throws Exception {
+        PullRequest.ChangedFile orders = new PullRequest.ChangedFile("src/Orders.java", 1, 1);
+        orders.setPatch("@@ -3 +3 @@\n-        return a;\n+        return a + 1;\n");
+        pr.setChangedFiles(List.of(orders, new PullRequest.ChangedFile("src/Notes.java", 1, 0)));
+        when(gitService.getCodeContentsWithLanguage(anyList(), any()))
+            .thenReturn(Map.of("src/Orders.java", ORDERS, "src/Notes.java", "// notes"));
+        TestCase test = new TestCase();
+        test.setName("adds one");
+        when(testGenerationService.generateTestCases(ORDERS, TestType.INTEGRATION, "java", "src/Orders.java", Set.of("total(int)")))
+            .thenReturn(CompletableFuture.completedFuture(List.of(test)));
+        when(testGenerationService.generateTestCases(any(), any(), any(), any(), isNull()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("model offline")));
+        
+        mockMvc.perform(post("/api/pull-requests/1/tests/generate").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"language\": \"java\", \"testType\": \"INTEGRATION\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("Generated 2 test suites"))
+            .andExpect(jsonPath("$.data[0].filePath").value("src/Orders.java"))
+            .andExpect(jsonPath("$.data[0].testCases[0].name").value("adds one"))
+            .andExpect(jsonPath("$.data[1].prNumber").value(7));
+        verify(gitService, times(1)).getCodeContentsWithLanguage(List.of("src/Orders.java", "src/Notes.java"), "feature/orders");
+        verify(testGenerationService, times(2)).saveTestSuite(any());
+    }
+    
+    @Test
+    void pullRequestsAreListedFetchedAndDeleted() throws Exception {
+        TestSuite suite = new TestSuite();
+        suite.setId("s1");
+        when(pullRequestService.getAllPullRequests()).thenReturn(List.of(pr));
+        when(testGenerationService.getTestsForPR(7)).thenReturn(List.of(suite));
+        when(testExecutionService.executeTestsForPR(7, "feature/orders")).thenReturn(CompletableFuture.completedFuture("exec-1"));
+        
+        mockMvc.perform(get("/api/pull-requests"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(1))
+            .andExpect(jsonPath("$.data[0].title").value("Fix totals"));
+        mockMvc.perform(get("/api/pull-requests/1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.generatedTests[0].id").value("s1"));
+        mockMvc.perform(get("/api/pull-requests/2")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/pull-requests/1/tests/execute"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.executionId").value("exec-1"));
+        mockMvc.perform(delete("/api/pull-requests/1")).andExpect(status().isOk());
+        verify(pullRequestService).deletePullRequest(1L);
+    }
+}
@@ -0,0 +1,190 @@
+package com.testplatform.backend.controller;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.exception.GlobalExceptionHandler;
+import com.testplatform.backend.model.TestExecution;
+import com.testplatform.backend.service.TestExecutionService;
+import com.testplatform.backend.service.TestSuiteStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test execution endpoints, including validation of the streamed test case pages
+ */
+class TestExecutionControllerTest {
+    
+    private final TestExecutionService testExecutionService = mock(TestExecutionService.class);
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void wire() {
+        MultiRepositoryConfig multiRepositoryConfig = new MultiRepositoryConfig();
+        multiRepositoryConfig.setDefaultRepository("kepler-app");
+        
+        TestExecutionController controller = new TestExecutionController();
+        ReflectionTestUtils.setField(controller, "testExecutionService", testExecutionService);
+        ReflectionTestUtils.setField(controller, "multiRepositoryConfig", multiRepositoryConfig);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new GlobalExceptionHandler()).build();
+        
+        when(testExecutionService.parseTestStatus("failed")).thenReturn(TestStatus.FAILED);
+    }
+    
+    @Test
+    void pagesAreStreamedWithTheSelectedFields() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"items\":[],\"nextCursor\":null}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(testExecutionService).writeTestCaseResultsPage(any(), anyString(), any(), any(), anyInt(), any());
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("2024-03-10T12:00|5|2".getBytes(StandardCharsets.UTF_8));
+        
+        MvcResult result = mockMvc.perform(get("/api/test-executions/test-cases/page").param("status", "failed")
+                .param("cursor", cursor).param("limit", "20").param("fields", "id", "code"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().json("{\"items\":[],\"nextCursor\":null}"));
+        
+        ArgumentCaptor<TestSuiteStore.TestCaseKey> after = ArgumentCaptor.forClass(TestSuiteStore.TestCaseKey.class);
+        verify(testExecutionService).writeTestCaseResultsPage(any(), eq("kepler-app"), eq(TestStatus.FAILED),
+            after.capture(), eq(20), eq(Set.of("id", "code")));
+        assertThat(after.getValue().encode()).isEqualTo(cursor);
+    }
+    
+    @Test
+    void pagesDefaultToAllFieldsButTheCode() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/test-executions/test-cases/page").param("repository", "shared-services"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        
+        verify(testExecutionService).writeTestCaseResultsPage(any(), eq("shared-services"), isNull(), isNull(), eq(100),
+            eq(TestExecutionService.DEFAULT_TEST_CASE_FIELDS));
+    }
+    
+    @Test
+    void invalidPageRequestsAreRejectedBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/test-executions/test-cases/page").param("status", "flaky"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.message").value("Unknown test status: flaky"));
+        mockMvc.perform(get("/api/test-executions/test-cases/page").param("cursor", "not-a-cursor"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.message").value("Invalid cursor: not-a-cursor"));
+        mockMvc.perform(get("/api/test-executions/test-cases/page").param("limit", "0"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.message").value("limit must be between 1 and 10000"));
+        mockMvc.perform(get("/api/test-executions/test-cases/page").param("fields", "id", "secret"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.message").value("Unknown fields: [secret]"));
+        
+        verify(testExecutionService).parseTestStatus("flaky");
+    }
+    
+    @Test
+    void resultsAndSummariesComeFromTheService() throws Exception {
+        TestExecution execution = new TestExecution();
+        execution.setId("run-1");
+        when(testExecutionService.getAllExecutions()).thenReturn(List.of(execution));
+        when(testExecutionService.getDetailedTestCaseResults("failed", "kepler-app")).thenReturn(List.of());
+        when(testExecutionService.getTestCaseResultsSummary()).thenReturn(Map.of("total", 4));
+        when(testExecutionService.getExecutionStatus("run-1")).thenReturn(Optional.of(execution));
+        when(testExecutionService.getExecutionStatus("run-2")).thenReturn(Optional.empty());
+        
+        mockMvc.perform(get("/api/test-executions"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data[0].id").value("run-1"));
+        mockMvc.perform(get("/api/test-executions/test-cases").param("status", "failed").param("repository", "kepler-app"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.length()").value(0));
+        mockMvc.perform(get("/api/test-executions/test-cases/summary"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.total").value(4));
+        mockMvc.perform(get("/api/test-executions/run-1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.id").value("run-1"));
+        mockMvc.perform(get("/api/test-executions/run-2"))
+            .andExpect(status().isNotFound());
+        
+        when(testExecutionService.getAllExecutions()).thenThrow(new IllegalStateException("store closed"));
+        when(testExecutionService.getDetailedTestCaseResults(any(), any())).thenThrow(new IllegalStateException("store closed"));
+        when(testExecutionService.getTestCaseResultsSummary()).thenThrow(new IllegalStateException("store closed"));
+        mockMvc.perform(get("/api/test-executions"))
+            .andExpect(status().isInternalServerError());
+        mockMvc.perform(get("/api/test-executions/test-cases"))
+            .andExpect(status().isInternalServerError());
+        mockMvc.perform(get("/api/test-executions/test-cases/summary"))
+            .andExpect(status().isInternalServerError());
+    }
+    
+    @Test
+    void executionsStartFromASuiteOrAPullRequestAndCanBeStopped() throws Exception {
+        when(testExecutionService.executeTestSuite("suite-1")).thenReturn(CompletableFuture.completedFuture("run-1"));
+        when(testExecutionService.executeTestsForPR(7, "feature/orders")).thenReturn(CompletableFuture.completedFuture("run-2"));
+        when(testExecutionService.stopExecution("run-1")).thenReturn(true);
+        when(testExecutionService.stopExecution("run-2")).thenThrow(new IllegalStateException("runner offline"));
+        
+        mockMvc.perform(post("/api/test-executions").contentType(MediaType.APPLICATION_JSON).content("{\"suiteId\":\"suite-1\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.executionId").value("run-1"));
+        mockMvc.perform(post("/api/test-executions").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"prNumber\":7,\"branch\":\"feature/orders\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.executionId").value("run-2"));
+        mockMvc.perform(post("/api/test-executions").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.message").value("Either suiteId or prNumber is required"));
+        
+        mockMvc.perform(post("/api/test-executions/run-1/stop"))
+            .andExpect(status().isOk());
+        mockMvc.perform(post("/api/test-executions/run-3/stop"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/test-executions/run-2/stop"))
+            .andExpect(status().isInternalServerError());
+    }
+    
+    @Test
+    void failedStartsAreReported() throws Exception {
+        when(testExecutionService.executeTestSuite("suite-1"))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("suite not found")));
+        
+        mockMvc.perform(post("/api/test-executions").contentType(MediaType.APPLICATION_JSON).content("{\"suiteId\":\"suite-1\"}"))
+            .andExpect(status().isInternalServerError())
+            .andExpect(jsonPath("$.error.message").value("Failed to start test execution"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.testplatform.backend.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLogStoreTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Test
+    void replaysPutsAndDeletesInOrder() throws Exception {
+        JsonLogStore<String> store = open();
+        store.put("a", "one");
+        store.put("b", "two");
+        store.put("a", "three");
+        store.delete("b");
+        store.put("c", "four");
+        assertThat(store.pendingCount()).isEqualTo(5);
+        assertThat(store.flush()).isEqualTo(5);
+        assertThat(store.pendingCount()).isZero();
+        assertThat(store.flush()).isZero();
+        
+        Map<String, String> loaded = open().load();
+        assertThat(loaded).containsExactly(Map.entry("a", "three"), Map.entry("c", "four"));
+    }
+    
+    @Test
+    void missingFileLoadsEmpty() throws Exception {
+        assertThat(open().load()).isEmpty();
+        assertThat(Files.exists(log())).isFalse();
+    }
+    
+    @Test
+    void tornLastLineIsDroppedAndTheLogRewritten() throws Exception {
+        JsonLogStore<String> store = open();
+        store.put("a", "one");
+        store.put("b", "two");
+        store.flush();
+        Files.writeString(log(), "{\"op\":\"put\",\"id\":\"c\",\"val", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        
+        JsonLogStore<String> reopened = open();
+        assertThat(reopened.load()).containsOnlyKeys("a", "b");
+        assertThat(Files.readAllLines(log())).hasSize(2);
+        
+        // Appending after the rewrite must not merge into the torn line
+        reopened.put("d", "four");
+        reopened.flush();
+        assertThat(open().load()).containsOnlyKeys("a", "b", "d");
+    }
+    
+    @Test
+    void unreadableLineInTheMiddleIsSkipped() throws Exception {
+        Files.writeString(log(), String.join("\n",
+            "{\"op\":\"put\",\"id\":\"a\",\"value\":\"one\"}",
+            "not json",
+            "",
+            "{\"op\":\"put\",\"id\":\"b\",\"value\":\"two\"}",
+            ""), StandardCharsets.UTF_8);
+        
+        assertThat(open().load()).containsOnlyKeys("a", "b");
+        assertThat(Files.readAllLines(log())).hasSize(2);
+    }
+    
+    @Test
+    void compactionKeepsOneLinePerLiveRecord() throws Exception {
+        JsonLogStore<String> store = open();
+        for (int i = 0; i < 10; i++) {
+            store.put("a", "v" + i);
+        }
+        store.put("b", "kept");
+        store.flush();
+        assertThat(store.needsCompaction(2, 100)).isFalse();
+        assertThat(store.needsCompaction(2, 5)).isTrue();
+        assertThat(store.needsCompaction(6, 5)).isFalse();
+        
+        // Queued lines are already in the snapshot, so compaction drops them
+        store.put("c", "queued");
+        Map<String, String> live = new LinkedHashMap<>();
+        live.put("a", "v9");
+        live.put("b", "kept");
+        live.put("c", "queued");
+        store.compact(live);
+        
+        assertThat(store.pendingCount()).isZero();
+        assertThat(store.needsCompaction(3, 1)).isFalse();
+        assertThat(Files.readAllLines(log())).hasSize(3);
+        assertThat(open().load()).isEqualTo(live);
+    }
+    
+    private JsonLogStore<String> open() {
+        return new JsonLogStore<>(log(), String.class, objectMapper);
+    }
+    
+    private Path log() {
+        return tempDir.resolve("records.jsonl");
+    }
+}
@@ -0,0 +1,147 @@
+package com.testplatform.backend.repository;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.enums.ExecutionStatus;
+import com.testplatform.backend.model.TestExecution;
+import com.testplatform.backend.model.TestSuite;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * In-memory indexes of the log-backed repositories and what survives a reopen
+ */
+class LogBackedRepositoryTest {
+    
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+    
+    @TempDir
+    Path tempDir;
+    
+    private final AppProperties appProperties = new AppProperties();
+    private final List<LogBackedRepository<?>> opened = new ArrayList<>();
+    
+    @BeforeEach
+    void configure() {
+        appProperties.getStorage().setDataDir(tempDir.toString());
+        appProperties.getStorage().setFlushIntervalMs(60_000L);
+        appProperties.getStorage().setCompactionMinRecords(10L);
+    }
+    
+    @AfterEach
+    void closeAll() {
+        opened.forEach(LogBackedRepository::close);
+    }
+    
+    @Test
+    void executionIndexesFollowUpdatesAndSurviveReopen() throws Exception {
+        LogTestExecutionRepository executions = open(new LogTestExecutionRepository());
+        executions.save(execution("e1", 1, ExecutionStatus.RUNNING, T0, null));
+        executions.save(execution("e2", 1, ExecutionStatus.COMPLETED, T0.plusMinutes(1), 100L));
+        executions.save(execution("e3", 2, ExecutionStatus.COMPLETED, T0.plusMinutes(2), 300L));
+        executions.save(execution("e1", 1, ExecutionStatus.FAILED, T0, 200L));
+        
+        assertThat(ids(executions.findByPrNumber(1))).containsExactlyInAnyOrder("e1", "e2");
+        assertThat(executions.countByStatus(ExecutionStatus.RUNNING)).isZero();
+        assertThat(executions.countByStatus(ExecutionStatus.COMPLETED)).isEqualTo(2);
+        assertThat(executions.getAverageDuration()).isEqualTo(200.0);
+        assertThat(ids(executions.findByStartTimeBetween(T0.plusMinutes(1), null))).containsExactly("e2", "e3");
+        assertThat(ids(executions.findRecent(2))).containsExactly("e3", "e2");
+        executions.close();
+        
+        LogTestExecutionRepository reopened = open(new LogTestExecutionRepository());
+        assertThat(reopened.count()).isEqualTo(3);
+        assertThat(reopened.findById("e1")).get().extracting(TestExecution::getStatus).isEqualTo(ExecutionStatus.FAILED);
+        assertThat(ids(reopened.findByStatus(ExecutionStatus.FAILED))).containsExactly("e1");
+        assertThat(reopened.getAverageDuration()).isEqualTo(200.0);
+    }
+    
+    @Test
+    void deleteOlderThanAppliesTheCutoffThenTheCap() throws Exception {
+        LogTestExecutionRepository executions = open(new LogTestExecutionRepository());
+        for (int i = 0; i < 6; i++) {
+            executions.save(execution("e" + i, i, ExecutionStatus.COMPLETED, T0.plusHours(i), 10L));
+        }
+        
+        assertThat(executions.deleteOlderThan(T0.plusHours(2), 0)).isEqualTo(2);
+        assertThat(executions.deleteOlderThan(T0.plusHours(2), 3)).isEqualTo(1);
+        assertThat(ids(executions.findAll())).containsExactly("e3", "e4", "e5");
+        assertThat(executions.findByPrNumber(2)).isEmpty();
+        assertThat(executions.deleteOlderThan(null, 3)).isZero();
+        executions.close();
+        
+        assertThat(ids(open(new LogTestExecutionRepository()).findAll())).containsExactly("e3", "e4", "e5");
+    }
+    
+    @Test
+    void flushCompactsAMostlyStaleLog() throws Exception {
+        LogTestExecutionRepository executions = open(new LogTestExecutionRepository());
+        for (int i = 0; i < 20; i++) {
+            executions.save(execution("e1", 1, ExecutionStatus.RUNNING, T0, (long) i));
+        }
+        executions.flush();
+        
+        Path log = tempDir.resolve("test-executions.jsonl");
+        assertThat(Files.readAllLines(log)).hasSize(1);
+        assertThat(open(new LogTestExecutionRepository()).findById("e1")).get()
+            .extracting(TestExecution::getDuration).isEqualTo(19L);
+    }
+    
+    @Test
+    void generatedSuitesAreGroupedByRepositoryAndDeletedByPr() throws Exception {
+        LogGeneratedTestSuiteRepository suites = open(new LogGeneratedTestSuiteRepository());
+        suites.save("kepler", suite("1", 7));
+        suites.save("kepler", suite("2", 8));
+        suites.save("shared", suite("3", 7));
+        
+        assertThat(suites.deleteByPr("kepler", 7)).isEqualTo(1);
+        assertThat(suites.deleteByPr("kepler", 7)).isZero();
+        assertThat(suites.contains("1")).isFalse();
+        suites.close();
+        
+        Map<String, List<TestSuite>> byRepository = open(new LogGeneratedTestSuiteRepository()).findAllByRepository();
+        assertThat(byRepository.keySet()).containsExactly("kepler", "shared");
+        assertThat(byRepository.get("kepler")).extracting(TestSuite::getId).containsExactly("2");
+        assertThat(byRepository.get("shared")).extracting(TestSuite::getId).containsExactly("3");
+    }
+    
+    private <R extends LogBackedRepository<?>> R open(R repository) throws Exception {
+        ReflectionTestUtils.setField(repository, "appProperties", appProperties);
+        repository.open();
+        opened.add(repository);
+        return repository;
+    }
+    
+    private static TestExecution execution(String id, Integer prNumber, ExecutionStatus status, LocalDateTime startTime, Long duration) {
+        TestExecution execution = new TestExecution(prNumber, "main");
+        execution.setId(id);
+        execution.setStatus(status);
+        execution.setStartTime(startTime);
+        execution.setDuration(duration);
+        return execution;
+    }
+    
+    private static TestSuite suite(String id, Integer prNumber) {
+        TestSuite suite = new TestSuite();
+        suite.setId(id);
+        suite.setName("Suite " + id);
+        suite.setPrNumber(prNumber);
+        return suite;
+    }
+    
+    private static List<String> ids(List<TestExecution> executions) {
+        return executions.stream().map(TestExecution::getId).collect(Collectors.toList());
+    }
+}
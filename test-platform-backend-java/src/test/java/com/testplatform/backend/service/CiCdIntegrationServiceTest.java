@@ -0,0 +1,172 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.enums.TestType;
+import com.testplatform.backend.model.TestCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Webhooks read every testable changed file in one call, then generate, run and report tests
+ */
+class CiCdIntegrationServiceTest {
+    
+    private final CiCdIntegrationService service = new CiCdIntegrationService();
+    private final TestGenerationService testGenerationService = mock(TestGenerationService.class);
+    private final TestExecutionEngine testExecutionEngine = mock(TestExecutionEngine.class);
+    private final MultiRepositoryService multiRepositoryService = mock(MultiRepositoryService.class);
+    private MockRestServiceServer server;
+    
+    @BeforeEach
+    void wire() {
+        ReflectionTestUtils.setField(service, "testGenerationService", testGenerationService);
+        ReflectionTestUtils.setField(service, "testExecutionEngine", testExecutionEngine);
+        ReflectionTestUtils.setField(service, "multiRepositoryService", multiRepositoryService);
+        server = MockRestServiceServer.bindTo((RestTemplate) ReflectionTestUtils.getField(service, "restTemplate")).build();
+        
+        when(multiRepositoryService.getCodeContents(eq("default"), anyList(), anyString()))
+            .thenReturn(Map.of("src/Orders.java", "class Orders {}", "web/app.ts", "export const app = 1;"));
+        when(testGenerationService.generateTestCases(anyString(), any(TestType.class), anyString(), anyString()))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(List.of(test(invocation.getArgument(3)))));
+        when(testExecutionEngine.executeTests(eq("default"), eq("java"), eq("spring-boot"), anyList()))
+            .thenReturn(CompletableFuture.completedFuture(new TestExecutionEngine.TestExecutionResult(3, 1, 4,
+                List.of("OrdersTest.total"))));
+    }
+    
+    @Test
+    void gitHubPullRequestFilesAreReadOnceAndResultsPosted() throws Exception {
+        server.expect(requestTo("https://api.github.com/repos/acme/kepler/issues/7/comments"))
+            .andExpect(method(HttpMethod.POST))
+            .andExpect(jsonPath("$.body").value(containsString("**Passed:** 3")))
+            .andExpect(jsonPath("$.body").value(containsString("- OrdersTest.total")))
+            .andRespond(withSuccess());
+        
+        CiCdIntegrationService.GitHubWebhookPayload payload = new CiCdIntegrationService.GitHubWebhookPayload();
+        payload.setAction("opened");
+        CiCdIntegrationService.GitHubPullRequest pr = new CiCdIntegrationService.GitHubPullRequest();
+        pr.setNumber(7);
+        CiCdIntegrationService.GitHubHead head = new CiCdIntegrationService.GitHubHead();
+        head.setRef("feature/orders");
+        pr.setHead(head);
+        pr.setChangedFiles(List.of(gitHubFile("src/Orders.java"), gitHubFile("README.md"), gitHubFile("src/Missing.java")));
+        payload.setPullRequest(pr);
+        CiCdIntegrationService.GitHubRepository repository = new CiCdIntegrationService.GitHubRepository();
+        repository.setFullName("acme/kepler");
+        payload.setRepository(repository);
+        
+        CiCdIntegrationService.WebhookResult result = service.handleGitHubWebhook(payload).get();
+        
+        assertThat(result.isSuccess()).isTrue();
+        verify(multiRepositoryService).getCodeContents("default", List.of("src/Orders.java", "src/Missing.java"), "feature/orders");
+        verify(testGenerationService).generateTestCases("class Orders {}", TestType.UNIT, "java", "src/Orders.java");
+        verify(testGenerationService).generateTestCases("class Orders {}", TestType.INTEGRATION, "java", "src/Orders.java");
+        verify(testGenerationService, never()).generateTestCases(anyString(), any(TestType.class), anyString(), eq("src/Missing.java"));
+        verify(testExecutionEngine).executeTests(eq("default"), eq("java"), eq("spring-boot"),
+            argThat(tests -> tests.size() == 2 && tests.stream().allMatch(test -> "src/Orders.java".equals(test.getFilePath()))));
+        server.verify();
+        
+        payload.setAction("closed");
+        assertThat(service.handleGitHubWebhook(payload).get().getMessage()).isEqualTo("Action not supported: closed");
+    }
+    
+    @Test
+    void gitLabMergeRequestFilesAreReadOnceAndResultsPosted() throws Exception {
+        server.expect(requestTo("https://gitlab.com/api/v4/projects/42/merge_requests/3/notes"))
+            .andExpect(jsonPath("$.body").value(containsString("**Total:** 4")))
+            .andRespond(withServerError());
+        
+        CiCdIntegrationService.GitLabWebhookPayload payload = new CiCdIntegrationService.GitLabWebhookPayload();
+        CiCdIntegrationService.GitLabMergeRequest mr = new CiCdIntegrationService.GitLabMergeRequest();
+        mr.setIid(3);
+        mr.setState("open");
+        mr.setSourceBranch("feature/web");
+        CiCdIntegrationService.GitLabFile file = new CiCdIntegrationService.GitLabFile();
+        file.setNewPath("web/app.ts");
+        mr.setChangedFiles(List.of(file));
+        payload.setMergeRequest(mr);
+        CiCdIntegrationService.GitLabProject project = new CiCdIntegrationService.GitLabProject();
+        project.setId("42");
+        payload.setProject(project);
+        
+        // A failed comment post does not fail the webhook
+        assertThat(service.handleGitLabWebhook(payload).get().isSuccess()).isTrue();
+        verify(multiRepositoryService).getCodeContents("default", List.of("web/app.ts"), "feature/web");
+        verify(testGenerationService).generateTestCases("export const app = 1;", TestType.UNIT, "typescript", "web/app.ts");
+        server.verify();
+        
+        mr.setState("merged");
+        assertThat(service.handleGitLabWebhook(payload).get().isSuccess()).isFalse();
+    }
+    
+    @Test
+    void bitbucketPullRequestFilesAreReadOnceAndExecutionFailuresReported() throws Exception {
+        when(testExecutionEngine.executeTests(eq("default"), eq("java"), eq("spring-boot"), anyList()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("no runner")));
+        server.expect(requestTo("https://api.bitbucket.org/2.0/repositories/acme/kepler/pullrequests/9/comments"))
+            .andExpect(header("Authorization", containsString("Bearer ")))
+            .andExpect(jsonPath("$.content.raw").value(containsString("Test execution failed")))
+            .andRespond(withSuccess());
+        
+        CiCdIntegrationService.BitbucketWebhookPayload payload = new CiCdIntegrationService.BitbucketWebhookPayload();
+        CiCdIntegrationService.BitbucketPullRequest pr = new CiCdIntegrationService.BitbucketPullRequest();
+        pr.setId("9");
+        pr.setState("updated");
+        CiCdIntegrationService.BitbucketBranch branch = new CiCdIntegrationService.BitbucketBranch();
+        branch.setName("feature/bb");
+        CiCdIntegrationService.BitbucketSource source = new CiCdIntegrationService.BitbucketSource();
+        source.setBranch(branch);
+        pr.setSource(source);
+        CiCdIntegrationService.BitbucketFile file = new CiCdIntegrationService.BitbucketFile();
+        file.setPath("src/Orders.java");
+        pr.setChangedFiles(List.of(file));
+        payload.setPullRequest(pr);
+        CiCdIntegrationService.BitbucketRepository repository = new CiCdIntegrationService.BitbucketRepository();
+        repository.setFullName("acme/kepler");
+        payload.setRepository(repository);
+        
+        assertThat(service.handleBitbucketWebhook(payload).get().isSuccess()).isTrue();
+        verify(multiRepositoryService).getCodeContents("default", List.of("src/Orders.java"), "feature/bb");
+        server.verify();
+        
+        pr.setState("declined");
+        assertThat(service.handleBitbucketWebhook(payload).get().getMessage()).isEqualTo("State not supported: declined");
+    }
+    
+    private static CiCdIntegrationService.GitHubFile gitHubFile(String filename) {
+        CiCdIntegrationService.GitHubFile file = new CiCdIntegrationService.GitHubFile();
+        file.setFilename(filename);
+        return file;
+    }
+    
+    private static TestCase test(String filePath) {
+        TestCase test = new TestCase();
+        test.setId(filePath);
+        test.setFilePath(filePath);
+        return test;
+    }
+}
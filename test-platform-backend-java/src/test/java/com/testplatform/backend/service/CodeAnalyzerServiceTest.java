@@ -0,0 +1,141 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.service.CodeAnalyzerService.CodeAnalysisResult;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CodeAnalyzerServiceTest {
+    
+    private final CodeAnalyzerService analyzer = new CodeAnalyzerService();
+    
+    @Test
+    void codeInsideStringsIsNotAnalyzed() {
+        CodeAnalysisResult result = analyzer.analyzeStructure(String.join("\n",
+            "public class Greeter {",
+            "    private String template = \"public class Fake { public void run() { if (x) throw new Oops(); }\";",
+            "    private char brace = '{';",
+            "    private String escaped = \"quote \\\" class Escaped {\";",
+            "    public String greet(String name) {",
+            "        return template + \"}\" + name;",
+            "    }",
+            "}"), "java");
+        
+        assertThat(result.getClasses()).containsExactly("Greeter");
+        assertThat(result.getMethods()).containsExactly("greet");
+        assertThat(result.getTestableMethods()).containsExactly("greet");
+        assertThat(result.getExceptions()).isEmpty();
+        assertThat(result.getComplexity()).isZero();
+    }
+    
+    @Test
+    void textBlocksAreSkippedAcrossLines() {
+        CodeAnalysisResult result = analyzer.analyzeStructure(String.join("\n",
+            "public class Queries {",
+            "    private static final String SQL = \"\"\"",
+            "        select * from orders -- if (closed) { }",
+            "        where note = \"class Hidden {\"",
+            "        \"\"\";",
+            "    public void load() {",
+            "        if (SQL == null) throw new IllegalStateException(SQL);",
+            "    }",
+            "}"), "java");
+        
+        assertThat(result.getClasses()).containsExactly("Queries");
+        assertThat(result.getMethods()).containsExactly("load");
+        assertThat(result.getExceptions()).containsExactly("IllegalStateException");
+        assertThat(result.getComplexity()).isEqualTo(1);
+        assertThat(result.getBusinessLogic()).contains("input_validation", "exception_handling");
+    }
+    
+    @Test
+    void commentsAreNotAnalyzed() {
+        CodeAnalysisResult result = analyzer.analyzeStructure(String.join("\n",
+            "/**",
+            " * Old: public class Legacy { public void run() { } }",
+            " * @author someone, @see Other",
+            " */",
+            "public class Modified { // class Trailing {",
+            "    /* if (verified) { throw new Nope(); } */",
+            "    public void notify(String user) { }",
+            "}"), "java");
+        
+        assertThat(result.getClasses()).containsExactly("Modified");
+        assertThat(result.getMethods()).containsExactly("notify");
+        assertThat(result.getAnnotations()).isEmpty();
+        assertThat(result.getExceptions()).isEmpty();
+        // "if" inside "Modified" and "notify" is not a branch
+        assertThat(result.getComplexity()).isZero();
+    }
+    
+    @Test
+    void genericSignaturesAreMethods() {
+        CodeAnalysisResult result = analyzer.analyzeStructure(String.join("\n",
+            "public class Index<K extends Comparable<K>> {",
+            "    public <T extends Order> Map<String, List<T>> group(Map<K, List<T>> source, int limit) throws IOException {",
+            "        return new HashMap<>();",
+            "    }",
+            "    public static <T> List<T> empty() { return List.of(); }",
+            "    public String getName() { return name; }",
+            "}"), "java");
+        
+        assertThat(result.getClasses()).containsExactly("Index");
+        assertThat(result.getMethods()).containsExactly("group", "empty", "getName");
+        assertThat(result.getTestableMethods()).containsExactly("group");
+        assertThat(result.getBusinessLogic()).contains("data_transformation");
+    }
+    
+    @Test
+    void annotationsAndInjectedDependencies() {
+        CodeAnalysisResult result = analyzer.analyzeStructure(String.join("\n",
+            "@Service",
+            "@Transactional(readOnly = true, label = \"@Fake\")",
+            "public class OrderService {",
+            "    @Autowired",
+            "    private OrderRepository orderRepository;",
+            "    public OrderService(@Qualifier(\"fast\") PricingService pricing, String region) { }",
+            "    public @interface Marker { }",
+            "    @Transactional",
+            "    public void cancel(@NotNull String id) { }",
+            "}"), "java");
+        
+        assertThat(result.getAnnotations()).containsExactly("Service", "Transactional", "Autowired", "Qualifier",
+            "Transactional", "NotNull");
+        assertThat(result.getDependencies()).containsExactly("OrderRepository", "PricingService");
+        assertThat(result.getMethods()).containsExactly("OrderService", "cancel");
+        assertThat(result.getBusinessLogic()).contains("external_dependencies");
+    }
+    
+    @Test
+    void pythonCommentsAndTripleQuotedStringsAreSkipped() {
+        CodeAnalysisResult result = analyzer.analyzeStructure(String.join("\n",
+            "import os",
+            "from typing import (",
+            "    List,",
+            ")",
+            "# class Commented:",
+            "class Worker:",
+            "    '''class Docstring:",
+            "    if x: pass'''",
+            "    def run(self):",
+            "        return f\"class {self}\""), "python");
+        
+        assertThat(result.getClasses()).containsExactly("Worker");
+        assertThat(result.getImports()).containsExactly("os", "(\n    List,\n)");
+        assertThat(result.getComplexity()).isZero();
+    }
+    
+    @Test
+    void longDeclarationLineDoesNotOverflowTheStack() {
+        StringBuilder line = new StringBuilder("public class Wide { public");
+        for (int i = 0; i < 20_000; i++) {
+            line.append(" word").append(i);
+        }
+        line.append(" (");
+        
+        CodeAnalysisResult result = analyzer.analyzeStructure(line.toString(), "java");
+        
+        assertThat(result.getClasses()).containsExactly("Wide");
+        assertThat(result.getMethods()).isEmpty();
+    }
+}
@@ -0,0 +1,69 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.event.DashboardTotalsChangedEvent;
+import com.testplatform.backend.event.TestSuitesChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashboardAggregateServiceTest {
+    
+    private final List<DashboardTotalsChangedEvent> published = new CopyOnWriteArrayList<>();
+    private final TestSuiteStore testSuiteStore = new TestSuiteStore();
+    private final DashboardAggregateService service = new DashboardAggregateService();
+    
+    @BeforeEach
+    void wire() {
+        ApplicationEventPublisher publisher = event -> {
+            if (event instanceof TestSuitesChangedEvent) {
+                service.onSuitesChanged((TestSuitesChangedEvent) event);
+            } else if (event instanceof DashboardTotalsChangedEvent) {
+                published.add((DashboardTotalsChangedEvent) event);
+            }
+        };
+        ReflectionTestUtils.setField(testSuiteStore, "eventPublisher", publisher);
+        ReflectionTestUtils.setField(service, "testSuiteStore", testSuiteStore);
+        ReflectionTestUtils.setField(service, "eventPublisher", publisher);
+    }
+    
+    @Test
+    void everyChangePublishesTotalsWithAHigherVersion() throws Exception {
+        testSuiteStore.replaceRepository("repo", List.of(TestExecutionServiceTest.suite("1", 4)), suite -> "Svc");
+        List<Thread> writers = List.of(
+            new Thread(() -> markAll(TestStatus.PASSED)),
+            new Thread(() -> markAll(TestStatus.FAILED)));
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        
+        assertThat(published).hasSize(21);
+        for (int i = 1; i < published.size(); i++) {
+            assertThat(published.get(i).getTotals().getVersion()).isGreaterThan(published.get(i - 1).getTotals().getVersion());
+        }
+        DashboardTotalsChangedEvent last = published.get(published.size() - 1);
+        assertThat(service.getTotals("repo").getVersion()).isEqualTo(last.getTotals().getVersion());
+        assertThat(last.getTotals().getPassed() + last.getTotals().getFailed()).isEqualTo(4);
+    }
+    
+    @Test
+    void unknownRepositoryHasEmptyTotals() {
+        assertThat(service.getTotals("missing").getSuites()).isZero();
+        assertThat(service.getTotals("missing").getVersion()).isZero();
+        assertThat(service.getMaxCoverageOn("missing", LocalDate.now())).isNull();
+    }
+    
+    private void markAll(TestStatus status) {
+        for (int i = 0; i < 10; i++) {
+            testSuiteStore.update("repo", "1", suite -> suite.getTestCases().forEach(testCase -> testCase.setStatus(status)));
+        }
+    }
+}
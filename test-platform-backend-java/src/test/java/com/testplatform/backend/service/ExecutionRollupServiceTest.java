@@ -0,0 +1,188 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.enums.ExecutionStatus;
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.event.TestExecutionEvent;
+import com.testplatform.backend.model.TestExecution;
+import com.testplatform.backend.repository.TestExecutionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Execution rollups, their event log and snapshot, and the backfill from stored executions
+ */
+class ExecutionRollupServiceTest {
+    
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 9, 30);
+    
+    @TempDir
+    Path tempDir;
+    
+    private final TestExecutionRepository testExecutionRepository = mock(TestExecutionRepository.class);
+    private ExecutionRollupService service;
+    private ExecutionRollupService restarted;
+    
+    @BeforeEach
+    void wire() {
+        service = newService();
+    }
+    
+    @AfterEach
+    void stop() {
+        service.shutdown();
+        if (restarted != null) {
+            restarted.shutdown();
+        }
+    }
+    
+    @Test
+    void backfillAttributesExecutionsWithoutARepositoryToTheDefault() {
+        when(testExecutionRepository.findAll()).thenReturn(List.of(
+            execution(null, new TestExecution.TestResults(10, 9, 1, 0)),
+            execution("shared-services", new TestExecution.TestResults(4, 4, 0, 0))));
+        
+        service.init();
+        
+        List<ExecutionRollupService.Bucket> kepler = service.getTrend(ExecutionRollupService.Resolution.DAY, null, null, "kepler-app", null);
+        assertThat(kepler).singleElement().satisfies(bucket -> {
+            assertThat(bucket.getExecutionsStarted()).isEqualTo(1);
+            assertThat(bucket.getTestsPassed()).isEqualTo(9);
+            assertThat(bucket.getTestsFailed()).isEqualTo(1);
+        });
+        List<ExecutionRollupService.Bucket> shared = service.getTrend(ExecutionRollupService.Resolution.DAY, null, null, "shared-services", null);
+        assertThat(shared).singleElement().extracting(ExecutionRollupService.Bucket::getTestsPassed).isEqualTo(4L);
+        assertThat(service.getTrend(ExecutionRollupService.Resolution.DAY, null, null, null, null))
+            .singleElement().extracting(ExecutionRollupService.Bucket::getExecutionsStarted).isEqualTo(2L);
+    }
+    
+    @Test
+    void eventsAreRolledUpPerServiceAndReplayedFromTheLog() throws Exception {
+        service.init();
+        publishRun(service);
+        
+        assertThat(service.getTrend(ExecutionRollupService.Resolution.DAY, null, null, "kepler-app", null))
+            .singleElement().satisfies(bucket -> {
+                assertThat(bucket.getExecutionsStarted()).isEqualTo(1);
+                assertThat(bucket.getExecutionsCompleted()).isEqualTo(1);
+                assertThat(bucket.getExecutionDurationMs()).isEqualTo(900);
+                assertThat(bucket.getTestsPassed()).isEqualTo(2);
+                assertThat(bucket.getTestsFailed()).isEqualTo(1);
+                assertThat(bucket.getTestsSkipped()).isEqualTo(1);
+                assertThat(bucket.getTestDurationMs()).isEqualTo(600);
+                assertThat(bucket.getPassRate()).isCloseTo(66.7, within(0.1));
+            });
+        assertThat(service.getTrend(ExecutionRollupService.Resolution.DAY, null, null, null, "Order Service"))
+            .singleElement().satisfies(bucket -> {
+                assertThat(bucket.getExecutionsStarted()).isZero();
+                assertThat(bucket.getTestsPassed()).isEqualTo(1);
+                assertThat(bucket.getTestsFailed()).isEqualTo(1);
+            });
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        assertThat(service.getTrend(ExecutionRollupService.Resolution.DAY, today.plusDays(1), null, null, null)).isEmpty();
+        assertThat(service.getTrend(ExecutionRollupService.Resolution.DAY, today, today.plusDays(1), "shared-services", null)).isEmpty();
+        
+        service.flush();
+        service.flush();
+        Files.writeString(tempDir.resolve("execution-events.jsonl"), "{\"sequence\":", StandardOpenOption.APPEND);
+        restarted = newService();
+        restarted.init();
+        
+        assertThat(restarted.getTrend(ExecutionRollupService.Resolution.DAY, null, null, "kepler-app", null))
+            .singleElement().satisfies(bucket -> {
+                assertThat(bucket.getExecutionsStarted()).isEqualTo(1);
+                assertThat(bucket.getTestsPassed()).isEqualTo(2);
+            });
+        verify(testExecutionRepository, times(1)).findAll();
+    }
+    
+    @Test
+    void checkpointsTruncateTheLogAndRestartFromTheSnapshot() {
+        service.init();
+        publishRun(service);
+        service.checkpoint();
+        
+        assertThat(tempDir.resolve("execution-rollups.json")).isRegularFile();
+        assertThat(tempDir.resolve("execution-events.jsonl")).doesNotExist();
+        
+        service.onExecutionEvent(TestExecutionEvent.completed("run-2", "kepler-app", ExecutionStatus.FAILED, null));
+        service.flush();
+        restarted = newService();
+        restarted.init();
+        
+        assertThat(restarted.getTrend(ExecutionRollupService.Resolution.DAY, null, null, "kepler-app", null))
+            .singleElement().satisfies(bucket -> {
+                assertThat(bucket.getExecutionsCompleted()).isEqualTo(1);
+                assertThat(bucket.getExecutionsFailed()).isEqualTo(1);
+                assertThat(bucket.getTestsPassed()).isEqualTo(2);
+            });
+    }
+    
+    @Test
+    void unreadableSnapshotsFallBackToTheStoredExecutions() throws Exception {
+        Files.writeString(tempDir.resolve("execution-rollups.json"), "{not json");
+        TestExecution unstarted = execution("kepler-app", null);
+        unstarted.setStartTime(null);
+        TestExecution running = execution("kepler-app", null);
+        running.setEndTime(null);
+        when(testExecutionRepository.findAll()).thenReturn(List.of(unstarted, running));
+        
+        service.init();
+        
+        assertThat(service.getTrend(ExecutionRollupService.Resolution.DAY, null, null, null, null))
+            .singleElement().satisfies(bucket -> {
+                assertThat(bucket.getExecutionsStarted()).isEqualTo(1);
+                assertThat(bucket.getExecutionsCompleted()).isZero();
+            });
+    }
+    
+    private ExecutionRollupService newService() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getStorage().setDataDir(tempDir.toString());
+        MultiRepositoryConfig multiRepositoryConfig = new MultiRepositoryConfig();
+        multiRepositoryConfig.setDefaultRepository("kepler-app");
+        ExecutionRollupService rollups = new ExecutionRollupService();
+        ReflectionTestUtils.setField(rollups, "appProperties", appProperties);
+        ReflectionTestUtils.setField(rollups, "multiRepositoryConfig", multiRepositoryConfig);
+        ReflectionTestUtils.setField(rollups, "testExecutionRepository", testExecutionRepository);
+        return rollups;
+    }
+    
+    private static void publishRun(ExecutionRollupService rollups) {
+        rollups.onExecutionEvent(TestExecutionEvent.started("run-1", "kepler-app", null));
+        rollups.onExecutionEvent(TestExecutionEvent.testFinished("run-1", "kepler-app", "Order Service", "creates", TestStatus.PASSED, 100L));
+        rollups.onExecutionEvent(TestExecutionEvent.testFinished("run-1", "kepler-app", "Order Service", "rejects", TestStatus.FAILED, 200L));
+        rollups.onExecutionEvent(TestExecutionEvent.testFinished("run-1", "kepler-app", "Cart Service", "adds", TestStatus.PASSED, 300L));
+        rollups.onExecutionEvent(TestExecutionEvent.testFinished("run-1", "kepler-app", "Cart Service", "removes", TestStatus.SKIPPED, null));
+        rollups.onExecutionEvent(TestExecutionEvent.completed("run-1", "kepler-app", ExecutionStatus.COMPLETED, 900L));
+    }
+    
+    private static TestExecution execution(String repositoryId, TestExecution.TestResults results) {
+        TestExecution execution = new TestExecution("suite");
+        execution.setRepositoryId(repositoryId);
+        execution.setStatus(ExecutionStatus.COMPLETED);
+        execution.setStartTime(T0);
+        execution.setEndTime(T0.plusSeconds(3));
+        execution.setDuration(3000L);
+        execution.setResults(results);
+        return execution;
+    }
+}
@@ -0,0 +1,232 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.dircache.DirCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Shallow and sparse clones and pulls against a file:// remote
+ */
+class GitServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private final GitService gitService = new GitService();
+    private Path upstreamDir;
+    private Git upstream;
+    
+    @BeforeEach
+    void createUpstream() throws Exception {
+        upstreamDir = tempDir.resolve("upstream");
+        upstream = Git.init().setDirectory(upstreamDir.toFile()).setInitialBranch("main").call();
+        write("src/a/A.java", "class A {}");
+        write("src/a/Old.java", "class Old {}");
+        write("src/b/B.java", "class B {}");
+        write("README.md", "readme");
+        commit("initial");
+    }
+    
+    @Test
+    void sparsePullUpdatesAndRemovesFilesUnderSparsePaths() throws Exception {
+        Path local = tempDir.resolve("sparse");
+        MultiRepositoryConfig.CloneOptions options = options(null, List.of("src/a"));
+        
+        assertThat(gitService.cloneRepository(remoteUrl(), local.toString(), "main", null, null, options)).isTrue();
+        assertThat(local.resolve("src/a/Old.java")).exists();
+        assertThat(local.resolve("src/b")).doesNotExist();
+        assertThat(local.resolve("README.md")).doesNotExist();
+        
+        upstream.rm().addFilepattern("src/a/Old.java").call();
+        write("src/a/A.java", "class A { int x; }");
+        write("src/a/sub/New.java", "class New {}");
+        write("src/b/B2.java", "class B2 {}");
+        commit("update");
+        
+        assertThat(gitService.pullLatestChanges(local.toString(), "main", null, null, options)).isTrue();
+        
+        assertThat(local.resolve("src/a/Old.java")).doesNotExist();
+        assertThat(local.resolve("src/a/sub/New.java")).hasContent("class New {}");
+        assertThat(local.resolve("src/a/A.java")).hasContent("class A { int x; }");
+        assertThat(local.resolve("src/b")).doesNotExist();
+        
+        try (Git git = Git.open(local.toFile())) {
+            DirCache index = git.getRepository().readDirCache();
+            assertThat(index.getEntry("src/a/Old.java")).isNull();
+            assertThat(index.getEntry("src/a/sub/New.java")).isNotNull();
+            assertThat(git.getRepository().resolve("HEAD")).isEqualTo(upstream.getRepository().resolve("HEAD"));
+        }
+    }
+    
+    @Test
+    void shallowPullStaysShallow() throws Exception {
+        commit("second", "src/a/A.java", "class A { int y; }");
+        Path local = tempDir.resolve("shallow");
+        MultiRepositoryConfig.CloneOptions options = options(1, null);
+        
+        assertThat(gitService.cloneRepository(remoteUrl(), local.toString(), "main", null, null, options)).isTrue();
+        assertThat(commitCount(local)).isEqualTo(1);
+        
+        upstream.rm().addFilepattern("src/a/Old.java").call();
+        commit("third");
+        commit("fourth", "src/b/B.java", "class B { int z; }");
+        
+        assertThat(gitService.pullLatestChanges(local.toString(), "main", null, null, options)).isTrue();
+        
+        assertThat(commitCount(local)).isEqualTo(1);
+        assertThat(local.resolve("src/a/Old.java")).doesNotExist();
+        assertThat(local.resolve("src/b/B.java")).hasContent("class B { int z; }");
+        assertThat(local.resolve("README.md")).exists();
+    }
+    
+    @Test
+    void pullsKeepUncommittedChangesToTrackedFiles() throws Exception {
+        Path sparse = tempDir.resolve("sparse");
+        Path shallow = tempDir.resolve("shallow");
+        MultiRepositoryConfig.CloneOptions sparseOptions = options(null, List.of("src/a"));
+        MultiRepositoryConfig.CloneOptions shallowOptions = options(1, null);
+        assertThat(gitService.cloneRepository(remoteUrl(), sparse.toString(), "main", null, null, sparseOptions)).isTrue();
+        assertThat(gitService.cloneRepository(remoteUrl(), shallow.toString(), "main", null, null, shallowOptions)).isTrue();
+        commit("update", "src/a/A.java", "class A { int upstream; }");
+        
+        Files.writeString(sparse.resolve("src/a/A.java"), "class A { int local; }");
+        Files.writeString(shallow.resolve("src/a/A.java"), "class A { int local; }");
+        
+        assertThat(gitService.pullLatestChanges(sparse.toString(), "main", null, null, sparseOptions)).isFalse();
+        assertThat(gitService.pullLatestChanges(shallow.toString(), "main", null, null, shallowOptions)).isFalse();
+        assertThat(sparse.resolve("src/a/A.java")).hasContent("class A { int local; }");
+        assertThat(shallow.resolve("src/a/A.java")).hasContent("class A { int local; }");
+        
+        // Untracked files and paths outside the sparse checkout don't hold the pull back
+        Files.writeString(sparse.resolve("src/a/A.java"), "class A {}");
+        Files.writeString(sparse.resolve("src/a/LocalTest.java"), "class LocalTest {}");
+        assertThat(gitService.pullLatestChanges(sparse.toString(), "main", null, null, sparseOptions)).isTrue();
+        assertThat(sparse.resolve("src/a/A.java")).hasContent("class A { int upstream; }");
+        assertThat(sparse.resolve("src/a/LocalTest.java")).exists();
+        commit("again", "src/a/A.java", "class A { int again; }");
+        assertThat(gitService.pullLatestChanges(sparse.toString(), "main", null, null, sparseOptions)).isTrue();
+        assertThat(sparse.resolve("src/a/A.java")).hasContent("class A { int again; }");
+    }
+    
+    @Test
+    void fullPullMergesUpstreamChanges() throws Exception {
+        Path local = tempDir.resolve("full");
+        
+        assertThat(gitService.cloneRepository(remoteUrl(), local.toString(), "main", null, null, null)).isTrue();
+        commit("second", "README.md", "updated");
+        
+        assertThat(gitService.pullLatestChanges(local.toString(), "main", null, null, null)).isTrue();
+        
+        assertThat(local.resolve("README.md")).hasContent("updated");
+        assertThat(commitCount(local)).isEqualTo(2);
+    }
+    
+    @Test
+    void listUncommittedFilesFindsUntrackedAndAddedFiles() throws Exception {
+        write("src/a/NewTest.java", "class NewTest {}");
+        write("src/a/StagedTest.java", "class StagedTest {}");
+        write("src/b/OtherTest.java", "class OtherTest {}");
+        write("src/a/A.java", "class A { int changed; }");
+        write(".gitignore", "ignored/\n");
+        write("ignored/IgnoredTest.java", "class IgnoredTest {}");
+        upstream.add().addFilepattern("src/a/StagedTest.java").call();
+        
+        assertThat(gitService.listUncommittedFiles(upstreamDir.toString(), List.of("src/a")))
+            .containsExactly("src/a/NewTest.java", "src/a/StagedTest.java");
+        assertThat(gitService.listUncommittedFiles(upstreamDir.toString(), List.of("")))
+            .contains("src/a/NewTest.java", "src/a/StagedTest.java", "src/b/OtherTest.java")
+            .doesNotContain("src/a/A.java", "ignored/IgnoredTest.java");
+    }
+    
+    private MultiRepositoryConfig.CloneOptions options(Integer depth, List<String> sparsePaths) {
+        MultiRepositoryConfig.CloneOptions options = new MultiRepositoryConfig.CloneOptions();
+        options.setDepth(depth);
+        options.setSparsePaths(sparsePaths);
+        return options;
+    }
+    
+    @Test
+    void bulkReadWalksTheTreeOnceAndFallsBackForMissingFiles() throws Exception {
+        commit("second", "src/a/A.java", "class A { int y; }");
+        gitService.setRepositoryPath(upstreamDir.toString());
+        ReflectionTestUtils.setField(gitService, "gitEnabled", true);
+        write("src/b/Untracked.java", "class Untracked {}");
+        
+        Map<String, String> found = new TreeMap<>();
+        assertThat(gitService.readFilesFromGit(List.of("/src/a/", "src\\b\\B.java", "src/b/B.java", ""), "main~1", found::put))
+            .isEqualTo(3);
+        assertThat(found).containsExactly(Map.entry("src/a/A.java", "class A {}"), Map.entry("src/a/Old.java", "class Old {}"),
+            Map.entry("src/b/B.java", "class B {}"));
+        assertThat(gitService.readFilesFromGit(List.of("/"), "main", found::put)).isZero();
+        
+        Map<String, String> contents = gitService.getCodeContentsFromFiles(
+            List.of("src/b/Untracked.java", "src/a/A.java"), "no-such-branch");
+        assertThat(contents).containsExactly(Map.entry("src/b/Untracked.java", "class Untracked {}"),
+            Map.entry("src/a/A.java", "class A { int y; }"));
+        assertThat(gitService.getCodeContentsWithLanguage(List.of("src/a/A.java"), "main").get("src/a/A.java"))
+            .isEqualTo("// Language: java\n// File: src/a/A.java\n\nclass A { int y; }");
+        assertThat(gitService.getCodeContentsFromFiles(List.of(), "main")).isEmpty();
+        assertThat(gitService.getCodeContentFromFile("src/a/A.java", "main")).isEqualTo("class A { int y; }");
+        
+        ReflectionTestUtils.setField(gitService, "gitEnabled", false);
+        assertThat(gitService.getCodeContentsFromFiles(List.of("src/a/A.java"), "main").get("src/a/A.java"))
+            .isNotEqualTo("class A { int y; }");
+    }
+    
+    @Test
+    void maintenanceWritesCommitGraphAndBitmaps() throws Exception {
+        commit("second", "src/b/B.java", "class B { int y; }");
+        
+        Map<String, Object> report = gitService.runMaintenance(upstreamDir.toString(), false);
+        
+        assertThat(report).containsKeys("before", "after", "durationMs");
+        assertThat(report.get("commitGraph")).isEqualTo(true);
+        assertThat(((Properties) report.get("after")).get("numberOfLooseObjects")).isEqualTo(0L);
+        assertThat(upstream.getRepository().getConfig().getBoolean("pack", "buildbitmaps", false)).isTrue();
+        assertThat(upstream.log().call()).hasSize(2);
+    }
+    
+    private String remoteUrl() {
+        return upstreamDir.toUri().toString();
+    }
+    
+    private void write(String path, String content) throws Exception {
+        Path file = upstreamDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+    
+    private void commit(String message) throws Exception {
+        upstream.add().addFilepattern(".").call();
+        upstream.commit().setMessage(message).setAuthor("test", "test@example.com").call();
+    }
+    
+    private void commit(String message, String path, String content) throws Exception {
+        write(path, content);
+        commit(message);
+    }
+    
+    private int commitCount(Path local) throws Exception {
+        try (Git git = Git.open(local.toFile())) {
+            int count = 0;
+            for (var ignored : git.log().call()) {
+                count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.testplatform.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Language and framework detection from one scan of the file content
+ */
+class LanguageDetectionServiceTest {
+    
+    private static final String CONTROLLER = String.join("\n",
+        "package com.acme;",
+        "import java.util.List;",
+        "@RestController",
+        "public class OrdersController {",
+        "    @Service",
+        "    static class Orders {}",
+        "}");
+    
+    private static final String FLASK_APP = String.join("\n",
+        "from flask import Flask",
+        "app = Flask(__name__)",
+        "@app.route('/')",
+        "def index():",
+        "    return 'ok'");
+    
+    private final LanguageDetectionService service = new LanguageDetectionService();
+    
+    @Test
+    void languageAndFrameworkAreScoredFromOneScan() {
+        LanguageDetectionService.DetectionResult detection = service.detectLanguageAndFramework("OrdersController.java", CONTROLLER);
+        
+        assertThat(detection.getLanguage().getLanguage()).isEqualTo("java");
+        assertThat(detection.getLanguage().getExtension()).isEqualTo(".java");
+        assertThat(detection.getLanguage().getConfidence()).isEqualTo(0.8);
+        assertThat(detection.getFramework().getFramework()).isEqualTo("spring-boot");
+        assertThat(detection.getFramework().getConfidence()).isEqualTo(0.4);
+        
+        LanguageDetectionService.LanguageDetectionResult python = service.detectLanguage("app", FLASK_APP);
+        assertThat(python.getLanguage()).isEqualTo("python");
+        assertThat(python.getConfidence()).isEqualTo(0.8);
+        assertThat(python.getExtension()).isNull();
+        assertThat(service.detectFramework("python", FLASK_APP).getFramework()).isEqualTo("flask");
+        assertThat(service.detectFramework("python", FLASK_APP).getConfidence()).isEqualTo(1.0);
+    }
+    
+    @Test
+    void missingContentFallsBackToTheExtension() {
+        assertThat(service.detectLanguage("web/app.tsx", null).getLanguage()).isEqualTo("typescript");
+        assertThat(service.detectLanguage("web/app.tsx", "  ").getConfidence()).isEqualTo(0.8);
+        assertThat(service.detectLanguage("notes.txt", "").getLanguage()).isEqualTo("unknown");
+        assertThat(service.detectLanguage("notes.txt", "").getConfidence()).isEqualTo(0.5);
+        assertThat(service.detectLanguage("Makefile", null).getLanguage()).isNull();
+        assertThat(service.detectFramework("java", null).getFramework()).isNull();
+        assertThat(service.detectFramework("java", "plain words").getConfidence()).isEqualTo(0.0);
+    }
+    
+    @Test
+    void testFrameworkFollowsTheLanguageAndFramework() {
+        assertThat(service.getTestFramework("java", "spring-boot")).isEqualTo("junit");
+        assertThat(service.getTestFramework("python", "flask")).isEqualTo("pytest");
+        assertThat(service.getTestFramework("rust", "actix")).isEqualTo("cargo test");
+        assertThat(service.getTestFramework("go", "default")).isEqualTo("testing");
+        assertThat(service.getTestFramework("java", "react")).isEqualTo("unknown");
+        assertThat(service.getTestFramework("cobol", "default")).isEqualTo("unknown");
+    }
+}
@@ -0,0 +1,103 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.enums.ExecutionStatus;
+import com.testplatform.backend.event.DashboardTotalsChangedEvent;
+import com.testplatform.backend.event.TestExecutionEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LiveUpdateServiceTest {
+    
+    private static final Pattern EVENT = Pattern.compile("event:(\\S+)\\ndata:(?:\\{\"repositoryId\":\"[^\"]*\",\"totals\":\\{\"version\":(\\d+))?");
+    
+    private final LiveUpdateService service = new LiveUpdateService();
+    
+    @BeforeEach
+    void wire() {
+        ReflectionTestUtils.setField(service, "appProperties", new AppProperties());
+    }
+    
+    @AfterEach
+    void stop() {
+        service.shutdown();
+    }
+    
+    @Test
+    void eventsDuringTheSnapshotReadAreDeliveredAfterIt() throws Exception {
+        SseEmitter emitter = service.subscribe("kepler-app", null, () -> {
+            // Published after the client registered but before its snapshot is queued
+            service.onDashboardTotalsChanged(totals("kepler-app", 5));
+            service.onExecutionEvent(TestExecutionEvent.completed("e1", "kepler-app", ExecutionStatus.COMPLETED, 10L));
+            return Map.of(LiveUpdateService.DASHBOARD_EVENT, totals("kepler-app", 4));
+        });
+        service.onDashboardTotalsChanged(totals("kepler-app", 6));
+        
+        assertThat(awaitEvents(emitter, 4)).containsExactly("dashboard@4", "dashboard@5", "execution", "dashboard@6");
+    }
+    
+    @Test
+    void heldTotalsTheSnapshotAlreadyCoversAreDropped() throws Exception {
+        SseEmitter emitter = service.subscribe(null, null, () -> {
+            service.onDashboardTotalsChanged(totals("kepler-app", 5));
+            service.onDashboardTotalsChanged(totals("shared-services", 2));
+            return Map.of(LiveUpdateService.DASHBOARD_EVENT, totals("kepler-app", 5));
+        });
+        service.onDashboardTotalsChanged(totals("kepler-app", 7));
+        
+        assertThat(awaitEvents(emitter, 3)).containsExactly("dashboard@5", "dashboard@2", "dashboard@7");
+        assertThat(service.getClientCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void failedSnapshotUnregistersTheClient() {
+        assertThatThrownBy(() -> service.subscribe(null, null, () -> {
+            throw new IllegalStateException("no snapshot");
+        })).isInstanceOf(IllegalStateException.class);
+        
+        assertThat(service.getClientCount()).isZero();
+    }
+    
+    private static DashboardTotalsChangedEvent totals(String repositoryId, long version) {
+        DashboardAggregateService.SuiteTotals totals = new DashboardAggregateService.SuiteTotals();
+        ReflectionTestUtils.setField(totals, "version", version);
+        return new DashboardTotalsChangedEvent(repositoryId, totals);
+    }
+    
+    /**
+     * Events sent to an emitter that is not attached to a response yet, as name or name@version
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> awaitEvents(SseEmitter emitter, int count) throws InterruptedException {
+        List<String> events = new ArrayList<>();
+        for (int attempt = 0; attempt < 100 && events.size() < count; attempt++) {
+            Thread.sleep(20);
+            StringBuilder sent = new StringBuilder();
+            synchronized (emitter) {
+                Set<ResponseBodyEmitter.DataWithMediaType> early =
+                    (Set<ResponseBodyEmitter.DataWithMediaType>) ReflectionTestUtils.getField(emitter, "earlySendAttempts");
+                early.forEach(data -> sent.append(data.getData()));
+            }
+            events.clear();
+            Matcher matcher = EVENT.matcher(sent);
+            while (matcher.find()) {
+                events.add(matcher.group(2) != null ? matcher.group(1) + "@" + matcher.group(2) : matcher.group(1));
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,126 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.enums.TestPriority;
+import com.testplatform.backend.enums.TestType;
+import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.util.SymbolGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Prompts sent to the local LLM API and the test cases parsed from its answers
+ */
+class LlmServiceTest {
+    
+    private static final String CODE = String.join("\n",
+        "public class OrderService {",
+        "    private final OrderRepository orderRepository;",
+        "",
+        "    public void placeOrder(String id) {",
+        "        orderRepository.save(id);",
+        "    }",
+        "",
+        "    public void cancelOrder(String id) {",
+        "        orderRepository.delete(id);",
+        "    }",
+        "}",
+        "");
+    
+    private static final String ANSWER = "{\"response\": \"```json\\n{\\\"testCases\\\": [{\\\"name\\\": \\\"places order\\\", "
+        + "\\\"description\\\": \\\"saves the order\\\", \\\"priority\\\": \\\"high\\\", \\\"method\\\": \\\"placeOrder\\\", "
+        + "\\\"testCode\\\": \\\"service.placeOrder(\\\\\\\"1\\\\\\\");\\\"}]}\\n```\"}";
+    
+    private final LlmService llmService = new LlmService();
+    private final SymbolGraphService symbolGraphService = mock(SymbolGraphService.class);
+    private final MultiRepositoryService multiRepositoryService = mock(MultiRepositoryService.class);
+    private MockRestServiceServer server;
+    
+    @BeforeEach
+    void wire() {
+        ReflectionTestUtils.setField(llmService, "appProperties", new AppProperties());
+        ReflectionTestUtils.setField(llmService, "codeAnalyzerService", new CodeAnalyzerService());
+        ReflectionTestUtils.setField(llmService, "symbolGraphService", symbolGraphService);
+        ReflectionTestUtils.setField(llmService, "multiRepositoryService", multiRepositoryService);
+        server = MockRestServiceServer.bindTo((RestTemplate) ReflectionTestUtils.getField(llmService, "restTemplate")).build();
+        
+        MultiRepositoryConfig.RepositoryConfig repo = new MultiRepositoryConfig.RepositoryConfig();
+        repo.setId("kepler-app");
+        when(multiRepositoryService.getDefaultRepository()).thenReturn(repo);
+        when(multiRepositoryService.getRepository("kepler-app")).thenReturn(repo);
+    }
+    
+    @Test
+    void promptNamesTheClassesUsersAndExistingTests() {
+        when(symbolGraphService.getGraphIfReady("kepler-app")).thenReturn(SymbolGraph.build("c1", List.of(
+            SymbolGraph.FileSymbols.of("src/main/java/OrderService.java", List.of("OrderService"), List.of(),
+                List.of("OrderRepository")),
+            SymbolGraph.FileSymbols.of("src/main/java/OrderController.java", List.of("OrderController"), List.of(),
+                List.of("OrderService")),
+            SymbolGraph.FileSymbols.of("src/test/java/OrderServiceTest.java", List.of("OrderServiceTest"), List.of(),
+                List.of("OrderService")))));
+        server.expect(requestTo("http://localhost:11434/api/generate"))
+            .andExpect(method(HttpMethod.POST))
+            .andExpect(jsonPath("$.model").value("codegemma:7b"))
+            .andExpect(jsonPath("$.prompt").value(containsString("- Used By: OrderController\n")))
+            .andExpect(jsonPath("$.prompt").value(containsString("- Existing Tests: src/test/java/OrderServiceTest.java\n")))
+            .andExpect(jsonPath("$.prompt").value(containsString("Generate 8-15")))
+            .andRespond(withSuccess(ANSWER, MediaType.APPLICATION_JSON));
+        
+        List<TestCase> tests = llmService.generateTestCases(CODE, TestType.UNIT, "java", "OrderService.java");
+        
+        server.verify();
+        assertThat(tests).hasSize(1);
+        assertThat(tests.get(0).getName()).isEqualTo("places order");
+        assertThat(tests.get(0).getPriority()).isEqualTo(TestPriority.HIGH);
+        assertThat(tests.get(0).getTags()).containsExactly(LlmService.METHOD_TAG_PREFIX + "placeOrder");
+        assertThat(tests.get(0).getCode()).isEqualTo("service.placeOrder(\"1\");");
+    }
+    
+    @Test
+    void changedMethodsNarrowThePromptAndUnbuiltGraphsAreLeftOut() {
+        server.expect(requestTo("http://localhost:11434/api/generate"))
+            .andExpect(jsonPath("$.prompt").value(containsString("Only these methods changed: placeOrder.")))
+            .andExpect(jsonPath("$.prompt").value(containsString("Generate 2-5")))
+            .andExpect(jsonPath("$.prompt").value(not(containsString("orderRepository.delete(id);"))))
+            .andExpect(jsonPath("$.prompt").value(not(containsString("Used By"))))
+            .andRespond(withSuccess(ANSWER, MediaType.APPLICATION_JSON));
+        
+        List<TestCase> tests = llmService.generateTestCases(CODE, TestType.UNIT, "java", "OrderService.java",
+            Set.of("placeOrder(String)"), "kepler-app");
+        
+        server.verify();
+        assertThat(tests).extracting(TestCase::getName).containsExactly("places order");
+    }
+    
+    @Test
+    void failedCallsFallBackToAPlaceholderTest() {
+        server.expect(requestTo("http://localhost:11434/api/generate")).andRespond(withServerError());
+        
+        List<TestCase> tests = llmService.generateTestCases(CODE, TestType.INTEGRATION, "java", "OrderService.java");
+        
+        assertThat(tests).hasSize(1);
+        assertThat(tests.get(0).getName()).isEqualTo("LLM Generated Test - INTEGRATION");
+        assertThat(tests.get(0).getTags()).isNullOrEmpty();
+    }
+}
@@ -0,0 +1,158 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Repository configuration, startup clones and per-repository reads against file:// remotes
+ */
+class MultiRepositoryServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private final MultiRepositoryService service = new MultiRepositoryService();
+    private final MultiRepositoryConfig config = new MultiRepositoryConfig();
+    private final GitService gitService = new GitService();
+    private Git upstream;
+    
+    @BeforeEach
+    void wire() throws Exception {
+        upstream = Git.init().setDirectory(tempDir.resolve("upstream").toFile()).setInitialBranch("main").call();
+        write("src/Orders.java", "class Orders {}");
+        write("src/Invoices.java", "class Invoices {}");
+        upstream.add().addFilepattern(".").call();
+        upstream.commit().setMessage("initial").setAuthor("test", "test@example.com").call();
+        
+        config.setRepositories(new ArrayList<>(List.of(
+            repository("kepler-app", tempDir.resolve("kepler").toString(), upstreamUrl(), "java"),
+            repository("web-app", tempDir.resolve("web").toString(), null, "typescript"))));
+        gitService.setRepositoryPath(tempDir.toString());
+        ReflectionTestUtils.setField(gitService, "gitEnabled", true);
+        ReflectionTestUtils.setField(service, "multiRepositoryConfig", config);
+        ReflectionTestUtils.setField(service, "gitService", gitService);
+        ReflectionTestUtils.setField(service, "languageDetectionService", new LanguageDetectionService());
+    }
+    
+    @AfterEach
+    void close() {
+        upstream.close();
+    }
+    
+    @Test
+    void startupClonesRemotesAndPullsExistingClones() throws Exception {
+        service.initializeRepositories();
+        
+        Path clone = tempDir.resolve("kepler");
+        assertThat(clone.resolve("src/Orders.java")).hasContent("class Orders {}");
+        assertThat(Files.exists(tempDir.resolve("web"))).isFalse();
+        
+        write("src/Orders.java", "class Orders { int total; }");
+        upstream.commit().setAll(true).setMessage("update").setAuthor("test", "test@example.com").call();
+        service.initializeRepositories();
+        
+        assertThat(clone.resolve("src/Orders.java")).hasContent("class Orders { int total; }");
+    }
+    
+    @Test
+    void contentsAreReadFromTheRepositoryAndThePathIsRestored() {
+        service.initializeRepositories();
+        
+        Map<String, String> contents = service.getCodeContents("kepler-app", List.of("src/Invoices.java", "src/Orders.java"), null);
+        
+        assertThat(contents).containsExactly(Map.entry("src/Invoices.java", "class Invoices {}"),
+            Map.entry("src/Orders.java", "class Orders {}"));
+        assertThat(service.getCodeContent("kepler-app", "src/Orders.java", "main")).isEqualTo("class Orders {}");
+        assertThat(gitService.getRepositoryPath()).isEqualTo(tempDir.toString());
+        assertThat(service.getCodeContents("missing", List.of("src/Orders.java"), null)).isEmpty();
+        assertThat(service.getCodeContent("missing", "src/Orders.java", null)).isNull();
+        
+        service.toggleRepository("kepler-app", false);
+        assertThat(service.getCodeContents("kepler-app", List.of("src/Orders.java"), null)).isEmpty();
+        assertThat(service.getCodeContent("kepler-app", "src/Orders.java", null)).isNull();
+        assertThat(service.getChangedFiles("kepler-app", "main", "feature")).isEmpty();
+    }
+    
+    @Test
+    void bulkReadsUseTheRepositoryPathWithoutChangingTheSharedOne() throws Exception {
+        service.initializeRepositories();
+        Files.writeString(tempDir.resolve("kepler/src/Draft.java"), "class Draft {}");
+        GitService sharedGitService = spy(gitService);
+        ReflectionTestUtils.setField(service, "gitService", sharedGitService);
+        
+        Map<String, String> contents = service.getCodeContents("kepler-app", List.of("src/Orders.java", "src/Draft.java"), "main");
+        
+        assertThat(contents).containsExactly(Map.entry("src/Orders.java", "class Orders {}"),
+            Map.entry("src/Draft.java", "class Draft {}"));
+        verify(sharedGitService, never()).setRepositoryPath(anyString());
+    }
+    
+    @Test
+    void repositoriesAreLookedUpAddedUpdatedAndRemoved() {
+        assertThat(service.getDefaultRepository().getId()).isEqualTo("kepler-app");
+        config.setDefaultRepository("web-app");
+        assertThat(service.getDefaultRepository().getId()).isEqualTo("web-app");
+        assertThat(service.getRepositoriesByLanguage("typescript")).extracting(MultiRepositoryConfig.RepositoryConfig::getId)
+            .containsExactly("web-app");
+        assertThat(service.getRepositoriesByFramework("spring-boot")).hasSize(2);
+        assertThat(service.getRepositoryStats("kepler-app")).containsEntry("status", "active").containsEntry("language", "java");
+        assertThat(service.getAllRepositoryStats()).hasSize(2);
+        assertThat(service.getRepositoryStats("missing")).isEmpty();
+        
+        assertThat(service.addRepository(repository("kepler-app", "elsewhere", null, "java"))).isFalse();
+        assertThat(service.addRepository(repository("api", tempDir.resolve("api").toString(), null, "go"))).isTrue();
+        assertThat(service.updateRepository("api", repository("api", "moved", null, "rust"))).isTrue();
+        assertThat(service.getRepository("api").getLanguage()).isEqualTo("rust");
+        assertThat(service.updateRepository("missing", repository("missing", "x", null, "go"))).isFalse();
+        assertThat(service.toggleRepository("api", false)).isTrue();
+        assertThat(service.toggleRepository("missing", false)).isFalse();
+        assertThat(service.getEnabledRepositories()).extracting(MultiRepositoryConfig.RepositoryConfig::getId)
+            .containsExactly("kepler-app", "web-app");
+        assertThat(service.removeRepository("api")).isTrue();
+        assertThat(service.removeRepository("api")).isFalse();
+        
+        config.setEnabled(false);
+        assertThat(service.getAllRepositories()).isEmpty();
+        assertThat(service.addRepository(repository("api", "x", null, "go"))).isFalse();
+    }
+    
+    private MultiRepositoryConfig.RepositoryConfig repository(String id, String path, String remoteUrl, String language) {
+        MultiRepositoryConfig.RepositoryConfig repo = new MultiRepositoryConfig.RepositoryConfig();
+        repo.setId(id);
+        repo.setName(id);
+        repo.setPath(path);
+        repo.setRemoteUrl(remoteUrl);
+        repo.setBranch("main");
+        repo.setLanguage(language);
+        repo.setFramework("spring-boot");
+        return repo;
+    }
+    
+    private String upstreamUrl() {
+        return tempDir.resolve("upstream").toUri().toString();
+    }
+    
+    private void write(String path, String content) throws Exception {
+        Path file = tempDir.resolve("upstream").resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+}
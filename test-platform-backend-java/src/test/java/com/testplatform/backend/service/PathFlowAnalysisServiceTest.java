@@ -0,0 +1,226 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.enums.TestType;
+import com.testplatform.backend.model.TestCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Concurrent analysis of the services of a flow, and the cache of parses and analyses
+ */
+class PathFlowAnalysisServiceTest {
+    
+    private static final String FLOW = "1. User logs in\n2. POST /api/orders creates the order\n3. Save order to database";
+    
+    private final PathFlowAnalysisService service = new PathFlowAnalysisService();
+    private final RealCodeAnalysisService realCodeAnalysisService = mock(RealCodeAnalysisService.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+    
+    @BeforeEach
+    void wire() {
+        ReflectionTestUtils.setField(service, "llmService", mock(LlmService.class));
+        ReflectionTestUtils.setField(service, "languageDetectionService", mock(LanguageDetectionService.class));
+        ReflectionTestUtils.setField(service, "realCodeAnalysisService", realCodeAnalysisService);
+        ReflectionTestUtils.setField(service, "appProperties", new AppProperties());
+        service.init();
+    }
+    
+    @AfterEach
+    void stop() {
+        release.countDown();
+        service.shutdown();
+    }
+    
+    @Test
+    void analysesComeBackInTheOrderTheServicesWereGiven() {
+        when(realCodeAnalysisService.analyzeRealCode("orders")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return result("orders");
+        });
+        when(realCodeAnalysisService.analyzeRealCode("auth")).thenAnswer(invocation -> {
+            release.countDown();
+            return result("auth");
+        });
+        
+        PathFlowAnalysisService.PathFlowAnalysisResult result =
+            service.analyzePathFlow("kepler-app", FLOW, List.of("orders", "auth"), Map.of());
+        
+        assertThat(result.getServiceAnalyses())
+            .extracting(PathFlowAnalysisService.ServiceAnalysis::getServiceName)
+            .containsExactly("orders", "auth");
+    }
+    
+    @Test
+    void failureIsRethrownWithoutWaitingOnSlowerServicesGivenBeforeIt() throws Exception {
+        when(realCodeAnalysisService.analyzeRealCode("orders")).thenAnswer(invocation -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return result("orders");
+        });
+        when(realCodeAnalysisService.analyzeRealCode("auth")).thenThrow(new IllegalStateException("auth unreadable"));
+        
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> service.analyzePathFlow("kepler-app", FLOW, List.of("orders", "auth"), Map.of()))
+            .hasRootCauseMessage("auth unreadable");
+        
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        // The slow analysis is cancelled rather than left running
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+    
+    @Test
+    void testsAreGeneratedFromTheFlowAndTheServiceSources() {
+        when(realCodeAnalysisService.analyzeRealCode("springbackend")).thenReturn(spring());
+        when(realCodeAnalysisService.analyzeRealCode("reactfrontend")).thenReturn(react());
+        when(realCodeAnalysisService.analyzeRealCode("database")).thenReturn(database());
+        
+        PathFlowAnalysisService.PathFlowAnalysisResult result = service.analyzePathFlow("kepler-app",
+            "1. User clicks checkout\n2. POST /api/orders creates the order\n3. INSERT into orders\n"
+                + "4. Order service calls PaymentService\n5. On declined payment, go back to step 1\n6. Show confirmation",
+            List.of("springbackend", "reactfrontend", "database"), Map.of());
+        
+        PathFlowAnalysisService.PathFlowComponents components = result.getComponents();
+        assertThat(components.getApiEndpoints()).containsExactly("/api/orders");
+        assertThat(components.getCriticalPaths()).contains("Payment Processing Flow");
+        assertThat(components.getEdgeCases()).contains("Loop from step 5 back to step 1");
+        assertThat(components.getGraph()).containsEntry("steps", 6).containsEntry("loops", 1);
+        assertThat(result.getIntegrationTests()).extracting(TestCase::getName)
+            .containsExactly("testApiapiorders", "testDatabaseintoorders", "testExternalPaymentService");
+        assertThat(result.getE2eTests()).extracting(TestCase::getType).containsOnly(TestType.E2E);
+        assertThat(result.getE2eTests()).first().extracting(TestCase::getName).isEqualTo("testHappyPathFlow");
+        
+        PathFlowAnalysisService.ServiceAnalysis spring = result.getServiceAnalyses().get(0);
+        assertThat(spring.getResponsibilities()).containsExactly("API endpoints: OrderController",
+            "Business logic: OrderService", "Data access: OrderRepository");
+        assertThat(spring.getUnitTests()).hasSize(3);
+        assertThat(spring.getIntegrationTests()).hasSize(2);
+        assertThat(result.getServiceAnalyses().get(1).getUnitTests()).hasSize(3);
+        assertThat(result.getServiceAnalyses().get(2).getResponsibilities()).containsExactly("Database tables: orders");
+        assertThat(result.getServiceAnalyses().get(2).getUnitTests()).hasSize(1);
+        
+        PathFlowAnalysisService.CoverageMetrics metrics = result.getMetrics();
+        assertThat(metrics.getTotalServices()).isEqualTo(3);
+        assertThat(metrics.getCoveredServices()).isEqualTo(3);
+        assertThat(metrics.getTotalUnitTests()).isEqualTo(7);
+        assertThat(metrics.getTotalIntegrationTests()).isEqualTo(3);
+        assertThat(metrics.getServiceCoverage()).isEqualTo(1.0);
+    }
+    
+    @Test
+    void analysesAreCachedPerSourceVersionAndReturnedAsCopies() {
+        when(realCodeAnalysisService.getSourceVersion("springbackend")).thenReturn("v1");
+        when(realCodeAnalysisService.analyzeRealCode("springbackend")).thenReturn(spring());
+        
+        PathFlowAnalysisService.PathFlowAnalysisResult first =
+            service.analyzePathFlow("kepler-app", FLOW, List.of("springbackend"), Map.of());
+        first.getServiceAnalyses().get(0).getUnitTests().get(0).setStatus(TestStatus.FAILED);
+        PathFlowAnalysisService.PathFlowAnalysisResult second =
+            service.analyzePathFlow("kepler-app", FLOW, List.of("springbackend"), Map.of());
+        
+        verify(realCodeAnalysisService, times(1)).analyzeRealCode("springbackend");
+        TestCase cachedTest = second.getServiceAnalyses().get(0).getUnitTests().get(0);
+        assertThat(cachedTest).isNotSameAs(first.getServiceAnalyses().get(0).getUnitTests().get(0));
+        assertThat(cachedTest.getStatus()).isNotEqualTo(TestStatus.FAILED);
+        assertThat(second.getComponents()).isSameAs(first.getComponents());
+        
+        // Another config or new sources make another key
+        service.analyzePathFlow("kepler-app", FLOW, List.of("springbackend"), Map.of("springbackend", "pom.xml"));
+        when(realCodeAnalysisService.getSourceVersion("springbackend")).thenReturn("v2");
+        service.analyzePathFlow("kepler-app", FLOW, List.of("springbackend"), Map.of());
+        
+        verify(realCodeAnalysisService, times(3)).analyzeRealCode("springbackend");
+        assertThat(service.getCacheStats()).containsKeys("parsedFlows", "analyses");
+    }
+    
+    @Test
+    void unknownSourcesAndIncompleteScansAreNotCached() {
+        when(realCodeAnalysisService.getSourceVersion("springbackend")).thenReturn(null);
+        when(realCodeAnalysisService.getSourceVersion("database")).thenReturn("v1");
+        RealCodeAnalysisService.CodeAnalysisResult partial = database();
+        ReflectionTestUtils.setField(partial, "complete", false);
+        when(realCodeAnalysisService.analyzeRealCode("springbackend")).thenReturn(spring());
+        when(realCodeAnalysisService.analyzeRealCode("database")).thenReturn(partial);
+        
+        for (int i = 0; i < 2; i++) {
+            service.analyzePathFlow("kepler-app", FLOW, List.of("springbackend"), Map.of());
+            service.analyzePathFlow("kepler-app", FLOW, List.of("database"), Map.of());
+        }
+        
+        verify(realCodeAnalysisService, times(2)).analyzeRealCode("springbackend");
+        verify(realCodeAnalysisService, times(2)).analyzeRealCode("database");
+    }
+    
+    @Test
+    void disabledCacheAnalyzesEveryFlow() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getPathFlow().setCacheEnabled(false);
+        PathFlowAnalysisService uncached = new PathFlowAnalysisService();
+        ReflectionTestUtils.setField(uncached, "realCodeAnalysisService", realCodeAnalysisService);
+        ReflectionTestUtils.setField(uncached, "appProperties", appProperties);
+        uncached.init();
+        when(realCodeAnalysisService.getSourceVersion(anyString())).thenReturn("v1");
+        when(realCodeAnalysisService.analyzeRealCode("springbackend")).thenReturn(spring());
+        
+        try {
+            uncached.analyzePathFlow("kepler-app", FLOW, List.of("springbackend"), Map.of());
+            uncached.analyzePathFlow("kepler-app", FLOW, List.of("springbackend"), Map.of());
+            
+            verify(realCodeAnalysisService, times(2)).analyzeRealCode("springbackend");
+            assertThat(uncached.getCacheStats()).isNull();
+        } finally {
+            uncached.shutdown();
+        }
+    }
+    
+    private static RealCodeAnalysisService.CodeAnalysisResult spring() {
+        RealCodeAnalysisService.CodeAnalysisResult result = result("springbackend");
+        result.setControllers(List.of("OrderController"));
+        result.setServices(List.of("OrderService"));
+        result.setRepositories(List.of("OrderRepository"));
+        return result;
+    }
+    
+    private static RealCodeAnalysisService.CodeAnalysisResult react() {
+        RealCodeAnalysisService.CodeAnalysisResult result = result("reactfrontend");
+        result.setLanguage("javascript");
+        result.setFramework("react");
+        result.setComponents(List.of("Cart", "Checkout"));
+        result.setFunctions(List.of("addItem"));
+        return result;
+    }
+    
+    private static RealCodeAnalysisService.CodeAnalysisResult database() {
+        RealCodeAnalysisService.CodeAnalysisResult result = result("database");
+        result.setLanguage("sql");
+        result.setFramework("database");
+        result.setTables(List.of("orders"));
+        return result;
+    }
+    
+    private static RealCodeAnalysisService.CodeAnalysisResult result(String serviceName) {
+        RealCodeAnalysisService.CodeAnalysisResult result = new RealCodeAnalysisService.CodeAnalysisResult();
+        result.setServiceName(serviceName);
+        result.setLanguage("java");
+        result.setFramework("spring-boot");
+        return result;
+    }
+}
@@ -0,0 +1,132 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.enums.PRStatus;
+import com.testplatform.backend.enums.TestType;
+import com.testplatform.backend.exception.ResourceNotFoundException;
+import com.testplatform.backend.model.PullRequest;
+import com.testplatform.backend.repository.LogPullRequestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pull requests stored in the log-backed repository and the tests generated when one is created
+ */
+class PullRequestServiceTest {
+    
+    private static final String ORDERS = String.join("\n",
+        "// Language: java",
+        "// File: src/Orders.java",
+        "",
+        "public class Orders {",
+        "    public int total(int a) {",
+        "        return a + 1;",
+        "    }",
+        "",
+        "    public int count() {",
+        "        return 0;",
+        "    }",
+        "}",
+        "");
+    
+    @TempDir
+    Path tempDir;
+    
+    private final PullRequestService service = new PullRequestService();
+    private final LogPullRequestRepository repository = new LogPullRequestRepository();
+    private final TestGenerationService testGenerationService = mock(TestGenerationService.class);
+    private final GitService gitService = mock(GitService.class);
+    
+    @BeforeEach
+    void wire() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getStorage().setDataDir(tempDir.toString());
+        ReflectionTestUtils.setField(repository, "appProperties", appProperties);
+        repository.open();
+        ReflectionTestUtils.setField(service, "pullRequestRepository", repository);
+        ReflectionTestUtils.setField(service, "testGenerationService", testGenerationService);
+        ReflectionTestUtils.setField(service, "gitService", gitService);
+        ReflectionTestUtils.setField(service, "codeAnalyzerService", new CodeAnalyzerService());
+        
+        when(testGenerationService.generateTestCases(any(), any(TestType.class), anyString(), anyString(), any()))
+            .thenReturn(CompletableFuture.completedFuture(List.of()));
+    }
+    
+    @AfterEach
+    void close() {
+        repository.close();
+    }
+    
+    @Test
+    void creatingReadsEveryChangedFileOnceAndGeneratesForTheTouchedMethods() throws Exception {
+        when(gitService.getCodeContentsWithLanguage(anyList(), eq("feature/orders")))
+            .thenReturn(Map.of("src/Orders.java", ORDERS, "src/Notes.java", "// notes"));
+        PullRequest.ChangedFile orders = new PullRequest.ChangedFile("src/Orders.java", 1, 1);
+        orders.setPatch("@@ -3 +3 @@\n-        return a;\n+        return a + 1;\n");
+        PullRequest pr = new PullRequest(null, "Fix totals", "feature/orders", null);
+        pr.setChangedFiles(List.of(orders, new PullRequest.ChangedFile("src/Notes.java", 1, 0)));
+        
+        PullRequest created = service.createPullRequest(pr);
+        
+        assertThat(created.getStatus()).isEqualTo(PRStatus.OPEN);
+        assertThat(created.getAuthor()).isEqualTo("developer@testplatform.com");
+        verify(testGenerationService, timeout(5000).times(6)).saveTestSuite(any());
+        verify(gitService, times(1)).getCodeContentsWithLanguage(List.of("src/Orders.java", "src/Notes.java"), "feature/orders");
+        verify(testGenerationService).generateTestCases(ORDERS, TestType.UNIT, "java", "src/Orders.java", Set.of("total(int)"));
+        verify(testGenerationService).generateTestCases(eq("// notes"), eq(TestType.E2E), eq("java"), eq("src/Notes.java"), isNull());
+        for (int i = 0; i < 100 && service.getPullRequest(created.getId()).getTestsGenerated() == 0; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(service.getPullRequest(created.getId()).getTestsGenerated()).isEqualTo(24);
+    }
+    
+    @Test
+    void pullRequestsAreUpdatedCountedAndDeleted() {
+        PullRequest first = service.createPullRequest(new PullRequest(null, "First", "main", "ana@example.com"));
+        PullRequest second = service.createPullRequest(new PullRequest(null, "Second", "main", "ben@example.com"));
+        when(testGenerationService.getTestsForPR(first.getNumber())).thenReturn(List.of());
+        
+        assertThat(service.getPullRequest(first.getId()).getTitle()).isEqualTo("First");
+        PullRequest updates = new PullRequest();
+        updates.setTitle("First, renamed");
+        updates.setStatus(PRStatus.MERGED);
+        assertThat(service.updatePullRequest(first.getId(), updates).getBranch()).isEqualTo("main");
+        assertThat(service.getPullRequestsByStatus(PRStatus.MERGED)).extracting(PullRequest::getTitle)
+            .containsExactly("First, renamed");
+        assertThat(service.countPullRequestsByStatus(PRStatus.OPEN)).isEqualTo(1);
+        assertThat(service.getFirstPullRequests(1)).extracting(PullRequest::getId).containsExactly(first.getId());
+        assertThat(service.getAllPullRequests()).hasSize(2);
+        assertThat(service.countPullRequestsCreatedOn(LocalDate.now())).isEqualTo(2);
+        
+        service.updatePRTestMetrics(second.getNumber(), 20);
+        assertThat(service.getPullRequest(second.getId()).getTestsGenerated()).isEqualTo(20);
+        assertThat(service.getPullRequest(second.getId()).getTestsPassed() + service.getPullRequest(second.getId()).getTestsFailed())
+            .isEqualTo(20);
+        
+        service.deletePullRequest(first.getId());
+        verify(testGenerationService).deleteTestsForPR(first.getNumber());
+        assertThatThrownBy(() -> service.getPullRequest(first.getId())).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.updatePullRequest(first.getId(), updates)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.deletePullRequest(first.getId())).isInstanceOf(ResourceNotFoundException.class);
+        verify(gitService, never()).getCodeContentsWithLanguage(anyList(), anyString());
+    }
+}
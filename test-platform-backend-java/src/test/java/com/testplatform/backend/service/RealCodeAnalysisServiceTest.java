@@ -0,0 +1,170 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Parallel scans of a CDAC project tree and their per-fingerprint cache
+ */
+class RealCodeAnalysisServiceTest {
+    
+    @TempDir
+    Path projectDir;
+    
+    private final RealCodeAnalysisService service = new RealCodeAnalysisService();
+    private final AppProperties appProperties = new AppProperties();
+    private final GitService gitService = mock(GitService.class);
+    
+    @BeforeEach
+    void wire() throws Exception {
+        appProperties.getCodeAnalysis().setCdacProjectPath(projectDir.toString());
+        appProperties.getCodeAnalysis().setIndexThreads(2);
+        appProperties.getCodeAnalysis().setSourceCheckIntervalMs(0L);
+        ReflectionTestUtils.setField(service, "appProperties", appProperties);
+        ReflectionTestUtils.setField(service, "gitService", gitService);
+        service.init();
+        
+        write("React/my-app/src/Components/Cart.jsx",
+            "import React from 'react';\nimport { api } from '../api';\nfunction Cart() {}\nconst addItem = async (item) => {};\n");
+        write("React/my-app/src/Components/Header.js", "const Header = () => {};\n");
+        write("React/my-app/src/index.css", "body {}\n");
+        write("Spring/demo/src/main/java/OrderController.java", "@RestController\npublic class OrderController {}\n");
+        write("Spring/demo/src/main/java/OrderService.java", "@Service\npublic class OrderService {}\n");
+        write("Spring/demo/src/main/java/OrderRepository.java",
+            "public interface OrderRepository extends JpaRepository<Order, Long> {}\n");
+        write("Spring/demo/src/main/java/Order.java", "@Entity\npublic class Order {}\n");
+        write("Spring/demo/src/main/java/Util.java", "class Util {}\n");
+        write("DB/DB_Script.sql", "CREATE TABLE IF NOT EXISTS orders (id INT);\ncreate table items (id INT);\n"
+            + "CREATE OR REPLACE PROCEDURE place_order() BEGIN END;\n");
+    }
+    
+    @AfterEach
+    void stop() {
+        service.shutdown();
+    }
+    
+    @Test
+    void reactComponentsImportsAndFunctionsAreExtracted() {
+        RealCodeAnalysisService.CodeAnalysisResult result = service.analyzeRealCode("ReactFrontend");
+        
+        assertThat(result.getServiceName()).isEqualTo("ReactFrontend");
+        assertThat(result.getLanguage()).isEqualTo("javascript");
+        assertThat(result.getFramework()).isEqualTo("react");
+        assertThat(result.getComponents()).containsExactlyInAnyOrder("Cart", "addItem", "Header");
+        assertThat(result.getFunctions()).containsExactlyInAnyOrder("addItem", "Header");
+        assertThat(result.getDependencies()).containsExactlyInAnyOrder("react", "../api");
+        assertThat(result.getCodeFiles()).hasSize(2).allMatch(path -> path.startsWith(projectDir.toString()));
+        assertThat(result.getError()).isNull();
+    }
+    
+    @Test
+    void springStereotypesAreExtracted() {
+        RealCodeAnalysisService.CodeAnalysisResult result = service.analyzeRealCode("springbackend");
+        
+        assertThat(result.getLanguage()).isEqualTo("java");
+        assertThat(result.getControllers()).containsExactly("OrderController");
+        assertThat(result.getServices()).containsExactly("OrderService");
+        assertThat(result.getRepositories()).containsExactly("OrderRepository");
+        assertThat(result.getEntities()).containsExactly("Order");
+        assertThat(result.getCodeFiles()).hasSize(5);
+    }
+    
+    @Test
+    void databaseTablesAndProceduresAreExtracted() {
+        RealCodeAnalysisService.CodeAnalysisResult result = service.analyzeRealCode("database");
+        
+        assertThat(result.getFramework()).isEqualTo("database");
+        assertThat(result.getTables()).containsExactly("orders", "items");
+        assertThat(result.getProcedures()).containsExactly("place_order");
+        assertThat(result.getCodeFiles()).containsExactly("DB_Script.sql");
+    }
+    
+    @Test
+    void unknownServicesReportAnError() {
+        RealCodeAnalysisService.CodeAnalysisResult result = service.analyzeRealCode("mainframe");
+        
+        assertThat(result.getLanguage()).isEqualTo("unknown");
+        assertThat(result.getError()).isEqualTo("Service type not recognized: mainframe");
+        assertThat(service.getSourceVersion("mainframe")).isEqualTo("none");
+    }
+    
+    @Test
+    void unchangedSourcesReuseTheCachedResult() throws Exception {
+        RealCodeAnalysisService.CodeAnalysisResult first = service.analyzeRealCode("springbackend");
+        String version = service.getSourceVersion("springbackend");
+        
+        RealCodeAnalysisService.CodeAnalysisResult second = service.analyzeRealCode("SpringBackend");
+        
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getServiceName()).isEqualTo("SpringBackend");
+        assertThat(second.getControllers()).isSameAs(first.getControllers());
+        assertThatThrownBy(() -> second.getControllers().add("Other")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(service.getSourceVersion("springbackend")).isEqualTo(version);
+        
+        Path invoices = write("Spring/demo/src/main/java/InvoiceController.java", "@Controller\npublic class InvoiceController {}\n");
+        Files.setLastModifiedTime(invoices, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        
+        assertThat(service.getSourceVersion("springbackend")).isNotEqualTo(version);
+        assertThat(service.analyzeRealCode("springbackend").getControllers())
+            .containsExactlyInAnyOrder("OrderController", "InvoiceController");
+    }
+    
+    @Test
+    void fingerprintFollowsTheProjectCommit() {
+        when(gitService.isRepositoryCloned(projectDir.toString())).thenReturn(true);
+        when(gitService.resolveCommitId(projectDir.toString(), "HEAD")).thenReturn("c1", "c2");
+        
+        String first = service.getSourceVersion("database");
+        
+        assertThat(service.getSourceVersion("database")).isNotEqualTo(first);
+    }
+    
+    @Test
+    void walksAreTrustedForTheCheckInterval() throws Exception {
+        appProperties.getCodeAnalysis().setSourceCheckIntervalMs(60000L);
+        String version = service.getSourceVersion("database");
+        write("DB/Extra.sql", "CREATE TABLE extra (id INT);\n");
+        
+        assertThat(service.getSourceVersion("database")).isEqualTo(version);
+    }
+    
+    @Test
+    void disabledCacheAnalyzesEveryTime() {
+        appProperties.getCodeAnalysis().setCacheEnabled(false);
+        
+        RealCodeAnalysisService.CodeAnalysisResult first = service.analyzeRealCode("reactfrontend");
+        RealCodeAnalysisService.CodeAnalysisResult second = service.analyzeRealCode("reactfrontend");
+        
+        assertThat(second.getComponents()).isNotSameAs(first.getComponents()).isEqualTo(first.getComponents());
+        assertThat(first.getComponents()).contains("Cart");
+    }
+    
+    @Test
+    void missingServiceDirectoriesYieldEmptyResults() {
+        ReflectionTestUtils.setField(service, "projectPath", projectDir.resolve("missing").toString());
+        
+        RealCodeAnalysisService.CodeAnalysisResult result = service.analyzeRealCode("springbackend");
+        
+        assertThat(result.getControllers()).isEmpty();
+        assertThat(result.getCodeFiles()).isEmpty();
+        assertThat(service.analyzeRealCode("database").getTables()).isEmpty();
+    }
+    
+    private Path write(String path, String content) throws Exception {
+        Path file = projectDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,116 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Maintenance runs and syncs claim a repository exclusively
+ */
+class RepositoryMaintenanceServiceTest {
+    
+    private final MultiRepositoryService multiRepositoryService = mock(MultiRepositoryService.class);
+    private final GitService gitService = mock(GitService.class);
+    private final RepositorySyncService repositorySyncService = new RepositorySyncService();
+    private final RepositoryMaintenanceService maintenanceService = new RepositoryMaintenanceService();
+    
+    @BeforeEach
+    void wire() {
+        MultiRepositoryConfig.RepositoryConfig repo = new MultiRepositoryConfig.RepositoryConfig();
+        repo.setId("repo");
+        repo.setPath("/tmp/repo");
+        when(multiRepositoryService.getRepository("repo")).thenReturn(repo);
+        when(gitService.isRepositoryCloned(anyString())).thenReturn(true);
+        ReflectionTestUtils.setField(maintenanceService, "multiRepositoryService", multiRepositoryService);
+        ReflectionTestUtils.setField(maintenanceService, "repositorySyncService", repositorySyncService);
+        ReflectionTestUtils.setField(maintenanceService, "gitService", gitService);
+    }
+    
+    @Test
+    void skipsRepositoryClaimedBySync() throws Exception {
+        assertThat(repositorySyncService.tryClaim("repo")).isTrue();
+        
+        assertThat(maintenanceService.maintainRepository("repo")).isNull();
+        verify(gitService, times(0)).runMaintenance(anyString(), anyBoolean());
+        
+        repositorySyncService.release("repo");
+        when(gitService.runMaintenance(anyString(), anyBoolean())).thenReturn(new LinkedHashMap<>());
+        assertThat(maintenanceService.maintainRepository("repo")).containsEntry("repositoryId", "repo");
+        assertThat(repositorySyncService.tryClaim("repo")).isTrue();
+    }
+    
+    @Test
+    void concurrentRunsNeverOverlap() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        when(gitService.runMaintenance(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            started.countDown();
+            finish.await(5, TimeUnit.SECONDS);
+            return new LinkedHashMap<String, Object>();
+        });
+        
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<String, Object>> first = executor.submit(() -> maintenanceService.maintainRepository("repo"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            
+            assertThat(maintenanceService.maintainRepository("repo")).isNull();
+            assertThat(repositorySyncService.tryClaim("repo")).isFalse();
+            
+            finish.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isNotNull();
+            verify(gitService, times(1)).runMaintenance(anyString(), anyBoolean());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void failuresAndMissingRepositoriesAreReported() throws Exception {
+        when(gitService.runMaintenance(anyString(), anyBoolean())).thenThrow(new IOException("pack locked"));
+        
+        assertThat(maintenanceService.maintainRepository("repo")).isNull();
+        assertThat(maintenanceService.maintainRepository("unknown")).isNull();
+        
+        assertThat(maintenanceService.getMaintenanceReports()).containsOnlyKeys("repo");
+        assertThat(maintenanceService.getMaintenanceReports().get("repo")).containsEntry("error", "pack locked");
+        assertThat(repositorySyncService.tryClaim("repo")).isTrue();
+    }
+    
+    @Test
+    void maintainsEveryEnabledRepository() throws Exception {
+        MultiRepositoryConfig.RepositoryConfig repo = multiRepositoryService.getRepository("repo");
+        MultiRepositoryConfig.RepositoryConfig other = new MultiRepositoryConfig.RepositoryConfig();
+        other.setId("other");
+        other.setPath("/tmp/other");
+        when(gitService.isRepositoryCloned("/tmp/other")).thenReturn(false);
+        when(multiRepositoryService.getRepository("other")).thenReturn(other);
+        when(multiRepositoryService.getEnabledRepositories()).thenReturn(List.of(repo, other));
+        when(gitService.runMaintenance(anyString(), anyBoolean())).thenReturn(new LinkedHashMap<>());
+        
+        maintenanceService.maintainAllRepositories();
+        
+        verify(gitService).runMaintenance("/tmp/repo", false);
+        verify(gitService, times(0)).runMaintenance("/tmp/other", false);
+        assertThat(maintenanceService.getMaintenanceReports()).containsOnlyKeys("repo");
+    }
+}
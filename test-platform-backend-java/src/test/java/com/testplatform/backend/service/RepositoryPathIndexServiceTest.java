@@ -0,0 +1,141 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.event.RepositoryRefsChangedEvent;
+import com.testplatform.backend.util.RepositoryPathIndex;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Path indexes built from, and moved along, the branch of a local repository
+ */
+class RepositoryPathIndexServiceTest {
+    
+    @TempDir
+    Path repoDir;
+    
+    private final RepositoryPathIndexService service = new RepositoryPathIndexService();
+    private final GitService gitService = spy(new GitService());
+    private Git git;
+    
+    @BeforeEach
+    void wire() throws Exception {
+        git = Git.init().setDirectory(repoDir.toFile()).setInitialBranch("main").call();
+        MultiRepositoryConfig.RepositoryConfig repo = new MultiRepositoryConfig.RepositoryConfig();
+        repo.setId("kepler-app");
+        repo.setPath(repoDir.toString());
+        repo.setBranch("main");
+        MultiRepositoryService multiRepositoryService = mock(MultiRepositoryService.class);
+        when(multiRepositoryService.getRepository("kepler-app")).thenReturn(repo);
+        ReflectionTestUtils.setField(service, "multiRepositoryService", multiRepositoryService);
+        ReflectionTestUtils.setField(service, "gitService", gitService);
+        
+        write("service/src/main/java/Orders.java");
+        write("service/src/test/java/OrdersTest.java");
+        write("README.md");
+    }
+    
+    @AfterEach
+    void close() {
+        git.close();
+    }
+    
+    @Test
+    void indexIsBuiltOnceFromTheBranchTip() throws Exception {
+        String commitId = commit("initial");
+        
+        RepositoryPathIndex index = service.getIndex("kepler-app");
+        
+        assertThat(index.getCommitId()).isEqualTo(commitId);
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(service.getIndex("kepler-app")).isSameAs(index);
+        assertThat(service.glob("kepler-app", "service/**/*Test.java")).containsExactly("service/src/test/java/OrdersTest.java");
+        assertThat(service.getIndex("unknown")).isNull();
+        assertThat(service.glob("unknown", "**")).isEmpty();
+    }
+    
+    @Test
+    void branchMoveUpdatesOnlyTheChangedPaths() throws Exception {
+        String oldId = commit("initial");
+        service.getIndex("kepler-app");
+        write("service/src/test/java/InvoicesTest.java");
+        git.rm().addFilepattern("README.md").call();
+        String newId = commit("update");
+        
+        service.onRefsChanged(event(oldId, newId, List.of("README.md", "service/src/test/java/InvoicesTest.java")));
+        
+        RepositoryPathIndex index = service.getIndex("kepler-app");
+        assertThat(index.getCommitId()).isEqualTo(newId);
+        assertThat(index.contains("README.md")).isFalse();
+        assertThat(index.contains("service/src/test/java/InvoicesTest.java")).isTrue();
+        verify(gitService, times(1)).listFiles(repoDir.toString(), oldId, null);
+        verify(gitService, never()).listFiles(repoDir.toString(), newId, null);
+    }
+    
+    @Test
+    void changeFromAnotherTipRebuildsTheIndex() throws Exception {
+        commit("initial");
+        service.getIndex("kepler-app");
+        write("docs/guide.md");
+        String newId = commit("docs");
+        
+        service.onRefsChanged(event("0000000", newId, List.of("docs/guide.md")));
+        
+        assertThat(service.getIndex("kepler-app").contains("docs/guide.md")).isTrue();
+        verify(gitService).listFiles(repoDir.toString(), newId, null);
+    }
+    
+    @Test
+    void failedUpdateFallsBackToAFullWalk() throws Exception {
+        String oldId = commit("initial");
+        service.getIndex("kepler-app");
+        write("docs/guide.md");
+        String newId = commit("docs");
+        List<String> changed = List.of("docs/guide.md");
+        doThrow(new IllegalStateException("object missing")).when(gitService).listFiles(repoDir.toString(), newId, changed);
+        
+        service.onRefsChanged(event(oldId, newId, changed));
+        
+        assertThat(service.getIndex("kepler-app").getCommitId()).isEqualTo(newId);
+        assertThat(service.getIndex("kepler-app").contains("docs/guide.md")).isTrue();
+    }
+    
+    @Test
+    void invalidatedAndUnbuiltIndexesAreBuiltOnNextUse() throws Exception {
+        commit("initial");
+        service.onRefsChanged(event("a", "b", List.of()));
+        verify(gitService, never()).listFiles(anyString(), anyString(), any());
+        
+        RepositoryPathIndex index = service.getIndex("kepler-app");
+        service.invalidate("kepler-app");
+        
+        assertThat(service.getIndex("kepler-app")).isNotSameAs(index);
+    }
+    
+    private RepositoryRefsChangedEvent event(String oldId, String newId, List<String> changedPaths) {
+        return new RepositoryRefsChangedEvent("kepler-app", repoDir.toString(), List.of(
+            new RepositoryRefsChangedEvent.RefChange("refs/heads/main", oldId, newId, changedPaths)));
+    }
+    
+    private void write(String path) throws Exception {
+        Path file = repoDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, path);
+    }
+    
+    private String commit(String message) throws Exception {
+        git.add().addFilepattern(".").call();
+        return git.commit().setMessage(message).setAuthor("test", "test@example.com").call().getName();
+    }
+}
@@ -0,0 +1,143 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.event.RepositoryRefsChangedEvent;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Background syncs of a clone of a file:// remote
+ */
+class RepositorySyncServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private final RepositorySyncService service = new RepositorySyncService();
+    private final MultiRepositoryService multiRepositoryService = mock(MultiRepositoryService.class);
+    private final MultiRepositoryConfig multiRepositoryConfig = new MultiRepositoryConfig();
+    private final GitService gitService = spy(new GitService());
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final MultiRepositoryConfig.RepositoryConfig repo = new MultiRepositoryConfig.RepositoryConfig();
+    private Git upstream;
+    
+    @BeforeEach
+    void wire() throws Exception {
+        Path upstreamDir = tempDir.resolve("upstream");
+        upstream = Git.init().setDirectory(upstreamDir.toFile()).setInitialBranch("main").call();
+        commit("initial", "src/Orders.java", "class Orders {}");
+        
+        repo.setId("kepler-app");
+        repo.setPath(tempDir.resolve("local").toString());
+        repo.setBranch("main");
+        repo.setRemoteUrl(upstreamDir.toUri().toString());
+        repo.setEnabled(true);
+        when(multiRepositoryService.getRepository("kepler-app")).thenReturn(repo);
+        when(multiRepositoryService.getEnabledRepositories()).thenReturn(List.of(repo));
+        ReflectionTestUtils.setField(service, "multiRepositoryService", multiRepositoryService);
+        ReflectionTestUtils.setField(service, "multiRepositoryConfig", multiRepositoryConfig);
+        ReflectionTestUtils.setField(service, "gitService", gitService);
+        ReflectionTestUtils.setField(service, "eventPublisher", eventPublisher);
+    }
+    
+    @AfterEach
+    void stop() {
+        service.shutdown();
+        upstream.close();
+    }
+    
+    @Test
+    void syncPublishesTheRefsThatMovedAndThePathsTheyTouched() throws Exception {
+        RepositoryRefsChangedEvent cloned = service.syncRepository("kepler-app");
+        assertThat(cloned.getRefChanges()).allMatch(RepositoryRefsChangedEvent.RefChange::isCreated);
+        assertThat(cloned.getChangedPaths()).isEmpty();
+        assertThat(service.syncRepository("kepler-app")).isNull();
+        
+        String oldId = upstream.getRepository().resolve("HEAD").name();
+        commit("update", "src/Invoices.java", "class Invoices {}");
+        RepositoryRefsChangedEvent moved = service.syncRepository("kepler-app");
+        
+        assertThat(moved.getRepositoryId()).isEqualTo("kepler-app");
+        assertThat(moved.getRefChanges()).extracting(RepositoryRefsChangedEvent.RefChange::getRefName)
+            .containsExactly("refs/heads/main", "refs/remotes/origin/main");
+        assertThat(moved.getRefChanges().get(0).getOldId()).isEqualTo(oldId);
+        assertThat(moved.getChangedPaths()).containsExactly("src/Invoices.java");
+        verify(eventPublisher).publishEvent(cloned);
+        verify(eventPublisher).publishEvent(moved);
+        assertThat(service.getSyncStatus().get("kepler-app"))
+            .containsEntry("success", true)
+            .containsEntry("changedRefs", 2);
+    }
+    
+    @Test
+    void failedSyncIsRecordedAndPublishesNothing() {
+        repo.setRemoteUrl(tempDir.resolve("missing").toUri().toString());
+        
+        assertThat(service.syncRepository("kepler-app")).isNull();
+        
+        Map<String, Object> status = service.getSyncStatus().get("kepler-app");
+        assertThat(status).containsEntry("success", false).containsKey("lastSync");
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
+    @Test
+    void repositoriesThatCannotSyncAreSkipped() {
+        assertThat(service.syncRepository("unknown")).isNull();
+        repo.setEnabled(false);
+        assertThat(service.syncRepository("kepler-app")).isNull();
+        repo.setEnabled(true);
+        repo.setRemoteUrl("");
+        assertThat(service.syncRepository("kepler-app")).isNull();
+        
+        verifyNoInteractions(gitService);
+        assertThat(service.getSyncStatus()).isEmpty();
+    }
+    
+    @Test
+    void claimedRepositoryIsSkippedUntilReleased() {
+        assertThat(service.tryClaim("kepler-app")).isTrue();
+        assertThat(service.tryClaim("kepler-app")).isFalse();
+        
+        assertThat(service.syncRepository("kepler-app")).isNull();
+        verifyNoInteractions(gitService);
+        
+        service.release("kepler-app");
+        assertThat(service.syncRepository("kepler-app")).isNotNull();
+        assertThat(service.tryClaim("kepler-app")).isTrue();
+    }
+    
+    @Test
+    void scheduledSyncsRunOnTheConfiguredInterval() throws Exception {
+        repo.setSyncIntervalSeconds(1);
+        
+        service.startScheduledSyncs();
+        
+        for (int i = 0; i < 100 && service.getSyncStatus().isEmpty(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(service.getSyncStatus()).containsKey("kepler-app");
+    }
+    
+    private void commit(String message, String path, String content) throws Exception {
+        Path file = upstream.getRepository().getWorkTree().toPath().resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        upstream.add().addFilepattern(".").call();
+        upstream.commit().setMessage(message).setAuthor("test", "test@example.com").call();
+    }
+}
@@ -0,0 +1,125 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.event.RepositoryRefsChangedEvent;
+import com.testplatform.backend.util.SymbolGraph;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+/**
+ * Full and incremental graph builds over a local repository
+ */
+class SymbolGraphServiceTest {
+    
+    private static final String REPOSITORY = "src/main/java/com/acme/OrderRepository.java";
+    private static final String SERVICE = "src/main/java/com/acme/OrderService.java";
+    private static final String CONTROLLER = "src/main/java/com/acme/OrderController.java";
+    
+    @TempDir
+    Path repoDir;
+    
+    private final SymbolGraphService service = new SymbolGraphService();
+    private final CodeAnalyzerService analyzer = spy(new CodeAnalyzerService());
+    private Git git;
+    
+    @BeforeEach
+    void wire() throws Exception {
+        git = Git.init().setDirectory(repoDir.toFile()).setInitialBranch("main").call();
+        MultiRepositoryConfig.RepositoryConfig repo = new MultiRepositoryConfig.RepositoryConfig();
+        repo.setId("kepler-app");
+        repo.setPath(repoDir.toString());
+        repo.setBranch("main");
+        MultiRepositoryService multiRepositoryService = mock(MultiRepositoryService.class);
+        when(multiRepositoryService.getRepository("kepler-app")).thenReturn(repo);
+        
+        ReflectionTestUtils.setField(service, "multiRepositoryService", multiRepositoryService);
+        ReflectionTestUtils.setField(service, "gitService", new GitService());
+        ReflectionTestUtils.setField(service, "codeAnalyzerService", analyzer);
+        ReflectionTestUtils.setField(service, "appProperties", new AppProperties());
+        service.init();
+        
+        write(REPOSITORY, "public class OrderRepository { }");
+        write(SERVICE, "public class OrderService {\n    @Autowired\n    private OrderRepository orderRepository;\n}");
+        write(CONTROLLER, "public class OrderController {\n    @Autowired\n    private OrderService orderService;\n}");
+        write("README.md", "public class NotSource { }");
+    }
+    
+    @AfterEach
+    void stop() {
+        service.shutdown();
+        git.close();
+    }
+    
+    @Test
+    void fullBuildIndexesSourceFiles() throws Exception {
+        String commitId = commit("initial");
+        
+        SymbolGraph graph = service.getGraph("kepler-app");
+        
+        assertThat(graph.getCommitId()).isEqualTo(commitId);
+        assertThat(graph.fileCount()).isEqualTo(3);
+        assertThat(graph.getDependents("OrderRepository", true)).containsExactly("OrderController", "OrderService");
+        assertThat(service.getGraph("kepler-app")).isSameAs(graph);
+        assertThat(service.getGraph("unknown")).isNull();
+    }
+    
+    @Test
+    void fileThatFailsAnalysisKeepsItsPreviousSymbols() throws Exception {
+        String oldId = commit("initial");
+        service.getGraph("kepler-app");
+        
+        doThrow(new IllegalStateException("unparseable")).when(analyzer).analyzeStructure(contains("BROKEN"), anyString());
+        write(SERVICE, "public class OrderService { BROKEN }");
+        write(CONTROLLER, "public class OrderController { }");
+        String newId = commit("update");
+        service.onRefsChanged(new RepositoryRefsChangedEvent("kepler-app", repoDir.toString(), List.of(
+            new RepositoryRefsChangedEvent.RefChange("refs/heads/main", oldId, newId, List.of(SERVICE, CONTROLLER)))));
+        
+        SymbolGraph graph = service.getGraph("kepler-app");
+        assertThat(graph.getCommitId()).isEqualTo(newId);
+        assertThat(graph.fileCount()).isEqualTo(3);
+        assertThat(graph.getDependencies("OrderService")).containsExactly("OrderRepository");
+        assertThat(graph.getDependencies("OrderController")).isEmpty();
+    }
+    
+    @Test
+    void deletedFilesLeaveTheGraph() throws Exception {
+        String oldId = commit("initial");
+        service.getGraph("kepler-app");
+        
+        git.rm().addFilepattern(CONTROLLER).call();
+        String newId = commit("remove controller");
+        service.onRefsChanged(new RepositoryRefsChangedEvent("kepler-app", repoDir.toString(), List.of(
+            new RepositoryRefsChangedEvent.RefChange("refs/heads/main", oldId, newId, List.of(CONTROLLER)))));
+        
+        SymbolGraph graph = service.getGraph("kepler-app");
+        assertThat(graph.fileCount()).isEqualTo(2);
+        assertThat(graph.contains("OrderController")).isFalse();
+    }
+    
+    private void write(String path, String content) throws Exception {
+        Path file = repoDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+    
+    private String commit(String message) throws Exception {
+        git.add().addFilepattern(".").call();
+        return git.commit().setMessage(message).setAuthor("test", "test@example.com").call().getName();
+    }
+}
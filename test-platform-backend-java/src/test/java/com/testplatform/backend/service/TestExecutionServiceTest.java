@@ -0,0 +1,212 @@
+package com.testplatform.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.enums.ExecutionStatus;
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.event.TestExecutionEvent;
+import com.testplatform.backend.event.TestSuitesChangedEvent;
+import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.model.TestExecution;
+import com.testplatform.backend.model.TestSuite;
+import com.testplatform.backend.repository.TestExecutionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Running test suites against the shared suite store
+ */
+class TestExecutionServiceTest {
+    
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    // Pending test cases in the store as each test result is announced
+    private final List<Integer> pendingWhenFinished = new CopyOnWriteArrayList<>();
+    // Released once per published completion, which comes after the final save
+    private final Semaphore completions = new Semaphore(0);
+    private final TestExecutionRepository testExecutionRepository = mock(TestExecutionRepository.class);
+    private final TestGenerationService testGenerationService = mock(TestGenerationService.class);
+    private final TestSuiteStore testSuiteStore = new TestSuiteStore();
+    private final TestExecutionService service = new TestExecutionService();
+    
+    @BeforeEach
+    void wire() {
+        ApplicationEventPublisher publisher = event -> {
+            events.add(event);
+            if (event instanceof TestExecutionEvent
+                    && ((TestExecutionEvent) event).getType() == TestExecutionEvent.Type.TEST_FINISHED) {
+                pendingWhenFinished.add(testSuiteStore.countTestCases(((TestExecutionEvent) event).getRepositoryId(), TestStatus.PENDING));
+            }
+            if (event instanceof TestExecutionEvent
+                    && ((TestExecutionEvent) event).getType() == TestExecutionEvent.Type.COMPLETED) {
+                completions.release();
+            }
+        };
+        ReflectionTestUtils.setField(testSuiteStore, "eventPublisher", publisher);
+        
+        MultiRepositoryConfig multiRepositoryConfig = new MultiRepositoryConfig();
+        multiRepositoryConfig.setDefaultRepository("kepler-app");
+        ReflectionTestUtils.setField(service, "multiRepositoryConfig", multiRepositoryConfig);
+        ReflectionTestUtils.setField(service, "testExecutionRepository", testExecutionRepository);
+        ReflectionTestUtils.setField(service, "testGenerationService", testGenerationService);
+        ReflectionTestUtils.setField(service, "testSuiteStore", testSuiteStore);
+        ReflectionTestUtils.setField(service, "eventPublisher", publisher);
+        ReflectionTestUtils.setField(service, "scheduler", new ImmediateScheduler());
+    }
+    
+    @AfterEach
+    void stop() {
+        service.shutdown();
+    }
+    
+    @Test
+    void suiteExecutionIsRecordedAgainstTheSuitesRepository() throws Exception {
+        TestSuite suite = suite("1", 20);
+        testSuiteStore.replaceRepository("shared-services", List.of(suite), stored -> "Auth Service");
+        
+        TestExecution execution = run("1");
+        
+        assertThat(execution.getRepositoryId()).isEqualTo("shared-services");
+        assertThat(execution.getStatus()).isEqualTo(ExecutionStatus.COMPLETED);
+        assertThat(execution.getResults().getTotal()).isEqualTo(20);
+        verify(testGenerationService).updateTestSuiteStatus("1", TestStatus.RUNNING, "shared-services");
+        verify(testGenerationService).updateTestSuiteStatus("1", TestStatus.COMPLETED, "shared-services");
+        assertThat(events).filteredOn(TestExecutionEvent.class::isInstance)
+            .extracting(event -> ((TestExecutionEvent) event).getRepositoryId())
+            .hasSize(22)
+            .containsOnly("shared-services");
+        assertThat(testSuiteStore.countTestCases("shared-services", TestStatus.PENDING)).isZero();
+    }
+    
+    @Test
+    void prExecutionRecordsEachSuiteInOneUpdateBeforeAnnouncingResults() throws Exception {
+        List<TestSuite> suites = List.of(suite("1", 5), suite("2", 3));
+        suites.forEach(suite -> suite.setPrNumber(7));
+        testSuiteStore.replaceRepository("kepler-app", suites, stored -> "Project Service");
+        when(testGenerationService.getTestsForPR(7, "kepler-app")).thenReturn(testSuiteStore.findByPr("kepler-app", 7));
+        events.clear();
+        
+        service.executeTestsForPR(7, "feature/x");
+        assertThat(completions.tryAcquire(10, TimeUnit.SECONDS)).isTrue();
+        ArgumentCaptor<TestExecution> saved = ArgumentCaptor.forClass(TestExecution.class);
+        verify(testExecutionRepository, times(2)).save(saved.capture());
+        
+        TestExecution execution = saved.getValue();
+        assertThat(execution.getStatus()).isEqualTo(ExecutionStatus.COMPLETED);
+        assertThat(execution.getResults().getPassed() + execution.getResults().getFailed()).isEqualTo(8);
+        // Suite 1's results are announced after all of it ran, suite 2's after that
+        assertThat(pendingWhenFinished).containsExactly(3, 3, 3, 3, 3, 0, 0, 0);
+        assertThat(events).filteredOn(TestSuitesChangedEvent.class::isInstance).hasSize(2);
+    }
+    
+    @Test
+    void executedSuiteCanBePagedByStatus() throws Exception {
+        testSuiteStore.replaceRepository("kepler-app", List.of(suite("1", 450), suite("2", 30)), stored -> "Project Service");
+        
+        run("1");
+        
+        int failed = testSuiteStore.countTestCases("kepler-app", TestStatus.FAILED);
+        assertThat(failed).isPositive();
+        List<String> passedIds = pageThrough(TestStatus.PASSED, 120);
+        List<String> failedIds = pageThrough(TestStatus.FAILED, 7);
+        List<String> pendingIds = pageThrough(TestStatus.PENDING, 1000);
+        
+        assertThat(passedIds).hasSize(450 - failed).doesNotHaveDuplicates().allMatch(id -> id.startsWith("1-"));
+        assertThat(failedIds).hasSize(failed).doesNotHaveDuplicates().doesNotContainAnyElementsOf(passedIds);
+        assertThat(pendingIds).hasSize(30).allMatch(id -> id.startsWith("2-"));
+        // Cases of a suite that ran together are ordered by their position in the suite
+        assertThat(passedIds).isSortedAccordingTo(Comparator.comparingInt(id -> Integer.parseInt(id.substring(2))));
+    }
+    
+    @Test
+    void unknownSuiteFailsInTheDefaultRepository() throws Exception {
+        TestExecution execution = run("missing");
+        
+        assertThat(execution.getRepositoryId()).isEqualTo("kepler-app");
+        assertThat(execution.getStatus()).isEqualTo(ExecutionStatus.FAILED);
+        assertThat(execution.getErrorMessage()).isEqualTo("Test suite not found");
+    }
+    
+    /**
+     * Follow the cursor through every page of one status and return the test case ids in order
+     */
+    private List<String> pageThrough(TestStatus status, int limit) throws Exception {
+        List<String> ids = new ArrayList<>();
+        TestSuiteStore.TestCaseKey after = null;
+        do {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            service.writeTestCaseResultsPage(out, "kepler-app", status, after, limit, Set.of("id", "status"));
+            JsonNode page = new ObjectMapper().readTree(out.toByteArray());
+            assertThat(page.get("count").asInt()).isLessThanOrEqualTo(limit);
+            for (JsonNode testCase : page.get("data")) {
+                assertThat(testCase.get("status").asText()).isEqualTo(status.name());
+                ids.add(testCase.get("id").asText());
+            }
+            after = page.has("nextCursor") ? TestSuiteStore.TestCaseKey.decode(page.get("nextCursor").asText()) : null;
+        } while (after != null);
+        return ids;
+    }
+    
+    /**
+     * Execute a suite and return the execution as finally saved
+     */
+    private TestExecution run(String suiteId) throws InterruptedException {
+        service.executeTestSuite(suiteId);
+        assertThat(completions.tryAcquire(10, TimeUnit.SECONDS)).isTrue();
+        ArgumentCaptor<TestExecution> saved = ArgumentCaptor.forClass(TestExecution.class);
+        verify(testExecutionRepository, times(2)).save(saved.capture());
+        return saved.getValue();
+    }
+    
+    static TestSuite suite(String id, int cases) {
+        TestSuite suite = new TestSuite();
+        suite.setId(id);
+        suite.setName("Suite " + id);
+        suite.setStatus(TestStatus.PENDING);
+        List<TestCase> testCases = new ArrayList<>();
+        for (int i = 0; i < cases; i++) {
+            TestCase testCase = new TestCase();
+            testCase.setId(id + "-" + i);
+            testCase.setName("case" + i);
+            testCase.setStatus(TestStatus.PENDING);
+            testCases.add(testCase);
+        }
+        suite.setTestCases(testCases);
+        return suite;
+    }
+    
+    /**
+     * Runs scheduled executions without their start delay
+     */
+    private static final class ImmediateScheduler extends ScheduledThreadPoolExecutor {
+        ImmediateScheduler() {
+            super(1);
+        }
+        
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            return super.schedule(command, 0, unit);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test file changes under watched roots reach TestGenerationService, debounced per repository
+ */
+class TestFileWatcherServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private final TestFileWatcherService service = new TestFileWatcherService();
+    private final TestGenerationService testGenerationService = mock(TestGenerationService.class);
+    private final MultiRepositoryService multiRepositoryService = mock(MultiRepositoryService.class);
+    private final AppProperties appProperties = new AppProperties();
+    // refreshTestFiles is synchronized, so a verify with timeout would hold the mock's monitor and block the watcher
+    private final BlockingQueue<Collection<File>> refreshed = new LinkedBlockingQueue<>();
+    private Path testRoot;
+    
+    @BeforeEach
+    void wire() throws Exception {
+        testRoot = Files.createDirectories(tempDir.resolve("src/test/java"));
+        MultiRepositoryConfig.RepositoryConfig repo = new MultiRepositoryConfig.RepositoryConfig();
+        repo.setId("kepler-app");
+        when(multiRepositoryService.getEnabledRepositories()).thenReturn(List.of(repo));
+        when(testGenerationService.getTestWatchRoots("kepler-app")).thenReturn(List.of(testRoot, tempDir.resolve("missing")));
+        appProperties.getTestGeneration().setWatchEnabled(true);
+        appProperties.getTestGeneration().setWatchDebounceMs(100L);
+        ReflectionTestUtils.setField(service, "testGenerationService", testGenerationService);
+        ReflectionTestUtils.setField(service, "multiRepositoryService", multiRepositoryService);
+        ReflectionTestUtils.setField(service, "appProperties", appProperties);
+        when(testGenerationService.refreshTestFiles(eq("kepler-app"), any())).thenAnswer(invocation -> {
+            refreshed.add(invocation.getArgument(1));
+            return 1;
+        });
+    }
+    
+    @AfterEach
+    void stop() {
+        service.shutdown();
+    }
+    
+    @Test
+    void changedTestFilesAreRefreshedTogetherAfterTheDebounce() throws Exception {
+        service.startWatching();
+        
+        Path first = Files.writeString(testRoot.resolve("OrdersTest.java"), "class OrdersTest {}");
+        Files.writeString(testRoot.resolve("Orders.java"), "class Orders {}");
+        Path second = Files.writeString(testRoot.resolve("InvoicesTests.java"), "class InvoicesTests {}");
+        
+        assertThat(refreshed.poll(10, TimeUnit.SECONDS)).containsExactlyInAnyOrder(first.toFile(), second.toFile());
+    }
+    
+    @Test
+    void testFilesInNewDirectoriesAreFoundAndDeletedDirectoriesReconciled() throws Exception {
+        service.startWatching();
+        
+        Path packageDir = testRoot.resolve("com/acme");
+        Files.createDirectories(packageDir);
+        File created = Files.writeString(packageDir.resolve("ParcelTest.java"), "class ParcelTest {}").toFile();
+        assertThat(refreshed.poll(10, TimeUnit.SECONDS)).containsExactly(created);
+        
+        Files.delete(created.toPath());
+        Files.delete(packageDir);
+        verify(testGenerationService, timeout(10_000).atLeastOnce()).reconcileTestFiles("kepler-app");
+    }
+    
+    @Test
+    void disabledWatchingLooksAtNoRepository() {
+        appProperties.getTestGeneration().setWatchEnabled(false);
+        
+        service.startWatching();
+        
+        verify(testGenerationService, never()).getTestWatchRoots(anyString());
+    }
+}
@@ -0,0 +1,438 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.config.AppProperties;
+import com.testplatform.backend.config.MultiRepositoryConfig;
+import com.testplatform.backend.dto.ServiceTestSummaryDTO;
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.enums.TestType;
+import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.model.TestSuite;
+import com.testplatform.backend.repository.GeneratedTestSuiteRepository;
+import com.testplatform.backend.util.RepositoryPathIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Loading discovered test suites from repository working trees and their catalogs
+ */
+class TestGenerationServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private final MultiRepositoryService multiRepositoryService = mock(MultiRepositoryService.class);
+    private final GeneratedTestSuiteRepository generatedTestSuiteRepository = mock(GeneratedTestSuiteRepository.class);
+    private final RepositoryPathIndexService repositoryPathIndexService = mock(RepositoryPathIndexService.class);
+    private final GitService gitService = mock(GitService.class);
+    private final AppProperties appProperties = new AppProperties();
+    private final MultiRepositoryConfig multiRepositoryConfig = new MultiRepositoryConfig();
+    private final List<MultiRepositoryConfig.RepositoryConfig> repositories = new ArrayList<>();
+    private TestSuiteStore testSuiteStore;
+    private TestGenerationService service;
+    
+    @BeforeEach
+    void createRepositories() throws Exception {
+        appProperties.getTestGeneration().setCatalogDir(tempDir.resolve("catalog").toString());
+        multiRepositoryConfig.setDefaultRepository("kepler-app");
+        when(multiRepositoryService.getEnabledRepositories()).thenReturn(repositories);
+        when(generatedTestSuiteRepository.findAllByRepository()).thenReturn(Map.of());
+        
+        writeTest("kepler", "project-service/src/test/java/ProjectTest.java", "ProjectTest", 3);
+        writeTest("kepler", "work-service/src/test/java/WorkTests.java", "WorkTests", 2);
+        writeTest("shared", "auth/src/test/java/AuthTest.java", "AuthTest", 4);
+        writeTest("shared", "billing/src/test/java/BillingTest.java", "BillingTest", 4);
+    }
+    
+    @Test
+    void catalogIdsOfEveryRepositoryAreReservedBeforeParsing() {
+        addRepository("kepler-app", "kepler");
+        start();
+        Set<String> keplerIds = ids(testSuiteStore.findAll("kepler-app"));
+        
+        // Shared services is scanned first and parses every file; kepler's suites come from its catalog
+        repositories.add(0, repository("shared-services", "shared"));
+        start();
+        
+        assertThat(ids(testSuiteStore.findAll("kepler-app"))).isEqualTo(keplerIds);
+        Set<String> sharedIds = ids(testSuiteStore.findAll("shared-services"));
+        assertThat(sharedIds).doesNotContainAnyElementsOf(keplerIds);
+        for (TestSuite suite : testSuiteStore.findAll("kepler-app")) {
+            assertThat(testSuiteStore.findById(suite.getId())).containsSame(suite);
+        }
+    }
+    
+    @Test
+    void generatedSuiteIdsAreReservedBeforeParsing() {
+        TestSuite generated = new TestSuite();
+        generated.setId("1000");
+        generated.setName("Generated Suite");
+        generated.setPrNumber(12);
+        generated.setFilePath("project-service/src/test/java/GeneratedTest.java");
+        TestCase testCase = new TestCase();
+        testCase.setId("1001");
+        testCase.setName("generated");
+        generated.setTestCases(new ArrayList<>(List.of(testCase)));
+        when(generatedTestSuiteRepository.findAllByRepository()).thenReturn(Map.of("kepler-app", List.of(generated)));
+        addRepository("kepler-app", "kepler");
+        
+        start();
+        
+        assertThat(testSuiteStore.findAll("kepler-app")).hasSize(3);
+        assertThat(ids(testSuiteStore.findAll("kepler-app"))).contains("1000", "1001");
+        assertThat(testSuiteStore.findById("1000")).containsSame(generated);
+    }
+    
+    @Test
+    void pathIndexFindsCommittedAndUncommittedTestFilesOnDisk() throws Exception {
+        addRepository("kepler-app", "kepler");
+        writeTest("kepler", "work-service/src/test/java/DraftTest.java", "DraftTest", 1);
+        writeTest("kepler", "project-service/target/test-classes/CopiedTest.java", "CopiedTest", 1);
+        String repoPath = tempDir.resolve("kepler").toString();
+        when(repositoryPathIndexService.getIndex("kepler-app")).thenReturn(RepositoryPathIndex.build("c1", List.of(
+            "project-service/src/test/java/ProjectTest.java",
+            "project-service/src/test/java/SparseTest.java",
+            "project-service/target/test-classes/CopiedTest.java",
+            "work-service/src/test/java/WorkTests.java",
+            "work-service/src/main/java/Work.java")));
+        when(gitService.listUncommittedFiles(eq(repoPath), any()))
+            .thenReturn(Set.of("work-service/src/test/java/DraftTest.java", "work-service/src/main/java/Draft.java"));
+        
+        start();
+        
+        assertThat(testSuiteStore.findAll("kepler-app")).extracting(TestSuite::getName)
+            .containsExactlyInAnyOrder("Project Test Suite", "Work Test Suite", "Draft Test Suite");
+        assertThat(service.getDiscoveryMetrics().get("kepler-app"))
+            .containsEntry("source", "path-index")
+            .containsEntry("testFiles", 3);
+    }
+    
+    @Test
+    void repositoriesWithoutScanRootsAreNotScanned() {
+        addRepository("docs", "kepler");
+        start();
+        
+        assertThat(testSuiteStore.findAll("docs")).isEmpty();
+        assertThat(service.getDiscoveryMetrics()).doesNotContainKey("docs");
+        assertThat(service.getTestWatchRoots("docs")).isEmpty();
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void queriesAreAnsweredFromTheStore() {
+        addRepository("kepler-app", "kepler");
+        start();
+        
+        assertThat(service.getAllTests()).hasSize(2);
+        assertThat(service.getAllTests("shared-services")).isEmpty();
+        assertThat(service.getAvailableRepositories()).containsExactly(
+            Map.of("id", "kepler-app", "name", "KEPLER APP", "testCount", "2"));
+        
+        Map<String, Object> stats = service.getTestStats();
+        assertThat(stats).containsEntry("totalSuites", 2).containsEntry("totalTestCases", 5);
+        assertThat((Map<String, Long>) stats.get("byType")).containsEntry("UNIT", 2L).containsEntry("E2E", 0L);
+        assertThat((Map<String, Long>) stats.get("byLanguage")).containsEntry("java", 0L);
+    }
+    
+    @Test
+    void testsAreSummarizedPerService() {
+        addRepository("kepler-app", "kepler");
+        start();
+        
+        List<ServiceTestSummaryDTO> summaries = service.getTestsByService();
+        
+        assertThat(summaries).extracting(ServiceTestSummaryDTO::getServiceName)
+            .containsExactlyInAnyOrder("Project Service", "Work Service");
+        ServiceTestSummaryDTO project = summaries.stream()
+            .filter(summary -> summary.getServiceName().equals("Project Service")).findFirst().orElseThrow();
+        assertThat(project.getServiceId()).isEqualTo("project-service");
+        assertThat(project.getRepository()).isEqualTo("kepler-app/project-service");
+        assertThat(project.getTotalTestSuites()).isEqualTo(1);
+        assertThat(project.getTotalTestCases()).isEqualTo(3);
+        assertThat(project.getPassedTests() + project.getFailedTests() + project.getPendingTests()).isEqualTo(3);
+        assertThat(project.getTestsByType()).containsEntry("UNIT", 3);
+        assertThat(project.getSuitesByType()).containsEntry("UNIT", 1);
+        assertThat(project.getLastRun()).isNotNull();
+        assertThat(project.getAvgCoverage()).isBetween(65.0, 98.0);
+        assertThat(project.getOverallStatus()).isEqualTo(project.getFailedTests() > 0 ? TestStatus.FAILED : TestStatus.PASSED);
+    }
+    
+    @Test
+    void suitesAreGroupedByTheServiceInTheirPath() {
+        start();
+        for (String path : new String[] {"contributor-service/A.java", "public-api-service/B.java", "api-gateway/C.java",
+                "batchjob-service/D.java", "/shared-services/auth-service/E.java", "tools/F.java", null}) {
+            TestSuite suite = new TestSuite();
+            suite.setFilePath(path);
+            suite.setType(TestType.UNIT);
+            suite.setTotalTests(0);
+            service.saveTestSuite(suite);
+        }
+        
+        List<ServiceTestSummaryDTO> summaries = service.getTestsByService("kepler-app");
+        
+        assertThat(summaries).extracting(ServiceTestSummaryDTO::getServiceName).containsExactlyInAnyOrder(
+            "Contributor Service", "Public API Service", "API Gateway", "Batch Job Service", "Shared Service",
+            "Generic Test Service", "Unknown Service");
+        assertThat(summaries).allSatisfy(summary -> {
+            assertThat(summary.getOverallStatus()).isEqualTo(TestStatus.PENDING);
+            assertThat(summary.getPassRate()).isZero();
+        });
+        assertThat(summaries).filteredOn(summary -> summary.getServiceName().equals("API Gateway"))
+            .extracting(ServiceTestSummaryDTO::getDescription).containsExactly("Kepler App Service");
+    }
+    
+    @Test
+    void generatedSuitesArePersistedThroughTheirLifecycle() {
+        addRepository("kepler-app", "kepler");
+        start();
+        TestSuite suite = new TestSuite();
+        suite.setPrNumber(12);
+        suite.setType(TestType.UNIT);
+        suite.setFilePath("project-service/src/main/java/Project.java");
+        
+        TestSuite saved = service.saveTestSuite(suite);
+        
+        assertThat(saved.getId()).isNotNull();
+        assertThat(service.getTestsForPR(12)).containsExactly(saved);
+        verify(generatedTestSuiteRepository).save("kepler-app", saved);
+        
+        when(generatedTestSuiteRepository.contains(saved.getId())).thenReturn(true);
+        service.updateTestSuiteStatus(saved.getId(), TestStatus.COMPLETED);
+        TestSuite completed = testSuiteStore.findById(saved.getId()).orElseThrow();
+        assertThat(completed.getStatus()).isEqualTo(TestStatus.COMPLETED);
+        assertThat(completed.getLastRun()).isNotNull();
+        assertThat(saved.getStatus()).isEqualTo(TestStatus.PENDING);
+        verify(generatedTestSuiteRepository).save("kepler-app", completed);
+        
+        // Discovered suites are not generated, so only the store changes
+        TestSuite discovered = suiteNamed("kepler-app", "Work Test Suite");
+        service.updateTestSuiteStatus(discovered.getId(), TestStatus.RUNNING, "kepler-app");
+        TestSuite running = testSuiteStore.findById(discovered.getId()).orElseThrow();
+        assertThat(running.getStatus()).isEqualTo(TestStatus.RUNNING);
+        verify(generatedTestSuiteRepository, never()).save("kepler-app", running);
+        service.updateTestSuiteStatus("missing", TestStatus.RUNNING);
+        
+        service.deleteTestsForPR(12);
+        assertThat(service.getTestsForPR(12, "kepler-app")).isEmpty();
+        assertThat(service.getAllTests("kepler-app")).hasSize(2);
+        verify(generatedTestSuiteRepository).deleteByPr("kepler-app", 12);
+    }
+    
+    @Test
+    void catalogIsKeyedByRelativePathWithForwardSlashes() {
+        addRepository("kepler-app", "kepler");
+        start();
+        
+        TestCatalogService catalogService = new TestCatalogService();
+        ReflectionTestUtils.setField(catalogService, "appProperties", appProperties);
+        assertThat(catalogService.load("kepler-app").keySet()).containsExactlyInAnyOrder(
+            "project-service/src/test/java/ProjectTest.java", "work-service/src/test/java/WorkTests.java");
+    }
+    
+    @Test
+    void refreshReplacesChangedSuiteInPlace() throws Exception {
+        addRepository("kepler-app", "kepler");
+        start();
+        TestSuite before = suiteNamed("kepler-app", "Project Test Suite");
+        
+        Path file = writeTest("kepler", "project-service/src/test/java/ProjectTest.java", "ProjectTest", 5);
+        assertThat(service.refreshTestFiles("kepler-app", List.of(file.toFile()))).isEqualTo(1);
+        
+        assertThat(testSuiteStore.findAll("kepler-app")).hasSize(2);
+        TestSuite after = suiteNamed("kepler-app", "Project Test Suite");
+        assertThat(after.getId()).isEqualTo(before.getId());
+        assertThat(after.getTestCases()).hasSize(5);
+    }
+    
+    @Test
+    void reconcileOnlyRefreshesFilesThatDiffer() throws Exception {
+        addRepository("kepler-app", "kepler");
+        start();
+        assertThat(service.reconcileTestFiles("kepler-app")).isZero();
+        
+        Path file = writeTest("kepler", "work-service/src/test/java/WorkTests.java", "WorkTests", 1);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        assertThat(service.reconcileTestFiles("kepler-app")).isEqualTo(1);
+        
+        assertThat(testSuiteStore.findAll("kepler-app")).hasSize(2);
+        assertThat(suiteNamed("kepler-app", "Work Test Suite").getTestCases()).hasSize(1);
+        assertThat(service.reconcileTestFiles("kepler-app")).isZero();
+    }
+    
+    @Test
+    void methodsWhoseTestsWereCutByTheLimitAreGeneratedAgain() throws Exception {
+        String code = "public class Calc {\n    public int a(int x) { return x; }\n"
+            + "    public int b(int x) { return x + 1; }\n    public int c(int x) { return x + 2; }\n}\n";
+        appProperties.getTestGeneration().setMaxTestsPerFile(2);
+        start();
+        LlmService llmService = mock(LlmService.class);
+        when(llmService.generateTestCases(anyString(), any(), anyString(), anyString(), any(), any()))
+            .thenReturn(List.of(taggedTest("a"), taggedTest("b"), taggedTest("c")));
+        ReflectionTestUtils.setField(service, "llmService", llmService);
+        ReflectionTestUtils.setField(service, "codeAnalyzerService", new CodeAnalyzerService());
+        
+        assertThat(service.generateTestCases(code, TestType.UNIT, "java", "Calc.java").get()).hasSize(2);
+        service.generateTestCases(code, TestType.UNIT, "java", "Calc.java").get();
+        
+        // Only c lost its test to the limit, so only c is sent again
+        verify(llmService).generateTestCases(eq(code), eq(TestType.UNIT), eq("java"), eq("Calc.java"),
+            eq(Set.of("c(int)")), isNull());
+    }
+    
+    @Test
+    void unchangedMethodsKeepTheirTestsAndChangedOnesAreRegenerated() throws Exception {
+        String code = "public class Calc {\n    public int a(int x) { return x; }\n    public int b(int x) { return x + 1; }\n}\n";
+        start();
+        LlmService llmService = mock(LlmService.class);
+        when(llmService.generateTestCases(anyString(), any(), anyString(), anyString(), any(), any()))
+            .thenReturn(List.of(taggedTest("a"), taggedTest("b")))
+            .thenReturn(List.of(taggedTest("b")));
+        ReflectionTestUtils.setField(service, "llmService", llmService);
+        ReflectionTestUtils.setField(service, "codeAnalyzerService", new CodeAnalyzerService());
+        
+        List<TestCase> first = service.generateTestCases(code, TestType.UNIT, "java", "Calc.java").get();
+        List<TestCase> unchanged = service.generateTestCases(code, TestType.UNIT, "java", "Calc.java", Set.of()).get();
+        String changedB = code.replace("x + 1", "x + 2");
+        List<TestCase> onlyB = service.generateTestCases(changedB, TestType.UNIT, "java", "Calc.java", Set.of("a", "b")).get();
+        
+        // Requested methods that did not change keep their tests too
+        assertThat(unchanged).extracting(TestCase::getName).containsExactly("test a", "test b");
+        assertThat(unchanged.get(0).getId()).isNotEqualTo(first.get(0).getId());
+        assertThat(onlyB).extracting(TestCase::getName).containsExactlyInAnyOrder("test a", "test b");
+        verify(llmService, times(2)).generateTestCases(anyString(), any(), anyString(), anyString(), any(), any());
+        verify(llmService).generateTestCases(eq(changedB), eq(TestType.UNIT), eq("java"), eq("Calc.java"),
+            eq(Set.of("b(int)")), isNull());
+        assertThat(service.getGenerationCacheStats()).isNotNull();
+    }
+    
+    @Test
+    void withoutIncrementalGenerationTheWholeFileIsSent() throws Exception {
+        appProperties.getTestGeneration().setIncrementalEnabled(false);
+        start();
+        LlmService llmService = mock(LlmService.class);
+        when(llmService.generateTestCases(anyString(), any(), anyString(), anyString(), any(), any()))
+            .thenReturn(List.of(taggedTest("a")));
+        ReflectionTestUtils.setField(service, "llmService", llmService);
+        
+        assertThat(service.generateTestCases("class Calc {}", TestType.UNIT, "java", "Calc.java").get()).hasSize(1);
+        
+        verify(llmService).generateTestCases("class Calc {}", TestType.UNIT, "java", "Calc.java", null, null);
+        assertThat(service.getGenerationCacheStats()).isNull();
+    }
+    
+    @Test
+    void failedGenerationFallsBackToTemplateTests() throws Exception {
+        start();
+        LlmService llmService = mock(LlmService.class);
+        when(llmService.generateTestCases(anyString(), any(), anyString(), anyString(), any(), any()))
+            .thenThrow(new IllegalStateException("LLM unavailable"));
+        ReflectionTestUtils.setField(service, "llmService", llmService);
+        ReflectionTestUtils.setField(service, "codeAnalyzerService", new CodeAnalyzerService());
+        
+        Map<TestType, Integer> expected = Map.of(TestType.UNIT, 3, TestType.INTEGRATION, 3, TestType.E2E, 2,
+            TestType.PERFORMANCE, 2, TestType.SECURITY, 2);
+        for (Map.Entry<TestType, Integer> entry : expected.entrySet()) {
+            List<TestCase> tests = service.generateTestCases("class Calc {}", entry.getKey(), "java", "Calc.java").get();
+            
+            assertThat(tests).as("%s", entry.getKey()).hasSize(entry.getValue())
+                .allSatisfy(test -> {
+                    assertThat(test.getType()).isEqualTo(entry.getKey());
+                    assertThat(test.getStatus()).isEqualTo(TestStatus.PENDING);
+                });
+        }
+    }
+    
+    /**
+     * Start a fresh service, as after a restart, over the on-disk catalogs
+     */
+    private void start() {
+        testSuiteStore = new TestSuiteStore();
+        ReflectionTestUtils.setField(testSuiteStore, "eventPublisher", mock(ApplicationEventPublisher.class));
+        TestCatalogService testCatalogService = new TestCatalogService();
+        ReflectionTestUtils.setField(testCatalogService, "appProperties", appProperties);
+        
+        service = new TestGenerationService();
+        ReflectionTestUtils.setField(service, "appProperties", appProperties);
+        ReflectionTestUtils.setField(service, "multiRepositoryService", multiRepositoryService);
+        ReflectionTestUtils.setField(service, "multiRepositoryConfig", multiRepositoryConfig);
+        ReflectionTestUtils.setField(service, "repositoryPathIndexService", repositoryPathIndexService);
+        ReflectionTestUtils.setField(service, "gitService", gitService);
+        ReflectionTestUtils.setField(service, "testCatalogService", testCatalogService);
+        ReflectionTestUtils.setField(service, "testSuiteStore", testSuiteStore);
+        ReflectionTestUtils.setField(service, "generatedTestSuiteRepository", generatedTestSuiteRepository);
+        service.init();
+    }
+    
+    private void addRepository(String id, String dir) {
+        repositories.add(repository(id, dir));
+    }
+    
+    private MultiRepositoryConfig.RepositoryConfig repository(String id, String dir) {
+        MultiRepositoryConfig.RepositoryConfig repo = new MultiRepositoryConfig.RepositoryConfig();
+        repo.setId(id);
+        repo.setName(id);
+        repo.setPath(tempDir.resolve(dir).toString());
+        when(multiRepositoryService.getRepository(id)).thenReturn(repo);
+        return repo;
+    }
+    
+    private Path writeTest(String dir, String path, String className, int methods) throws Exception {
+        StringBuilder source = new StringBuilder("import org.junit.jupiter.api.Test;\n\nclass " + className + " {\n");
+        for (int i = 0; i < methods; i++) {
+            source.append("    @Test\n    void case").append(i).append("() {\n    }\n");
+        }
+        Path file = tempDir.resolve(dir).resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source.append("}\n"), StandardCharsets.UTF_8);
+        return file;
+    }
+    
+    private static TestCase taggedTest(String method) {
+        TestCase test = new TestCase();
+        test.setName("test " + method);
+        test.setTags(new ArrayList<>(List.of(LlmService.METHOD_TAG_PREFIX + "Calc." + method + "(int)")));
+        return test;
+    }
+    
+    private TestSuite suiteNamed(String repositoryId, String name) {
+        return testSuiteStore.findAll(repositoryId).stream()
+            .filter(suite -> name.equals(suite.getName()))
+            .findFirst()
+            .orElseThrow();
+    }
+    
+    private static Set<String> ids(List<TestSuite> suites) {
+        Set<String> ids = new HashSet<>();
+        for (TestSuite suite : suites) {
+            assertThat(ids.add(suite.getId())).isTrue();
+            for (TestCase testCase : suite.getTestCases()) {
+                assertThat(ids.add(testCase.getId())).isTrue();
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,223 @@
+package com.testplatform.backend.service;
+
+import com.testplatform.backend.enums.TestStatus;
+import com.testplatform.backend.event.TestSuitesChangedEvent;
+import com.testplatform.backend.model.TestCase;
+import com.testplatform.backend.model.TestSuite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestSuiteStoreTest {
+    
+    private static final Function<TestSuite, String> BY_NAME = suite -> suite.getName() + " Service";
+    
+    private final List<TestSuitesChangedEvent> events = new ArrayList<>();
+    private final TestSuiteStore store = new TestSuiteStore();
+    
+    @BeforeEach
+    void wire() {
+        ApplicationEventPublisher publisher = event -> events.add((TestSuitesChangedEvent) event);
+        ReflectionTestUtils.setField(store, "eventPublisher", publisher);
+    }
+    
+    @Test
+    void idsComeFromOneSequenceAboveReservedIds() {
+        String first = store.nextId();
+        store.reserveIdsBelow(5000);
+        store.reserveIdsBelow(10);
+        
+        assertThat(Long.parseLong(store.nextId())).isEqualTo(5000);
+        assertThat(Long.parseLong(first)).isLessThan(5000);
+    }
+    
+    @Test
+    void replaceRepositoryIndexesSuitesAndPublishesTouchedIds() {
+        store.replaceRepository("repo", List.of(suite("1", "A", 7, TestStatus.PASSED), suite("2", "B", 7, TestStatus.FAILED)), BY_NAME);
+        events.clear();
+        store.replaceRepository("repo", List.of(suite("3", "A", null, TestStatus.PASSED)), BY_NAME);
+        
+        assertThat(ids(store.findAll("repo"))).containsExactly("3");
+        assertThat(store.findByPr("repo", 7)).isEmpty();
+        assertThat(ids(store.findByService("repo", "A Service"))).containsExactly("3");
+        assertThat(store.findById("1")).isEmpty();
+        assertThat(store.getRepositoryId("3")).isEqualTo("repo");
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getRepositoryId()).isEqualTo("repo");
+            assertThat(event.getSuiteIds()).containsExactlyInAnyOrder("1", "2", "3");
+        });
+    }
+    
+    @Test
+    void applyReplacesInPlaceAndRemovesInOneStep() {
+        store.replaceRepository("repo", List.of(suite("1", "A", 1, TestStatus.PASSED), suite("2", "B", 1, TestStatus.PASSED),
+            suite("3", "C", 2, TestStatus.PASSED)), BY_NAME);
+        
+        TestSuite replacement = suite("2", "B", 3, TestStatus.FAILED);
+        store.apply("repo", List.of("1", "missing"), List.of(replacement), BY_NAME);
+        
+        assertThat(ids(store.findAll("repo"))).containsExactly("2", "3");
+        assertThat(store.findById("2")).containsSame(replacement);
+        assertThat(ids(store.findByPr("repo", 1))).isEmpty();
+        assertThat(ids(store.findByPr("repo", 3))).containsExactly("2");
+        assertThat(ids(store.findByStatus("repo", TestStatus.FAILED))).containsExactly("2");
+        assertThat(events.get(events.size() - 1).getSuiteIds()).containsExactlyInAnyOrder("1", "2");
+    }
+    
+    @Test
+    void saveAssignsIdsAndRemoveByPrDropsOnlyThatPr() {
+        TestSuite saved = store.save("repo", suite(null, "A", 5, TestStatus.PASSED), "Svc");
+        store.save("repo", suite(null, "B", 6, TestStatus.PASSED), "Svc");
+        
+        assertThat(saved.getId()).isNotNull();
+        assertThat(store.getServiceName("repo", saved.getId())).isEqualTo("Svc");
+        assertThat(store.removeByPr("repo", 5)).isEqualTo(1);
+        assertThat(store.removeByPr("repo", 5)).isZero();
+        assertThat(store.removeByPr("other", 6)).isZero();
+        assertThat(store.count("repo")).isEqualTo(1);
+        assertThat(store.groupByService("repo").get("Svc")).hasSize(1);
+    }
+    
+    @Test
+    void updateStoresAChangedCopyAndKeepsIndexesInStep() {
+        TestSuite suite = suite("1", "A", null, TestStatus.PENDING);
+        suite.setTestCases(new ArrayList<>(List.of(testCase("11", TestStatus.PENDING), testCase("12", TestStatus.PENDING))));
+        store.replaceRepository("repo", List.of(suite), BY_NAME);
+        
+        TestSuite updated = store.update("repo", "1", stored -> {
+            stored.setStatus(TestStatus.COMPLETED);
+            stored.getTestCases().get(0).setStatus(TestStatus.FAILED);
+            stored.getTestCases().get(1).setStatus(TestStatus.PASSED);
+        });
+        
+        assertThat(updated).isNotSameAs(suite);
+        assertThat(store.findById("1")).containsSame(updated);
+        assertThat(store.findByStatus("repo", TestStatus.PENDING)).isEmpty();
+        assertThat(ids(store.findByStatus("repo", TestStatus.COMPLETED))).containsExactly("1");
+        assertThat(store.countTestCases("repo", TestStatus.PENDING)).isZero();
+        assertThat(store.countTestCases("repo", TestStatus.FAILED)).isEqualTo(1);
+        assertThat(store.countTestCases("repo", null)).isEqualTo(2);
+        assertThat(store.update("repo", "missing", stored -> { })).isNull();
+        assertThat(store.update("other", "1", stored -> { })).isNull();
+    }
+    
+    @Test
+    void suitesReadBeforeAnUpdateKeepTheirResults() {
+        TestSuite suite = suite("1", "A", null, TestStatus.PENDING);
+        suite.setTestCases(new ArrayList<>(List.of(testCase("11", TestStatus.PENDING))));
+        store.replaceRepository("repo", List.of(suite), BY_NAME);
+        TestSuite read = store.findAll("repo").get(0);
+        
+        store.update("repo", "1", stored -> {
+            stored.setStatus(TestStatus.COMPLETED);
+            stored.getTestCases().get(0).setStatus(TestStatus.PASSED);
+            stored.getTestCases().get(0).setErrorMessage("done");
+        });
+        
+        assertThat(read.getStatus()).isEqualTo(TestStatus.PENDING);
+        assertThat(read.getTestCases()).singleElement().satisfies(testCase -> {
+            assertThat(testCase.getStatus()).isEqualTo(TestStatus.PENDING);
+            assertThat(testCase.getErrorMessage()).isNull();
+        });
+        assertThat(store.findById("1").get().getTestCases().get(0).getStatus()).isEqualTo(TestStatus.PASSED);
+    }
+    
+    @Test
+    void aFailedUpdateLeavesTheStoredSuiteAsItWas() {
+        TestSuite suite = suite("1", "A", null, TestStatus.PENDING);
+        suite.setTestCases(new ArrayList<>(List.of(testCase("11", TestStatus.PENDING))));
+        store.replaceRepository("repo", List.of(suite), BY_NAME);
+        
+        assertThatThrownBy(() -> store.update("repo", "1", stored -> {
+            stored.getTestCases().get(0).setStatus(TestStatus.FAILED);
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        
+        assertThat(store.findById("1")).containsSame(suite);
+        assertThat(suite.getTestCases().get(0).getStatus()).isEqualTo(TestStatus.PENDING);
+        assertThat(store.countTestCases("repo", TestStatus.PENDING)).isEqualTo(1);
+    }
+    
+    @Test
+    void findAllByIdReturnsOnlyStoredIds() {
+        store.replaceRepository("repo", List.of(suite("1", "A", null, null), suite("2", "B", null, null)), BY_NAME);
+        
+        assertThat(store.findAllById("repo", List.of("2", "9")).keySet()).containsExactly("2");
+        assertThat(store.findAllById("other", List.of("1"))).isEmpty();
+        assertThat(store.findAll("other")).isEmpty();
+        assertThat(store.getRepositoryIds()).containsExactly("repo");
+    }
+    
+    @Test
+    void readersNeverSeeAHalfAppliedUpdate() throws Exception {
+        TestSuite suite = suite("1", "A", null, TestStatus.PENDING);
+        List<TestCase> cases = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            cases.add(testCase(String.valueOf(100 + i), TestStatus.PENDING));
+        }
+        suite.setTestCases(cases);
+        store.replaceRepository("repo", List.of(suite), BY_NAME);
+        
+        CountDownLatch inUpdate = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> store.update("repo", "1", stored -> {
+                stored.getTestCases().forEach(testCase -> testCase.setStatus(TestStatus.PASSED));
+                inUpdate.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(inUpdate.await(5, TimeUnit.SECONDS)).isTrue();
+            
+            Future<Integer> reader = executor.submit(() -> store.countTestCases("repo", TestStatus.PASSED));
+            Thread.sleep(100);
+            assertThat(reader.isDone()).isFalse();
+            
+            release.countDown();
+            writer.get(5, TimeUnit.SECONDS);
+            assertThat(reader.get(5, TimeUnit.SECONDS)).isEqualTo(50);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static TestSuite suite(String id, String name, Integer prNumber, TestStatus status) {
+        TestSuite suite = new TestSuite();
+        suite.setId(id);
+        suite.setName(name);
+        suite.setPrNumber(prNumber);
+        suite.setStatus(status);
+        return suite;
+    }
+    
+    private static TestCase testCase(String id, TestStatus status) {
+        TestCase testCase = new TestCase();
+        testCase.setId(id);
+        testCase.setName("case" + id);
+        testCase.setStatus(status);
+        return testCase;
+    }
+    
+    private static List<String> ids(List<TestSuite> suites) {
+        List<String> ids = new ArrayList<>();
+        suites.forEach(suite -> ids.add(suite.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,106 @@
+package com.testplatform.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class FlowGraphTest {
+    
+    @Test
+    void stepsRunInOrderThroughTheirComponents() {
+        FlowGraph graph = FlowGraph.parse("1. User clicks checkout\n2. POST /api/orders creates the order\n\n"
+            + "3. INSERT into orders\n4. Order service calls PaymentService\n5. Show confirmation");
+        
+        assertThat(graph.getStepCount()).isEqualTo(5);
+        assertThat(graph.labels(FlowGraph.Kind.USER_ACTION)).containsExactly("checkout");
+        assertThat(graph.labels(FlowGraph.Kind.API_CALL)).containsExactly("/api/orders");
+        assertThat(graph.labels(FlowGraph.Kind.DATABASE_OPERATION)).containsExactly("into orders");
+        assertThat(graph.labels(FlowGraph.Kind.EXTERNAL_CALL)).containsExactly("PaymentService");
+        assertThat(graph.labels(FlowGraph.Kind.STEP)).containsExactly("5. Show confirmation");
+        assertThat(graph.getEdgeCount()).isEqualTo(4);
+        assertThat(graph.getPathCount()).isEqualTo(1);
+        assertThat(graph.getLongestPathSteps()).containsExactly(1, 2, 3, 4, 5);
+        assertThat(graph.getBranches()).isEmpty();
+    }
+    
+    @Test
+    void jumpOpeningAStepReplacesItsContinuation() {
+        FlowGraph graph = FlowGraph.parse("1. User enters card details\n2. Submit payment\n3. Go back to step 1\n"
+            + "4. Payment Processing Flow");
+        
+        assertThat(graph.getLoops()).extracting(FlowGraph.Loop::getFromStep, FlowGraph.Loop::getToStep)
+            .containsExactly(tuple(3, 1));
+        assertThat(graph.getUnreachableSteps()).containsExactly(4);
+        assertThat(graph.mentions("processing")).isFalse();
+    }
+    
+    @Test
+    void jumpLaterInTheLineKeepsTheContinuation() {
+        FlowGraph graph = FlowGraph.parse("1. User enters password\n2. Submit login\n"
+            + "3. On invalid password, go back to step 1\n4. Payment Processing Flow");
+        
+        assertThat(graph.getUnreachableSteps()).isEmpty();
+        assertThat(graph.mentions("payment processing")).isTrue();
+        assertThat(graph.getLoops()).extracting(FlowGraph.Loop::getFromStep).containsExactly(3);
+        assertThat(graph.getBranches()).extracting(FlowGraph.Branch::getStep).containsExactly(3);
+        assertThat(graph.getLongestPathSteps()).containsExactly(1, 2, 3, 4);
+    }
+    
+    @Test
+    void qualifiedRetryKeepsTheContinuation() {
+        for (String retry : List.of("Retry step 2 when the card is declined", "Back to step 2 if the card is declined",
+                "Repeats from step 2 unless the card is accepted", "Card declined: loop back to step 2")) {
+            FlowGraph graph = FlowGraph.parse("1. User enters card\n2. Charge card\n3. " + retry + "\n4. Show receipt");
+            
+            assertThat(graph.getUnreachableSteps()).as(retry).isEmpty();
+            assertThat(graph.getLoops()).as(retry).extracting(FlowGraph.Loop::getToStep).containsExactly(2);
+        }
+        for (String retry : List.of("Retry step 2", "Back to step 2", "Step 3: retries from step 2")) {
+            FlowGraph graph = FlowGraph.parse("1. User enters card\n2. Charge card\n" + (retry.startsWith("Step") ? "" : "3. ")
+                + retry + "\n4. Show receipt");
+            
+            assertThat(graph.getUnreachableSteps()).as(retry).containsExactly(4);
+        }
+    }
+    
+    @Test
+    void conditionalStepsBranchAndChainTheirAlternatives() {
+        FlowGraph graph = FlowGraph.parse("1. User clicks pay\n2. If payment fails, retry step 1\n"
+            + "3. Otherwise, POST /api/orders\n4. Show confirmation");
+        
+        assertThat(graph.getBranches()).extracting(FlowGraph.Branch::getStep, FlowGraph.Branch::getCondition)
+            .containsExactly(tuple(2, "If payment fails"));
+        assertThat(graph.getLoops()).extracting(FlowGraph.Loop::getFromStep, FlowGraph.Loop::getToStep)
+            .containsExactly(tuple(2, 1));
+        assertThat(graph.getUnreachableSteps()).isEmpty();
+        assertThat(graph.getPathCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void ifWithoutAlternativeCanBeSkipped() {
+        FlowGraph graph = FlowGraph.parse("Step 1: User selects plan\nStep 2: If coupon given then POST /api/coupons\n"
+            + "Step 3: DELETE cart");
+        
+        assertThat(graph.getBranches()).extracting(FlowGraph.Branch::getCondition).containsExactly("If coupon given");
+        assertThat(graph.getPathCount()).isEqualTo(2);
+        assertThat(graph.getLongestPathSteps()).containsExactly(1, 2, 3);
+    }
+    
+    @Test
+    void emptyFlowHasNoSteps() {
+        FlowGraph graph = FlowGraph.parse("\n  \n");
+        
+        assertThat(graph.getStepCount()).isZero();
+        assertThat(graph.getPathCount()).isZero();
+        assertThat(graph.getLongestPathSteps()).isEmpty();
+    }
+    
+    @Test
+    void stepRunsAreCollapsed() {
+        assertThat(FlowGraph.formatSteps(List.of(1, 2, 3, 4, 6, 9, 10, 11, 12))).isEqualTo("1-4, 6, 9-12");
+        assertThat(FlowGraph.formatSteps(List.of())).isEmpty();
+    }
+}
@@ -0,0 +1,80 @@
+package com.testplatform.backend.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuardedPatternTest {
+    
+    // On a run of x with no y the JDK engine tries every way to split the run, minutes for a few hundred chars
+    private static final String CATASTROPHIC = "x.*x.*x.*x.*y";
+    
+    @AfterEach
+    void restoreBudget() {
+        GuardedPattern.setMatchBudget(Duration.ofMillis(100));
+    }
+    
+    @Test
+    void findsLikeTheJdkEngine() {
+        GuardedPattern pattern = GuardedPattern.compile("(\\w+)@(\\w+)");
+        
+        assertThat(pattern.findAll("a@b, cc@dd", 2)).containsExactly("b", "dd");
+        assertThat(pattern.findFirst("none", 1)).isNull();
+        assertThat(pattern.find("x@y")).isTrue();
+        assertThat(pattern.findAllSpans("a@b", 0)).containsExactly(new int[] {0, 3});
+        assertThat(GuardedPattern.compile("(a)|b").findAll("ab", 1)).containsExactly("a");
+    }
+    
+    @Test
+    void runawayMatchGivesUpWithinTheBudget() {
+        GuardedPattern.setMatchBudget(Duration.ofMillis(20));
+        GuardedPattern pattern = GuardedPattern.compile(CATASTROPHIC);
+        
+        long start = System.nanoTime();
+        assertThat(pattern.find("x".repeat(300))).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(stats(CATASTROPHIC, "backtracking").get("timeouts")).isEqualTo(1L);
+    }
+    
+    @Test
+    void matchesBeforeATimeoutAreKept() {
+        GuardedPattern.setMatchBudget(Duration.ofMillis(20));
+        GuardedPattern pattern = GuardedPattern.compile("z.*z.*z.*z.*y");
+        
+        List<String> found = pattern.findAll("zzzzy\nzz zzzy\n" + "z".repeat(300), 0);
+        
+        assertThat(found).containsExactly("zzzzy", "zz zzzy");
+        assertThat(stats("z.*z.*z.*z.*y", "backtracking")).containsEntry("scans", 1L).containsEntry("timeouts", 1L);
+    }
+    
+    @Test
+    void linearPatternsNeedNoBudget() {
+        GuardedPattern.setMatchBudget(Duration.ofNanos(1));
+        GuardedPattern pattern = GuardedPattern.compileLinear("import\\s+.*?\\s+from\\s+['\"]([^'\"]+)['\"]", 0);
+        
+        assertThat(pattern.isLinear()).isTrue();
+        assertThat(pattern.findAll("import a ".repeat(20_000) + "import b from 'c'", 1)).containsExactly("c");
+    }
+    
+    @Test
+    void unsupportedLinearPatternsFallBackToTheJdkEngine() {
+        GuardedPattern pattern = GuardedPattern.compileLinear("^package\\s+(\\S+);", 0);
+        
+        assertThat(pattern.isLinear()).isFalse();
+        assertThat(pattern.findFirst("package com.acme;", 1)).isEqualTo("com.acme");
+        assertThatThrownBy(() -> GuardedPattern.compileLinear("(", 0)).isInstanceOf(java.util.regex.PatternSyntaxException.class);
+    }
+    
+    private static Map<String, Object> stats(String pattern, String engine) {
+        return GuardedPattern.getStats().stream()
+            .filter(entry -> entry.get("pattern").equals(pattern) && entry.get("engine").equals(engine))
+            .findFirst()
+            .orElseThrow();
+    }
+}
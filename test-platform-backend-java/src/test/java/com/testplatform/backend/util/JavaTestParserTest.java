@@ -0,0 +1,150 @@
+package com.testplatform.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaTestParserTest {
+    
+    @Test
+    void findsAnnotatedTestMethodsWithLines() {
+        List<JavaTestParser.TestMethod> methods = JavaTestParser.parse(String.join("\n",
+            "package a;",                                   // 1
+            "",                                             // 2
+            "class CalculatorTest {",                       // 3
+            "    @Test",                                    // 4
+            "    void adds() {",                            // 5
+            "        assertEquals(2, 1 + 1);",              // 6
+            "    }",                                        // 7
+            "",                                             // 8
+            "    @org.junit.jupiter.api.Test",              // 9
+            "    public void qualified() { }",              // 10
+            "",                                             // 11
+            "    void helper() { }",                        // 12
+            "}"));
+        
+        assertThat(names(methods)).containsExactly("adds", "qualified");
+        assertThat(methods.get(0).getClassName()).isEqualTo("CalculatorTest");
+        assertThat(methods.get(0).getAnnotation()).isEqualTo("Test");
+        assertThat(methods.get(0).getStartLine()).isEqualTo(4);
+        assertThat(methods.get(0).getEndLine()).isEqualTo(7);
+        assertThat(methods.get(1).getStartLine()).isEqualTo(9);
+    }
+    
+    @Test
+    void recognizesEveryTestAnnotationAndMultiLineAnnotations() {
+        List<JavaTestParser.TestMethod> methods = JavaTestParser.parse(String.join("\n",
+            "class T {",
+            "    @ParameterizedTest(",
+            "        name = \"{0} works\")",
+            "    @ValueSource(strings = {\"a\", \"b\"})",
+            "    void parameterized(String s) { }",
+            "    @RepeatedTest(3) void repeated() { }",
+            "    @TestFactory Stream<DynamicTest> factory() { return Stream.empty(); }",
+            "    @TestTemplate void template() { }",
+            "    @Override public String toString() { return \"T\"; }",
+            "}"));
+        
+        assertThat(methods).extracting(JavaTestParser.TestMethod::getAnnotation)
+            .containsExactly("ParameterizedTest", "RepeatedTest", "TestFactory", "TestTemplate");
+        assertThat(methods.get(0).getStartLine()).isEqualTo(2);
+    }
+    
+    @Test
+    void readsDisplayNameTagsAndDisabled() {
+        List<JavaTestParser.TestMethod> methods = JavaTestParser.parse(String.join("\n",
+            "@Tag(\"slow\")",
+            "class T {",
+            "    @Test @DisplayName(\"Adds two numbers\") @Tag(\"math\") void adds() { }",
+            "    @Test @Disabled(\"flaky\") void skipped() { }",
+            "    @Test @Ignore void ignored() { }",
+            "    @Nested @Tags({@Tag(\"inner\")}) @Disabled class Inner {",
+            "        @Test void nested() { }",
+            "    }",
+            "}"));
+        
+        assertThat(methods.get(0).getDisplayName()).isEqualTo("Adds two numbers");
+        assertThat(methods.get(0).getTags()).containsExactly("slow", "math");
+        assertThat(methods.get(0).isDisabled()).isFalse();
+        assertThat(methods.get(1).isDisabled()).isTrue();
+        assertThat(methods.get(2).isDisabled()).isTrue();
+        assertThat(methods.get(3).getClassName()).isEqualTo("T.Inner");
+        assertThat(methods.get(3).getTags()).containsExactly("slow", "inner");
+        assertThat(methods.get(3).isDisabled()).isTrue();
+    }
+    
+    @Test
+    void ignoresBracesAndAnnotationsInLiteralsAndComments() {
+        List<JavaTestParser.TestMethod> methods = JavaTestParser.parse(String.join("\n",
+            "class T {",
+            "    // @Test void commentedOut() { }",
+            "    /* @Test void blockComment() { } */",
+            "    @Test void strings() {",
+            "        String s = \"}}} @Test void fake() {\";",
+            "        char c = '}';",
+            "        char q = '\\'';",
+            "        String block = \"\"\"",
+            "            } @Test void alsoFake() {",
+            "            \"\"\";",
+            "    }",
+            "    @Test void after() { }",
+            "}"));
+        
+        assertThat(names(methods)).containsExactly("strings", "after");
+        assertThat(methods.get(1).getStartLine()).isEqualTo(12);
+    }
+    
+    @Test
+    void skipsMethodsOfLocalAndAnonymousClasses() {
+        List<JavaTestParser.TestMethod> methods = JavaTestParser.parse(String.join("\n",
+            "class T {",
+            "    private final Runnable field = new Runnable() {",
+            "        @Test public void inField() { }",
+            "    };",
+            "    @Test void outer() {",
+            "        Object o = new Object() {",
+            "            @Test void inBody() { }",
+            "        };",
+            "    }",
+            "    static <T extends Comparable<T>> T max(List<? extends T> values) { return null; }",
+            "    @Test void generic() { List<Map<String, Integer>> m = new ArrayList<>(); }",
+            "}"));
+        
+        assertThat(names(methods)).containsExactly("outer", "generic");
+    }
+    
+    @Test
+    void descendsIntoInterfacesRecordsAndEnums() {
+        List<JavaTestParser.TestMethod> methods = JavaTestParser.parse(String.join("\n",
+            "interface Contract {",
+            "    @Test default void contract() { }",
+            "}",
+            "record Point(int x, int y) {",
+            "    @Test void inRecord() { }",
+            "}",
+            "@interface Marker { }",
+            "enum Mode { A, B; @Test void inEnum() { } }"));
+        
+        assertThat(methods).extracting(JavaTestParser.TestMethod::getClassName)
+            .containsExactly("Contract", "Point", "Mode");
+    }
+    
+    @Test
+    void unterminatedLiteralDoesNotSwallowTheFile() {
+        List<JavaTestParser.TestMethod> methods = JavaTestParser.parse(String.join("\n",
+            "class T {",
+            "    @Test void broken() { String s = \"unterminated; }",
+            "    }",
+            "    @Test void next() { }",
+            "}"));
+        
+        assertThat(names(methods)).containsExactly("broken", "next");
+    }
+    
+    private static List<String> names(List<JavaTestParser.TestMethod> methods) {
+        return methods.stream().map(JavaTestParser.TestMethod::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,141 @@
+package com.testplatform.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LinearPatternTest {
+    
+    private static final String[] ATOMS = {"a", "b", "c", "A", "1", " ", "\\.", ".", "[ab]", "[^a\\n]", "[a-c1]",
+        "\\d", "\\w", "\\s", "\\W", "\\n"};
+    private static final String[] QUANTIFIERS = {"*", "+", "?", "{2}", "{1,3}", "{2,}"};
+    private static final String[] INPUT_CHARS = {"a", "b", "c", "A", "B", "1", "2", " ", ".", "_", "\n", "\r", "\t"};
+    
+    @Test
+    void matchesLikeJavaRegex() {
+        assertSameMatches("import\\s+.*?\\s+from\\s+['\"]([^'\"]+)['\"]", 0,
+            "import x from 'y'; import { a, b } from \"./c\" import from 'z'");
+        assertSameMatches("(?:function|const)\\s+(\\w+)\\s*(?:=|\\()", 0, "const f = () => 1; function g(a) {}");
+        assertSameMatches("(a|ab)(c|bcd)(d*)", 0, "abcd abcdd acd");
+        assertSameMatches("a{2,3}?", 0, "aaaaaaa");
+        assertSameMatches("CREATE\\s+TABLE\\s+(\\w+)", Pattern.CASE_INSENSITIVE, "create table users; Create  Table orders");
+        assertSameMatches("x?", 0, "axxb");
+    }
+    
+    @Test
+    void agreesWithJavaRegexOnRandomPatterns() {
+        Random random = new Random(5);
+        int compared = 0;
+        for (int round = 0; compared < 3_000; round++) {
+            String regex = randomPattern(random, 3);
+            int flags = random.nextInt(4) == 0 ? Pattern.CASE_INSENSITIVE : 0;
+            LinearPattern linear;
+            try {
+                linear = LinearPattern.compile(regex, flags);
+            } catch (IllegalArgumentException e) {
+                continue; // Outside the subset, GuardedPattern falls back to the JDK engine
+            }
+            Pattern pattern = Pattern.compile(regex, flags);
+            for (int input = 0; input < 10; input++) {
+                StringBuilder text = new StringBuilder();
+                for (int i = random.nextInt(16); i > 0; i--) {
+                    text.append(INPUT_CHARS[random.nextInt(INPUT_CHARS.length)]);
+                }
+                assertThat(linearMatches(linear, text)).as("/%s/ on \"%s\"", regex, text)
+                    .isEqualTo(jdkMatches(pattern, text));
+            }
+            compared++;
+        }
+    }
+    
+    @Test
+    void unsupportedSyntaxIsRejected() {
+        for (String regex : List.of("^a", "a$", "(?=a)", "(?i)a", "(a)\\1", "a*+", "[a[b]]", "[a&&b]", "\\bword", "\\p{L}")) {
+            assertThatThrownBy(() -> LinearPattern.compile(regex, 0)).as(regex).isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> LinearPattern.compile("a", Pattern.MULTILINE)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void constructsWhereBacktrackingDiffersAreRejected() {
+        assertThatThrownBy(() -> LinearPattern.compile("(?:a?)*", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LinearPattern.compile("(?:a|)+b", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LinearPattern.compile("(a)+", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LinearPattern.compile("a{101}", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(LinearPattern.compile("(a)?(?:b|c)+", 0).groupCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void longInputRunsInLinearTime() {
+        // Quadratic for a backtracking engine: the lazy .*? rescans the rest of the line from every "import"
+        LinearPattern linear = LinearPattern.compile("import\\s+.*?\\s+from\\s+['\"]([^'\"]+)['\"]", 0);
+        String minified = "import a ".repeat(50_000);
+        
+        long start = System.nanoTime();
+        assertThat(linear.find(minified, 0)).isNull();
+        assertThat(System.nanoTime() - start).isLessThan(2_000_000_000L);
+    }
+    
+    private static void assertSameMatches(String regex, int flags, String text) {
+        assertThat(linearMatches(LinearPattern.compile(regex, flags), text)).as("/%s/ on \"%s\"", regex, text)
+            .isEqualTo(jdkMatches(Pattern.compile(regex, flags), text));
+    }
+    
+    private static String randomPattern(Random random, int depth) {
+        StringBuilder regex = new StringBuilder();
+        for (int items = 1 + random.nextInt(3); items > 0; items--) {
+            int kind = depth > 0 ? random.nextInt(10) : 0;
+            if (kind == 8) {
+                regex.append('(').append(randomPattern(random, depth - 1)).append(')');
+            } else if (kind == 9) {
+                regex.append("(?:").append(randomPattern(random, depth - 1)).append('|')
+                    .append(randomPattern(random, depth - 1)).append(')');
+            } else {
+                regex.append(ATOMS[random.nextInt(ATOMS.length)]);
+            }
+            if (random.nextInt(3) == 0) {
+                regex.append(QUANTIFIERS[random.nextInt(QUANTIFIERS.length)]);
+                if (random.nextInt(3) == 0) {
+                    regex.append('?');
+                }
+            }
+        }
+        return regex.toString();
+    }
+    
+    /**
+     * Every match and its groups as GuardedPattern walks them
+     */
+    private static List<String> linearMatches(LinearPattern linear, CharSequence text) {
+        List<String> matches = new ArrayList<>();
+        int from = 0;
+        int[] match;
+        while (from <= text.length() && (match = linear.find(text, from)) != null) {
+            matches.add(Arrays.toString(match));
+            from = match[1] > match[0] ? match[1] : match[1] + 1;
+        }
+        return matches;
+    }
+    
+    private static List<String> jdkMatches(Pattern pattern, CharSequence text) {
+        List<String> matches = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            int[] spans = new int[2 * (matcher.groupCount() + 1)];
+            for (int group = 0; group <= matcher.groupCount(); group++) {
+                spans[2 * group] = matcher.start(group);
+                spans[2 * group + 1] = matcher.end(group);
+            }
+            matches.add(Arrays.toString(spans));
+        }
+        return matches;
+    }
+}
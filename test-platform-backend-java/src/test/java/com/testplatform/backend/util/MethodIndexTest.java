@@ -0,0 +1,100 @@
+package com.testplatform.backend.util;
+
+import com.testplatform.backend.service.CodeAnalyzerService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MethodIndexTest {
+    
+    private static final String ORDERS = String.join("\n",
+        "import java.util.List;",
+        "",
+        "public class Orders {",
+        "    private final List<String> ids;",
+        "",
+        "    public int total(int a) {",
+        "        return a + 1;",
+        "    }",
+        "",
+        "    public int total(int a, int b) {",
+        "        return a + b;",
+        "    }",
+        "",
+        "    /** Cancels an order */",
+        "    public void cancel(String id) {",
+        "        ids.remove(id);",
+        "    }",
+        "}",
+        "");
+    
+    private final CodeAnalyzerService analyzer = new CodeAnalyzerService();
+    
+    @Test
+    void methodsAreIndexedBySignatureInSourceOrder() {
+        MethodIndex index = index(ORDERS);
+        
+        assertThat(index.getSignatures()).containsExactly("total(int)", "total(int,int)", "cancel(String)");
+        assertThat(index.get("cancel(String)").getStartLine()).isEqualTo(15);
+        assertThat(index.get("cancel(String)").getEndLine()).isEqualTo(17);
+        assertThat(index.names(List.of("total(int,int)", "cancel(String)", "missing()"))).containsExactly("total", "cancel");
+        assertThat(index.signatures(Set.of("total"))).containsExactly("total(int)", "total(int,int)");
+        assertThat(index.signatures(Set.of("missing"))).isEmpty();
+        assertThat(MethodIndex.empty().isEmpty()).isTrue();
+    }
+    
+    @Test
+    void onlyMethodsWhoseTokensChangedAreChanged() {
+        MethodIndex before = index(ORDERS);
+        
+        String reformatted = ORDERS.replace("return a + b;", "return a+b; // sum").replace("/** Cancels an order */", "");
+        assertThat(index(reformatted).changedSince(before)).isEmpty();
+        assertThat(index(ORDERS.replace("a + b", "a * b")).changedSince(before)).containsExactly("total(int,int)");
+        String added = ORDERS.substring(0, ORDERS.lastIndexOf('}')) + "    public void open() {\n    }\n}\n";
+        assertThat(index(added).changedSince(before)).containsExactly("open()");
+        assertThat(index(ORDERS.replace("import java.util.List;", "import java.util.*;")).changedSince(before)).isEmpty();
+    }
+    
+    @Test
+    void skeletonChangeChangesEveryMethod() {
+        MethodIndex before = index(ORDERS);
+        
+        assertThat(index(ORDERS.replace("private final List<String> ids;", "private List<String> ids;")).changedSince(before))
+            .isNull();
+        assertThat(index(ORDERS).changedSince(MethodIndex.empty())).isNull();
+        assertThat(index(ORDERS).changedSince(null)).isNull();
+    }
+    
+    @Test
+    void diffIsMappedToTheMethodsItTouches() {
+        MethodIndex index = index(ORDERS);
+        
+        assertThat(index.touchedBy("--- a/Orders.java\n+++ b/Orders.java\n@@ -11 +11 @@\n-        return a - b;\n"
+            + "+        return a + b;\n", 0)).containsExactly("total(int,int)");
+        // Line numbers shift by the header the indexed source carries
+        assertThat(index.touchedBy("@@ -14 +14 @@\n-        ids.clear();\n+        ids.remove(id);\n", 2))
+            .containsExactly("cancel(String)");
+        assertThat(index.touchedBy("@@ -4 +4 @@\n-    private List<String> ids;\n+    private final List<String> ids;\n", 0))
+            .isNull();
+        assertThat(index.touchedBy("@@ -1,0 +2,1 @@\n+// header comment\n", 0)).isEmpty();
+        assertThat(index.touchedBy(null, 0)).isEmpty();
+        assertThat(MethodIndex.empty().touchedBy("@@ -1 +1 @@\n+x\n", 0)).isNull();
+    }
+    
+    @Test
+    void focusKeepsOnlyTheGivenBodies() {
+        String focused = index(ORDERS).focus(ORDERS, Set.of("cancel(String)"));
+        
+        assertThat(focused).contains("public int total(int a) { /* unchanged */ }")
+            .contains("public int total(int a, int b) { /* unchanged */ }")
+            .contains("ids.remove(id);")
+            .doesNotContain("return a + b;");
+    }
+    
+    private MethodIndex index(String code) {
+        return analyzer.indexMethods(code, "java");
+    }
+}
@@ -0,0 +1,144 @@
+package com.testplatform.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryPathIndexTest {
+    
+    private static final List<String> PATHS = List.of(
+        "pom.xml",
+        "README.md",
+        "project-service/pom.xml",
+        "project-service/src/main/java/com/acme/ProjectService.java",
+        "project-service/src/test/java/com/acme/ProjectServiceTest.java",
+        "project-service/src/test/java/com/acme/web/ProjectControllerTest.java",
+        "project-service-api/src/main/java/com/acme/ProjectApi.java",
+        "project-service-api/src/test/java/com/acme/ProjectApiTest.java",
+        "web/src/app.test.ts",
+        "web/src/app.ts");
+    
+    @Test
+    void pathsAreNormalizedAndDeduplicated() {
+        RepositoryPathIndex index = RepositoryPathIndex.build("c1", List.of("/a/b.txt", "a\\b.txt", "a/c.txt/", "", "top"));
+        
+        assertThat(index.getCommitId()).isEqualTo("c1");
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.directoryCount()).isEqualTo(2);
+        assertThat(index.contains("a/b.txt")).isTrue();
+        assertThat(index.contains("\\a\\c.txt")).isTrue();
+        assertThat(index.contains("top")).isTrue();
+        assertThat(index.contains("a/d.txt")).isFalse();
+        assertThat(index.contains("b/b.txt")).isFalse();
+        assertThat(index.listUnder(null)).containsExactly("top", "a/b.txt", "a/c.txt");
+    }
+    
+    @Test
+    void subtreesDoNotIncludeSiblingsSharingTheirPrefix() {
+        RepositoryPathIndex index = RepositoryPathIndex.build("c1", PATHS);
+        
+        assertThat(index.listUnder("project-service")).containsExactly(
+            "project-service/pom.xml",
+            "project-service/src/main/java/com/acme/ProjectService.java",
+            "project-service/src/test/java/com/acme/ProjectServiceTest.java",
+            "project-service/src/test/java/com/acme/web/ProjectControllerTest.java");
+        assertThat(index.listUnder("project-service/src/test/")).hasSize(2);
+        assertThat(index.listUnder("missing")).isEmpty();
+        assertThat(index.listUnder("")).hasSize(PATHS.size());
+    }
+    
+    @Test
+    void suffixLookupsScanWhicheverSideIsSmaller() {
+        RepositoryPathIndex index = RepositoryPathIndex.build("c1", PATHS);
+        
+        // Few files share the suffix, so the suffix ordering is searched; results follow the directory order
+        assertThat(index.findBySuffix("", "Test.java")).containsExactly(
+            "project-service-api/src/test/java/com/acme/ProjectApiTest.java",
+            "project-service/src/test/java/com/acme/ProjectServiceTest.java",
+            "project-service/src/test/java/com/acme/web/ProjectControllerTest.java");
+        // The directory is smaller than the suffix match set, so it is scanned
+        assertThat(index.findBySuffix("project-service/src/test/java/com/acme/web", ".java"))
+            .containsExactly("project-service/src/test/java/com/acme/web/ProjectControllerTest.java");
+        assertThat(index.findBySuffix("project-service", "Test.java")).hasSize(2);
+        assertThat(index.findBySuffix("web", null)).containsExactly("web/src/app.test.ts", "web/src/app.ts");
+        assertThat(index.findBySuffix("", "Nothing.java")).isEmpty();
+    }
+    
+    @Test
+    void globsMatchWithinSegmentsUnlessDoubleStarred() {
+        RepositoryPathIndex index = RepositoryPathIndex.build("c1", PATHS);
+        
+        assertThat(index.glob("project-service/**/*Test.java")).containsExactly(
+            "project-service/src/test/java/com/acme/ProjectServiceTest.java",
+            "project-service/src/test/java/com/acme/web/ProjectControllerTest.java");
+        assertThat(index.glob("*/pom.xml")).containsExactly("project-service/pom.xml");
+        assertThat(index.glob("**/pom.xml")).containsExactly("pom.xml", "project-service/pom.xml");
+        assertThat(index.glob("web/src/app.?s")).containsExactly("web/src/app.ts");
+        assertThat(index.glob("web/**")).containsExactly("web/src/app.test.ts", "web/src/app.ts");
+        assertThat(index.glob("project-service*/src/main/**/Project*.java")).containsExactly(
+            "project-service-api/src/main/java/com/acme/ProjectApi.java",
+            "project-service/src/main/java/com/acme/ProjectService.java");
+        assertThat(index.glob("README.md")).containsExactly("README.md");
+    }
+    
+    @Test
+    void changesReplaceOnlyTheChangedPaths() {
+        RepositoryPathIndex index = RepositoryPathIndex.build("c1", PATHS);
+        
+        RepositoryPathIndex updated = index.withChanges("c2",
+            List.of("web/src/app.ts", "README.md", "docs/guide.md"), List.of("web/src/app.ts", "docs/guide.md"));
+        
+        assertThat(updated.getCommitId()).isEqualTo("c2");
+        assertThat(updated.size()).isEqualTo(PATHS.size());
+        assertThat(updated.contains("README.md")).isFalse();
+        assertThat(updated.contains("docs/guide.md")).isTrue();
+        assertThat(updated.contains("web/src/app.ts")).isTrue();
+        assertThat(index.contains("README.md")).isTrue();
+    }
+    
+    @Test
+    void agreesWithAFullScanOnRandomTrees() {
+        Random random = new Random(11);
+        String[] dirs = {"a", "a/b", "a/b/c", "a-b", "a0", "b", "b/a", "ab"};
+        String[] names = {"x.java", "xTest.java", "Test.java", "y.ts", "y.test.ts", "a", "b.b"};
+        for (int round = 0; round < 200; round++) {
+            List<String> paths = new ArrayList<>();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                String name = names[random.nextInt(names.length)];
+                paths.add(random.nextInt(5) == 0 ? name : dirs[random.nextInt(dirs.length)] + "/" + name);
+            }
+            RepositoryPathIndex index = RepositoryPathIndex.build("c", paths);
+            TreeSet<String> all = new TreeSet<>(paths);
+            for (String dir : List.of("", "a", "a/b", "b", "a-b", "c")) {
+                for (String suffix : List.of("Test.java", ".java", "ts", "b", "a")) {
+                    assertThat(new TreeSet<>(index.findBySuffix(dir, suffix))).as("%s %s in %s", dir, suffix, paths)
+                        .isEqualTo(naive(all, dir, suffix));
+                }
+            }
+            for (String glob : List.of("a/**/*Test.java", "**/*.ts", "a*/*", "?/*.java", "a/b/**")) {
+                Pattern pattern = Pattern.compile(glob.replace(".", "\\.").replace("?", "[^/]")
+                    .replace("**/", "\u0000").replace("**", "\u0001").replace("*", "[^/]*")
+                    .replace("\u0000", "(?:.*/)?").replace("\u0001", ".*"));
+                TreeSet<String> expected = new TreeSet<>();
+                all.stream().filter(path -> pattern.matcher(path).matches()).forEach(expected::add);
+                assertThat(new TreeSet<>(index.glob(glob))).as("%s in %s", glob, paths).isEqualTo(expected);
+            }
+        }
+    }
+    
+    private static TreeSet<String> naive(TreeSet<String> paths, String dir, String suffix) {
+        TreeSet<String> found = new TreeSet<>();
+        for (String path : paths) {
+            if ((dir.isEmpty() || path.startsWith(dir + "/")) && path.substring(path.lastIndexOf('/') + 1).endsWith(suffix)) {
+                found.add(path);
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,112 @@
+package com.testplatform.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignatureMatcherTest {
+    
+    @Test
+    void literalSignaturesMatchAsSubstrings() {
+        SignatureMatcher matcher = SignatureMatcher.compile(List.of("public class", "@Service", "import React"));
+        
+        assertMatches(matcher, "@Service\npublic class A {}", "110");
+        assertMatches(matcher, "public  class", "000");
+        assertMatches(matcher, "", "000");
+    }
+    
+    @Test
+    void escapedLiteralsMatchUnescapedAndVerbatim() {
+        SignatureMatcher matcher = SignatureMatcher.compile(List.of("gin\\.", "models\\.Model"));
+        
+        assertMatches(matcher, "r := gin.Default()", "10");
+        assertMatches(matcher, "pattern gin\\. in a doc", "10");
+        assertMatches(matcher, "ginXDefault, modelsXModel", "00");
+        assertMatches(matcher, "class A(models.Model):", "01");
+    }
+    
+    @Test
+    void trailingDotStarIsALiteralPrefix() {
+        SignatureMatcher matcher = SignatureMatcher.compile(List.of("export.*", "package.*"));
+        
+        assertMatches(matcher, "export default App", "10");
+        assertMatches(matcher, "package main\n", "01");
+        assertMatches(matcher, "exp ort", "00");
+    }
+    
+    @Test
+    void sequenceNeedsBothPartsInOrderOnOneLine() {
+        SignatureMatcher matcher = SignatureMatcher.compile(List.of("import.*from", "function.*\\("));
+        
+        assertMatches(matcher, "import x from 'y'", "10");
+        assertMatches(matcher, "from y import x", "00");
+        assertMatches(matcher, "import x\nfrom 'y'", "00");
+        assertMatches(matcher, "import x\r\nfrom 'y'", "00");
+        assertMatches(matcher, "importfrom", "10");
+        assertMatches(matcher, "function f(", "01");
+        // The two parts can't share the middle "b"
+        assertMatches(SignatureMatcher.compile(List.of("ab.*ba")), "aba", "0");
+        assertMatches(SignatureMatcher.compile(List.of("ab.*ba")), "abba", "1");
+    }
+    
+    @Test
+    void sequenceRestartsOnEveryLine() {
+        SignatureMatcher matcher = SignatureMatcher.compile(List.of("const.*="));
+        
+        assertMatches(matcher, "const x\n= 1\nconst y = 2", "1");
+        assertMatches(matcher, "= 1\nconst y", "0");
+    }
+    
+    @Test
+    void otherRegexFormsFallBackToThePattern() {
+        SignatureMatcher matcher = SignatureMatcher.compile(List.of("\\[.*Controller\\]", "def\\s+\\w+", "v[0-9]+"));
+        
+        assertMatches(matcher, "[ApiController]", "100");
+        assertMatches(matcher, "def   run():", "010");
+        assertMatches(matcher, "version v12", "001");
+        // Verbatim occurrences of the source also count, as the detectors always allowed
+        assertMatches(matcher, "matches v[0-9]+ literally", "001");
+        assertMatches(matcher, "none here", "000");
+    }
+    
+    @Test
+    void agreesWithRegexOnRandomText() {
+        List<String> signatures = List.of("import.*from", "export.*", "class.*:", "using.*;", "\\[.*\\]", "fn.*\\(",
+            "gin\\.", "public class", "@app\\.route", "type.*=", "def\\s+\\w+");
+        SignatureMatcher matcher = SignatureMatcher.compile(signatures);
+        String[] fragments = {"import", "from", "export", "class", ":", "using", ";", "[", "]", "fn", "(", "gin.",
+            "gin\\.", "public class", "@app.route", "type", "=", "def", " ", "x", "\n", "\r\n", " "};
+        
+        Random random = new Random(11);
+        for (int round = 0; round < 20_000; round++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(12); i > 0; i--) {
+                text.append(fragments[random.nextInt(fragments.length)]);
+            }
+            BitSet expected = new BitSet();
+            for (int s = 0; s < signatures.size(); s++) {
+                String source = signatures.get(s);
+                if (text.indexOf(source) >= 0 || Pattern.compile(source).matcher(text).find()) {
+                    expected.set(s);
+                }
+            }
+            assertThat(matcher.match(text)).as("signatures in %s", text).isEqualTo(expected);
+        }
+    }
+    
+    /**
+     * @param expected One digit per signature, 1 where it should match
+     */
+    private static void assertMatches(SignatureMatcher matcher, String text, String expected) {
+        BitSet bits = new BitSet();
+        for (int i = 0; i < expected.length(); i++) {
+            bits.set(i, expected.charAt(i) == '1');
+        }
+        assertThat(matcher.match(text)).as("signatures in %s", text).isEqualTo(bits);
+    }
+}
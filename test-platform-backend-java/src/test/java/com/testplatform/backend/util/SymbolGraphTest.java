@@ -0,0 +1,99 @@
+package com.testplatform.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SymbolGraphTest {
+    
+    private static final String REPOSITORY = "src/main/java/com/acme/repo/OrderRepository.java";
+    private static final String SERVICE = "src/main/java/com/acme/service/OrderService.java";
+    private static final String CONTROLLER = "src/main/java/com/acme/web/OrderController.java";
+    private static final String SERVICE_TEST = "src/test/java/com/acme/service/OrderServiceTest.java";
+    private static final String CONTROLLER_TEST = "src/test/java/com/acme/web/OrderControllerTest.java";
+    
+    @Test
+    void edgesFollowImportsAndInjectedTypes() {
+        SymbolGraph graph = orders();
+        
+        assertThat(graph.getDependencies("OrderService")).containsExactly("OrderRepository");
+        assertThat(graph.getDependencies("OrderController")).containsExactly("OrderService");
+        assertThat(graph.getDependents("OrderRepository", false)).containsExactly("OrderService");
+        assertThat(graph.getDependents("OrderRepository", true)).containsExactly("OrderController", "OrderService");
+        assertThat(graph.contains("OrderServiceTest")).isFalse();
+        assertThat(graph.fileCount()).isEqualTo(5);
+        assertThat(graph.classCount()).isEqualTo(3);
+        assertThat(graph.edgeCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void testsAreFoundByNameAndByReference() {
+        SymbolGraph graph = orders();
+        
+        assertThat(graph.getTests("OrderService", false)).containsExactly(SERVICE_TEST);
+        assertThat(graph.getTests("OrderRepository", false)).isEmpty();
+        assertThat(graph.getTests("OrderRepository", true)).containsExactly(SERVICE_TEST, CONTROLLER_TEST);
+        assertThat(graph.getTestsAffectedBy(List.of(SERVICE))).containsExactly(SERVICE_TEST, CONTROLLER_TEST);
+        assertThat(graph.getTestsAffectedBy(List.of(CONTROLLER_TEST, "README.md"))).containsExactly(CONTROLLER_TEST);
+    }
+    
+    @Test
+    void duplicateNamesAreNarrowedByImportThenDirectory() {
+        SymbolGraph graph = SymbolGraph.build("c1", List.of(
+            file("src/main/java/com/acme/billing/Order.java", List.of("Order"), List.of()),
+            file("src/main/java/com/acme/shipping/Order.java", List.of("Order"), List.of()),
+            file("src/main/java/com/acme/billing/Invoice.java", List.of("Invoice"), List.of("com.acme.billing.Order")),
+            file("src/main/java/com/acme/shipping/Parcel.java", List.of("Parcel"), List.of("java.util.List"), "Order"),
+            file("src/test/java/com/acme/billing/InvoiceTest.java", List.of("InvoiceTest"), List.of()),
+            file("src/test/java/com/acme/shipping/ParcelTest.java", List.of("ParcelTest"), List.of())));
+        
+        assertThat(graph.getFiles("Order")).hasSize(2);
+        assertThat(graph.getTestsAffectedBy(List.of("src/main/java/com/acme/billing/Order.java")))
+            .containsExactly("src/test/java/com/acme/billing/InvoiceTest.java");
+        assertThat(graph.getTestsAffectedBy(List.of("src/main/java/com/acme/shipping/Order.java")))
+            .containsExactly("src/test/java/com/acme/shipping/ParcelTest.java");
+    }
+    
+    @Test
+    void changesReplaceOnlyTheChangedFiles() {
+        SymbolGraph graph = orders();
+        
+        // The service drops its repository and the controller is deleted
+        SymbolGraph updated = graph.withChanges("c2", List.of(SERVICE, CONTROLLER),
+            List.of(file(SERVICE, List.of("OrderService"), List.of("java.util.List"))));
+        
+        assertThat(updated.getCommitId()).isEqualTo("c2");
+        assertThat(updated.fileCount()).isEqualTo(4);
+        assertThat(updated.contains("OrderController")).isFalse();
+        assertThat(updated.getDependents("OrderRepository", true)).isEmpty();
+        assertThat(updated.getTests("OrderService", false)).containsExactly(SERVICE_TEST);
+        // The old graph is unchanged
+        assertThat(graph.getDependents("OrderRepository", true)).containsExactly("OrderController", "OrderService");
+    }
+    
+    @Test
+    void testFilesNameTheirSubjects() {
+        assertThat(SymbolGraph.testSubjects("src/test/java/UserServiceTest.java")).containsExactly("UserService");
+        assertThat(SymbolGraph.testSubjects("src/test/java/TestUserService.java")).containsExactly("UserService");
+        assertThat(SymbolGraph.testSubjects("web/UserService.test.ts")).containsExactly("UserService");
+        assertThat(SymbolGraph.testSubjects("tests/test_user_service.py")).containsExactly("UserService");
+        assertThat(SymbolGraph.testSubjects("src/Testing.java")).isEmpty();
+        assertThat(SymbolGraph.isTestPath("src/main/java/Contest.java")).isFalse();
+        assertThat(SymbolGraph.isTestPath("app/__tests__/cart.js")).isTrue();
+    }
+    
+    private static SymbolGraph orders() {
+        return SymbolGraph.build("c1", List.of(
+            file(REPOSITORY, List.of("OrderRepository"), List.of()),
+            file(SERVICE, List.of("OrderService"), List.of("com.acme.repo.OrderRepository", "java.util.List")),
+            file(CONTROLLER, List.of("OrderController"), List.of(), "OrderService"),
+            file(SERVICE_TEST, List.of("OrderServiceTest"), List.of()),
+            file(CONTROLLER_TEST, List.of("OrderControllerTest"), List.of("com.acme.web.OrderController"))));
+    }
+    
+    private static SymbolGraph.FileSymbols file(String path, List<String> classes, List<String> imports, String... dependencies) {
+        return SymbolGraph.FileSymbols.of(path, classes, imports, List.of(dependencies));
+    }
+}